@@ -0,0 +1,36 @@
+package com.iit.TicketingSystem.benchmark;
+
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point for the benchmark profile.
+ * With no arguments it runs the pool benchmarks once per thread count in the {@code jmh.threads}
+ * system property and the log, journal and log store benchmarks on the calling thread; any arguments are passed to the
+ * standard JMH command line instead.
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0) {
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+        for (String threads : System.getProperty("jmh.threads", "1,2,4,8,16,32,64").split(",")) {
+            run(TicketPoolBenchmark.class, Integer.parseInt(threads.trim()));
+        }
+        run(LogWebSocketHandlerBenchmark.class, 1);
+        run(TicketJournalBenchmark.class, 1);
+        run(LogStoreBenchmark.class, 1);
+    }
+
+    private static void run(Class<?> benchmark, int threads) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(benchmark.getSimpleName())
+                .threads(threads)
+                .build();
+        new Runner(options).run();
+    }
+}
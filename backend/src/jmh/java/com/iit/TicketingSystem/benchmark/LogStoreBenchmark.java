@@ -0,0 +1,97 @@
+package com.iit.TicketingSystem.benchmark;
+
+import com.iit.TicketingSystem.websocket.LogPage;
+import com.iit.TicketingSystem.websocket.LogRecord;
+import com.iit.TicketingSystem.websocket.LogStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Query latency of a {@link LogStore} holding three days of history: a one-minute window in the
+ * middle, the first page of a busy customer's records, and every record of a vendor that only
+ * logged on the last day. The store is reopened after loading so every segment is compressed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LogStoreBenchmark {
+    private static final long START = 1_700_000_000_000L;
+    private static final long SPAN = TimeUnit.DAYS.toMillis(3);
+
+    @Param({"3000000"})
+    public int records;
+
+    private Path directory;
+    private LogStore store;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("ticket-log-store");
+        LogStore writer = new LogStore(directory.toString(), 16L << 20, 60, 512, 0);
+        List<LogRecord> batch = new ArrayList<>(256);
+        for (int i = 0; i < records; i++) {
+            long timestamp = START + SPAN * i / records;
+            String actor = i >= records - 100 ? "Vendor 99" : "Customer " + (i % 500);
+            batch.add(new LogRecord(timestamp, actor, actor + " purchased a ticket. Remaining tickets: " + (i % 1000)));
+            if (batch.size() == 256) {
+                writer.append(batch);
+                batch.clear();
+            }
+        }
+        writer.append(batch);
+        writer.close();
+        store = new LogStore(directory.toString(), 16L << 20, 60, 512, 0);
+        store.query(0, 0, null, null, 1); //Recover and compress the last segment before measuring
+        store.close();
+        store = new LogStore(directory.toString(), 16L << 20, 60, 512, 0);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        store.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public LogPage oneMinuteWindow() throws IOException {
+        long from = START + SPAN / 2;
+        return store.query(from, from + 60_000, null, null, 1000);
+    }
+
+    @Benchmark
+    public LogPage busyActorFirstPage() throws IOException {
+        return store.query(0, Long.MAX_VALUE, "Customer 42", null, 100);
+    }
+
+    @Benchmark
+    public LogPage rareActor() throws IOException {
+        return store.query(0, Long.MAX_VALUE, "Vendor 99", null, 1000);
+    }
+}
@@ -0,0 +1,97 @@
+package com.iit.TicketingSystem.benchmark;
+
+import com.iit.TicketingSystem.websocket.LogEventKind;
+import com.iit.TicketingSystem.websocket.LogLevel;
+import com.iit.TicketingSystem.websocket.LogOverflowPolicy;
+import com.iit.TicketingSystem.websocket.LogStore;
+import com.iit.TicketingSystem.websocket.LogWebSocketHandler;
+import com.iit.TicketingSystem.websocket.SessionOverflowPolicy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Cost of publishing a pre-built message through {@link LogWebSocketHandler#addLog(String)}, compared
+ * with building the message by concatenation as the pool used to, and with publishing a structured
+ * event that the writer formats. Each runs with a real log store or none,
+ * and with the writer broadcasting every entry to a number of stub WebSocket sessions.
+ * The BLOCK policy makes publishers feel the writer's speed, so file and broadcast costs show up
+ * in the publisher throughput instead of as dropped entries.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LogWebSocketHandlerBenchmark {
+
+    @Param({"file", "noop"})
+    public String sink;
+
+    @Param({"0", "10", "100"})
+    public int sessions;
+
+    private LogWebSocketHandler handler;
+    private Path logDir;
+    private String vendor = "Vendor 1";
+    private int total = 42;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        String target = "";
+        if ("file".equals(sink)) {
+            logDir = Files.createTempDirectory("ticket-logs");
+            target = logDir.toString();
+        }
+        handler = new LogWebSocketHandler(new LogStore(target), 8192, 256, LogOverflowPolicy.BLOCK, 1024, SessionOverflowPolicy.DROP_OLDEST,
+                5_000, 8, LogLevel.DEBUG, LogLevel.OFF);
+        for (int i = 0; i < sessions; i++) {
+            handler.afterConnectionEstablished(new StubWebSocketSession("session-" + i));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        handler.close();
+        if (logDir != null) {
+            try (Stream<Path> files = Files.walk(logDir)) {
+                for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public void addLog() {
+        handler.addLog("Vendor 1 added a ticket. Total ticket count: 42");
+    }
+
+    @Benchmark
+    public void concatenatedLog() {
+        handler.addLog(vendor + " added a ticket." + " Total ticket count: " + total);
+    }
+
+    @Benchmark
+    public void structuredLog() {
+        handler.log(LogEventKind.TICKETS_ADDED, vendor, 1, total);
+    }
+}
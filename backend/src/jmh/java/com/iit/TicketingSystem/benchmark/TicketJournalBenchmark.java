@@ -0,0 +1,83 @@
+package com.iit.TicketingSystem.benchmark;
+
+import com.iit.TicketingSystem.service.TicketJournal;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Per-record cost of appending to the {@link TicketJournal}, and the time to reopen a journal
+ * holding a few million records and recover its balance.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TicketJournalBenchmark {
+    private static final long[] ONE_TICKET = new long[1];
+
+    @Param({"2000000"})
+    public int records;
+
+    private Path directory;
+    private TicketJournal journal;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("ticket-journal");
+        journal = new TicketJournal(directory, 1 << 20, 4096, 2);
+        journal.poolCreated(0);
+        for (int i = 0; i < records; i++) {
+            journal.ticketsReleased("Vendor", ONE_TICKET);
+        }
+        journal.force();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        journal.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    /**
+     * One release record appended to the journal.
+     */
+    @Benchmark
+    public void append() {
+        journal.ticketsReleased("Vendor", ONE_TICKET);
+    }
+
+    /**
+     * Opening the journal and replaying its newest segment from the last checkpoint.
+     */
+    @Benchmark
+    public long recover() {
+        TicketJournal reopened = new TicketJournal(directory, 1 << 20, 4096, 2);
+        long balance = reopened.getRecoveredBalance().orElse(-1);
+        reopened.close();
+        return balance;
+    }
+}
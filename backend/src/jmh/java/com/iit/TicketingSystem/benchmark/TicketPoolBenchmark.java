@@ -0,0 +1,88 @@
+package com.iit.TicketingSystem.benchmark;
+
+import com.iit.TicketingSystem.model.BulkMode;
+import com.iit.TicketingSystem.model.BulkTicketResult;
+import com.iit.TicketingSystem.service.TicketPool;
+import com.iit.TicketingSystem.service.TicketPoolMetrics;
+import com.iit.TicketingSystem.websocket.NoOpLogWebSocketHandler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Throughput and latency of the {@link TicketPool} hot paths with logging stubbed out.
+ * Run at several thread counts through {@link BenchmarkRunner}, against a single shard and against
+ * a sharded pool. Every benchmark thread releases and purchases under its own name, so in the sharded
+ * pool it mostly stays on its own home shard, as a box office serving one queue would.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TicketPoolBenchmark {
+    private static final int CAPACITY = 1 << 16;
+
+    private final AtomicInteger nextActor = new AtomicInteger();
+    private TicketPool ticketPool;
+
+    @Param({"1", "8"})
+    public int shards;
+
+    @Setup
+    public void setUp() {
+        ticketPool = new TicketPool(CAPACITY / 2, CAPACITY, shards, new NoOpLogWebSocketHandler(), TicketPoolMetrics.noop());
+    }
+
+    /**
+     * The name one benchmark thread releases and purchases under.
+     */
+    @State(Scope.Thread)
+    public static class Actor {
+        String name;
+
+        @Setup
+        public void setUp(TicketPoolBenchmark benchmark) {
+            name = "Box office " + benchmark.nextActor.incrementAndGet();
+        }
+    }
+
+    /**
+     * One release followed by one purchase; never blocks, so it measures the uncontended-to-contended fast path.
+     */
+    @Benchmark
+    public int addThenRemove(Actor actor) {
+        ticketPool.addTickets(1, actor.name);
+        return ticketPool.removeTickets(1, actor.name);
+    }
+
+    /**
+     * A ten-ticket all-or-nothing release followed by the matching purchase.
+     */
+    @Benchmark
+    public int bulkReleaseThenPurchase(Actor actor) {
+        ticketPool.releaseTickets(10, BulkMode.ALL_OR_NOTHING, 0, TimeUnit.MILLISECONDS, actor.name);
+        BulkTicketResult result = ticketPool.purchaseTickets(10, BulkMode.PARTIAL, 0, TimeUnit.MILLISECONDS, actor.name);
+        return result.getFulfilled();
+    }
+
+    /**
+     * Polling the ticket count, as the dashboard does.
+     */
+    @Benchmark
+    public int readCount() {
+        return ticketPool.getTicketCount();
+    }
+}
@@ -0,0 +1,67 @@
+package com.iit.TicketingSystem.loadtest;
+
+import com.iit.TicketingSystem.model.BulkMode;
+import com.iit.TicketingSystem.service.ClusterNode;
+import com.iit.TicketingSystem.service.LocalCluster;
+import com.iit.TicketingSystem.websocket.NoOpLogWebSocketHandler;
+
+/**
+ * Runs a scenario against a {@link LocalCluster}: several inventory nodes in this JVM sharing one
+ * event's tickets. Every vendor and customer sticks to one node, picked by name as a load balancer
+ * with session affinity would, and stock moves between the nodes as their demand differs.
+ */
+public class ClusterTarget implements LoadTarget {
+    private final int nodeCount;
+    private final int shardsPerNode;
+    private LocalCluster cluster;
+
+    /**
+     * Constructs a new {@link ClusterTarget}.
+     *
+     * @param nodeCount     the number of nodes
+     * @param shardsPerNode the number of pool shards on each node
+     */
+    public ClusterTarget(int nodeCount, int shardsPerNode) {
+        this.nodeCount = nodeCount;
+        this.shardsPerNode = shardsPerNode;
+    }
+
+    @Override
+    public void prepare(LoadScenario scenario) {
+        cluster = new LocalCluster(nodeCount, scenario.getInitialTickets(), scenario.getCapacity(), shardsPerNode, 32, 50,
+                new NoOpLogWebSocketHandler());
+    }
+
+    private ClusterNode nodeFor(String actor) {
+        return cluster.getNodes().get(Math.floorMod(actor.hashCode(), nodeCount));
+    }
+
+    @Override
+    public long[] release(String vendor, int count, long timeoutMillis) {
+        return nodeFor(vendor).release(vendor, count, timeoutMillis);
+    }
+
+    @Override
+    public long[] purchase(String customer, int count, boolean allOrNothing, long timeoutMillis) {
+        BulkMode mode = allOrNothing ? BulkMode.ALL_OR_NOTHING : BulkMode.PARTIAL;
+        return nodeFor(customer).purchase(customer, count, mode, timeoutMillis);
+    }
+
+    @Override
+    public int ticketCount() {
+        return cluster.getTicketCount();
+    }
+
+    @Override
+    public void verify(LoadReport report) {
+        int stranded = cluster.getCoordinator().getStrandedTickets();
+        report.check("no tickets stranded on unreachable nodes", stranded == 0, stranded + " stranded");
+    }
+
+    @Override
+    public void close() {
+        if (cluster != null) {
+            cluster.close();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.iit.TicketingSystem.loadtest;
+
+import com.iit.TicketingSystem.model.BulkMode;
+import com.iit.TicketingSystem.service.TicketJournal;
+import com.iit.TicketingSystem.service.TicketPool;
+import com.iit.TicketingSystem.service.TicketPoolListener;
+import com.iit.TicketingSystem.service.TicketPoolMetrics;
+import com.iit.TicketingSystem.websocket.NoOpLogWebSocketHandler;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Runs a scenario against a {@link TicketPool} in this JVM, with no server or database.
+ * The pool's listeners are the ones the application uses: a ledger standing in for the
+ * ticket transaction table, counting every ticket the listener is told about, and a real
+ * {@link TicketJournal} in a temporary directory. Both are checked against the harness's own
+ * count once the run is over, so lost notifications show up as failed invariants.
+ */
+public class InProcessTarget implements LoadTarget {
+    private final int shardCount;
+    private final LongAdder ledgerReleased = new LongAdder();
+    private final LongAdder ledgerPurchased = new LongAdder();
+    private TicketPool pool;
+    private TicketJournal journal;
+    private Path journalDirectory;
+
+    /**
+     * Constructs a new {@link InProcessTarget}.
+     *
+     * @param shardCount the number of pool shards
+     */
+    public InProcessTarget(int shardCount) {
+        this.shardCount = shardCount;
+    }
+
+    @Override
+    public void prepare(LoadScenario scenario) throws IOException {
+        pool = new TicketPool(scenario.getInitialTickets(), scenario.getCapacity(), shardCount, new NoOpLogWebSocketHandler(),
+                TicketPoolMetrics.noop());
+        journalDirectory = Files.createTempDirectory("loadtest-journal");
+        journal = new TicketJournal(journalDirectory, 1 << 20, 4096, 1);
+        journal.poolCreated(scenario.getInitialTickets());
+        TicketPoolListener ledger = new TicketPoolListener() {
+            @Override
+            public void ticketsReleased(String actor, long[] ticketIds) {
+                ledgerReleased.add(ticketIds.length);
+            }
+
+            @Override
+            public void ticketsPurchased(String actor, long[] ticketIds) {
+                ledgerPurchased.add(ticketIds.length);
+            }
+        };
+        pool.setListener(ledger.andThen(journal));
+    }
+
+    @Override
+    public long[] release(String vendor, int count, long timeoutMillis) {
+        return pool.releaseTickets(count, BulkMode.PARTIAL, timeoutMillis, TimeUnit.MILLISECONDS, vendor).getTicketIds();
+    }
+
+    @Override
+    public long[] purchase(String customer, int count, boolean allOrNothing, long timeoutMillis) {
+        BulkMode mode = allOrNothing ? BulkMode.ALL_OR_NOTHING : BulkMode.PARTIAL;
+        return pool.purchaseTickets(count, mode, timeoutMillis, TimeUnit.MILLISECONDS, customer).getTicketIds();
+    }
+
+    @Override
+    public int ticketCount() {
+        return pool.getTicketCount();
+    }
+
+    @Override
+    public void verify(LoadReport report) {
+        report.check("ledger recorded every release", ledgerReleased.sum() == report.getTicketsReleased(),
+                ledgerReleased.sum() + " recorded, " + report.getTicketsReleased() + " released");
+        report.check("ledger recorded every purchase", ledgerPurchased.sum() == report.getTicketsPurchased(),
+                ledgerPurchased.sum() + " recorded, " + report.getTicketsPurchased() + " purchased");
+        report.check("journal balance matches pool", journal.getBalance() == pool.getTicketCount(),
+                "journal " + journal.getBalance() + ", pool " + pool.getTicketCount());
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (journal != null) {
+            journal.close();
+        }
+        if (journalDirectory != null) {
+            try (Stream<Path> files = Files.walk(journalDirectory)) {
+                for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,285 @@
+package com.iit.TicketingSystem.loadtest;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Replays a {@link LoadSchedule} against a {@link LoadTarget} and checks the result.
+ * Every vendor and customer is a virtual thread that sleeps until each of its scheduled operations
+ * is due, so thousands of actors cost little and the offered load does not bend to the system's
+ * response times. Run through the {@code loadtest} profile:
+ * <pre>
+ * mvn -Ploadtest -DskipTests test-compile exec:exec -Dloadtest.scenario=onsale -Dloadtest.seed=7
+ * </pre>
+ * Options are {@code key=value} arguments: {@code scenario} (ramp, onsale, mixed, soak), {@code seed},
+ * {@code customers}, {@code target} ({@code in-process}, {@code cluster} or a server URL), {@code shards},
+ * {@code nodes} (for a cluster), {@code event},
+ * {@code timescale}, {@code vendors}, {@code release-rate}, {@code initial-tickets} and {@code capacity}.
+ * The exit code is {@code 0} only if every invariant held.
+ */
+public class LoadHarness {
+    private final LoadScenario scenario;
+    private final LoadSchedule schedule;
+    private final LoadTarget target;
+    private final long seed;
+
+    /**
+     * Constructs a new {@link LoadHarness}.
+     *
+     * @param scenario the scenario
+     * @param seed     the seed the schedule was generated from
+     * @param schedule the schedule to replay
+     * @param target   the prepared target
+     */
+    public LoadHarness(LoadScenario scenario, long seed, LoadSchedule schedule, LoadTarget target) {
+        this.scenario = scenario;
+        this.seed = seed;
+        this.schedule = schedule;
+        this.target = target;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator > 0 && separator < arg.length() - 1) {
+                options.put(arg.substring(0, separator), arg.substring(separator + 1));
+            }
+        }
+        long seed = Long.parseLong(options.getOrDefault("seed", "1"));
+        int customers = Integer.parseInt(options.getOrDefault("customers", "1000"));
+        LoadScenario scenario = LoadScenario.named(options.getOrDefault("scenario", "onsale"), customers).withOverrides(options);
+        LoadSchedule schedule = LoadSchedule.generate(scenario, seed);
+
+        String targetOption = options.getOrDefault("target", "in-process");
+        LoadReport report;
+        int shards = Integer.parseInt(options.getOrDefault("shards", "4"));
+        try (LoadTarget target = switch (targetOption) {
+            case "in-process" -> new InProcessTarget(shards);
+            case "cluster" -> new ClusterTarget(Integer.parseInt(options.getOrDefault("nodes", "3")), shards);
+            default -> new RestTarget(targetOption, options.getOrDefault("event", "loadtest-" + System.currentTimeMillis()));
+        }) {
+            target.prepare(scenario);
+            report = new LoadHarness(scenario, seed, schedule, target).run();
+            target.verify(report);
+        }
+        report.print(System.out);
+        System.exit(report.isPassed() ? 0 : 1);
+    }
+
+    /**
+     * Replays the schedule and checks the invariants that hold for any target:
+     * no ticket sold twice, none sold that was never released or initially in the pool,
+     * none lost, and the pool count never outside its bounds.
+     *
+     * @return the report
+     * @throws Exception if the target cannot be queried before or after the run
+     */
+    public LoadReport run() throws Exception {
+        int initialCount = target.ticketCount();
+        long[][] vendorTimes = schedule.getVendorTimes();
+        long[][] customerTimes = schedule.getCustomerTimes();
+        ActorLog[] vendorLogs = new ActorLog[vendorTimes.length];
+        ActorLog[] customerLogs = new ActorLog[customerTimes.length];
+        AtomicLong errors = new AtomicLong();
+        AtomicReference<String> firstError = new AtomicReference<>();
+
+        //Sample the count throughout the run to catch it leaving [0, capacity] even transiently
+        AtomicInteger minCount = new AtomicInteger(initialCount);
+        AtomicInteger maxCount = new AtomicInteger(initialCount);
+        Thread sampler = Thread.ofPlatform().daemon(true).name("loadtest-sampler").start(() -> {
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    int count = target.ticketCount();
+                    minCount.accumulateAndGet(count, Math::min);
+                    maxCount.accumulateAndGet(count, Math::max);
+                    TimeUnit.MILLISECONDS.sleep(10);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                firstError.compareAndSet(null, "Sampling the ticket count failed: " + e.getMessage());
+            }
+        });
+
+        long startNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(200);
+        try (ExecutorService actors = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int v = 0; v < vendorTimes.length; v++) {
+                ActorLog log = vendorLogs[v] = new ActorLog(vendorTimes[v].length);
+                String name = "Vendor " + (v + 1);
+                int[] counts = schedule.getVendorCounts()[v];
+                long[] times = vendorTimes[v];
+                actors.execute(() -> replay(name, true, times, counts, startNanos, log, errors, firstError));
+            }
+            for (int c = 0; c < customerTimes.length; c++) {
+                ActorLog log = customerLogs[c] = new ActorLog(customerTimes[c].length);
+                String name = "Customer " + (c + 1);
+                int[] counts = schedule.getCustomerCounts()[c];
+                long[] times = customerTimes[c];
+                actors.execute(() -> replay(name, false, times, counts, startNanos, log, errors, firstError));
+            }
+        }
+        double elapsedSeconds = (System.nanoTime() - startNanos) / 1e9;
+        sampler.interrupt();
+        sampler.join();
+        int finalCount = target.ticketCount();
+
+        LoadReport report = new LoadReport(scenario, seed, schedule.getFingerprint());
+        long[] releasedIds = concat(vendorLogs, true);
+        long[] purchasedIds = concat(customerLogs, true);
+        long releases = Arrays.stream(vendorLogs).mapToLong(l -> l.operations).sum();
+        long purchases = Arrays.stream(customerLogs).mapToLong(l -> l.operations).sum();
+        long unfulfilled = Arrays.stream(customerLogs).mapToLong(l -> l.unfulfilled).sum();
+        report.setTotals(elapsedSeconds, releases, purchases, unfulfilled, releasedIds.length, purchasedIds.length, errors.get());
+        report.setLatencies(concat(vendorLogs, false), concat(customerLogs, false));
+        addPhases(report, customerLogs);
+        long[] wanted = new long[customerLogs.length];
+        long[] obtained = new long[customerLogs.length];
+        for (int c = 0; c < customerLogs.length; c++) {
+            wanted[c] = Arrays.stream(schedule.getCustomerCounts()[c]).sum();
+            obtained[c] = customerLogs[c].idCount;
+        }
+        report.setFairness(wanted, obtained);
+
+        Arrays.sort(releasedIds);
+        Arrays.sort(purchasedIds);
+        report.check("no ticket released twice", duplicates(releasedIds) == 0, duplicates(releasedIds) + " duplicate ids");
+        report.check("no ticket sold twice", duplicates(purchasedIds) == 0, duplicates(purchasedIds) + " duplicate ids");
+        long unknown = Arrays.stream(purchasedIds).filter(id -> Arrays.binarySearch(releasedIds, id) < 0).count();
+        report.check("no oversell", unknown <= initialCount,
+                unknown + " sold from the " + initialCount + " initial tickets, the rest were released during the run");
+        long expected = initialCount + releasedIds.length - purchasedIds.length;
+        report.check("no lost tickets", finalCount == expected,
+                "initial " + initialCount + " + released " + releasedIds.length + " - sold " + purchasedIds.length
+                        + " = " + expected + ", pool holds " + finalCount);
+        report.check("count stayed within [0, capacity]", minCount.get() >= 0 && maxCount.get() <= scenario.getCapacity(),
+                "observed " + minCount.get() + " to " + maxCount.get());
+        report.check("no request errors", errors.get() == 0 && firstError.get() == null,
+                firstError.get() == null ? "none" : errors.get() + " errors, first: " + firstError.get());
+        return report;
+    }
+
+    /**
+     * Issues one actor's operations at their scheduled times.
+     */
+    private void replay(String name, boolean vendor, long[] times, int[] counts, long startNanos, ActorLog log,
+                        AtomicLong errors, AtomicReference<String> firstError) {
+        try {
+            for (int i = 0; i < times.length; i++) {
+                long dueNanos = startNanos + times[i];
+                long delay = dueNanos - System.nanoTime();
+                if (delay > 0) {
+                    TimeUnit.NANOSECONDS.sleep(delay);
+                }
+                long[] ids;
+                try {
+                    ids = vendor
+                            ? target.release(name, counts[i], scenario.getTimeoutMillis())
+                            : target.purchase(name, counts[i], counts[i] > 1, scenario.getTimeoutMillis());
+                } catch (InterruptedException e) {
+                    throw e;
+                } catch (Exception e) {
+                    errors.incrementAndGet();
+                    firstError.compareAndSet(null, name + ": " + e);
+                    ids = new long[0];
+                }
+                log.record(System.nanoTime() - dueNanos, ids);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Reports each phase's purchases, attributing every purchase to the phase it was scheduled in.
+     */
+    private void addPhases(LoadReport report, ActorLog[] customerLogs) {
+        List<LoadScenario.Phase> phases = scenario.getPhases();
+        long phaseStart = 0;
+        for (LoadScenario.Phase phase : phases) {
+            long phaseEnd = phaseStart + (long) (phase.seconds() * 1_000_000_000L);
+            long[] latencies = new long[16];
+            int size = 0;
+            long tickets = 0;
+            for (int c = 0; c < customerLogs.length; c++) {
+                long[] times = schedule.getCustomerTimes()[c];
+                ActorLog log = customerLogs[c];
+                for (int i = 0; i < log.operations; i++) {
+                    if (times[i] >= phaseStart && times[i] < phaseEnd) {
+                        if (size == latencies.length) {
+                            latencies = Arrays.copyOf(latencies, size * 2);
+                        }
+                        latencies[size++] = log.latencies[i];
+                        tickets += log.moved[i];
+                    }
+                }
+            }
+            report.addPhase(phase, Arrays.copyOf(latencies, size), tickets);
+            phaseStart = phaseEnd;
+        }
+    }
+
+    private static long[] concat(ActorLog[] logs, boolean ids) {
+        int total = 0;
+        for (ActorLog log : logs) {
+            total += ids ? log.idCount : log.operations;
+        }
+        long[] all = new long[total];
+        int offset = 0;
+        for (ActorLog log : logs) {
+            int length = ids ? log.idCount : log.operations;
+            System.arraycopy(ids ? log.ids : log.latencies, 0, all, offset, length);
+            offset += length;
+        }
+        return all;
+    }
+
+    private static long duplicates(long[] sorted) {
+        long duplicates = 0;
+        for (int i = 1; i < sorted.length; i++) {
+            if (sorted[i] == sorted[i - 1]) {
+                duplicates++;
+            }
+        }
+        return duplicates;
+    }
+
+    /**
+     * What one actor did, written only by its own thread and read after every actor has finished.
+     */
+    private static class ActorLog {
+        private final long[] latencies;
+        private final int[] moved;
+        private int operations;
+        private int unfulfilled;
+        private long[] ids = new long[16];
+        private int idCount;
+
+        ActorLog(int scheduled) {
+            latencies = new long[scheduled];
+            moved = new int[scheduled];
+        }
+
+        void record(long latencyNanos, long[] ticketIds) {
+            latencies[operations] = latencyNanos;
+            moved[operations] = ticketIds.length;
+            operations++;
+            if (ticketIds.length == 0) {
+                unfulfilled++;
+            }
+            if (idCount + ticketIds.length > ids.length) {
+                ids = Arrays.copyOf(ids, Math.max(ids.length * 2, idCount + ticketIds.length));
+            }
+            System.arraycopy(ticketIds, 0, ids, idCount, ticketIds.length);
+            idCount += ticketIds.length;
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.iit.TicketingSystem.loadtest;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Results of a scenario run: throughput, latency percentiles per operation and per phase,
+ * how fairly customers were served, and the invariants checked afterwards.
+ * Latencies are measured from each operation's scheduled time rather than from when it was
+ * actually issued, so an actor that falls behind its schedule is charged for the delay.
+ */
+public class LoadReport {
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private final LoadScenario scenario;
+    private final long seed;
+    private final long fingerprint;
+    private final List<String> invariants = new ArrayList<>();
+    private final List<String> phaseLines = new ArrayList<>();
+    private boolean passed = true;
+    private double elapsedSeconds;
+    private long releases;
+    private long purchases;
+    private long unfulfilledPurchases;
+    private long ticketsReleased;
+    private long ticketsPurchased;
+    private long errors;
+    private long[] releaseLatencies = new long[0];
+    private long[] purchaseLatencies = new long[0];
+    private double fairnessIndex;
+    private int starvedCustomers;
+    private int servedCustomers;
+
+    /**
+     * Constructs a new {@link LoadReport}.
+     *
+     * @param scenario    the scenario that was run
+     * @param seed        the seed its schedule was generated from
+     * @param fingerprint the schedule fingerprint
+     */
+    public LoadReport(LoadScenario scenario, long seed, long fingerprint) {
+        this.scenario = scenario;
+        this.seed = seed;
+        this.fingerprint = fingerprint;
+    }
+
+    /**
+     * Records the outcome of an invariant check.
+     *
+     * @param name   what was checked
+     * @param ok     whether it held
+     * @param detail the values compared
+     */
+    public void check(String name, boolean ok, String detail) {
+        passed &= ok;
+        invariants.add(String.format("  %-4s %-38s %s", ok ? "PASS" : "FAIL", name, detail));
+    }
+
+    void setTotals(double elapsedSeconds, long releases, long purchases, long unfulfilledPurchases, long ticketsReleased,
+                   long ticketsPurchased, long errors) {
+        this.elapsedSeconds = elapsedSeconds;
+        this.releases = releases;
+        this.purchases = purchases;
+        this.unfulfilledPurchases = unfulfilledPurchases;
+        this.ticketsReleased = ticketsReleased;
+        this.ticketsPurchased = ticketsPurchased;
+        this.errors = errors;
+    }
+
+    void setLatencies(long[] releaseLatencies, long[] purchaseLatencies) {
+        this.releaseLatencies = releaseLatencies;
+        this.purchaseLatencies = purchaseLatencies;
+        Arrays.sort(this.releaseLatencies);
+        Arrays.sort(this.purchaseLatencies);
+    }
+
+    /**
+     * Adds the purchase throughput and latency of one phase.
+     *
+     * @param phase     the phase
+     * @param latencies the latencies of the purchases scheduled during the phase
+     * @param tickets   the tickets those purchases obtained
+     */
+    void addPhase(LoadScenario.Phase phase, long[] latencies, long tickets) {
+        Arrays.sort(latencies);
+        phaseLines.add(String.format("  %-12s %8.1f s %10.1f ops/s %10.1f tickets/s   p99 %s",
+                phase.name(), phase.seconds(), latencies.length / phase.seconds(), tickets / phase.seconds(),
+                formatNanos(percentile(latencies, 99))));
+    }
+
+    /**
+     * Records how evenly customers were served, as Jain's fairness index over each customer's
+     * share of the tickets it asked for: 1 when every customer got the same share, {@code 1/n} when one got everything.
+     *
+     * @param wanted   the tickets each customer asked for
+     * @param obtained the tickets each customer obtained
+     */
+    void setFairness(long[] wanted, long[] obtained) {
+        double sum = 0;
+        double sumOfSquares = 0;
+        int customers = 0;
+        for (int i = 0; i < wanted.length; i++) {
+            if (wanted[i] == 0) {
+                continue;
+            }
+            double share = (double) obtained[i] / wanted[i];
+            sum += share;
+            sumOfSquares += share * share;
+            customers++;
+            if (obtained[i] == 0) {
+                starvedCustomers++;
+            }
+        }
+        servedCustomers = customers;
+        fairnessIndex = sumOfSquares == 0 ? 1 : sum * sum / (customers * sumOfSquares);
+    }
+
+    public boolean isPassed() {
+        return passed;
+    }
+
+    public long getTicketsReleased() {
+        return ticketsReleased;
+    }
+
+    public long getTicketsPurchased() {
+        return ticketsPurchased;
+    }
+
+    /**
+     * Prints the report.
+     *
+     * @param out the stream to print to
+     */
+    public void print(PrintStream out) {
+        out.printf("Scenario %s, seed %d, schedule %016x%n", scenario.getName(), seed, fingerprint);
+        out.printf("  %d vendors, %d customers, %.1f s scheduled, %.1f s elapsed%n",
+                scenario.getVendors(), scenario.getCustomers(), scenario.getPhases().stream()
+                        .mapToDouble(LoadScenario.Phase::seconds).sum(), elapsedSeconds);
+        out.println("Throughput");
+        out.printf("  releases   %10d ops %10.1f ops/s %10d tickets%n", releases, releases / elapsedSeconds, ticketsReleased);
+        out.printf("  purchases  %10d ops %10.1f ops/s %10d tickets, %d unfulfilled%n",
+                purchases, purchases / elapsedSeconds, ticketsPurchased, unfulfilledPurchases);
+        out.printf("  errors     %10d%n", errors);
+        out.println("Latency from scheduled start");
+        printLatencies(out, "releases", releaseLatencies);
+        printLatencies(out, "purchases", purchaseLatencies);
+        out.println("Purchases by phase");
+        phaseLines.forEach(out::println);
+        out.println("Fairness");
+        out.printf("  Jain index %.4f over %d customers, %d got nothing%n", fairnessIndex, servedCustomers, starvedCustomers);
+        out.println("Invariants");
+        invariants.forEach(out::println);
+        out.println(passed ? "PASSED" : "FAILED");
+    }
+
+    private static void printLatencies(PrintStream out, String name, long[] latencies) {
+        StringBuilder line = new StringBuilder(String.format("  %-10s", name));
+        for (double p : PERCENTILES) {
+            line.append(String.format(" p%-5s %9s", p == (int) p ? String.valueOf((int) p) : String.valueOf(p),
+                    formatNanos(percentile(latencies, p))));
+        }
+        line.append(String.format(" max %9s", formatNanos(latencies.length == 0 ? 0 : latencies[latencies.length - 1])));
+        out.println(line);
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    private static String formatNanos(long nanos) {
+        if (nanos < 1_000_000) {
+            return String.format("%.1f us", nanos / 1_000.0);
+        }
+        return String.format("%.2f ms", nanos / 1_000_000.0);
+    }
+}
@@ -0,0 +1,185 @@
+package com.iit.TicketingSystem.loadtest;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A load scenario: the shape of customer arrivals over time, the vendors feeding the pool and the
+ * mix of single and bulk purchases. Scenarios are pure data, so together with a seed they always
+ * produce the same {@link LoadSchedule}.
+ */
+public class LoadScenario {
+
+    /**
+     * A stretch of the scenario during which the customer arrival rate moves linearly from one value to another.
+     *
+     * @param name      the phase name shown in the report
+     * @param seconds   how long the phase lasts
+     * @param startRate customer arrivals per second at the start of the phase
+     * @param endRate   customer arrivals per second at the end of the phase
+     */
+    public record Phase(String name, double seconds, double startRate, double endRate) {
+    }
+
+    private final String name;
+    private final List<Phase> phases;
+    private final int vendors;
+    private final int customers;
+    private final double releaseRate;
+    private final int releaseBatch;
+    private final double bulkFraction;
+    private final int maxBulk;
+    private final int initialTickets;
+    private final int capacity;
+    private final long timeoutMillis;
+
+    /**
+     * Constructs a new {@link LoadScenario}.
+     *
+     * @param name           the scenario name
+     * @param phases         the arrival phases, run one after another
+     * @param vendors        the number of vendor actors
+     * @param customers      the number of customer actors arrivals are spread over
+     * @param releaseRate    tickets released per second by all vendors together
+     * @param releaseBatch   tickets released per vendor operation
+     * @param bulkFraction   the fraction of purchases that are all-or-nothing bulk purchases
+     * @param maxBulk        the largest bulk purchase
+     * @param initialTickets the tickets in the pool when the scenario starts
+     * @param capacity       the pool capacity
+     * @param timeoutMillis  how long an operation waits for stock or room before giving up
+     */
+    public LoadScenario(String name, List<Phase> phases, int vendors, int customers, double releaseRate, int releaseBatch,
+                        double bulkFraction, int maxBulk, int initialTickets, int capacity, long timeoutMillis) {
+        this.name = name;
+        this.phases = List.copyOf(phases);
+        this.vendors = vendors;
+        this.customers = customers;
+        this.releaseRate = releaseRate;
+        this.releaseBatch = releaseBatch;
+        this.bulkFraction = bulkFraction;
+        this.maxBulk = maxBulk;
+        this.initialTickets = initialTickets;
+        this.capacity = capacity;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * Looks up a built-in scenario.
+     * <ul>
+     *     <li>{@code ramp}: arrivals ramp from 50/s to 1,000/s, then hold</li>
+     *     <li>{@code onsale}: a steady 100/s with a 10x on-sale burst in the middle</li>
+     *     <li>{@code mixed}: a steady 500/s where 30% of purchases are bulk purchases of up to 8 tickets</li>
+     *     <li>{@code soak}: a steady 200/s for ten minutes</li>
+     * </ul>
+     *
+     * @param name      the scenario name
+     * @param customers the number of customer actors
+     * @return the scenario
+     * @throws IllegalArgumentException if there is no scenario with that name
+     */
+    public static LoadScenario named(String name, int customers) {
+        return switch (name) {
+            case "ramp" -> new LoadScenario(name, List.of(
+                    new Phase("warm-up", 10, 50, 50),
+                    new Phase("ramp", 30, 50, 1_000),
+                    new Phase("peak", 20, 1_000, 1_000)), 8, customers, 800, 1, 0, 1, 1_000, 10_000, 2_000);
+            case "onsale" -> new LoadScenario(name, List.of(
+                    new Phase("baseline", 10, 100, 100),
+                    new Phase("on-sale", 10, 1_000, 1_000),
+                    new Phase("recovery", 20, 100, 100)), 8, customers, 300, 5, 0.1, 4, 5_000, 20_000, 5_000);
+            case "mixed" -> new LoadScenario(name, List.of(
+                    new Phase("steady", 30, 500, 500)), 8, customers, 1_000, 5, 0.3, 8, 2_000, 10_000, 1_000);
+            case "soak" -> new LoadScenario(name, List.of(
+                    new Phase("soak", 600, 200, 200)), 4, customers, 220, 1, 0.05, 4, 1_000, 5_000, 2_000);
+            default -> throw new IllegalArgumentException("Unknown scenario: " + name + " (expected ramp, onsale, mixed or soak)");
+        };
+    }
+
+    /**
+     * Applies command line overrides: {@code timescale} stretches or shrinks every phase,
+     * {@code vendors}, {@code release-rate}, {@code initial-tickets} and {@code capacity} replace the scenario's values.
+     *
+     * @param options the parsed command line
+     * @return the adjusted scenario
+     */
+    public LoadScenario withOverrides(Map<String, String> options) {
+        double timescale = Double.parseDouble(options.getOrDefault("timescale", "1"));
+        List<Phase> scaled = phases.stream()
+                .map(p -> new Phase(p.name(), p.seconds() * timescale, p.startRate(), p.endRate()))
+                .toList();
+        return new LoadScenario(name, scaled,
+                Integer.parseInt(options.getOrDefault("vendors", String.valueOf(vendors))),
+                customers,
+                Double.parseDouble(options.getOrDefault("release-rate", String.valueOf(releaseRate))),
+                releaseBatch, bulkFraction, maxBulk,
+                Integer.parseInt(options.getOrDefault("initial-tickets", String.valueOf(initialTickets))),
+                Integer.parseInt(options.getOrDefault("capacity", String.valueOf(capacity))),
+                timeoutMillis);
+    }
+
+    /**
+     * Retrieves the customer arrival rate at a point in the scenario.
+     *
+     * @param seconds the time since the scenario started
+     * @return arrivals per second, or {@code 0} past the last phase
+     */
+    double arrivalRateAt(double seconds) {
+        double phaseStart = 0;
+        for (Phase phase : phases) {
+            if (seconds < phaseStart + phase.seconds()) {
+                double progress = (seconds - phaseStart) / phase.seconds();
+                return phase.startRate() + (phase.endRate() - phase.startRate()) * progress;
+            }
+            phaseStart += phase.seconds();
+        }
+        return 0;
+    }
+
+    double getDurationSeconds() {
+        return phases.stream().mapToDouble(Phase::seconds).sum();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public List<Phase> getPhases() {
+        return phases;
+    }
+
+    public int getVendors() {
+        return vendors;
+    }
+
+    public int getCustomers() {
+        return customers;
+    }
+
+    public double getReleaseRate() {
+        return releaseRate;
+    }
+
+    public int getReleaseBatch() {
+        return releaseBatch;
+    }
+
+    public double getBulkFraction() {
+        return bulkFraction;
+    }
+
+    public int getMaxBulk() {
+        return maxBulk;
+    }
+
+    public int getInitialTickets() {
+        return initialTickets;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+}
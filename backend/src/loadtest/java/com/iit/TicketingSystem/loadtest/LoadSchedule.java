@@ -0,0 +1,149 @@
+package com.iit.TicketingSystem.loadtest;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Every operation of a scenario run, generated up front from a seed. Each actor gets the times
+ * (relative to the start of the run) and ticket counts of its operations, so two runs with the same
+ * scenario and seed issue exactly the same load, whatever the system under test does in between.
+ * Customer arrivals form a Poisson process following the scenario's rate; vendors release at a
+ * fixed rate with up to 10% jitter.
+ */
+public class LoadSchedule {
+    private final long[][] vendorTimes;
+    private final int[][] vendorCounts;
+    private final long[][] customerTimes;
+    private final int[][] customerCounts;
+    private final long fingerprint;
+
+    private LoadSchedule(long[][] vendorTimes, int[][] vendorCounts, long[][] customerTimes, int[][] customerCounts) {
+        this.vendorTimes = vendorTimes;
+        this.vendorCounts = vendorCounts;
+        this.customerTimes = customerTimes;
+        this.customerCounts = customerCounts;
+        long hash = 1;
+        for (long[][] times : new long[][][]{vendorTimes, customerTimes}) {
+            for (long[] actorTimes : times) {
+                hash = 31 * hash + Arrays.hashCode(actorTimes);
+            }
+        }
+        for (int[][] counts : new int[][][]{vendorCounts, customerCounts}) {
+            for (int[] actorCounts : counts) {
+                hash = 31 * hash + Arrays.hashCode(actorCounts);
+            }
+        }
+        this.fingerprint = hash;
+    }
+
+    /**
+     * Generates the schedule of a scenario.
+     *
+     * @param scenario the scenario
+     * @param seed     the seed; the same seed always gives the same schedule
+     * @return the schedule
+     */
+    public static LoadSchedule generate(LoadScenario scenario, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        double duration = scenario.getDurationSeconds();
+
+        Builder customers = new Builder(scenario.getCustomers());
+        SplittableRandom arrivals = random.split();
+        double t = 0;
+        while (true) {
+            double rate = scenario.arrivalRateAt(t);
+            if (rate <= 0) {
+                t += 0.01; //Idle stretch; step forward until arrivals resume or the scenario ends
+            } else {
+                t += -Math.log(1 - arrivals.nextDouble()) / rate;
+            }
+            if (t >= duration) {
+                break;
+            }
+            int count = arrivals.nextDouble() < scenario.getBulkFraction() && scenario.getMaxBulk() > 1
+                    ? 2 + arrivals.nextInt(scenario.getMaxBulk() - 1)
+                    : 1;
+            customers.add(arrivals.nextInt(scenario.getCustomers()), t, count);
+        }
+
+        Builder vendors = new Builder(scenario.getVendors());
+        SplittableRandom jitter = random.split();
+        if (scenario.getReleaseRate() > 0) {
+            double interval = scenario.getVendors() * scenario.getReleaseBatch() / scenario.getReleaseRate();
+            for (int v = 0; v < scenario.getVendors(); v++) {
+                for (double at = interval * v / scenario.getVendors(); at < duration;
+                     at += interval * (0.9 + 0.2 * jitter.nextDouble())) {
+                    vendors.add(v, at, scenario.getReleaseBatch());
+                }
+            }
+        }
+        return new LoadSchedule(vendors.times(), vendors.counts(), customers.times(), customers.counts());
+    }
+
+    long[][] getVendorTimes() {
+        return vendorTimes;
+    }
+
+    int[][] getVendorCounts() {
+        return vendorCounts;
+    }
+
+    long[][] getCustomerTimes() {
+        return customerTimes;
+    }
+
+    int[][] getCustomerCounts() {
+        return customerCounts;
+    }
+
+    /**
+     * Retrieves a hash of every scheduled operation, printed in the report so runs can be checked for identical load.
+     *
+     * @return the fingerprint
+     */
+    public long getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * Collects each actor's operations in growable arrays.
+     */
+    private static class Builder {
+        private final long[][] times;
+        private final int[][] counts;
+        private final int[] sizes;
+
+        Builder(int actors) {
+            times = new long[actors][16];
+            counts = new int[actors][16];
+            sizes = new int[actors];
+        }
+
+        void add(int actor, double seconds, int count) {
+            int size = sizes[actor];
+            if (size == times[actor].length) {
+                times[actor] = Arrays.copyOf(times[actor], size * 2);
+                counts[actor] = Arrays.copyOf(counts[actor], size * 2);
+            }
+            times[actor][size] = (long) (seconds * 1_000_000_000L);
+            counts[actor][size] = count;
+            sizes[actor] = size + 1;
+        }
+
+        long[][] times() {
+            long[][] trimmed = new long[times.length][];
+            for (int i = 0; i < times.length; i++) {
+                trimmed[i] = Arrays.copyOf(times[i], sizes[i]);
+            }
+            return trimmed;
+        }
+
+        int[][] counts() {
+            int[][] trimmed = new int[counts.length][];
+            for (int i = 0; i < counts.length; i++) {
+                trimmed[i] = Arrays.copyOf(counts[i], sizes[i]);
+            }
+            return trimmed;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.iit.TicketingSystem.loadtest;
+
+/**
+ * The system a scenario is run against: a pool in this JVM, or a running server over REST.
+ */
+public interface LoadTarget extends AutoCloseable {
+
+    /**
+     * Sets up an empty event with the scenario's initial tickets and capacity.
+     *
+     * @param scenario the scenario about to run
+     * @throws Exception if the target cannot be prepared
+     */
+    void prepare(LoadScenario scenario) throws Exception;
+
+    /**
+     * Releases tickets, waiting up to the timeout for room and releasing whatever fits.
+     *
+     * @param vendor        the vendor name
+     * @param count         the number of tickets
+     * @param timeoutMillis how long to wait for room
+     * @return the ids of the released tickets
+     * @throws Exception if the request failed
+     */
+    long[] release(String vendor, int count, long timeoutMillis) throws Exception;
+
+    /**
+     * Purchases tickets, waiting up to the timeout for stock.
+     *
+     * @param customer      the customer name
+     * @param count         the number of tickets
+     * @param allOrNothing  {@code true} to purchase all tickets or none
+     * @param timeoutMillis how long to wait for stock
+     * @return the ids of the purchased tickets
+     * @throws Exception if the request failed
+     */
+    long[] purchase(String customer, int count, boolean allOrNothing, long timeoutMillis) throws Exception;
+
+    /**
+     * Retrieves the number of tickets in the pool.
+     *
+     * @return the ticket count
+     * @throws Exception if the request failed
+     */
+    int ticketCount() throws Exception;
+
+    /**
+     * Checks the target's own records against the tickets the harness saw move, once the run is over.
+     *
+     * @param report receives one invariant per check
+     * @throws Exception if the records cannot be read
+     */
+    default void verify(LoadReport report) throws Exception {
+    }
+
+    @Override
+    default void close() throws Exception {
+    }
+}
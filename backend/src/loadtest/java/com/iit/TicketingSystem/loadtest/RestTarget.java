@@ -0,0 +1,123 @@
+package com.iit.TicketingSystem.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs a scenario against a running server through its REST API. Each run uses its own event,
+ * configured with no simulated vendors or customers, so the harness's actors are the only load.
+ */
+public class RestTarget implements LoadTarget {
+    private final String baseUrl;
+    private final String eventId;
+    private final HttpClient client = HttpClient.newBuilder()
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * Constructs a new {@link RestTarget}.
+     *
+     * @param baseUrl the server URL, e.g. {@code http://localhost:8081}
+     * @param eventId the event the run uses; it should not exist yet
+     */
+    public RestTarget(String baseUrl, String eventId) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.eventId = eventId;
+    }
+
+    @Override
+    public void prepare(LoadScenario scenario) throws IOException, InterruptedException {
+        Map<String, Object> configuration = new LinkedHashMap<>();
+        configuration.put("totalTickets", scenario.getInitialTickets());
+        configuration.put("maxTicketCapacity", scenario.getCapacity());
+        configuration.put("ticketReleaseRate", 1);
+        configuration.put("customerRetrievalRate", 1);
+        configuration.put("numVendors", 0);
+        configuration.put("numCustomers", 0);
+        expectOk(post("/config", configuration));
+        expectOk(post("/start", null));
+    }
+
+    @Override
+    public long[] release(String vendor, int count, long timeoutMillis) throws IOException, InterruptedException {
+        return ticketIds(post("/tickets/release", bulkRequest(vendor, count, "PARTIAL", timeoutMillis)));
+    }
+
+    @Override
+    public long[] purchase(String customer, int count, boolean allOrNothing, long timeoutMillis)
+            throws IOException, InterruptedException {
+        String mode = allOrNothing ? "ALL_OR_NOTHING" : "PARTIAL";
+        return ticketIds(post("/tickets/purchase", bulkRequest(customer, count, mode, timeoutMillis)));
+    }
+
+    @Override
+    public int ticketCount() throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(uri("/count")).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        expectOk(response);
+        return Integer.parseInt(response.body().trim());
+    }
+
+    @Override
+    public void close() throws IOException, InterruptedException {
+        post("/stop", null);
+    }
+
+    private Map<String, Object> bulkRequest(String actor, int count, String mode, long timeoutMillis) {
+        Map<String, Object> request = new LinkedHashMap<>();
+        request.put("count", count);
+        request.put("mode", mode);
+        request.put("timeoutMillis", timeoutMillis);
+        request.put("actor", actor);
+        return request;
+    }
+
+    /**
+     * Reads the ticket ids of a bulk result. Conflicts carry an empty result, and a waiting room
+     * turning the caller away carries no result at all; both moved no tickets.
+     */
+    private long[] ticketIds(HttpResponse<String> response) throws IOException {
+        if (response.statusCode() != 200 && response.statusCode() != 409 && response.statusCode() != 503) {
+            throw new IOException("Unexpected status " + response.statusCode() + ": " + response.body());
+        }
+        JsonNode ids = objectMapper.readTree(response.body()).path("ticketIds");
+        long[] ticketIds = new long[ids.size()];
+        for (int i = 0; i < ticketIds.length; i++) {
+            ticketIds[i] = ids.get(i).asLong();
+        }
+        return ticketIds;
+    }
+
+    private HttpResponse<String> post(String path, Object body) throws IOException, InterruptedException {
+        HttpRequest.BodyPublisher publisher = body == null
+                ? HttpRequest.BodyPublishers.noBody()
+                : HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body));
+        HttpRequest request = HttpRequest.newBuilder(uri(path))
+                .header("Content-Type", "application/json")
+                .POST(publisher)
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private URI uri(String path) {
+        return URI.create(baseUrl + "/api/events/" + eventId + path);
+    }
+
+    private static void expectOk(HttpResponse<String> response) throws IOException {
+        if (response.statusCode() != 200) {
+            throw new IOException("Unexpected status " + response.statusCode() + " from " + response.uri() + ": " + response.body());
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.iit.TicketingSystem.config;
+
+import com.iit.TicketingSystem.service.TicketPersistenceService;
+import com.iit.TicketingSystem.websocket.LogWebSocketHandler;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration class for publishing log pipeline and ticket persistence metrics.
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Binds the depth of the log queue, the number of connected clients and the number of dropped log entries.
+     *
+     * @param logWebSocketHandler the log handler to observe
+     * @return the meter binder
+     */
+    @Bean
+    public MeterBinder logPipelineMetrics(LogWebSocketHandler logWebSocketHandler) {
+        return registry -> {
+            Gauge.builder("ticketing.logs.queue.depth", logWebSocketHandler, LogWebSocketHandler::getQueuedLogCount)
+                    .description("Log entries waiting to be written and broadcast")
+                    .register(registry);
+            FunctionCounter.builder("ticketing.logs.dropped", logWebSocketHandler, LogWebSocketHandler::getDroppedLogCount)
+                    .description("Log entries discarded because the log queue was full")
+                    .register(registry);
+            Gauge.builder("ticketing.logs.sessions", logWebSocketHandler, LogWebSocketHandler::getSessionCount)
+                    .description("Connected log clients")
+                    .register(registry);
+            FunctionCounter.builder("ticketing.logs.session.dropped", logWebSocketHandler, LogWebSocketHandler::getDroppedSessionLogCount)
+                    .description("Log entries discarded for clients that could not keep up")
+                    .register(registry);
+        };
+    }
+
+    /**
+     * Binds the depth of the ticket transaction queue and the number of transactions written and dropped.
+     *
+     * @param ticketPersistenceService the persistence service to observe
+     * @return the meter binder
+     */
+    @Bean
+    public MeterBinder ticketPersistenceMetrics(TicketPersistenceService ticketPersistenceService) {
+        return registry -> {
+            Gauge.builder("ticketing.persistence.queue.depth", ticketPersistenceService, TicketPersistenceService::getQueuedOperationCount)
+                    .description("Pool operations waiting to be saved")
+                    .register(registry);
+            FunctionCounter.builder("ticketing.persistence.written", ticketPersistenceService, TicketPersistenceService::getWrittenTransactionCount)
+                    .description("Ticket transactions saved to the database")
+                    .register(registry);
+            FunctionCounter.builder("ticketing.persistence.dropped", ticketPersistenceService, TicketPersistenceService::getDroppedTransactionCount)
+                    .description("Ticket transactions discarded because the persistence queue was full")
+                    .register(registry);
+        };
+    }
+}
@@ -1,24 +1,55 @@
 package com.iit.TicketingSystem.controller;
 
+import com.iit.TicketingSystem.model.BulkTicketRequest;
+import com.iit.TicketingSystem.model.BulkTicketResult;
 import com.iit.TicketingSystem.model.Configuration;
+import com.iit.TicketingSystem.model.EventStatus;
+import com.iit.TicketingSystem.model.TicketHoldRequest;
 import com.iit.TicketingSystem.service.ConfigurationService;
+import com.iit.TicketingSystem.service.ExecutionMode;
+import com.iit.TicketingSystem.service.QueuePosition;
+import com.iit.TicketingSystem.service.RateReport;
+import com.iit.TicketingSystem.service.TicketHold;
 import com.iit.TicketingSystem.service.TicketPool;
+import com.iit.TicketingSystem.service.TicketPoolRegistry;
+import com.iit.TicketingSystem.service.TicketingEvent;
+import com.iit.TicketingSystem.service.WaitingRoom;
+import com.iit.TicketingSystem.websocket.LogPage;
 import com.iit.TicketingSystem.websocket.LogWebSocketHandler;
+import com.iit.TicketingSystem.websocket.PoolStateWebSocketHandler;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Controller for managing the ticketing system.
  * Provides endpoints for system control, configuration management, and logs.
+ * Every pool endpoint is available both unscoped, acting on the default event, and under
+ * {@code /api/events/{eventId}}, acting on that event's own pool.
+ * Purchases, holds and releases are answered asynchronously: a request waiting for stock, room or
+ * admission from the waiting room is parked on the pool and holds no server thread until it completes.
  */
 @RestController
 @RequestMapping("/api")
 public class TicketController {
+    private static final long PARKED_GRACE_MILLIS = 5_000; //Lets the pool time a parked request out before the container does
 
     @Autowired
     private LogWebSocketHandler logWebSocketHandler;
@@ -26,40 +57,58 @@ public class TicketController {
     @Autowired
     private ConfigurationService configurationService;
 
-    private TicketPool ticketPool;
-    private Configuration lastSavedConfiguration;
+    @Autowired
+    private TicketPoolRegistry ticketPoolRegistry;
+
+    @Autowired
+    private PoolStateWebSocketHandler poolStateWebSocketHandler;
+
+    @Value("${ticketing.execution-mode:PLATFORM}")
+    private ExecutionMode executionMode;
 
     /**
      * Starts the ticketing system.
+     * An event with no configuration yet in this run resumes its last saved one, with the tickets left
+     * by the previous run restored from the journal or the latest snapshot.
      *
+     * @param eventId the event to start, or {@code null} for the default event
      * @return a {@link ResponseEntity} with a status message
      */
-    @PostMapping("/start")
-    public ResponseEntity<String> startTicketingSystem() {
-        // Checking whether TicketPool is initialized with a configuration before starting the system
-        if (ticketPool == null) {
-            if (lastSavedConfiguration == null) {
-                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                        .body("Cannot start the system. Provide new configurations or load a previous one first.");
-            }
+    @PostMapping({"/start", "/events/{eventId}/start"})
+    public ResponseEntity<String> startTicketingSystem(@PathVariable(required = false) String eventId) {
+        TicketingEvent event = ticketPoolRegistry.getEvent(eventId);
+        synchronized (event) {
+            Configuration lastSavedConfiguration = event.getLastSavedConfiguration();
+            TicketPool ticketPool = event.getTicketPool();
+            // Checking whether TicketPool is initialized with a configuration before starting the system
+            if (ticketPool == null) {
+                if (lastSavedConfiguration == null) {
+                    Optional<Configuration> saved = configurationService.loadLastConfiguration(event.getEventId());
+                    if (saved.isEmpty()) {
+                        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                                .body("Cannot start the system. Provide a configuration first.");
+                    }
+                    lastSavedConfiguration = saved.get();
+                    ticketPoolRegistry.restoreSnapshot(event, lastSavedConfiguration); //Resume with the tickets left before a restart
+                    event.setLastSavedConfiguration(lastSavedConfiguration);
+                }
 
-            //Initialize a new TicketPool with the saved configuration
-            ticketPool = new TicketPool(
-                    lastSavedConfiguration.getTotalTickets(),
-                    lastSavedConfiguration.getMaxTicketCapacity(),
-                    logWebSocketHandler
-            );
-        }
+                //Initialize a new TicketPool with the saved configuration
+                ticketPool = ticketPoolRegistry.createPool(event, lastSavedConfiguration);
+                event.setTicketPool(ticketPool);
+            }
 
-        //Start the system if it is not already running
-        if (!ticketPool.isRunning()) {
-            ticketPool.startTicketingSystem(
-                    lastSavedConfiguration.getNumVendors(),
-                    lastSavedConfiguration.getNumCustomers(),
-                    lastSavedConfiguration.getTicketReleaseRate(),
-                    lastSavedConfiguration.getCustomerRetrievalRate()
-            );
-            return ResponseEntity.ok("Ticketing system started successfully.");
+            //Start the system if it is not already running
+            if (!ticketPool.isRunning()) {
+                ticketPool.startTicketingSystem(
+                        lastSavedConfiguration.getNumVendors(),
+                        lastSavedConfiguration.getNumCustomers(),
+                        lastSavedConfiguration.getTicketReleaseRate(),
+                        lastSavedConfiguration.getCustomerRetrievalRate(),
+                        executionMode
+                );
+                return ResponseEntity.ok("Ticketing system started successfully.");
+            }
         }
 
         return ResponseEntity.status(HttpStatus.CONFLICT).body("Ticketing system is already running.");
@@ -68,57 +117,123 @@ public class TicketController {
     /**
      * Stops the ticketing system.
      *
+     * @param eventId the event to stop, or {@code null} for the default event
      * @return a {@link ResponseEntity} with the remaining ticket count
      */
-    @PostMapping("/stop")
-    public ResponseEntity<String> stopTicketingSystem() {
-        // Check if the ticketing system is currently running
-        if (ticketPool == null || !ticketPool.isRunning()) {
-            return ResponseEntity.status(HttpStatus.CONFLICT).body("Ticketing system is not currently running.");
+    @PostMapping({"/stop", "/events/{eventId}/stop"})
+    public ResponseEntity<String> stopTicketingSystem(@PathVariable(required = false) String eventId) {
+        Optional<TicketingEvent> found = ticketPoolRegistry.findEvent(eventId);
+        if (found.isEmpty()) {
+            return unknownEvent(eventId);
         }
+        TicketingEvent event = found.get();
+        synchronized (event) {
+            TicketPool ticketPool = event.getTicketPool();
+            // Check if the ticketing system is currently running
+            if (ticketPool == null || !ticketPool.isRunning()) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).body("Ticketing system is not currently running.");
+            }
 
-        //Stop the threads but keep the ticketPool object
-        ticketPool.stopTicketingSystem();
+            //Stop the threads but keep the ticketPool object
+            ticketPool.stopTicketingSystem();
 
-        //Update the last saved configuration
-        if (lastSavedConfiguration != null) {
-            lastSavedConfiguration.setTotalTickets(ticketPool.getTicketCount());
-        }
+            //Save the remaining tickets with the configuration for a restart
+            Configuration lastSavedConfiguration = event.getLastSavedConfiguration();
+            if (lastSavedConfiguration != null) {
+                Configuration remaining = new Configuration(lastSavedConfiguration);
+                remaining.setTotalTickets(ticketPool.getTicketCount());
+                event.setLastSavedConfiguration(configurationService.saveConfiguration(remaining));
+            }
+            ticketPoolRegistry.snapshot(event);
 
-        return ResponseEntity.ok("Ticketing system stopped. Tickets remaining: " + ticketPool.getTicketCount());
+            return ResponseEntity.ok("Ticketing system stopped. Tickets remaining: " + ticketPool.getTicketCount());
+        }
     }
 
     /**
      * Saves a new configuration for the ticketing system.
+     * If the event's pool already exists, its capacity, vendor and customer counts and rates are changed
+     * in place, without stopping it; the shard count only takes effect when a new pool is created.
+     * The stock of a running pool is not configurable: a request changing {@code totalTickets} from the
+     * saved value is rejected with 400 Bad Request, and otherwise the pool's current stock is saved in its
+     * place. To restock, stop the event and save the new total: the stopped pool, with any holds still
+     * open on it, is replaced by a new one holding {@code totalTickets}, which the next start runs.
      *
-     * @param configuration the new {@link Configuration} to save
+     * @param eventId       the event the configuration belongs to, or {@code null} for the default event
+     * @param configuration the new {@link Configuration} to save; left unchanged
      * @return a {@link ResponseEntity} with a status message
      */
-    @PostMapping("/config")
-    public ResponseEntity<String> saveConfiguration(@RequestBody Configuration configuration) {
-        // Save or update the ticketing system configuration
-        try {
-            lastSavedConfiguration = configuration; //Save the new configuration
-            configurationService.saveConfiguration(configuration); //Save to the database
-            return ResponseEntity.ok("Configuration saved successfully.");
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body("Failed to save configuration: " + e.getMessage());
+    @PostMapping({"/config", "/events/{eventId}/config"})
+    public ResponseEntity<String> saveConfiguration(@PathVariable(required = false) String eventId,
+                                                    @RequestBody Configuration configuration) {
+        TicketingEvent event = ticketPoolRegistry.getEvent(eventId);
+        synchronized (event) {
+            //Apply the configuration to a live pool first, so an invalid one is rejected before it is saved
+            Configuration toSave = new Configuration(configuration);
+            toSave.setEventId(TicketPoolRegistry.toStoredEventId(event.getEventId()));
+            TicketPool ticketPool = event.getTicketPool();
+            TicketPool restocked = null;
+            if (ticketPool != null) {
+                Configuration lastSavedConfiguration = event.getLastSavedConfiguration();
+                int savedTotal = lastSavedConfiguration != null ? lastSavedConfiguration.getTotalTickets()
+                        : ticketPool.getTicketCount();
+                if (configuration.getTotalTickets() == savedTotal) {
+                    ticketPool.reconfigure(
+                            configuration.getMaxTicketCapacity(),
+                            configuration.getNumVendors(),
+                            configuration.getNumCustomers(),
+                            configuration.getTicketReleaseRate(),
+                            configuration.getCustomerRetrievalRate()
+                    );
+                    toSave.setTotalTickets(ticketPool.getTicketCount());
+                } else if (ticketPool.isRunning()) {
+                    return ResponseEntity.badRequest().body("Total tickets cannot change while the system is running "
+                            + "(saved: " + savedTotal + "). Stop the system, then save the new total to restock.");
+                } else {
+                    restocked = ticketPoolRegistry.createPool(event, toSave); //Replaces the stopped pool once saved
+                }
+            }
+
+            // Save or update the ticketing system configuration
+            try {
+                event.setLastSavedConfiguration(configurationService.saveConfiguration(toSave)); //Save to the database
+                if (restocked != null) {
+                    event.setTicketPool(restocked);
+                }
+                ticketPoolRegistry.snapshot(event); //Supersede snapshots taken under the previous configuration
+                if (ticketPool == null) {
+                    return ResponseEntity.ok("Configuration saved successfully.");
+                }
+                return ResponseEntity.ok(restocked != null
+                        ? "Configuration saved. The stopped pool was replaced with one holding " + toSave.getTotalTickets() + " tickets."
+                        : "Configuration saved and applied to the existing pool. Total tickets saved as the pool's "
+                        + "current stock: " + toSave.getTotalTickets() + ".");
+            } catch (Exception e) {
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                        .body("Failed to save configuration: " + e.getMessage());
+            }
         }
     }
 
     /**
-     * Retrieves the last saved configuration.
+     * Retrieves the last saved configuration. Reading it changes nothing; the event resumes it when started.
+     * Served from the in-memory cache, with an ETag so an unchanged configuration is answered with 304 Not Modified.
      *
+     * @param eventId the event whose configuration to load, or {@code null} for the default event
+     * @param request the request, checked for {@code If-None-Match}
      * @return a {@link ResponseEntity} with the last configuration
      */
-    @GetMapping("/config")
-    public ResponseEntity<?> getLastConfiguration() {
-        //Retrieve the most recently saved configuration
-        Optional<Configuration> configuration = configurationService.loadLastConfiguration();
+    @GetMapping({"/config", "/events/{eventId}/config"})
+    public ResponseEntity<?> getLastConfiguration(@PathVariable(required = false) String eventId, WebRequest request) {
+        //Retrieve the most recently saved configuration; events not started since a restart are read without registering them
+        Optional<Configuration> configuration = configurationService.loadLastConfiguration(TicketPoolRegistry.checkEventId(eventId));
         if (configuration.isPresent()) {
-            lastSavedConfiguration = configuration.get();
-            return ResponseEntity.ok(configuration.get());
+            //Let polling clients revalidate with If-None-Match instead of downloading an unchanged configuration
+            String eTag = ConfigurationService.eTag(configuration.get());
+            if (request.checkNotModified(eTag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+            }
+            return ResponseEntity.ok().eTag(eTag).body(configuration.get());
         } else {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body("No previous configuration found.");
         }
@@ -137,18 +252,334 @@ public class TicketController {
         return ResponseEntity.ok("Log added and broadcasted.");
     }
 
+    /**
+     * Retrieves stored log entries from a time range, optionally only those about one actor, a page at a time.
+     * Only the segments and blocks whose index says they can match are read.
+     *
+     * @param from   the oldest entry wanted as an ISO-8601 instant, or the beginning of the history
+     * @param to     the newest entry wanted as an ISO-8601 instant, or now
+     * @param actor  the vendor or customer name wanted, or every entry
+     * @param cursor the {@code nextCursor} of the previous page, or the first page
+     * @param limit  the page size, capped at 1000
+     * @return a {@link ResponseEntity} with the page, oldest entries first
+     */
+    @GetMapping("/logs")
+    public ResponseEntity<?> getLogs(@RequestParam(required = false) Instant from,
+                                     @RequestParam(required = false) Instant to,
+                                     @RequestParam(required = false) String actor,
+                                     @RequestParam(required = false) String cursor,
+                                     @RequestParam(defaultValue = "100") int limit) {
+        long fromMillis = from == null ? 0 : from.toEpochMilli();
+        long toMillis = to == null ? Long.MAX_VALUE : to.toEpochMilli();
+        try {
+            LogPage page = logWebSocketHandler.getLogStore().query(fromMillis, toMillis, actor, cursor,
+                    Math.max(1, Math.min(limit, 1000)));
+            return ResponseEntity.ok(page);
+        } catch (IOException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Could not read logs: " + e.getMessage());
+        }
+    }
+
     /**
      * Gets the current ticket count.
+     * Read without locking the pool, with an ETag so an unchanged count is answered with 304 Not Modified.
      *
-     * @return a {@link ResponseEntity} with the ticket count
+     * @param eventId the event to query, or {@code null} for the default event
+     * @param request the request, checked for {@code If-None-Match}
+     * @return a {@link ResponseEntity} with the ticket count, or not found if the event was never configured
      */
-    @GetMapping("/count")
-    public ResponseEntity<Integer> getTicketCount() {
+    @GetMapping({"/count", "/events/{eventId}/count"})
+    public ResponseEntity<Integer> getTicketCount(@PathVariable(required = false) String eventId, WebRequest request) {
+        Optional<TicketingEvent> event = ticketPoolRegistry.findEvent(eventId);
+        if (event.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        TicketPool ticketPool = event.get().getTicketPool();
         //Return the current number of tickets available in the system
         if (ticketPool == null) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(0);
         }
-        return ResponseEntity.ok(ticketPool.getTicketCount());
+        int count = ticketPool.getTicketCount();
+        String eTag = "\"" + count + "\"";
+        if (request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+        return ResponseEntity.ok().eTag(eTag).body(count);
     }
-}
 
+    /**
+     * Compares the configured vendor and customer rates with the rates actually achieved.
+     *
+     * @param eventId the event to query, or {@code null} for the default event
+     * @return a {@link ResponseEntity} with one {@link RateReport} per actor role, or not found if the event was
+     * never configured
+     */
+    @GetMapping({"/rates", "/events/{eventId}/rates"})
+    public ResponseEntity<List<RateReport>> getRateReports(@PathVariable(required = false) String eventId) {
+        Optional<TicketingEvent> event = ticketPoolRegistry.findEvent(eventId);
+        if (event.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        TicketPool ticketPool = event.get().getTicketPool();
+        if (ticketPool == null) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(List.of());
+        }
+        return ResponseEntity.ok(ticketPool.getRateReports());
+    }
+
+    /**
+     * Purchases several tickets in one pool transaction.
+     *
+     * @param eventId the event to purchase from, or {@code null} for the default event
+     * @param request the number of tickets, bulk mode, timeout and buyer name
+     * @return a future of a {@link ResponseEntity} with the purchased ticket ids, a conflict if none could be
+     * purchased in time, or service unavailable with the queue position if the waiting room turned the buyer away
+     */
+    @PostMapping({"/tickets/purchase", "/events/{eventId}/tickets/purchase"})
+    public DeferredResult<ResponseEntity<?>> purchaseTickets(@PathVariable(required = false) String eventId,
+                                                             @RequestBody BulkTicketRequest request) {
+        return parked(request.getTimeoutMillis(), purchase(eventId, request));
+    }
+
+    private CompletableFuture<ResponseEntity<?>> purchase(String eventId, BulkTicketRequest request) {
+        Optional<TicketingEvent> found = ticketPoolRegistry.findEvent(eventId);
+        if (found.isEmpty()) {
+            return CompletableFuture.completedFuture(unknownEvent(eventId));
+        }
+        TicketingEvent event = found.get();
+        TicketPool ticketPool = event.getTicketPool();
+        if (ticketPool == null) {
+            return CompletableFuture.completedFuture(
+                    ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Ticketing system has not been initialized."));
+        }
+        long timeoutMillis = request.getTimeoutMillis();
+        CompletableFuture<Long> admitted = CompletableFuture.completedFuture(timeoutMillis);
+        WaitingRoom waitingRoom = ticketPool.getWaitingRoom();
+        if (waitingRoom != null) {
+            //Queue behind other buyers; turn the caller away if the wait would outlast their timeout
+            long startMillis = System.currentTimeMillis();
+            QueuePosition position = waitingRoom.join(TimeUnit.MILLISECONDS.toNanos(timeoutMillis));
+            if (!position.isAccepted()) {
+                return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, (position.getEstimatedWaitMillis() + 999) / 1000)))
+                        .body(position));
+            }
+            admitted = waitingRoom.admit(position)
+                    .thenApply(ignored -> Math.max(0, timeoutMillis - (System.currentTimeMillis() - startMillis)));
+        }
+        return admitted
+                .thenCompose(remainingMillis -> ticketPool.purchaseTicketsAsync(request.getCount(), request.getMode(),
+                        remainingMillis, TimeUnit.MILLISECONDS, request.getActor()))
+                .thenApply(result -> {
+                    event.getMetrics().recordApiTickets(false, result.getFulfilled());
+                    return bulkResponse(result);
+                });
+    }
+
+    /**
+     * Holds tickets for a checkout. They return to the pool unless the hold is confirmed within the hold time.
+     *
+     * @param eventId the event to hold tickets from, or {@code null} for the default event
+     * @param request the number of tickets, bulk mode, timeout, holder name and hold time
+     * @return a future of a {@link ResponseEntity} with the hold, or a conflict if no tickets could be held in time
+     */
+    @PostMapping({"/tickets/hold", "/events/{eventId}/tickets/hold"})
+    public DeferredResult<ResponseEntity<?>> holdTickets(@PathVariable(required = false) String eventId,
+                                                         @RequestBody TicketHoldRequest request) {
+        return parked(request.getTimeoutMillis(), hold(eventId, request));
+    }
+
+    private CompletableFuture<ResponseEntity<?>> hold(String eventId, TicketHoldRequest request) {
+        Optional<TicketingEvent> event = ticketPoolRegistry.findEvent(eventId);
+        if (event.isEmpty()) {
+            return CompletableFuture.completedFuture(unknownEvent(eventId));
+        }
+        TicketPool ticketPool = event.get().getTicketPool();
+        if (ticketPool == null) {
+            return CompletableFuture.completedFuture(
+                    ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Ticketing system has not been initialized."));
+        }
+        return ticketPool.holdTicketsAsync(request.getCount(), request.getMode(), request.getTimeoutMillis(),
+                        TimeUnit.MILLISECONDS, request.getActor(), request.getHoldSeconds(), TimeUnit.SECONDS)
+                .thenApply(hold -> hold.isEmpty()
+                        ? ResponseEntity.status(HttpStatus.CONFLICT).body("No tickets could be held in time.")
+                        : ResponseEntity.ok(hold.get()));
+    }
+
+    /**
+     * Confirms a hold, completing the purchase of its tickets.
+     *
+     * @param eventId the event the hold belongs to, or {@code null} for the default event
+     * @param holdId  the hold id
+     * @return a {@link ResponseEntity} with the purchased tickets, or gone if the hold expired or was already settled
+     */
+    @PostMapping({"/holds/{holdId}/confirm", "/events/{eventId}/holds/{holdId}/confirm"})
+    public ResponseEntity<?> confirmHold(@PathVariable(required = false) String eventId, @PathVariable long holdId) {
+        Optional<TicketingEvent> found = ticketPoolRegistry.findEvent(eventId);
+        if (found.isEmpty()) {
+            return unknownEvent(eventId);
+        }
+        TicketingEvent event = found.get();
+        TicketPool ticketPool = event.getTicketPool();
+        Optional<TicketHold> hold = ticketPool == null ? Optional.empty() : ticketPool.confirmHold(holdId);
+        if (hold.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.GONE).body("Hold " + holdId + " has expired or was already settled.");
+        }
+        event.getMetrics().recordApiTickets(false, hold.get().getTicketIds().length);
+        return ResponseEntity.ok(new BulkTicketResult(hold.get().getTicketIds().length, hold.get().getTicketIds()));
+    }
+
+    /**
+     * Releases a hold, returning its tickets to the pool.
+     *
+     * @param eventId the event the hold belongs to, or {@code null} for the default event
+     * @param holdId  the hold id
+     * @return a {@link ResponseEntity} with a status message, or gone if the hold expired or was already settled
+     */
+    @DeleteMapping({"/holds/{holdId}", "/events/{eventId}/holds/{holdId}"})
+    public ResponseEntity<String> releaseHold(@PathVariable(required = false) String eventId, @PathVariable long holdId) {
+        Optional<TicketingEvent> event = ticketPoolRegistry.findEvent(eventId);
+        if (event.isEmpty()) {
+            return unknownEvent(eventId);
+        }
+        TicketPool ticketPool = event.get().getTicketPool();
+        if (ticketPool == null || !ticketPool.releaseHold(holdId)) {
+            return ResponseEntity.status(HttpStatus.GONE).body("Hold " + holdId + " has expired or was already settled.");
+        }
+        return ResponseEntity.ok("Hold " + holdId + " released.");
+    }
+
+    /**
+     * Reports the queue position and estimated wait a buyer arriving now would get in the event's waiting room.
+     *
+     * @param eventId the event to query, or {@code null} for the default event
+     * @return a {@link ResponseEntity} with the estimate, or not found if the event has no waiting room
+     */
+    @GetMapping({"/queue", "/events/{eventId}/queue"})
+    public ResponseEntity<?> getQueuePosition(@PathVariable(required = false) String eventId) {
+        TicketPool ticketPool = ticketPoolRegistry.findEvent(eventId).map(TicketingEvent::getTicketPool).orElse(null);
+        WaitingRoom waitingRoom = ticketPool == null ? null : ticketPool.getWaitingRoom();
+        if (waitingRoom == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("No waiting room is open for this event.");
+        }
+        return ResponseEntity.ok(waitingRoom.estimate());
+    }
+
+    /**
+     * Releases several tickets into the pool in one pool transaction.
+     *
+     * @param eventId the event to release into, or {@code null} for the default event
+     * @param request the number of tickets, bulk mode, timeout and vendor name
+     * @return a future of a {@link ResponseEntity} with the released ticket ids, or a conflict if none could be
+     * released in time
+     */
+    @PostMapping({"/tickets/release", "/events/{eventId}/tickets/release"})
+    public DeferredResult<ResponseEntity<?>> releaseTickets(@PathVariable(required = false) String eventId,
+                                                            @RequestBody BulkTicketRequest request) {
+        return parked(request.getTimeoutMillis(), release(eventId, request));
+    }
+
+    private CompletableFuture<ResponseEntity<?>> release(String eventId, BulkTicketRequest request) {
+        Optional<TicketingEvent> found = ticketPoolRegistry.findEvent(eventId);
+        if (found.isEmpty()) {
+            return CompletableFuture.completedFuture(unknownEvent(eventId));
+        }
+        TicketingEvent event = found.get();
+        TicketPool ticketPool = event.getTicketPool();
+        if (ticketPool == null) {
+            return CompletableFuture.completedFuture(
+                    ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Ticketing system has not been initialized."));
+        }
+        return ticketPool.releaseTicketsAsync(request.getCount(), request.getMode(), request.getTimeoutMillis(),
+                        TimeUnit.MILLISECONDS, request.getActor())
+                .thenApply(result -> {
+                    event.getMetrics().recordApiTickets(true, result.getFulfilled());
+                    return bulkResponse(result);
+                });
+    }
+
+    /**
+     * Streams the state of every event's pool as server-sent events: a full frame first, then only what changed.
+     *
+     * @return the event stream
+     */
+    @GetMapping(value = "/state/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamPoolState() {
+        return poolStateWebSocketHandler.openStream();
+    }
+
+    /**
+     * Lists every event that has been configured or started since startup.
+     *
+     * @return a {@link ResponseEntity} with one {@link EventStatus} per event
+     */
+    @GetMapping("/events")
+    public ResponseEntity<List<EventStatus>> getEvents() {
+        List<EventStatus> statuses = new ArrayList<>();
+        for (TicketingEvent event : ticketPoolRegistry.getEvents()) {
+            TicketPool ticketPool = event.getTicketPool();
+            statuses.add(ticketPool == null
+                    ? new EventStatus(event.getEventId(), false, 0, 0)
+                    : new EventStatus(event.getEventId(), ticketPool.isRunning(), ticketPool.getTicketCount(), ticketPool.getShardCount()));
+        }
+        return ResponseEntity.ok(statuses);
+    }
+
+    /**
+     * Answers a request parked on a pool once its future completes. The container's async timeout is set
+     * from the request's own timeout plus a grace period, so only these requests may wait longer than the
+     * global {@code spring.mvc.async.request-timeout}, and only as long as their callers asked to.
+     *
+     * @param timeoutMillis how long the request may wait in the pool
+     * @param future        the pool's answer
+     * @return the deferred response
+     */
+    private static DeferredResult<ResponseEntity<?>> parked(long timeoutMillis, CompletableFuture<ResponseEntity<?>> future) {
+        long wait = Math.max(0, timeoutMillis);
+        long containerTimeout = wait > Long.MAX_VALUE - PARKED_GRACE_MILLIS ? Long.MAX_VALUE : wait + PARKED_GRACE_MILLIS;
+        DeferredResult<ResponseEntity<?>> result = new DeferredResult<>(containerTimeout);
+        future.whenComplete((response, error) -> {
+            if (error == null) {
+                result.setResult(response);
+            } else {
+                result.setErrorResult(error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Answers a request about an event that was never configured or started, without registering it.
+     *
+     * @param eventId the event id, or {@code null} for the default event
+     * @return a {@link ResponseEntity} with not found
+     */
+    private static ResponseEntity<String> unknownEvent(String eventId) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Event " + (eventId == null ? TicketPoolRegistry.DEFAULT_EVENT : eventId)
+                + " has not been configured.");
+    }
+
+    /**
+     * Rejects requests with invalid arguments, such as a malformed event id or a non-positive ticket count.
+     *
+     * @param e the exception
+     * @return a {@link ResponseEntity} with the error message
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleIllegalArgument(IllegalArgumentException e) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+    }
+
+    /**
+     * Maps a bulk result to a response: OK if any tickets moved, CONFLICT if the request timed out empty-handed.
+     *
+     * @param result the bulk operation result
+     * @return the response entity
+     */
+    private ResponseEntity<BulkTicketResult> bulkResponse(BulkTicketResult result) {
+        if (result.getFulfilled() == 0) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(result);
+        }
+        return ResponseEntity.ok(result);
+    }
+}
@@ -0,0 +1,11 @@
+package com.iit.TicketingSystem.model;
+
+/**
+ * How a bulk purchase or release behaves when the pool cannot satisfy the full count.
+ */
+public enum BulkMode {
+    /** Either every requested ticket is reserved in one step, or none are. */
+    ALL_OR_NOTHING,
+    /** Take whatever is possible right away, as long as it is at least one ticket. */
+    PARTIAL
+}
@@ -0,0 +1,45 @@
+package com.iit.TicketingSystem.model;
+
+/**
+ * Request body for the bulk purchase and bulk release endpoints.
+ */
+public class BulkTicketRequest {
+    private int count;
+    private BulkMode mode = BulkMode.ALL_OR_NOTHING;
+    private long timeoutMillis = 0;
+    private String actor = "API client";
+
+    //Getters and Setters related to bulk requests
+
+    public int getCount() {
+        return count;
+    }
+
+    public BulkMode getMode() {
+        return mode;
+    }
+
+    public long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+
+    public String getActor() {
+        return actor;
+    }
+
+    public void setCount(int count) {
+        this.count = count;
+    }
+
+    public void setMode(BulkMode mode) {
+        this.mode = mode;
+    }
+
+    public void setTimeoutMillis(long timeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    public void setActor(String actor) {
+        this.actor = actor;
+    }
+}
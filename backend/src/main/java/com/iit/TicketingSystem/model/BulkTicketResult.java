@@ -0,0 +1,41 @@
+package com.iit.TicketingSystem.model;
+
+/**
+ * Outcome of a bulk purchase or release: the ids of the tickets that changed hands.
+ */
+public class BulkTicketResult {
+    private final int requested;
+    private final long[] ticketIds;
+
+    /**
+     * Constructs a new {@link BulkTicketResult}.
+     *
+     * @param requested the number of tickets asked for
+     * @param ticketIds the ids of the tickets purchased or released; empty if the request timed out
+     */
+    public BulkTicketResult(int requested, long[] ticketIds) {
+        this.requested = requested;
+        this.ticketIds = ticketIds;
+    }
+
+    public int getRequested() {
+        return requested;
+    }
+
+    public int getFulfilled() {
+        return ticketIds.length;
+    }
+
+    public long[] getTicketIds() {
+        return ticketIds;
+    }
+
+    /**
+     * Checks whether every requested ticket was purchased or released.
+     *
+     * @return {@code true} if the request was fully satisfied
+     */
+    public boolean isComplete() {
+        return ticketIds.length == requested;
+    }
+}
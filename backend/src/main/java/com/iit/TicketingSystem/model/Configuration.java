@@ -16,12 +16,35 @@ public class Configuration {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    private String eventId; //Null for the default event
+
     private int totalTickets;
-    private int ticketReleaseRate;
-    private int customerRetrievalRate;
+    private double ticketReleaseRate; //Seconds between releases per vendor, fractions allowed
+    private double customerRetrievalRate; //Seconds between purchases per customer, fractions allowed
     private int maxTicketCapacity;
     private int numVendors;
     private int numCustomers;
+    private int shardCount; //Internal pool shards; 0 for one per available processor, 1 for an unsharded pool
+
+    public Configuration() {
+    }
+
+    /**
+     * Constructs a detached copy of a configuration, id included.
+     *
+     * @param other the configuration to copy
+     */
+    public Configuration(Configuration other) {
+        this.id = other.id;
+        this.eventId = other.eventId;
+        this.totalTickets = other.totalTickets;
+        this.ticketReleaseRate = other.ticketReleaseRate;
+        this.customerRetrievalRate = other.customerRetrievalRate;
+        this.maxTicketCapacity = other.maxTicketCapacity;
+        this.numVendors = other.numVendors;
+        this.numCustomers = other.numCustomers;
+        this.shardCount = other.shardCount;
+    }
 
     //Getters and Setters related to system configuration
 
@@ -29,15 +52,19 @@ public class Configuration {
         return id;
     }
 
+    public String getEventId() {
+        return eventId;
+    }
+
     public int getTotalTickets() {
         return totalTickets;
     }
 
-    public int getTicketReleaseRate() {
+    public double getTicketReleaseRate() {
         return ticketReleaseRate;
     }
 
-    public int getCustomerRetrievalRate() {
+    public double getCustomerRetrievalRate() {
         return customerRetrievalRate;
     }
 
@@ -53,19 +80,27 @@ public class Configuration {
         return numCustomers;
     }
 
+    public int getShardCount() {
+        return shardCount;
+    }
+
     public void setId(Long id) {
         this.id = id;
     }
 
+    public void setEventId(String eventId) {
+        this.eventId = eventId;
+    }
+
     public void setTotalTickets(int totalTickets) {
         this.totalTickets = totalTickets;
     }
 
-    public void setTicketReleaseRate(int ticketReleaseRate) {
+    public void setTicketReleaseRate(double ticketReleaseRate) {
         this.ticketReleaseRate = ticketReleaseRate;
     }
 
-    public void setCustomerRetrievalRate(int customerRetrievalRate) {
+    public void setCustomerRetrievalRate(double customerRetrievalRate) {
         this.customerRetrievalRate = customerRetrievalRate;
     }
 
@@ -80,4 +115,8 @@ public class Configuration {
     public void setNumCustomers(int numCustomers) {
         this.numCustomers = numCustomers;
     }
+
+    public void setShardCount(int shardCount) {
+        this.shardCount = shardCount;
+    }
 }
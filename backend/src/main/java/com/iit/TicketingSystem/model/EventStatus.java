@@ -0,0 +1,34 @@
+package com.iit.TicketingSystem.model;
+
+/**
+ * Summary of one ticketing event for the event listing endpoint.
+ */
+public class EventStatus {
+    private final String eventId;
+    private final boolean running;
+    private final int ticketCount;
+    private final int shardCount;
+
+    public EventStatus(String eventId, boolean running, int ticketCount, int shardCount) {
+        this.eventId = eventId;
+        this.running = running;
+        this.ticketCount = ticketCount;
+        this.shardCount = shardCount;
+    }
+
+    public String getEventId() {
+        return eventId;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public int getTicketCount() {
+        return ticketCount;
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+}
@@ -0,0 +1,59 @@
+package com.iit.TicketingSystem.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+
+import java.time.Instant;
+
+/**
+ * Entity class capturing the state of an event's pool at a point in time.
+ * The latest snapshot lets a restarted application resume with the tickets that were left,
+ * without replaying the transaction history.
+ */
+@Entity
+public class PoolSnapshot {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "pool_snapshot_seq")
+    @SequenceGenerator(name = "pool_snapshot_seq", sequenceName = "pool_snapshot_seq", allocationSize = 50)
+    private Long id;
+
+    private String eventId; //Null for the default event
+    private int ticketCount;
+    private int maxTicketCapacity;
+    private Instant takenAt;
+
+    protected PoolSnapshot() {
+    }
+
+    public PoolSnapshot(String eventId, int ticketCount, int maxTicketCapacity, Instant takenAt) {
+        this.eventId = eventId;
+        this.ticketCount = ticketCount;
+        this.maxTicketCapacity = maxTicketCapacity;
+        this.takenAt = takenAt;
+    }
+
+    //Getters related to the captured pool state
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getEventId() {
+        return eventId;
+    }
+
+    public int getTicketCount() {
+        return ticketCount;
+    }
+
+    public int getMaxTicketCapacity() {
+        return maxTicketCapacity;
+    }
+
+    public Instant getTakenAt() {
+        return takenAt;
+    }
+}
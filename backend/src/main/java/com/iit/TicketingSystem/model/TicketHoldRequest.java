@@ -0,0 +1,16 @@
+package com.iit.TicketingSystem.model;
+
+/**
+ * Request body for the ticket hold endpoint: a bulk purchase request plus how long to hold the tickets.
+ */
+public class TicketHoldRequest extends BulkTicketRequest {
+    private long holdSeconds = 300;
+
+    public long getHoldSeconds() {
+        return holdSeconds;
+    }
+
+    public void setHoldSeconds(long holdSeconds) {
+        this.holdSeconds = holdSeconds;
+    }
+}
@@ -0,0 +1,73 @@
+package com.iit.TicketingSystem.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+
+import java.time.Instant;
+
+/**
+ * Entity class recording one ticket being released into or purchased from a pool.
+ * Ids come from a pooled sequence so Hibernate can assign a whole batch of ids with a single
+ * round-trip and group the inserts into JDBC batches, which {@code IDENTITY} ids rule out.
+ */
+@Entity
+@Table(indexes = @Index(columnList = "eventId, ticketId"))
+public class TicketTransaction {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ticket_transaction_seq")
+    @SequenceGenerator(name = "ticket_transaction_seq", sequenceName = "ticket_transaction_seq", allocationSize = 500)
+    private Long id;
+
+    private String eventId; //Null for the default event
+    private long ticketId;
+
+    @Enumerated(EnumType.STRING)
+    private TicketTransactionType type;
+
+    private String actor;
+    private Instant occurredAt;
+
+    protected TicketTransaction() {
+    }
+
+    public TicketTransaction(String eventId, long ticketId, TicketTransactionType type, String actor, Instant occurredAt) {
+        this.eventId = eventId;
+        this.ticketId = ticketId;
+        this.type = type;
+        this.actor = actor;
+        this.occurredAt = occurredAt;
+    }
+
+    //Getters related to the recorded transaction
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getEventId() {
+        return eventId;
+    }
+
+    public long getTicketId() {
+        return ticketId;
+    }
+
+    public TicketTransactionType getType() {
+        return type;
+    }
+
+    public String getActor() {
+        return actor;
+    }
+
+    public Instant getOccurredAt() {
+        return occurredAt;
+    }
+}
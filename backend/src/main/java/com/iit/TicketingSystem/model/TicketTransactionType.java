@@ -0,0 +1,15 @@
+package com.iit.TicketingSystem.model;
+
+/**
+ * The kind of movement recorded by a {@link TicketTransaction}.
+ */
+public enum TicketTransactionType {
+    /** A vendor released the ticket into the pool. */
+    RELEASE,
+    /** A customer purchased the ticket from the pool. */
+    PURCHASE,
+    /** The ticket was handed to another partition's pool. */
+    TRANSFER_OUT,
+    /** The ticket was received from another partition's pool. */
+    TRANSFER_IN
+}
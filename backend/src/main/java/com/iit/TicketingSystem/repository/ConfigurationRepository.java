@@ -7,4 +7,7 @@ import java.util.Optional;
 
 public interface ConfigurationRepository extends JpaRepository<Configuration, Long> {
     Optional<Configuration> findTopByOrderByIdDesc();
+
+    //A null event id matches the default event's rows (event_id IS NULL)
+    Optional<Configuration> findTopByEventIdOrderByIdDesc(String eventId);
 }
@@ -0,0 +1,11 @@
+package com.iit.TicketingSystem.repository;
+
+import com.iit.TicketingSystem.model.PoolSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Optional;
+
+public interface PoolSnapshotRepository extends JpaRepository<PoolSnapshot, Long> {
+    //A null event id matches the default event's rows (event_id IS NULL)
+    Optional<PoolSnapshot> findTopByEventIdOrderByIdDesc(String eventId);
+}
@@ -0,0 +1,9 @@
+package com.iit.TicketingSystem.repository;
+
+import com.iit.TicketingSystem.model.TicketTransaction;
+import com.iit.TicketingSystem.model.TicketTransactionType;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface TicketTransactionRepository extends JpaRepository<TicketTransaction, Long> {
+    long countByEventIdAndType(String eventId, TicketTransactionType type);
+}
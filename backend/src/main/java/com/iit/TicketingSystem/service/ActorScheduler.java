@@ -0,0 +1,152 @@
+package com.iit.TicketingSystem.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Drives any number of {@link TicketActor}s from a small, fixed set of scheduler threads.
+ * Actors are split into partitions, one per thread, and each partition is ticked at a fixed
+ * rate. On every tick each actor refills its token bucket and spends it on non-blocking pool
+ * operations, so fractional and very high rates are issued precisely without a thread per actor.
+ * Actors can be registered and unregistered while the scheduler is running.
+ * Time is read from a clock that tests can replace, together with the threads, to drive the actors tick by tick.
+ */
+public class ActorScheduler {
+    private final long tickNanos;
+    private final LongSupplier clock;
+    private final List<List<TicketActor>> partitions = new ArrayList<>();
+    private final ScheduledExecutorService executor;
+    private int nextPartition = 0;
+    private boolean started = false;
+
+    /**
+     * Constructs a new {@link ActorScheduler}.
+     *
+     * @param threads    the number of scheduler threads
+     * @param tickMicros the interval between ticks (in microseconds)
+     */
+    public ActorScheduler(int threads, long tickMicros) {
+        this(threads, tickMicros, System::nanoTime);
+    }
+
+    /**
+     * Constructs a new {@link ActorScheduler} reading time from the given clock. With no threads, all
+     * actors share one partition that is only ticked by {@link #tickAll()}.
+     *
+     * @param threads    the number of scheduler threads, {@code 0} to tick manually
+     * @param tickMicros the interval between ticks (in microseconds)
+     * @param clock      the time source, in nanoseconds
+     */
+    ActorScheduler(int threads, long tickMicros, LongSupplier clock) {
+        this.tickNanos = TimeUnit.MICROSECONDS.toNanos(tickMicros);
+        this.clock = clock;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = threads == 0 ? null : Executors.newScheduledThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "actor-scheduler-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < Math.max(1, threads); i++) {
+            partitions.add(new CopyOnWriteArrayList<>());
+        }
+    }
+
+    /**
+     * Creates a scheduler with one thread per available processor, up to four, ticking every millisecond.
+     *
+     * @return a new scheduler
+     */
+    public static ActorScheduler withDefaults() {
+        return new ActorScheduler(Math.min(4, Runtime.getRuntime().availableProcessors()), 1000);
+    }
+
+    /**
+     * Assigns an actor to the next partition in round-robin order. An actor registered after
+     * {@link #start()} begins with a full token bucket on the partition's next tick.
+     *
+     * @param actor the actor to drive
+     */
+    public synchronized void register(TicketActor actor) {
+        if (started) {
+            actor.resetBucket(clock.getAsLong());
+        }
+        partitions.get(nextPartition).add(actor);
+        nextPartition = (nextPartition + 1) % partitions.size();
+    }
+
+    /**
+     * Stops driving an actor. A tick already under way may still run it once.
+     *
+     * @param actor the actor to remove
+     */
+    public synchronized void unregister(TicketActor actor) {
+        for (List<TicketActor> partition : partitions) {
+            partition.remove(actor);
+        }
+    }
+
+    /**
+     * Starts ticking every partition.
+     */
+    public synchronized void start() {
+        started = true;
+        long now = clock.getAsLong();
+        for (List<TicketActor> partition : partitions) {
+            for (TicketActor actor : partition) {
+                actor.resetBucket(now);
+            }
+            if (executor != null) {
+                executor.scheduleAtFixedRate(() -> tick(partition), tickNanos, tickNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    /**
+     * Runs one tick for every partition on the calling thread, for a scheduler without threads.
+     */
+    void tickAll() {
+        for (List<TicketActor> partition : partitions) {
+            tick(partition);
+        }
+    }
+
+    /**
+     * Reads the scheduler's clock.
+     *
+     * @return the current time in nanoseconds
+     */
+    long nanoTime() {
+        return clock.getAsLong();
+    }
+
+    /**
+     * Runs one tick for a partition. Exceptions are caught so a failing actor cannot cancel the schedule.
+     *
+     * @param partition the actors owned by the ticking thread
+     */
+    private void tick(List<TicketActor> partition) {
+        long now = clock.getAsLong();
+        for (TicketActor actor : partition) {
+            try {
+                actor.onTick(now, tickNanos);
+            } catch (RuntimeException e) {
+                System.err.println("Error running " + actor.getName() + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Stops all scheduler threads.
+     */
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.iit.TicketingSystem.service;
+
+import com.iit.TicketingSystem.model.BulkMode;
+import com.iit.TicketingSystem.model.BulkTicketResult;
+import com.iit.TicketingSystem.websocket.LogWebSocketHandler;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * One node of a partitioned inventory: a {@link TicketPool} holding the node's share of the stock and
+ * capacity, which serves its customers and vendors without talking to any other node. Only when its
+ * own stock cannot cover a purchase does the node ask the {@link InventoryCoordinator} for more, so
+ * nodes scale independently and the coordinator stays off the hot path.
+ */
+public class ClusterNode {
+    private final String nodeId;
+    private final TicketPool pool;
+    private final LongAdder sold = new LongAdder();
+    private volatile StockSource stockSource = (nodeId, count) -> 0;
+
+    /**
+     * Asks the rest of the cluster for stock on behalf of a node.
+     */
+    @FunctionalInterface
+    public interface StockSource {
+
+        /**
+         * Moves up to the given number of tickets into the node.
+         *
+         * @param nodeId the node that needs tickets
+         * @param count  the number of tickets wanted
+         * @return the number of tickets moved into the node
+         */
+        int requestStock(String nodeId, int count);
+    }
+
+    /**
+     * Constructs a new {@link ClusterNode}.
+     *
+     * @param nodeId              the node id
+     * @param partition           the node's partition, which decides the ids its pool issues
+     * @param partitionCount      the number of nodes in the cluster
+     * @param initialTickets      the node's share of the initial tickets
+     * @param capacity            the node's share of the capacity
+     * @param shardCount          the number of shards in the node's pool
+     * @param logWebSocketHandler the WebSocket handler the node's pool logs to
+     * @param metrics             the instrumentation for the node's pool
+     */
+    public ClusterNode(String nodeId, int partition, int partitionCount, int initialTickets, int capacity, int shardCount,
+                       LogWebSocketHandler logWebSocketHandler, TicketPoolMetrics metrics) {
+        this.nodeId = nodeId;
+        this.pool = new TicketPool(initialTickets, capacity, shardCount, false, partition, partitionCount,
+                logWebSocketHandler, metrics);
+    }
+
+    void setStockSource(StockSource stockSource) {
+        this.stockSource = stockSource;
+    }
+
+    /**
+     * Purchases tickets from this node, asking the cluster for stock once if the node is short.
+     * Then waits up to the timeout for tickets released or moved here.
+     *
+     * @param customer      the customer name
+     * @param count         the number of tickets
+     * @param mode          whether to purchase all tickets or none, or as many as are available
+     * @param timeoutMillis how long to wait for stock
+     * @return the ids of the purchased tickets
+     */
+    public long[] purchase(String customer, int count, BulkMode mode, long timeoutMillis) {
+        BulkTicketResult result = pool.purchaseTickets(count, mode, 0, TimeUnit.MILLISECONDS, customer);
+        int missing = count - result.getFulfilled();
+        if (missing > 0) {
+            long[] local = result.getTicketIds();
+            //All-or-nothing purchases took nothing, so the whole count is fetched and retried
+            if (stockSource.requestStock(nodeId, missing) > 0 || timeoutMillis > 0) {
+                BulkTicketResult rest = pool.purchaseTickets(missing, mode, timeoutMillis, TimeUnit.MILLISECONDS, customer);
+                result = merge(count, local, rest.getTicketIds());
+            }
+        }
+        sold.add(result.getFulfilled());
+        return result.getTicketIds();
+    }
+
+    private static BulkTicketResult merge(int requested, long[] first, long[] second) {
+        long[] ids = new long[first.length + second.length];
+        System.arraycopy(first, 0, ids, 0, first.length);
+        System.arraycopy(second, 0, ids, first.length, second.length);
+        return new BulkTicketResult(requested, ids);
+    }
+
+    /**
+     * Releases tickets into this node, waiting up to the timeout for room and releasing whatever fits.
+     *
+     * @param vendor        the vendor name
+     * @param count         the number of tickets
+     * @param timeoutMillis how long to wait for room
+     * @return the ids of the released tickets
+     */
+    public long[] release(String vendor, int count, long timeoutMillis) {
+        return pool.releaseTickets(count, BulkMode.PARTIAL, timeoutMillis, TimeUnit.MILLISECONDS, vendor).getTicketIds();
+    }
+
+    /**
+     * Gives up unsold tickets and the capacity they occupy, for the coordinator to move to another node.
+     *
+     * @param count     the maximum number of tickets to give up
+     * @param recipient the node or reserve the tickets are for
+     * @return the ids of the tickets given up
+     */
+    long[] surrender(int count, String recipient) {
+        return pool.surrenderTickets(count, recipient);
+    }
+
+    /**
+     * Takes in tickets given up by another node, together with the capacity they occupied.
+     *
+     * @param ticketIds the ids of the tickets
+     * @param donor     the node or reserve the tickets came from
+     */
+    void accept(long[] ticketIds, String donor) {
+        pool.acceptTickets(ticketIds, donor);
+    }
+
+    /**
+     * Reports the node's stock, capacity and sales.
+     *
+     * @return the node's status
+     */
+    NodeStatus status() {
+        return new NodeStatus(pool.getTicketCount(), pool.getMaxCapacity(), sold.sum());
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public TicketPool getPool() {
+        return pool;
+    }
+
+    /**
+     * A node's stock, capacity and the tickets it has sold since it started.
+     *
+     * @param available the unsold tickets in the node
+     * @param capacity  the node's share of the capacity
+     * @param sold      the tickets sold by the node
+     */
+    public record NodeStatus(int available, int capacity, long sold) {
+    }
+}
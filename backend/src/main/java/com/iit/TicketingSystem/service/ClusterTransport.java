@@ -0,0 +1,50 @@
+package com.iit.TicketingSystem.service;
+
+/**
+ * How the {@link InventoryCoordinator} reaches the nodes of a partitioned inventory.
+ * {@link LocalCluster} calls nodes in this JVM; a networked cluster would send the same three requests
+ * over the wire. Every method throws {@link NodeUnreachableException} if the node cannot be reached.
+ * A transport that cannot tell whether a request arrived must resolve the doubt towards losing tickets,
+ * never towards counting them twice: a surrender that may have taken tickets is reported as taking
+ * none, and a delivery that may have arrived is reported as delivered. The inventory then undersells
+ * rather than oversells.
+ */
+public interface ClusterTransport {
+
+    /**
+     * Asks a node to give up unsold tickets and the capacity they occupy.
+     *
+     * @param nodeId    the node
+     * @param count     the maximum number of tickets to give up
+     * @param recipient the node or reserve the tickets are for
+     * @return the ids of the tickets given up
+     */
+    long[] surrender(String nodeId, int count, String recipient);
+
+    /**
+     * Hands tickets and the capacity they occupied to a node.
+     *
+     * @param nodeId    the node
+     * @param ticketIds the ids of the tickets
+     * @param donor     the node or reserve the tickets came from
+     */
+    void deliver(String nodeId, long[] ticketIds, String donor);
+
+    /**
+     * Asks a node for its stock, capacity and sales.
+     *
+     * @param nodeId the node
+     * @return the node's status
+     */
+    ClusterNode.NodeStatus status(String nodeId);
+
+    /**
+     * Thrown when a node does not answer.
+     */
+    class NodeUnreachableException extends RuntimeException {
+
+        public NodeUnreachableException(String nodeId) {
+            super("Node " + nodeId + " is unreachable.");
+        }
+    }
+}
@@ -5,21 +5,39 @@ import com.iit.TicketingSystem.repository.ConfigurationRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Service for saving and loading configurations.
+ * The last configuration of every event is cached in memory after the first load and replaced on
+ * every save, so repeated reads never reach the database. Events without a configuration are not
+ * cached, so looking up arbitrary event ids cannot grow the cache. The cache holds its own copy and every
+ * read returns a fresh one, so callers can never change the cached values, or their ETag, without
+ * saving them.
+ */
 @Service
 public class ConfigurationService {
 
     private final ConfigurationRepository configurationRepository;
+    private final Map<String, Configuration> lastConfigurations = new ConcurrentHashMap<>();
 
     @Autowired
     public ConfigurationService(ConfigurationRepository configurationRepository) {
         this.configurationRepository = configurationRepository;
     }
 
-    public Configuration saveConfiguration(Configuration configuration) {
+    /**
+     * Saves a configuration as its event's last one, updating the event's existing record if there is one.
+     *
+     * @param configuration the configuration to save; left unchanged
+     * @return a copy of the saved configuration
+     */
+    public synchronized Configuration saveConfiguration(Configuration configuration) {
         //Check if an existing configuration is present and update it; otherwise, create a new record
-        Optional<Configuration> existingConfig = configurationRepository.findTopByOrderByIdDesc();
+        Optional<Configuration> existingConfig = configurationRepository.findTopByEventIdOrderByIdDesc(configuration.getEventId());
 
         if (existingConfig.isPresent()) {
             Configuration configToUpdate = existingConfig.get();
@@ -30,16 +48,58 @@ public class ConfigurationService {
             configToUpdate.setMaxTicketCapacity(configuration.getMaxTicketCapacity());
             configToUpdate.setNumVendors(configuration.getNumVendors());
             configToUpdate.setNumCustomers(configuration.getNumCustomers());
+            configToUpdate.setShardCount(configuration.getShardCount());
 
-            return configurationRepository.save(configToUpdate);
+            return cache(configurationRepository.save(configToUpdate));
         } else {
             // Save the configuration as a new record since no existing record was found
-            return configurationRepository.save(configuration);
+            Configuration newConfig = new Configuration(configuration);
+            newConfig.setId(null);
+            return cache(configurationRepository.save(newConfig));
         }
     }
 
-    //finding and retrieve the last saved configuration from the database
+    private Configuration cache(Configuration saved) {
+        Configuration copy = new Configuration(saved);
+        lastConfigurations.put(cacheKey(copy.getEventId()), copy);
+        return new Configuration(copy);
+    }
+
+    private static String cacheKey(String eventId) {
+        String storedEventId = TicketPoolRegistry.toStoredEventId(eventId);
+        return storedEventId == null ? TicketPoolRegistry.DEFAULT_EVENT : storedEventId;
+    }
+
+    //finding and retrieve the last saved configuration of the default event from the database
     public Optional<Configuration> loadLastConfiguration() {
-        return configurationRepository.findTopByOrderByIdDesc();
+        return loadLastConfiguration(TicketPoolRegistry.DEFAULT_EVENT);
+    }
+
+    //finding and retrieve the last saved configuration of an event, from the cache or else the database
+    public Optional<Configuration> loadLastConfiguration(String eventId) {
+        String key = cacheKey(eventId);
+        Configuration cached = lastConfigurations.get(key);
+        if (cached == null) {
+            Optional<Configuration> stored = configurationRepository.findTopByEventIdOrderByIdDesc(TicketPoolRegistry.toStoredEventId(key));
+            if (stored.isEmpty()) {
+                return Optional.empty();
+            }
+            cached = lastConfigurations.computeIfAbsent(key, ignored -> new Configuration(stored.get()));
+        }
+        return Optional.of(new Configuration(cached));
+    }
+
+    /**
+     * Computes an entity tag for a configuration from its current values, for conditional GETs.
+     *
+     * @param configuration the configuration
+     * @return the quoted entity tag
+     */
+    public static String eTag(Configuration configuration) {
+        int hash = Objects.hash(configuration.getId(), configuration.getEventId(), configuration.getTotalTickets(),
+                configuration.getTicketReleaseRate(), configuration.getCustomerRetrievalRate(),
+                configuration.getMaxTicketCapacity(), configuration.getNumVendors(), configuration.getNumCustomers(),
+                configuration.getShardCount());
+        return "\"" + Integer.toHexString(hash) + "\"";
     }
 }
@@ -1,34 +1,61 @@
 package com.iit.TicketingSystem.service;
 
+import java.util.concurrent.TimeUnit;
+
 /**
  * Represents a customer that retrieves tickets from the {@link TicketPool}.
- * Operates in a separate thread, continuously removing tickets at a specified interval.
+ * Operates in a separate thread, continuously removing tickets at a specified interval,
+ * or is driven by an {@link ActorScheduler}. If the pool has a {@link WaitingRoom} the customer
+ * queues there before each purchase, and backs off and retries when turned away.
  */
-public class Customer implements Runnable {
-    private final TicketPool ticketPool;
-    private final int customerRetrievalRate;
+public class Customer extends TicketActor {
 
     /**
      * Constructs a new {@link Customer}.
      *
-     * @param ticketPool           the ticket pool to retrieve tickets from
-     * @param customerRetrievalRate the time interval (in milliseconds) between ticket retrievals
+     * @param ticketPool            the ticket pool to retrieve tickets from
+     * @param customerRetrievalRate the time interval (in seconds, fractions allowed) between ticket retrievals
+     * @param name                  the customer name used in log messages
      */
-    public Customer(TicketPool ticketPool, int customerRetrievalRate) {
-        this.ticketPool = ticketPool;
-        this.customerRetrievalRate = customerRetrievalRate;
+    public Customer(TicketPool ticketPool, double customerRetrievalRate, String name) {
+        super(ticketPool, customerRetrievalRate, name, ticketPool.getMetrics().customerCounter(name));
+    }
+
+    @Override
+    protected int operate() {
+        WaitingRoom waitingRoom = ticketPool.getWaitingRoom();
+        if (waitingRoom != null && !enter(waitingRoom)) {
+            return 0;
+        }
+        return ticketPool.removeTickets(1, getName());
     }
 
-    //Customer thread behaviour
     @Override
-    public void run() {
+    protected int tryOperate() {
+        WaitingRoom waitingRoom = ticketPool.getWaitingRoom();
+        //Only spend an admission slot when there is stock, so polling an empty pool never delays real buyers
+        if (waitingRoom != null && (ticketPool.getTicketCount() == 0 || !waitingRoom.tryEnter())) {
+            return 0;
+        }
+        return ticketPool.tryRemoveTickets(1, getName());
+    }
+
+    /**
+     * Queues in the waiting room until admitted, sleeping for the suggested time whenever turned away.
+     *
+     * @param waitingRoom the waiting room in front of the pool
+     * @return {@code true} once admitted, {@code false} if the thread was interrupted
+     */
+    private boolean enter(WaitingRoom waitingRoom) {
+        QueuePosition position;
         try {
-            while (!Thread.currentThread().isInterrupted()) {
-                ticketPool.removeTickets(1, Thread.currentThread().getName());
-                Thread.sleep(customerRetrievalRate*1000);
+            while (!(position = waitingRoom.join(Long.MAX_VALUE)).isAccepted()) {
+                TimeUnit.MILLISECONDS.sleep(Math.max(1, position.getEstimatedWaitMillis()));
             }
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
+            return false;
         }
+        return waitingRoom.await(position);
     }
 }
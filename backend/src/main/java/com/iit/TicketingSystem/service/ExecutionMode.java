@@ -0,0 +1,13 @@
+package com.iit.TicketingSystem.service;
+
+/**
+ * Thread model used to run {@link Vendor} and {@link Customer} simulations.
+ */
+public enum ExecutionMode {
+    /** One platform thread per vendor and customer. */
+    PLATFORM,
+    /** One virtual thread per vendor and customer, allowing very large actor counts. */
+    VIRTUAL,
+    /** Vendors and customers are driven by token buckets on a small {@link ActorScheduler} thread pool. */
+    SCHEDULED
+}
@@ -0,0 +1,274 @@
+package com.iit.TicketingSystem.service;
+
+import com.iit.TicketingSystem.websocket.LogWebSocketHandler;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Moves unsold stock between the nodes of a partitioned inventory as demand shifts.
+ * Every ticket is in exactly one place at a time: a node's pool, or the coordinator's reserve while it
+ * is being moved. A move first has the donor give the tickets up, with the capacity they occupy, and
+ * only then hands the same ids to the recipient; if the recipient cannot be reached the tickets go to
+ * the reserve instead. No ticket is ever sold by two nodes, whatever fails.
+ * Stock follows demand in two ways: a node that runs dry pulls a batch from the reserve or from the
+ * best-stocked node, and a periodic rebalance redistributes the unsold stock in proportion to each
+ * node's recent sales. A node that stops answering keeps its tickets, which are stranded rather than
+ * reassigned, until it answers again; the other nodes carry on selling everything else.
+ */
+public class InventoryCoordinator {
+    public static final String RESERVE = "reserve";
+    private static final double SMOOTHING = 0.5; //Weight of the latest sales rate in each node's demand
+    private static final double BASELINE_DEMAND = 1.0; //Tickets per second, so idle nodes keep a little stock
+
+    private final ClusterTransport transport;
+    private final LogWebSocketHandler logWebSocketHandler;
+    private final int transferBatch;
+    private final Map<String, NodeState> nodes = new LinkedHashMap<>();
+    private long[] reserve = new long[64];
+    private int reserveSize = 0;
+    private long lastRebalanceNanos;
+    private boolean rebalanced = false;
+
+    /**
+     * The coordinator's latest view of one node.
+     */
+    private static final class NodeState {
+        private final String nodeId;
+        private boolean up = true;
+        private int available;
+        private long lastSold = -1;
+        private double demand;
+
+        private NodeState(String nodeId) {
+            this.nodeId = nodeId;
+        }
+    }
+
+    /**
+     * Constructs a new {@link InventoryCoordinator}.
+     *
+     * @param transport           how the nodes are reached
+     * @param nodeIds             the nodes sharing the inventory
+     * @param transferBatch       the fewest tickets moved at a time, so nodes do not pull stock one ticket per purchase
+     * @param logWebSocketHandler the handler moves and node failures are logged to
+     */
+    public InventoryCoordinator(ClusterTransport transport, Collection<String> nodeIds, int transferBatch,
+                                LogWebSocketHandler logWebSocketHandler) {
+        this.transport = transport;
+        this.transferBatch = Math.max(1, transferBatch);
+        this.logWebSocketHandler = logWebSocketHandler;
+        for (String nodeId : nodeIds) {
+            nodes.put(nodeId, new NodeState(nodeId));
+        }
+    }
+
+    /**
+     * Moves stock into a node that cannot cover a purchase, first from the reserve, then from the
+     * best-stocked other nodes, taking at most half of each one's stock so it can still serve its
+     * own customers. At least a transfer batch is moved if that much is available.
+     *
+     * @param nodeId the node that needs tickets
+     * @param count  the number of tickets it is short
+     * @return the number of tickets moved into the node
+     */
+    public synchronized int requestStock(String nodeId, int count) {
+        NodeState requester = nodes.get(nodeId);
+        if (requester == null || !requester.up) {
+            return 0;
+        }
+        int wanted = Math.max(count, transferBatch);
+        int moved = 0;
+        if (reserveSize > 0) {
+            int delivered = deliver(requester, takeReserve(Math.min(wanted, reserveSize)), RESERVE);
+            if (delivered < 0) {
+                return 0;
+            }
+            moved += delivered;
+        }
+        while (moved < count) {
+            NodeState donor = nodes.values().stream()
+                    .filter(state -> state.up && state != requester && state.available > 0)
+                    .max(Comparator.comparingInt(state -> state.available))
+                    .orElse(null);
+            if (donor == null) {
+                break;
+            }
+            long[] ticketIds = surrender(donor, Math.min(wanted - moved, (donor.available + 1) / 2), nodeId);
+            donor.available = ticketIds.length == 0 ? 0 : donor.available - ticketIds.length; //Refreshed on the next rebalance
+            int delivered = deliver(requester, ticketIds, donor.nodeId);
+            if (delivered < 0) {
+                break;
+            }
+            moved += delivered;
+        }
+        return moved;
+    }
+
+    /**
+     * Polls every node and redistributes the unsold stock in proportion to each reachable node's
+     * recent sales. Nodes holding more than their share by at least a transfer batch give the surplus
+     * to the reserve, which is then handed to the nodes furthest below their share.
+     *
+     * @param nowNanos the current {@link System#nanoTime()}
+     */
+    public synchronized void rebalance(long nowNanos) {
+        double elapsedSeconds = rebalanced ? (nowNanos - lastRebalanceNanos) / 1_000_000_000.0 : 0;
+        lastRebalanceNanos = nowNanos;
+        rebalanced = true;
+        List<NodeState> reachable = new ArrayList<>();
+        long unsold = reserveSize;
+        for (NodeState state : nodes.values()) {
+            ClusterNode.NodeStatus status;
+            try {
+                status = transport.status(state.nodeId);
+            } catch (ClusterTransport.NodeUnreachableException e) {
+                markDown(state);
+                continue;
+            }
+            if (!state.up) {
+                state.up = true;
+                logWebSocketHandler.addLog("Node " + state.nodeId + " is back with " + status.available() + " tickets.");
+            }
+            if (state.lastSold >= 0 && elapsedSeconds > 0) {
+                double rate = (status.sold() - state.lastSold) / elapsedSeconds;
+                state.demand = SMOOTHING * rate + (1 - SMOOTHING) * state.demand;
+            }
+            state.lastSold = status.sold();
+            state.available = status.available();
+            unsold += state.available;
+            reachable.add(state);
+        }
+        if (reachable.isEmpty()) {
+            return;
+        }
+
+        double totalWeight = 0;
+        for (NodeState state : reachable) {
+            totalWeight += state.demand + BASELINE_DEMAND;
+        }
+        Map<NodeState, Integer> targets = new LinkedHashMap<>();
+        for (NodeState state : reachable) {
+            targets.put(state, (int) (unsold * (state.demand + BASELINE_DEMAND) / totalWeight));
+        }
+
+        int gathered = 0;
+        for (NodeState state : reachable) {
+            int surplus = state.available - targets.get(state);
+            if (surplus >= transferBatch) {
+                long[] ticketIds = surrender(state, surplus, RESERVE);
+                state.available -= ticketIds.length;
+                putReserve(ticketIds);
+                gathered += ticketIds.length;
+            }
+        }
+        int handedOut = 0;
+        reachable.sort(Comparator.comparingInt((NodeState state) -> state.available - targets.get(state)));
+        for (NodeState state : reachable) {
+            int deficit = targets.get(state) - state.available;
+            if (deficit <= 0 || reserveSize == 0) {
+                break;
+            }
+            handedOut += Math.max(0, deliver(state, takeReserve(Math.min(deficit, reserveSize)), RESERVE));
+        }
+        if (gathered > 0 || handedOut > 0) {
+            logWebSocketHandler.addLog("Rebalanced stock across " + reachable.size() + " nodes: " + gathered
+                    + " tickets gathered, " + handedOut + " handed out. Reserve: " + reserveSize);
+        }
+    }
+
+    /**
+     * Asks a node to give up tickets, marking it down if it does not answer.
+     *
+     * @return the ids given up, none if the node is unreachable
+     */
+    private long[] surrender(NodeState donor, int count, String recipient) {
+        try {
+            return transport.surrender(donor.nodeId, count, recipient);
+        } catch (ClusterTransport.NodeUnreachableException e) {
+            markDown(donor);
+            return new long[0];
+        }
+    }
+
+    /**
+     * Hands tickets to a node, or back to the reserve if it does not answer.
+     *
+     * @return the number of tickets delivered, or {@code -1} if the node is unreachable
+     */
+    private int deliver(NodeState recipient, long[] ticketIds, String donor) {
+        if (ticketIds.length == 0) {
+            return 0;
+        }
+        try {
+            transport.deliver(recipient.nodeId, ticketIds, donor);
+        } catch (ClusterTransport.NodeUnreachableException e) {
+            putReserve(ticketIds);
+            markDown(recipient);
+            return -1;
+        }
+        recipient.available += ticketIds.length;
+        return ticketIds.length;
+    }
+
+    private void markDown(NodeState state) {
+        if (state.up) {
+            state.up = false;
+            logWebSocketHandler.addLog("Node " + state.nodeId + " is unreachable. Its " + state.available
+                    + " tickets are stranded until it returns.");
+        }
+    }
+
+    private void putReserve(long[] ticketIds) {
+        if (reserveSize + ticketIds.length > reserve.length) {
+            reserve = Arrays.copyOf(reserve, Math.max(reserve.length * 2, reserveSize + ticketIds.length));
+        }
+        System.arraycopy(ticketIds, 0, reserve, reserveSize, ticketIds.length);
+        reserveSize += ticketIds.length;
+    }
+
+    private long[] takeReserve(int count) {
+        reserveSize -= count;
+        return Arrays.copyOfRange(reserve, reserveSize, reserveSize + count);
+    }
+
+    /**
+     * Retrieves the number of tickets in the reserve, between nodes.
+     *
+     * @return the reserve size
+     */
+    public synchronized int getReserveSize() {
+        return reserveSize;
+    }
+
+    /**
+     * Retrieves the tickets last known to be held by nodes that do not answer.
+     *
+     * @return the stranded ticket count
+     */
+    public synchronized int getStrandedTickets() {
+        int stranded = 0;
+        for (NodeState state : nodes.values()) {
+            if (!state.up) {
+                stranded += state.available;
+            }
+        }
+        return stranded;
+    }
+
+    /**
+     * Checks whether a node answered the coordinator's latest request.
+     *
+     * @param nodeId the node
+     * @return {@code true} if the node is considered up
+     */
+    public synchronized boolean isUp(String nodeId) {
+        NodeState state = nodes.get(nodeId);
+        return state != null && state.up;
+    }
+}
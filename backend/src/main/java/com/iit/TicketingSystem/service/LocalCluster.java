@@ -0,0 +1,152 @@
+package com.iit.TicketingSystem.service;
+
+import com.iit.TicketingSystem.websocket.LogWebSocketHandler;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A partitioned inventory whose nodes all run in this JVM, standing in for a cluster in tests and load tests.
+ * The initial tickets and the capacity are split evenly between the nodes, each of which has its own
+ * {@link TicketPool}, and an {@link InventoryCoordinator} reaches them through this class as its
+ * transport. Nodes can be disconnected and reconnected to rehearse node loss: a disconnected node keeps
+ * selling its own stock to its own customers but can neither give nor receive tickets, as if the
+ * network between it and the coordinator were cut.
+ */
+public class LocalCluster implements ClusterTransport, AutoCloseable {
+    private final List<ClusterNode> nodes = new ArrayList<>();
+    private final Map<String, ClusterNode> nodesById = new LinkedHashMap<>();
+    private final Set<String> disconnected = ConcurrentHashMap.newKeySet();
+    private final InventoryCoordinator coordinator;
+    private final ScheduledExecutorService rebalancer;
+
+    /**
+     * Constructs a new {@link LocalCluster}.
+     *
+     * @param nodeCount           the number of nodes
+     * @param initialTickets      the tickets the inventory starts with
+     * @param capacity            the most tickets the inventory may hold
+     * @param shardsPerNode       the number of shards in each node's pool
+     * @param transferBatch       the fewest tickets moved between nodes at a time
+     * @param rebalanceMillis     how often stock is redistributed; {@code 0} to only move it when a node runs dry
+     * @param logWebSocketHandler the handler the nodes and the coordinator log to
+     * @throws IllegalArgumentException if there are no nodes or more tickets than capacity
+     */
+    public LocalCluster(int nodeCount, int initialTickets, int capacity, int shardsPerNode, int transferBatch,
+                        long rebalanceMillis, LogWebSocketHandler logWebSocketHandler) {
+        if (nodeCount < 1 || initialTickets > capacity) {
+            throw new IllegalArgumentException("Need at least one node and no more tickets than capacity.");
+        }
+        for (int i = 0; i < nodeCount; i++) {
+            ClusterNode node = new ClusterNode("node-" + (i + 1), i, nodeCount, share(initialTickets, i, nodeCount),
+                    share(capacity, i, nodeCount), shardsPerNode, logWebSocketHandler, TicketPoolMetrics.noop());
+            nodes.add(node);
+            nodesById.put(node.getNodeId(), node);
+        }
+        this.coordinator = new InventoryCoordinator(this, nodesById.keySet(), transferBatch, logWebSocketHandler);
+        for (ClusterNode node : nodes) {
+            node.setStockSource((nodeId, count) -> disconnected.contains(nodeId) ? 0 : coordinator.requestStock(nodeId, count));
+        }
+        coordinator.rebalance(System.nanoTime()); //Learn every node's stock before the first request
+        if (rebalanceMillis > 0) {
+            rebalancer = Executors.newSingleThreadScheduledExecutor(
+                    Thread.ofPlatform().name("inventory-rebalancer").daemon(true).factory());
+            rebalancer.scheduleWithFixedDelay(() -> coordinator.rebalance(System.nanoTime()), rebalanceMillis,
+                    rebalanceMillis, TimeUnit.MILLISECONDS);
+        } else {
+            rebalancer = null;
+        }
+    }
+
+    private static int share(int total, int index, int count) {
+        return total / count + (index < total % count ? 1 : 0);
+    }
+
+    private ClusterNode reach(String nodeId) {
+        ClusterNode node = nodesById.get(nodeId);
+        if (node == null || disconnected.contains(nodeId)) {
+            throw new NodeUnreachableException(nodeId);
+        }
+        return node;
+    }
+
+    @Override
+    public long[] surrender(String nodeId, int count, String recipient) {
+        return reach(nodeId).surrender(count, recipient);
+    }
+
+    @Override
+    public void deliver(String nodeId, long[] ticketIds, String donor) {
+        reach(nodeId).accept(ticketIds, donor);
+    }
+
+    @Override
+    public ClusterNode.NodeStatus status(String nodeId) {
+        return reach(nodeId).status();
+    }
+
+    /**
+     * Cuts a node off from the coordinator.
+     *
+     * @param nodeId the node
+     */
+    public void disconnect(String nodeId) {
+        disconnected.add(nodeId);
+    }
+
+    /**
+     * Restores a node's connection; the coordinator notices on its next rebalance.
+     *
+     * @param nodeId the node
+     */
+    public void reconnect(String nodeId) {
+        disconnected.remove(nodeId);
+    }
+
+    /**
+     * Retrieves the nodes, in partition order.
+     *
+     * @return the nodes
+     */
+    public List<ClusterNode> getNodes() {
+        return Collections.unmodifiableList(nodes);
+    }
+
+    public InventoryCoordinator getCoordinator() {
+        return coordinator;
+    }
+
+    /**
+     * Retrieves the unsold tickets in the whole inventory: every node's, disconnected or not, and the reserve's.
+     * Counted while no move is under way, so no ticket is seen twice or missed in transit.
+     *
+     * @return the ticket count
+     */
+    public int getTicketCount() {
+        synchronized (coordinator) {
+            int total = coordinator.getReserveSize();
+            for (ClusterNode node : nodes) {
+                total += node.getPool().getTicketCount();
+            }
+            return total;
+        }
+    }
+
+    /**
+     * Stops rebalancing.
+     */
+    @Override
+    public void close() {
+        if (rebalancer != null) {
+            rebalancer.shutdownNow();
+        }
+    }
+}
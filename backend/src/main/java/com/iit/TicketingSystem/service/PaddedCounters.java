@@ -0,0 +1,56 @@
+package com.iit.TicketingSystem.service;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A small set of atomic counters, each on its own pair of cache lines.
+ * Counters that sit next to each other in memory share a cache line, so a thread updating one
+ * would invalidate the line under threads reading or updating the other ("false sharing"). Here
+ * every counter is separated from its neighbours, and from whatever the array sits next to on the
+ * heap, by 128 bytes of padding, which also defeats the adjacent-line prefetcher.
+ */
+class PaddedCounters {
+    private static final int STRIDE = 16; //128 bytes of longs
+
+    private final AtomicLongArray values;
+
+    /**
+     * Constructs a new {@link PaddedCounters}, all starting at zero.
+     *
+     * @param count the number of counters
+     */
+    PaddedCounters(int count) {
+        this.values = new AtomicLongArray((count + 2) * STRIDE); //A full stride before the first counter and after the last
+    }
+
+    static int slot(int counter) {
+        return (counter + 1) * STRIDE;
+    }
+
+    /**
+     * @return the number of longs backing the counters, padding included
+     */
+    int length() {
+        return values.length();
+    }
+
+    long get(int counter) {
+        return values.get(slot(counter));
+    }
+
+    void set(int counter, long value) {
+        values.set(slot(counter), value);
+    }
+
+    boolean compareAndSet(int counter, long expected, long value) {
+        return values.compareAndSet(slot(counter), expected, value);
+    }
+
+    long addAndGet(int counter, long delta) {
+        return values.addAndGet(slot(counter), delta);
+    }
+
+    long getAndIncrement(int counter) {
+        return values.getAndIncrement(slot(counter));
+    }
+}
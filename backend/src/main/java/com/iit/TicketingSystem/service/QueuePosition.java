@@ -0,0 +1,43 @@
+package com.iit.TicketingSystem.service;
+
+/**
+ * A customer's place in a {@link WaitingRoom}: where they stand in the queue, how long they are
+ * expected to wait before being admitted to the pool, and whether they were let in at all.
+ */
+public class QueuePosition {
+    private final boolean accepted;
+    private final int position;
+    private final long estimatedWaitMillis;
+    private final long admitAtNanos;
+
+    /**
+     * Constructs a new {@link QueuePosition}.
+     *
+     * @param accepted            {@code false} if the customer was turned away because the queue was full
+     * @param position            the place in the queue, counting from 1; {@code 0} if turned away
+     * @param estimatedWaitMillis the expected wait before admission, or before retrying if turned away
+     * @param admitAtNanos        the {@link System#nanoTime()} at which the customer is admitted
+     */
+    QueuePosition(boolean accepted, int position, long estimatedWaitMillis, long admitAtNanos) {
+        this.accepted = accepted;
+        this.position = position;
+        this.estimatedWaitMillis = estimatedWaitMillis;
+        this.admitAtNanos = admitAtNanos;
+    }
+
+    public boolean isAccepted() {
+        return accepted;
+    }
+
+    public int getPosition() {
+        return position;
+    }
+
+    public long getEstimatedWaitMillis() {
+        return estimatedWaitMillis;
+    }
+
+    long getAdmitAtNanos() {
+        return admitAtNanos;
+    }
+}
@@ -0,0 +1,73 @@
+package com.iit.TicketingSystem.service;
+
+import java.util.List;
+
+/**
+ * Snapshot comparing the target and achieved operation rates for one group of actors.
+ */
+public class RateReport {
+    private final String role;
+    private final int actors;
+    private final double targetRate;
+    private final double actualRate;
+
+    /**
+     * Constructs a new {@link RateReport}.
+     *
+     * @param role       the actor role, e.g. {@code "vendors"}
+     * @param actors     the number of actors in the group
+     * @param targetRate the combined target rate (in operations per second)
+     * @param actualRate the combined achieved rate (in operations per second)
+     */
+    public RateReport(String role, int actors, double targetRate, double actualRate) {
+        this.role = role;
+        this.actors = actors;
+        this.targetRate = targetRate;
+        this.actualRate = actualRate;
+    }
+
+    /**
+     * Builds a report for a group of actors. Each actor's achieved rate is measured since it started
+     * or its interval last changed, so actors added, retired or retuned while the pool runs neither
+     * dilute nor inflate the group's rate.
+     *
+     * @param role     the actor role
+     * @param group    the actors in the group
+     * @param nowNanos the current time on the pool's clock
+     * @return the report
+     */
+    static RateReport of(String role, List<? extends TicketActor> group, long nowNanos) {
+        double target = 0;
+        double actual = 0;
+        for (TicketActor actor : group) {
+            target += actor.getTargetRate();
+            actual += actor.getActualRate(nowNanos);
+        }
+        return new RateReport(role, group.size(), target, actual);
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    public int getActors() {
+        return actors;
+    }
+
+    public double getTargetRate() {
+        return targetRate;
+    }
+
+    public double getActualRate() {
+        return actualRate;
+    }
+
+    /**
+     * Retrieves how far the achieved rate is from the target rate.
+     *
+     * @return the drift as a percentage of the target; negative when running slow
+     */
+    public double getDriftPercent() {
+        return targetRate > 0 ? (actualRate - targetRate) / targetRate * 100.0 : 0;
+    }
+}
@@ -0,0 +1,179 @@
+package com.iit.TicketingSystem.service;
+
+import io.micrometer.core.instrument.Counter;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Base class for the simulated actors that operate on a {@link TicketPool}.
+ * An actor either runs on its own thread, sleeping between operations, or is driven by an
+ * {@link ActorScheduler} that issues operations from a token bucket refilled at the actor's rate.
+ */
+public abstract class TicketActor implements Runnable {
+    private static final double MIN_INTERVAL_SECONDS = 0.000001;
+
+    protected final TicketPool ticketPool;
+    private final String name;
+    private volatile double intervalSeconds;
+    private final AtomicLong completedOperations = new AtomicLong();
+    private final Counter ticketCounter;
+
+    // Token bucket state, confined to the scheduler thread that owns this actor
+    private double tokens;
+    private long lastRefillNanos;
+
+    // Rate measurement, restarted when the actor starts and whenever its interval changes
+    private volatile long measuredSinceNanos;
+    private volatile long operationsBeforeMeasurement;
+
+    /**
+     * Constructs a new {@link TicketActor}.
+     *
+     * @param ticketPool      the ticket pool the actor operates on
+     * @param intervalSeconds the time interval (in seconds, fractions allowed) between operations
+     * @param name            the name used in log messages
+     * @param ticketCounter   counts the tickets this actor moves
+     */
+    protected TicketActor(TicketPool ticketPool, double intervalSeconds, String name, Counter ticketCounter) {
+        this.ticketPool = ticketPool;
+        this.intervalSeconds = Math.max(intervalSeconds, MIN_INTERVAL_SECONDS);
+        this.name = name;
+        this.ticketCounter = ticketCounter;
+    }
+
+    /**
+     * Performs one blocking operation on the pool.
+     *
+     * @return the number of tickets moved, {@code 0} if the thread was interrupted while waiting
+     */
+    protected abstract int operate();
+
+    /**
+     * Attempts one operation on the pool without blocking.
+     *
+     * @return the number of tickets moved, {@code 0} if the pool was full or empty
+     */
+    protected abstract int tryOperate();
+
+    //Thread behaviour: operate, then sleep for the configured interval
+    @Override
+    public void run() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                int moved = operate();
+                if (moved == 0) {
+                    break;
+                }
+                completedOperations.incrementAndGet();
+                ticketCounter.increment(moved);
+                TimeUnit.NANOSECONDS.sleep((long) (intervalSeconds * 1_000_000_000L));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Resets the token bucket before the actor is handed to a scheduler.
+     *
+     * @param nowNanos the current {@link System#nanoTime()}
+     */
+    void resetBucket(long nowNanos) {
+        tokens = 1.0;
+        lastRefillNanos = nowNanos;
+    }
+
+    /**
+     * Refills the token bucket for the time elapsed since the previous tick and spends
+     * whole tokens on non-blocking operations. Tokens are kept while the pool is full or
+     * empty, but the bucket never holds more than one tick's worth plus one, so a blocked
+     * actor does not burst when it is released.
+     *
+     * @param nowNanos  the current {@link System#nanoTime()}
+     * @param tickNanos the scheduler tick length
+     */
+    void onTick(long nowNanos, long tickNanos) {
+        double perNano = 1.0 / (intervalSeconds * 1_000_000_000L);
+        tokens = Math.min(tokens + (nowNanos - lastRefillNanos) * perNano, tickNanos * perNano + 1.0);
+        lastRefillNanos = nowNanos;
+        int moved;
+        while (tokens >= 1.0 && (moved = tryOperate()) > 0) {
+            tokens -= 1.0;
+            completedOperations.incrementAndGet();
+            ticketCounter.increment(moved);
+        }
+    }
+
+    /**
+     * Retrieves the actor's name.
+     *
+     * @return the name used in log messages
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Retrieves the time interval between operations.
+     *
+     * @return the interval in seconds
+     */
+    public double getIntervalSeconds() {
+        return intervalSeconds;
+    }
+
+    /**
+     * Changes the time interval between operations. A threaded actor picks it up after its current sleep.
+     * If the interval changed, the achieved rate is measured afresh from now on.
+     *
+     * @param intervalSeconds the new interval (in seconds, fractions allowed)
+     * @param nowNanos        the current time on the pool's clock
+     */
+    void setIntervalSeconds(double intervalSeconds, long nowNanos) {
+        double interval = Math.max(intervalSeconds, MIN_INTERVAL_SECONDS);
+        if (interval != this.intervalSeconds) {
+            this.intervalSeconds = interval;
+            startMeasuring(nowNanos);
+        }
+    }
+
+    /**
+     * Starts measuring the achieved rate from now on, forgetting the operations completed so far.
+     *
+     * @param nowNanos the current time on the pool's clock
+     */
+    void startMeasuring(long nowNanos) {
+        operationsBeforeMeasurement = completedOperations.get();
+        measuredSinceNanos = nowNanos;
+    }
+
+    /**
+     * Retrieves the achieved operation rate since the actor started or its interval last changed.
+     *
+     * @param nowNanos the current time on the pool's clock
+     * @return the achieved rate in operations per second
+     */
+    public double getActualRate(long nowNanos) {
+        double elapsedSeconds = (nowNanos - measuredSinceNanos) / 1_000_000_000.0;
+        return elapsedSeconds > 0 ? (completedOperations.get() - operationsBeforeMeasurement) / elapsedSeconds : 0;
+    }
+
+    /**
+     * Retrieves the target operation rate.
+     *
+     * @return the target rate in operations per second
+     */
+    public double getTargetRate() {
+        return 1.0 / intervalSeconds;
+    }
+
+    /**
+     * Retrieves the number of operations completed since the actor started.
+     *
+     * @return the completed operation count
+     */
+    public long getCompletedOperations() {
+        return completedOperations.get();
+    }
+}
@@ -0,0 +1,77 @@
+package com.iit.TicketingSystem.service;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Tickets reserved for a customer during checkout. The tickets are out of the pool while held,
+ * but their capacity stays reserved so they can always go back. A hold is settled exactly once:
+ * confirming it completes the purchase, while releasing it or letting it expire returns the tickets.
+ */
+public class TicketHold extends TimingWheel.Timeout {
+    private final long id;
+    private final String holder;
+    private final long[] ticketIds;
+    private final long expiresAtMillis;
+    private final int[] shardCounts;
+    private final TicketPool pool;
+    private final AtomicBoolean settled = new AtomicBoolean();
+
+    /**
+     * Constructs a new {@link TicketHold}.
+     *
+     * @param id          the hold id, unique within the pool
+     * @param holder      the name of the customer holding the tickets
+     * @param ticketIds   the held ticket ids, grouped by shard in shard order
+     * @param shardCounts the number of held tickets taken from each shard
+     * @param holdNanos   how long the tickets are held
+     * @param pool        the pool the tickets return to
+     */
+    TicketHold(long id, String holder, long[] ticketIds, int[] shardCounts, long holdNanos, TicketPool pool) {
+        super(System.nanoTime() + holdNanos);
+        this.id = id;
+        this.holder = holder;
+        this.ticketIds = ticketIds;
+        this.shardCounts = shardCounts;
+        this.expiresAtMillis = System.currentTimeMillis() + holdNanos / 1_000_000;
+        this.pool = pool;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getHolder() {
+        return holder;
+    }
+
+    public long[] getTicketIds() {
+        return ticketIds;
+    }
+
+    public long getExpiresAtMillis() {
+        return expiresAtMillis;
+    }
+
+    int[] getShardCounts() {
+        return shardCounts;
+    }
+
+    /**
+     * Marks the hold settled.
+     *
+     * @return {@code true} if this call settled it, {@code false} if it was already confirmed, released or expired
+     */
+    boolean settle() {
+        return settled.compareAndSet(false, true);
+    }
+
+    @Override
+    boolean isSettled() {
+        return settled.get();
+    }
+
+    @Override
+    void expire() {
+        pool.expireHold(this);
+    }
+}
@@ -0,0 +1,439 @@
+package com.iit.TicketingSystem.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Binary, append-only journal of one event's pool mutations, kept in memory-mapped segment files.
+ * Every record is {@value #RECORD_SIZE} bytes, so appending is a handful of stores into the mapped
+ * segment and finding the end of a segment after a crash is a binary search. The journal keeps a
+ * running balance of the tickets in the pool and writes it as a checkpoint record every
+ * {@code checkpointInterval} records and at the start of every segment, so recovery only replays
+ * the records after the last checkpoint of the newest segment.
+ * <p>
+ * Records are appended by the pool listener after each operation completes, so the tickets moved by
+ * operations still in flight when the JVM dies are lost; the recovered count is clamped by the caller.
+ */
+public class TicketJournal implements TicketPoolListener {
+
+    /**
+     * The kind of a journal record. Checkpoint kinds carry the balance, the others carry a ticket delta.
+     */
+    public enum RecordType {
+        /** A pool was created with the given number of tickets; resets the balance. */
+        CREATE,
+        /** The vendors and customers were started; carries the balance. */
+        START,
+        /** The vendors and customers were stopped; carries the balance. */
+        STOP,
+        /** Periodic checkpoint; carries the balance. */
+        CHECKPOINT,
+        /** Tickets were released into the pool. */
+        RELEASE,
+        /** Tickets were purchased from the pool. */
+        PURCHASE,
+        /** Tickets were handed to another partition's pool. */
+        TRANSFER_OUT,
+        /** Tickets were received from another partition's pool. */
+        TRANSFER_IN;
+
+        boolean isCheckpoint() {
+            return this == CREATE || this == START || this == STOP || this == CHECKPOINT;
+        }
+
+        /**
+         * @return {@code 1} if the record's tickets entered the pool, {@code -1} if they left it
+         */
+        int sign() {
+            return this == RELEASE || this == TRANSFER_IN ? 1 : -1;
+        }
+    }
+
+    static final int RECORD_SIZE = 32;
+    private static final String SEGMENT_SUFFIX = ".journal";
+    private static final RecordType[] TYPES = RecordType.values();
+
+    //Record layout: sequence, timestamp, type, value, checksum
+    private static final int SEQUENCE_OFFSET = 0;
+    private static final int TIMESTAMP_OFFSET = 8;
+    private static final int TYPE_OFFSET = 16;
+    private static final int VALUE_OFFSET = 20;
+    private static final int CHECKSUM_OFFSET = 24;
+
+    private final Path directory;
+    private final int segmentRecords;
+    private final int checkpointInterval;
+    private final int retainedSegments;
+    private final ReentrantLock lock = new ReentrantLock();
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+    private int position; //Next free record slot in the current segment
+    private long nextSequence;
+    private long balance;
+    private int sinceCheckpoint;
+    private final Integer recoveredBalance;
+
+    /**
+     * Opens the journal in a directory, creating it if needed, and recovers the balance recorded by a previous run.
+     *
+     * @param directory          the directory holding the event's segment files
+     * @param segmentRecords     the number of records per segment file
+     * @param checkpointInterval the number of records between checkpoints
+     * @param retainedSegments   the number of full segments kept behind the current one
+     * @throws UncheckedIOException if the directory or a segment cannot be opened
+     */
+    public TicketJournal(Path directory, int segmentRecords, int checkpointInterval, int retainedSegments) {
+        this.directory = directory;
+        this.segmentRecords = segmentRecords;
+        this.checkpointInterval = checkpointInterval;
+        this.retainedSegments = retainedSegments;
+        try {
+            Files.createDirectories(directory);
+            List<Path> segments = listSegments();
+            if (segments.isEmpty()) {
+                recoveredBalance = null;
+                nextSequence = 1;
+                openSegment(nextSequence);
+            } else {
+                mapSegment(segments.get(segments.size() - 1));
+                recoveredBalance = recover(segments);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open ticket journal in " + directory, e);
+        }
+    }
+
+    /**
+     * Retrieves the ticket balance recovered when the journal was opened.
+     *
+     * @return the balance after the last intact record written by a previous run, or empty if the journal was new
+     * or no segment holds an intact checkpoint
+     */
+    public OptionalInt getRecoveredBalance() {
+        return recoveredBalance == null ? OptionalInt.empty() : OptionalInt.of(recoveredBalance);
+    }
+
+    /**
+     * Retrieves the current ticket balance according to the journal.
+     *
+     * @return the balance
+     */
+    public long getBalance() {
+        lock.lock();
+        try {
+            return balance;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Retrieves the sequence number the next record will get.
+     *
+     * @return the next sequence number
+     */
+    public long getNextSequence() {
+        lock.lock();
+        try {
+            return nextSequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Records that a pool was created, resetting the balance.
+     *
+     * @param initialTickets the tickets the pool starts with
+     */
+    public void poolCreated(int initialTickets) {
+        append(RecordType.CREATE, initialTickets);
+    }
+
+    /**
+     * Writes a checkpoint of the current balance.
+     */
+    public void checkpoint() {
+        append(RecordType.CHECKPOINT, 0);
+    }
+
+    @Override
+    public void ticketsReleased(String actor, long[] ticketIds) {
+        append(RecordType.RELEASE, ticketIds.length);
+    }
+
+    @Override
+    public void ticketsPurchased(String actor, long[] ticketIds) {
+        append(RecordType.PURCHASE, ticketIds.length);
+    }
+
+    @Override
+    public void ticketsTransferredOut(String recipient, long[] ticketIds) {
+        append(RecordType.TRANSFER_OUT, ticketIds.length);
+    }
+
+    @Override
+    public void ticketsTransferredIn(String donor, long[] ticketIds) {
+        append(RecordType.TRANSFER_IN, ticketIds.length);
+    }
+
+    @Override
+    public void poolStarted() {
+        append(RecordType.START, 0);
+    }
+
+    @Override
+    public void poolStopped() {
+        append(RecordType.STOP, 0);
+        force();
+    }
+
+    /**
+     * Appends a record, rolling to a new segment when the current one is full.
+     *
+     * @param type  the record type
+     * @param value the number of tickets moved, or the new balance for {@link RecordType#CREATE}
+     */
+    private void append(RecordType type, int value) {
+        lock.lock();
+        try {
+            if (segment == null) {
+                return; //Closed
+            }
+            switch (type) {
+                case CREATE -> balance = value;
+                case RELEASE, PURCHASE, TRANSFER_OUT, TRANSFER_IN -> balance += type.sign() * value;
+                default -> {
+                }
+            }
+            if (position == segmentRecords) {
+                rollSegment();
+            }
+            write(type, type.isCheckpoint() ? (int) balance : value);
+            if (type.isCheckpoint()) {
+                sinceCheckpoint = 0;
+            } else if (++sinceCheckpoint >= checkpointInterval) {
+                if (position == segmentRecords) {
+                    rollSegment();
+                } else {
+                    write(RecordType.CHECKPOINT, (int) balance);
+                }
+                sinceCheckpoint = 0;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to append to ticket journal in " + directory, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes one record into the next free slot of the current segment.
+     */
+    private void write(RecordType type, int value) {
+        int base = position * RECORD_SIZE;
+        long sequence = nextSequence++;
+        long timestamp = System.currentTimeMillis();
+        segment.putLong(base + TIMESTAMP_OFFSET, timestamp);
+        segment.putInt(base + TYPE_OFFSET, type.ordinal());
+        segment.putInt(base + VALUE_OFFSET, value);
+        segment.putLong(base + CHECKSUM_OFFSET, checksum(sequence, timestamp, type.ordinal(), value));
+        segment.putLong(base + SEQUENCE_OFFSET, sequence); //Written last; a zero sequence marks a free slot
+        position++;
+    }
+
+    /**
+     * Closes the full segment, opens the next one with a checkpoint and drops segments beyond the retention limit.
+     */
+    private void rollSegment() throws IOException {
+        segment.force();
+        channel.close();
+        openSegment(nextSequence);
+        write(RecordType.CHECKPOINT, (int) balance);
+        sinceCheckpoint = 0;
+        List<Path> segments = listSegments();
+        for (int i = 0; i < segments.size() - 1 - retainedSegments; i++) {
+            Files.deleteIfExists(segments.get(i));
+        }
+    }
+
+    private void openSegment(long firstSequence) throws IOException {
+        mapSegment(directory.resolve(String.format("%020d%s", firstSequence, SEGMENT_SUFFIX)));
+        position = 0;
+    }
+
+    private void mapSegment(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) segmentRecords * RECORD_SIZE);
+    }
+
+    private List<Path> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return new ArrayList<>(files.filter(f -> f.getFileName().toString().endsWith(SEGMENT_SUFFIX)).sorted().toList());
+        }
+    }
+
+    /**
+     * Finds the end of the newest segment, then replays the records after its last checkpoint.
+     * Slots are written in order and their sequence is stored last, so the used slots form a prefix
+     * that a binary search can find; trailing records with a bad checksum are treated as torn and overwritten.
+     * If the newest segment has no intact checkpoint, because the process died between creating it and
+     * writing its first record or the OS lost its unflushed page, the balance is carried over from the
+     * older segments and a checkpoint of it is written.
+     *
+     * @param segments every segment file, oldest first
+     * @return the recovered balance, or {@code null} if no segment has an intact checkpoint
+     */
+    private Integer recover(List<Path> segments) throws IOException {
+        int end = findEnd(segment);
+        for (int i = end; i < segmentRecords && segment.getLong(i * RECORD_SIZE + SEQUENCE_OFFSET) != 0; i++) {
+            segment.putLong(i * RECORD_SIZE + SEQUENCE_OFFSET, 0); //Clear torn records
+        }
+        int checkpoint = lastCheckpoint(segment, end);
+        Long replayed = checkpoint >= 0 ? replay(segment, checkpoint, end) : null;
+        for (int i = segments.size() - 2; replayed == null && i >= 0; i--) {
+            Long previous = replayOlderSegment(segments.get(i));
+            if (previous != null) {
+                replayed = previous + replay(segment, -1, end);
+            }
+        }
+
+        position = end;
+        nextSequence = end > 0 ? segment.getLong((end - 1) * RECORD_SIZE + SEQUENCE_OFFSET) + 1 : firstSequenceOfSegment();
+        sinceCheckpoint = end - 1 - checkpoint;
+        if (replayed == null) {
+            balance = 0;
+            return null;
+        }
+        balance = replayed;
+        if (checkpoint < 0) {
+            append(RecordType.CHECKPOINT, 0);
+        }
+        return (int) balance;
+    }
+
+    /**
+     * Replays a full segment left behind the newest one, read-only.
+     *
+     * @return the balance at its last intact record, or {@code null} if it has no intact checkpoint
+     */
+    private Long replayOlderSegment(Path file) throws IOException {
+        try (FileChannel older = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = older.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(older.size(), (long) segmentRecords * RECORD_SIZE));
+            int end = findEnd(buffer);
+            int checkpoint = lastCheckpoint(buffer, end);
+            return checkpoint >= 0 ? replay(buffer, checkpoint, end) : null;
+        }
+    }
+
+    /**
+     * Finds the number of intact records at the start of a segment.
+     */
+    private int findEnd(MappedByteBuffer buffer) {
+        int slots = buffer.capacity() / RECORD_SIZE;
+        int low = 0;
+        int high = slots;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (buffer.getLong(mid * RECORD_SIZE + SEQUENCE_OFFSET) != 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        int end = low;
+        while (end > 0 && !isIntact(buffer, end - 1)) {
+            end--;
+        }
+        return end;
+    }
+
+    private static int lastCheckpoint(MappedByteBuffer buffer, int end) {
+        int checkpoint = end - 1;
+        while (checkpoint >= 0 && !TYPES[buffer.getInt(checkpoint * RECORD_SIZE + TYPE_OFFSET)].isCheckpoint()) {
+            checkpoint--;
+        }
+        return checkpoint;
+    }
+
+    /**
+     * Adds up the records after a checkpoint, starting from its balance, or from zero if {@code checkpoint} is {@code -1}.
+     */
+    private static long replay(MappedByteBuffer buffer, int checkpoint, int end) {
+        long replayed = checkpoint >= 0 ? buffer.getInt(checkpoint * RECORD_SIZE + VALUE_OFFSET) : 0;
+        for (int i = checkpoint + 1; i < end; i++) {
+            int base = i * RECORD_SIZE;
+            replayed += TYPES[buffer.getInt(base + TYPE_OFFSET)].sign() * (long) buffer.getInt(base + VALUE_OFFSET);
+        }
+        return replayed;
+    }
+
+    private static boolean isIntact(MappedByteBuffer buffer, int slot) {
+        int base = slot * RECORD_SIZE;
+        long sequence = buffer.getLong(base + SEQUENCE_OFFSET);
+        int type = buffer.getInt(base + TYPE_OFFSET);
+        return sequence != 0 && type >= 0 && type < TYPES.length
+                && buffer.getLong(base + CHECKSUM_OFFSET) == checksum(sequence, buffer.getLong(base + TIMESTAMP_OFFSET),
+                type, buffer.getInt(base + VALUE_OFFSET));
+    }
+
+    private long firstSequenceOfSegment() {
+        try {
+            List<Path> segments = listSegments();
+            String name = segments.get(segments.size() - 1).getFileName().toString();
+            return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+        } catch (IOException | NumberFormatException e) {
+            return 1;
+        }
+    }
+
+    private static long checksum(long sequence, long timestamp, int type, int value) {
+        long hash = 0x9E3779B97F4A7C15L;
+        hash = (hash ^ sequence) * 0xBF58476D1CE4E5B9L;
+        hash = (hash ^ timestamp) * 0x94D049BB133111EBL;
+        hash = (hash ^ ((long) type << 32 | (value & 0xFFFFFFFFL))) * 0xBF58476D1CE4E5B9L;
+        return hash ^ (hash >>> 31);
+    }
+
+    /**
+     * Flushes the current segment to disk.
+     */
+    public void force() {
+        lock.lock();
+        try {
+            if (segment != null) {
+                segment.force();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Flushes and closes the journal; later appends are ignored.
+     */
+    public void close() {
+        lock.lock();
+        try {
+            if (segment != null) {
+                segment.force();
+                segment = null;
+                channel.close();
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to close ticket journal in " + directory + ": " + e.getMessage());
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.iit.TicketingSystem.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Opens and owns the {@link TicketJournal} of every event, one directory per event.
+ */
+@Service
+public class TicketJournalService {
+
+    private final boolean enabled;
+    private final Path directory;
+    private final int segmentRecords;
+    private final int checkpointInterval;
+    private final int retainedSegments;
+    private final ConcurrentMap<String, TicketJournal> journals = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a new {@link TicketJournalService}.
+     *
+     * @param enabled            {@code false} to journal nothing
+     * @param directory          the directory holding one sub-directory of segments per event
+     * @param segmentRecords     the number of records per segment file
+     * @param checkpointInterval the number of records between checkpoints, which bounds the replay on startup
+     * @param retainedSegments   the number of full segments kept behind the current one
+     */
+    @Autowired
+    public TicketJournalService(@Value("${ticketing.journal.enabled:true}") boolean enabled,
+                                @Value("${ticketing.journal.dir:journal}") String directory,
+                                @Value("${ticketing.journal.segment-records:1048576}") int segmentRecords,
+                                @Value("${ticketing.journal.checkpoint-interval:4096}") int checkpointInterval,
+                                @Value("${ticketing.journal.retained-segments:2}") int retainedSegments) {
+        this.enabled = enabled;
+        this.directory = Path.of(directory);
+        this.segmentRecords = segmentRecords;
+        this.checkpointInterval = checkpointInterval;
+        this.retainedSegments = retainedSegments;
+    }
+
+    /**
+     * Retrieves an event's journal, opening it and recovering its balance on first use.
+     *
+     * @param eventId the event id
+     * @return the journal, or empty if journaling is disabled
+     */
+    public Optional<TicketJournal> journalFor(String eventId) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        return Optional.of(journals.computeIfAbsent(eventId, id ->
+                new TicketJournal(directory.resolve(id), segmentRecords, checkpointInterval, retainedSegments)));
+    }
+
+    /**
+     * Flushes and closes every journal when the application shuts down.
+     */
+    @PreDestroy
+    public void closeAll() {
+        journals.values().forEach(TicketJournal::close);
+    }
+}
@@ -0,0 +1,269 @@
+package com.iit.TicketingSystem.service;
+
+import com.iit.TicketingSystem.model.PoolSnapshot;
+import com.iit.TicketingSystem.model.TicketTransaction;
+import com.iit.TicketingSystem.model.TicketTransactionType;
+import com.iit.TicketingSystem.repository.PoolSnapshotRepository;
+import com.iit.TicketingSystem.repository.TicketTransactionRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Write-behind persistence of ticket sales, releases and transfers between partitions.
+ * Pool listeners only append one entry per operation to a bounded in-memory queue, so vendors
+ * and customers never wait on the database; while it is down and the queue is full, operations
+ * are dropped and counted instead. A single writer thread drains the queue, expands
+ * each entry into one {@link TicketTransaction} per ticket and saves them with {@code saveAll},
+ * which Hibernate turns into JDBC batches. Pool snapshots are saved directly, as they are rare.
+ */
+@Service
+public class TicketPersistenceService {
+
+    private final TicketTransactionRepository transactionRepository;
+    private final PoolSnapshotRepository snapshotRepository;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long flushIntervalMillis;
+    private final BlockingQueue<PendingTransaction> queue;
+    private final LongAdder writtenTransactions = new LongAdder();
+    private final LongAdder droppedTransactions = new LongAdder();
+    private volatile boolean closed = false;
+    private Thread writerThread;
+
+    /**
+     * Constructs a new {@link TicketPersistenceService}.
+     *
+     * @param transactionRepository the repository ticket transactions are saved to
+     * @param snapshotRepository    the repository pool snapshots are saved to
+     * @param enabled               {@code false} to record nothing
+     * @param queueSize             the maximum number of pool operations waiting to be written
+     * @param batchSize             the maximum number of transactions saved per batch
+     * @param flushIntervalMillis   how long the writer waits for a batch to fill before saving it
+     */
+    @Autowired
+    public TicketPersistenceService(TicketTransactionRepository transactionRepository,
+                                    PoolSnapshotRepository snapshotRepository,
+                                    @Value("${ticketing.persistence.enabled:true}") boolean enabled,
+                                    @Value("${ticketing.persistence.queue-size:65536}") int queueSize,
+                                    @Value("${ticketing.persistence.batch-size:500}") int batchSize,
+                                    @Value("${ticketing.persistence.flush-interval-ms:200}") long flushIntervalMillis) {
+        this.transactionRepository = transactionRepository;
+        this.snapshotRepository = snapshotRepository;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.queue = new ArrayBlockingQueue<>(queueSize);
+    }
+
+    /**
+     * Starts the writer thread.
+     */
+    @PostConstruct
+    public void start() {
+        if (enabled) {
+            writerThread = Thread.ofPlatform().name("ticket-writer").daemon(true).start(this::runWriter);
+        }
+    }
+
+    /**
+     * Creates a listener that records every ticket moved through an event's pool.
+     *
+     * @param eventId the event id
+     * @return the listener, or {@link TicketPoolListener#NONE} if persistence is disabled
+     */
+    public TicketPoolListener listenerFor(String eventId) {
+        if (!enabled) {
+            return TicketPoolListener.NONE;
+        }
+        String storedEventId = TicketPoolRegistry.toStoredEventId(eventId);
+        return new TicketPoolListener() {
+            @Override
+            public void ticketsReleased(String actor, long[] ticketIds) {
+                enqueue(new PendingTransaction(storedEventId, TicketTransactionType.RELEASE, actor, ticketIds, System.currentTimeMillis()));
+            }
+
+            @Override
+            public void ticketsPurchased(String actor, long[] ticketIds) {
+                enqueue(new PendingTransaction(storedEventId, TicketTransactionType.PURCHASE, actor, ticketIds, System.currentTimeMillis()));
+            }
+
+            @Override
+            public void ticketsTransferredOut(String recipient, long[] ticketIds) {
+                enqueue(new PendingTransaction(storedEventId, TicketTransactionType.TRANSFER_OUT, recipient, ticketIds, System.currentTimeMillis()));
+            }
+
+            @Override
+            public void ticketsTransferredIn(String donor, long[] ticketIds) {
+                enqueue(new PendingTransaction(storedEventId, TicketTransactionType.TRANSFER_IN, donor, ticketIds, System.currentTimeMillis()));
+            }
+        };
+    }
+
+    /**
+     * Queues an operation for the writer without waiting. If the writer has fallen a full queue
+     * behind, the operation's transactions are dropped and counted; the pool itself is unaffected.
+     */
+    private void enqueue(PendingTransaction pending) {
+        if (!queue.offer(pending)) {
+            droppedTransactions.add(pending.ticketIds().length);
+        }
+    }
+
+    /**
+     * Drains queued operations and saves them in batches until the service is closed and the queue is empty.
+     */
+    private void runWriter() {
+        List<PendingTransaction> drained = new ArrayList<>();
+        List<TicketTransaction> batch = new ArrayList<>(batchSize);
+        while (!closed || !queue.isEmpty()) {
+            try {
+                PendingTransaction first = queue.poll(flushIntervalMillis, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                drained.add(first);
+                queue.drainTo(drained, batchSize - 1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            for (PendingTransaction pending : drained) {
+                Instant occurredAt = Instant.ofEpochMilli(pending.timestampMillis());
+                for (long ticketId : pending.ticketIds()) {
+                    batch.add(new TicketTransaction(pending.eventId(), ticketId, pending.type(), pending.actor(), occurredAt));
+                    if (batch.size() == batchSize) {
+                        saveBatch(batch);
+                    }
+                }
+            }
+            drained.clear();
+            if (!batch.isEmpty()) {
+                saveBatch(batch);
+            }
+        }
+    }
+
+    /**
+     * Saves a batch of transactions, retrying with a growing delay while the database is unavailable.
+     */
+    private void saveBatch(List<TicketTransaction> batch) {
+        long delayMillis = 100;
+        while (true) {
+            try {
+                transactionRepository.saveAll(batch);
+                writtenTransactions.add(batch.size());
+                batch.clear();
+                return;
+            } catch (RuntimeException e) {
+                if (closed) {
+                    System.err.println("Discarding " + batch.size() + " ticket transactions on shutdown: " + e.getMessage());
+                    batch.clear();
+                    return;
+                }
+                System.err.println("Failed to save ticket transactions, retrying in " + delayMillis + " ms: " + e.getMessage());
+                try {
+                    Thread.sleep(delayMillis);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                delayMillis = Math.min(delayMillis * 2, 5_000);
+            }
+        }
+    }
+
+    /**
+     * Saves a snapshot of an event's pool.
+     *
+     * @param eventId           the event id
+     * @param ticketCount       the tickets currently in the pool
+     * @param maxTicketCapacity the pool capacity
+     */
+    public void saveSnapshot(String eventId, int ticketCount, int maxTicketCapacity) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            snapshotRepository.save(new PoolSnapshot(TicketPoolRegistry.toStoredEventId(eventId), ticketCount,
+                    maxTicketCapacity, Instant.now()));
+        } catch (RuntimeException e) {
+            System.err.println("Failed to save pool snapshot for event " + eventId + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Retrieves the most recent snapshot of an event's pool.
+     *
+     * @param eventId the event id
+     * @return the snapshot, or empty if none was saved
+     */
+    public Optional<PoolSnapshot> findLatestSnapshot(String eventId) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        return snapshotRepository.findTopByEventIdOrderByIdDesc(TicketPoolRegistry.toStoredEventId(eventId));
+    }
+
+    /**
+     * Retrieves the number of ticket transactions saved so far.
+     *
+     * @return the saved transaction count
+     */
+    public long getWrittenTransactionCount() {
+        return writtenTransactions.sum();
+    }
+
+    /**
+     * Retrieves the number of ticket transactions dropped because the queue was full.
+     *
+     * @return the dropped transaction count
+     */
+    public long getDroppedTransactionCount() {
+        return droppedTransactions.sum();
+    }
+
+    /**
+     * Retrieves the number of pool operations waiting to be saved.
+     *
+     * @return the queue depth
+     */
+    public int getQueuedOperationCount() {
+        return queue.size();
+    }
+
+    /**
+     * Flushes every queued transaction and stops the writer thread. The writer notices within
+     * one flush interval and exits once the queue is empty.
+     */
+    @PreDestroy
+    public void close() {
+        closed = true;
+        Thread writer = writerThread;
+        if (writer != null) {
+            try {
+                writer.join(TimeUnit.SECONDS.toMillis(30));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * One pool operation waiting to be written: the tickets moved and who moved them.
+     */
+    private record PendingTransaction(String eventId, TicketTransactionType type, String actor, long[] ticketIds,
+                                      long timestampMillis) {
+    }
+}
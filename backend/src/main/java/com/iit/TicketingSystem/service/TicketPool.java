@@ -1,22 +1,79 @@
 package com.iit.TicketingSystem.service;
 
+import com.iit.TicketingSystem.model.BulkMode;
+import com.iit.TicketingSystem.model.BulkTicketResult;
+import com.iit.TicketingSystem.websocket.LogEventKind;
 import com.iit.TicketingSystem.websocket.LogWebSocketHandler;
+import io.micrometer.core.instrument.Timer;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiFunction;
+import java.util.function.IntFunction;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
 
 /**
  * Class representing a pool of tickets and managing concurrent access.
- * Handles ticket addition and removal with synchronized methods to ensure thread safety.
+ * Tickets are stored as primitive ids in lock-free ring buffers, optionally split into shards.
+ * Vendors and customers reserve capacity and stock with compare-and-set on per-shard counters,
+ * starting at a home shard picked from their name and stealing from other shards when it runs
+ * dry or fills up, so the common path never takes a lock. A {@link ReentrantLock} is only used to
+ * park threads while the whole pool is full or empty, which keeps virtual threads unpinned while they wait.
+ * Vendors wait on a "not full" condition and customers on a "not empty" one, and each operation wakes
+ * only as many waiters on the opposite side as it has tickets or slots for. Customers can optionally
+ * be served strictly in arrival order, and every blocking operation has a variant with a deadline.
+ * Checkouts can hold tickets for a limited time before confirming them; holds that are neither
+ * confirmed nor released are returned to the pool by a {@link TimingWheel}.
+ * Purchases, releases and holds also have asynchronous variants that park as continuations instead
+ * of threads: they are queued beside the blocked threads, completed by whichever operation frees
+ * what they need, and timed out by the timing wheel.
+ * The capacity, the number of vendors and customers and their rates can be changed while the pool is running.
  */
 public class TicketPool {
-    private final List<String> tickets;
-    private final int maxCapacity;
+    private static final int MIN_EXPIRED_BEFORE_COMPACTION = 64;
+    //Parked requests are completed here, never on the timing wheel or on a thread draining a wait queue
+    private static final Executor COMPLETIONS = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("pool-completion-", 0).factory());
+
+    private final TicketShard[] shards;
+    private volatile int maxCapacity;
+    private final ReentrantLock lock;
+    private final WaitQueue notFull;
+    private final WaitQueue notEmpty;
+    private final boolean fairCustomers;
     private final List<Thread> vendorThreads = new ArrayList<>();
     private final List<Thread> customerThreads = new ArrayList<>();
+    private volatile List<Vendor> vendors = List.of();
+    private volatile List<Customer> customers = List.of();
+    private volatile ActorScheduler scheduler;
+    private Supplier<ActorScheduler> schedulerFactory = ActorScheduler::withDefaults;
+    private ExecutionMode executionMode = ExecutionMode.PLATFORM;
     private final LogWebSocketHandler logWebSocketHandler;
-    private boolean running = false;
+    private final TicketPoolMetrics metrics;
+    private volatile TicketPoolListener listener = TicketPoolListener.NONE;
+    private volatile WaitingRoom waitingRoom;
+    private final ConcurrentMap<Long, TicketHold> holds = new ConcurrentHashMap<>();
+    private final AtomicLong nextHoldId = new AtomicLong();
+    private final AtomicInteger heldTickets = new AtomicInteger();
+    private volatile long transferredIn; //Tickets accepted from other partitions less those surrendered; guarded by the shards' monitor
+    private volatile TimingWheel holdExpiry;
+    private volatile boolean running = false;
 
     /**
      * Constructs a new {@link TicketPool}.
@@ -26,13 +83,106 @@ public class TicketPool {
      * @param logWebSocketHandler the WebSocket handler used for logging system events
      */
     public TicketPool(int initialTickets, int maxCapacity, LogWebSocketHandler logWebSocketHandler) {
-        this.tickets = Collections.synchronizedList(new ArrayList<>());
+        this(initialTickets, maxCapacity, logWebSocketHandler, TicketPoolMetrics.noop());
+    }
+
+    /**
+     * Constructs a new unsharded {@link TicketPool} that publishes metrics.
+     *
+     * @param initialTickets      the initial number of tickets in the pool
+     * @param maxCapacity         the maximum number of tickets the pool can hold
+     * @param logWebSocketHandler the WebSocket handler used for logging system events
+     * @param metrics             the instrumentation for pool operations
+     */
+    public TicketPool(int initialTickets, int maxCapacity, LogWebSocketHandler logWebSocketHandler, TicketPoolMetrics metrics) {
+        this(initialTickets, maxCapacity, 1, logWebSocketHandler, metrics);
+    }
+
+    /**
+     * Constructs a new {@link TicketPool} split into shards.
+     * Capacity and initial tickets are divided as evenly as possible between the shards.
+     *
+     * @param initialTickets      the initial number of tickets in the pool
+     * @param maxCapacity         the maximum number of tickets the pool can hold
+     * @param shardCount          the number of internal shards, or {@code 0} for one per available processor;
+     *                            capped so every shard holds at least one ticket
+     * @param logWebSocketHandler the WebSocket handler used for logging system events
+     * @param metrics             the instrumentation for pool operations
+     */
+    public TicketPool(int initialTickets, int maxCapacity, int shardCount, LogWebSocketHandler logWebSocketHandler,
+                      TicketPoolMetrics metrics) {
+        this(initialTickets, maxCapacity, shardCount, false, logWebSocketHandler, metrics);
+    }
+
+    /**
+     * Constructs a new {@link TicketPool} split into shards, optionally serving customers in arrival order.
+     * Capacity and initial tickets are divided as evenly as possible between the shards.
+     *
+     * @param initialTickets      the initial number of tickets in the pool
+     * @param maxCapacity         the maximum number of tickets the pool can hold
+     * @param shardCount          the number of internal shards, or {@code 0} for one per available processor;
+     *                            capped so every shard holds at least one ticket
+     * @param fairCustomers       {@code true} so that no customer overtakes one already waiting for tickets
+     * @param logWebSocketHandler the WebSocket handler used for logging system events
+     * @param metrics             the instrumentation for pool operations
+     */
+    public TicketPool(int initialTickets, int maxCapacity, int shardCount, boolean fairCustomers,
+                      LogWebSocketHandler logWebSocketHandler, TicketPoolMetrics metrics) {
+        this(initialTickets, maxCapacity, shardCount, fairCustomers, 0, 1, logWebSocketHandler, metrics);
+    }
+
+    /**
+     * Constructs a new {@link TicketPool} holding one partition of an inventory spread over several pools.
+     * Every partition issues ticket ids from its own residue class, so tickets can move between the
+     * partitions' pools without two of them ever carrying the same id.
+     *
+     * @param initialTickets      the initial number of tickets in the pool
+     * @param maxCapacity         the maximum number of tickets the pool can hold
+     * @param shardCount          the number of internal shards, or {@code 0} for one per available processor;
+     *                            capped so every shard holds at least one ticket
+     * @param fairCustomers       {@code true} so that no customer overtakes one already waiting for tickets
+     * @param partition           this pool's partition, from {@code 0}
+     * @param partitionCount      the number of partitions
+     * @param logWebSocketHandler the WebSocket handler used for logging system events
+     * @param metrics             the instrumentation for pool operations
+     */
+    public TicketPool(int initialTickets, int maxCapacity, int shardCount, boolean fairCustomers, int partition,
+                      int partitionCount, LogWebSocketHandler logWebSocketHandler, TicketPoolMetrics metrics) {
+        if (partition < 0 || partition >= partitionCount) {
+            throw new IllegalArgumentException("Partition " + partition + " is not one of " + partitionCount + ".");
+        }
+        int requested = shardCount > 0 ? shardCount : Runtime.getRuntime().availableProcessors();
+        int count = Math.max(1, Math.min(requested, maxCapacity));
+        this.shards = new TicketShard[count];
+        for (int i = 0; i < count; i++) {
+            shards[i] = new TicketShard(i, count, share(maxCapacity, i, count), share(initialTickets, i, count),
+                    partition, partitionCount);
+        }
         this.maxCapacity = maxCapacity;
         this.logWebSocketHandler = logWebSocketHandler;
+        this.metrics = metrics;
+        this.fairCustomers = fairCustomers;
+        this.lock = new ReentrantLock(fairCustomers);
+        this.notFull = new WaitQueue(metrics.capacityWait(), false, this::getFreeCapacity, this::reserveCapacity, true);
+        this.notEmpty = new WaitQueue(metrics.stockWait(), fairCustomers, this::getTicketCount, this::claimTickets, false);
+        metrics.bindPool(this);
+    }
 
-        for (int i = 0; i < initialTickets; i++) {
-            tickets.add("Ticket: " + (i + 1));
-        }
+    /**
+     * Computes one shard's share of a total split as evenly as possible.
+     */
+    private static int share(int total, int index, int count) {
+        return total / count + (index < total % count ? 1 : 0);
+    }
+
+    /**
+     * Picks the shard an actor tries first, so the same actor keeps returning to the same shard.
+     *
+     * @param actorName the name of the vendor or customer
+     * @return the home shard index
+     */
+    private int homeShard(String actorName) {
+        return shards.length == 1 ? 0 : Math.floorMod(actorName.hashCode(), shards.length);
     }
 
     /**
@@ -41,60 +191,1100 @@ public class TicketPool {
      *
      * @param count      the number of tickets to add
      * @param threadName the name of the thread performing the operation
+     * @return {@code true} if the tickets were added, {@code false} if the thread was interrupted while waiting
      */
-    public synchronized void addTickets(int count, String threadName) {
+    public boolean addTickets(int count, String threadName) {
+        return addTickets(count, threadName, Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Adds tickets to the pool, waiting at most until the deadline for room.
+     *
+     * @param count      the number of tickets to add
+     * @param threadName the name of the thread performing the operation
+     * @param timeout    how long to wait for room, {@code 0} to return immediately
+     * @param unit       the unit of {@code timeout}; {@code Long.MAX_VALUE} nanoseconds waits indefinitely
+     * @return {@code true} if the tickets were added, {@code false} if the deadline passed or the thread was interrupted
+     */
+    public boolean addTickets(int count, String threadName, long timeout, TimeUnit unit) {
         // Add tickets to the pool, ensuring the maximum capacity is not exceeded
-        while (tickets.size() + count > maxCapacity) {
-            try {
-                logWebSocketHandler.addLog(threadName + ": Max capacity reached. Waiting to add tickets...");
-                System.out.println(threadName + ": Max capacity reached. Waiting to add tickets...");
-                wait();
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                return;
+        int[] reservation = new int[shards.length];
+        int home = homeShard(threadName);
+        if (reserveCapacity(count, true, home, reservation) == 0) {
+            logWebSocketHandler.log(LogEventKind.WAITING_FOR_ROOM, threadName, count, maxCapacity);
+            if (notFull.await(() -> reserveCapacity(count, true, home, reservation), count > 1, unit.toNanos(timeout)) == 0) {
+                return false;
             }
         }
-        for (int i = 0; i < count; i++) {
-            tickets.add("Ticket: " + (tickets.size() + 1));
+        publishTickets(reservation, count, threadName, null);
+        return true;
+    }
+
+    /**
+     * Adds tickets to the pool only if there is room for all of them, without waiting.
+     *
+     * @param count      the number of tickets to add
+     * @param threadName the name of the thread performing the operation
+     * @return {@code true} if the tickets were added, {@code false} if the pool was too full
+     */
+    public boolean tryAddTickets(int count, String threadName) {
+        int[] reservation = new int[shards.length];
+        if (reserveCapacity(count, true, homeShard(threadName), reservation) == 0) {
+            return false;
         }
-        logWebSocketHandler.addLog(threadName + " added a ticket. Total ticket count: " + tickets.size());
-        System.out.println(threadName + " added a ticket. Total ticket count: " + tickets.size());
-        notifyAll(); //Notify waiting threads
+        publishTickets(reservation, count, threadName, null);
+        return true;
+    }
+
+    /**
+     * Releases a batch of tickets into the pool in a single capacity reservation.
+     * Waits up to the given timeout for room; in {@link BulkMode#PARTIAL} mode whatever fits is released.
+     *
+     * @param count   the number of tickets to release
+     * @param mode    whether the release must be all-or-nothing or may be partial
+     * @param timeout how long to wait for room, {@code 0} to return immediately
+     * @param unit    the unit of {@code timeout}
+     * @param vendor  the name of the vendor performing the operation
+     * @return the ids of the released tickets; empty if the timeout elapsed first
+     * @throws IllegalArgumentException if {@code count} is not positive, or exceeds the pool capacity in
+     *                                  all-or-nothing mode
+     */
+    public BulkTicketResult releaseTickets(int count, BulkMode mode, long timeout, TimeUnit unit, String vendor) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("Ticket count must be positive.");
+        }
+        if (mode == BulkMode.ALL_OR_NOTHING && count > maxCapacity) {
+            throw new IllegalArgumentException("Cannot release " + count + " tickets into a pool of capacity " + maxCapacity + ".");
+        }
+        boolean exact = mode == BulkMode.ALL_OR_NOTHING;
+        int[] reservation = new int[shards.length];
+        int home = homeShard(vendor);
+        IntSupplier attempt = () -> reserveCapacity(count, exact, home, reservation);
+        int reserved = attempt.getAsInt();
+        if (reserved == 0) {
+            reserved = notFull.await(attempt, exact && count > 1, unit.toNanos(timeout));
+        }
+        long[] ticketIds = new long[reserved];
+        if (reserved > 0) {
+            publishTickets(reservation, reserved, vendor, ticketIds);
+        }
+        return new BulkTicketResult(count, ticketIds);
+    }
+
+    /**
+     * Releases a batch of tickets into the pool without blocking the caller.
+     * If the pool has no room the release is parked until a purchase frees some or the timeout elapses.
+     *
+     * @param count   the number of tickets to release
+     * @param mode    whether the release must be all-or-nothing or may be partial
+     * @param timeout how long to wait for room, {@code 0} to complete immediately
+     * @param unit    the unit of {@code timeout}
+     * @param vendor  the name of the vendor performing the operation
+     * @return a future completed with the ids of the released tickets; empty if the timeout elapsed first
+     * @throws IllegalArgumentException if {@code count} is not positive, or exceeds the pool capacity in
+     *                                  all-or-nothing mode
+     */
+    public CompletableFuture<BulkTicketResult> releaseTicketsAsync(int count, BulkMode mode, long timeout, TimeUnit unit,
+                                                                   String vendor) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("Ticket count must be positive.");
+        }
+        if (mode == BulkMode.ALL_OR_NOTHING && count > maxCapacity) {
+            throw new IllegalArgumentException("Cannot release " + count + " tickets into a pool of capacity " + maxCapacity + ".");
+        }
+        int[] reservation = new int[shards.length];
+        return notFull.submit(count, mode == BulkMode.ALL_OR_NOTHING, homeShard(vendor), reservation, unit.toNanos(timeout),
+                reserved -> {
+                    long[] ticketIds = new long[reserved];
+                    if (reserved > 0) {
+                        publishTickets(reservation, reserved, vendor, ticketIds);
+                    }
+                    return new BulkTicketResult(count, ticketIds);
+                });
     }
 
     /**
      * Removes tickets from the pool while ensuring availability.
      * If the pool is empty, the calling thread will wait until tickets become available.
+     * Fewer tickets than requested are removed if the pool holds fewer.
+     *
+     * @param count      the number of tickets to remove
+     * @param threadName the name of the thread performing the operation
+     * @return the number of tickets removed, or {@code 0} if the thread was interrupted while waiting
+     */
+    public int removeTickets(int count, String threadName) {
+        return removeTickets(count, threadName, Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Removes up to the given number of tickets from the pool, waiting at most until the deadline for stock.
      *
      * @param count      the number of tickets to remove
      * @param threadName the name of the thread performing the operation
+     * @param timeout    how long to wait for tickets, {@code 0} to return immediately
+     * @param unit       the unit of {@code timeout}; {@code Long.MAX_VALUE} nanoseconds waits indefinitely
+     * @return the number of tickets removed, or {@code 0} if the deadline passed or the thread was interrupted
+     */
+    public int removeTickets(int count, String threadName, long timeout, TimeUnit unit) {
+        int[] claim = new int[shards.length];
+        int home = homeShard(threadName);
+        int claimed = mustQueueForStock() ? 0 : claimTickets(count, false, home, claim);
+        if (claimed == 0) {
+            logWebSocketHandler.log(LogEventKind.WAITING_FOR_STOCK, threadName, count, 0);
+            claimed = notEmpty.await(() -> claimTickets(count, false, home, claim), false, unit.toNanos(timeout));
+            if (claimed == 0) {
+                return 0;
+            }
+        }
+        completePurchase(claim, claimed, threadName, null);
+        return claimed;
+    }
+
+    /**
+     * Purchases a batch of tickets in a single stock reservation.
+     * Waits up to the given timeout for stock; in {@link BulkMode#PARTIAL} mode whatever is available is taken.
+     *
+     * @param count   the number of tickets to purchase
+     * @param mode    whether the purchase must be all-or-nothing or may be partial
+     * @param timeout how long to wait for stock, {@code 0} to return immediately
+     * @param unit    the unit of {@code timeout}
+     * @param buyer   the name of the customer performing the operation
+     * @return the ids of the purchased tickets; empty if the timeout elapsed first
+     * @throws IllegalArgumentException if {@code count} is not positive
      */
-    public synchronized void removeTickets(int count, String threadName) {
-        while (tickets.isEmpty()) {
+    public BulkTicketResult purchaseTickets(int count, BulkMode mode, long timeout, TimeUnit unit, String buyer) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("Ticket count must be positive.");
+        }
+        boolean exact = mode == BulkMode.ALL_OR_NOTHING;
+        int[] claim = new int[shards.length];
+        int home = homeShard(buyer);
+        IntSupplier attempt = () -> claimTickets(count, exact, home, claim);
+        int claimed = mustQueueForStock() ? 0 : attempt.getAsInt();
+        if (claimed == 0) {
+            claimed = notEmpty.await(attempt, exact && count > 1, unit.toNanos(timeout));
+        }
+        long[] ticketIds = new long[claimed];
+        if (claimed > 0) {
+            completePurchase(claim, claimed, buyer, ticketIds);
+        }
+        return new BulkTicketResult(count, ticketIds);
+    }
+
+    /**
+     * Purchases a batch of tickets without blocking the caller.
+     * If the pool is empty the purchase is parked until tickets are released or the timeout elapses.
+     *
+     * @param count   the number of tickets to purchase
+     * @param mode    whether the purchase must be all-or-nothing or may be partial
+     * @param timeout how long to wait for stock, {@code 0} to complete immediately
+     * @param unit    the unit of {@code timeout}
+     * @param buyer   the name of the customer performing the operation
+     * @return a future completed with the ids of the purchased tickets; empty if the timeout elapsed first
+     * @throws IllegalArgumentException if {@code count} is not positive
+     */
+    public CompletableFuture<BulkTicketResult> purchaseTicketsAsync(int count, BulkMode mode, long timeout, TimeUnit unit,
+                                                                    String buyer) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("Ticket count must be positive.");
+        }
+        int[] claim = new int[shards.length];
+        return notEmpty.submit(count, mode == BulkMode.ALL_OR_NOTHING, homeShard(buyer), claim, unit.toNanos(timeout),
+                claimed -> {
+                    long[] ticketIds = new long[claimed];
+                    if (claimed > 0) {
+                        completePurchase(claim, claimed, buyer, ticketIds);
+                    }
+                    return new BulkTicketResult(count, ticketIds);
+                });
+    }
+
+    /**
+     * Holds a batch of tickets for a customer during checkout. The tickets leave the pool until the
+     * hold is confirmed, released or expires, whichever comes first.
+     * Waits up to the given timeout for stock; in {@link BulkMode#PARTIAL} mode whatever is available is held.
+     *
+     * @param count    the number of tickets to hold
+     * @param mode     whether the hold must be all-or-nothing or may be partial
+     * @param timeout  how long to wait for stock, {@code 0} to return immediately
+     * @param unit     the unit of {@code timeout}
+     * @param holder   the name of the customer holding the tickets
+     * @param holdFor  how long the tickets are held before returning to the pool
+     * @param holdUnit the unit of {@code holdFor}
+     * @return the hold, or empty if the timeout elapsed before any tickets could be held
+     * @throws IllegalArgumentException if {@code count} or {@code holdFor} is not positive
+     */
+    public Optional<TicketHold> holdTickets(int count, BulkMode mode, long timeout, TimeUnit unit, String holder,
+                                            long holdFor, TimeUnit holdUnit) {
+        if (count <= 0 || holdFor <= 0) {
+            throw new IllegalArgumentException("Ticket count and hold time must be positive.");
+        }
+        boolean exact = mode == BulkMode.ALL_OR_NOTHING;
+        int[] claim = new int[shards.length];
+        int home = homeShard(holder);
+        IntSupplier attempt = () -> claimTickets(count, exact, home, claim);
+        int claimed = mustQueueForStock() ? 0 : attempt.getAsInt();
+        if (claimed == 0) {
+            claimed = notEmpty.await(attempt, exact && count > 1, unit.toNanos(timeout));
+            if (claimed == 0) {
+                return Optional.empty();
+            }
+        }
+        return Optional.of(createHold(claim, claimed, holder, holdUnit.toNanos(holdFor)));
+    }
+
+    /**
+     * Holds a batch of tickets for a customer during checkout without blocking the caller.
+     * If the pool is empty the hold is parked until tickets are released or the timeout elapses.
+     *
+     * @param count    the number of tickets to hold
+     * @param mode     whether the hold must be all-or-nothing or may be partial
+     * @param timeout  how long to wait for stock, {@code 0} to complete immediately
+     * @param unit     the unit of {@code timeout}
+     * @param holder   the name of the customer holding the tickets
+     * @param holdFor  how long the tickets are held before returning to the pool
+     * @param holdUnit the unit of {@code holdFor}
+     * @return a future completed with the hold, or empty if the timeout elapsed before any tickets could be held
+     * @throws IllegalArgumentException if {@code count} or {@code holdFor} is not positive
+     */
+    public CompletableFuture<Optional<TicketHold>> holdTicketsAsync(int count, BulkMode mode, long timeout, TimeUnit unit,
+                                                                    String holder, long holdFor, TimeUnit holdUnit) {
+        if (count <= 0 || holdFor <= 0) {
+            throw new IllegalArgumentException("Ticket count and hold time must be positive.");
+        }
+        int[] claim = new int[shards.length];
+        long holdNanos = holdUnit.toNanos(holdFor);
+        return notEmpty.submit(count, mode == BulkMode.ALL_OR_NOTHING, homeShard(holder), claim, unit.toNanos(timeout),
+                claimed -> claimed == 0 ? Optional.empty() : Optional.of(createHold(claim, claimed, holder, holdNanos)));
+    }
+
+    /**
+     * Moves claimed tickets out of their shards into a new hold and schedules its expiry.
+     *
+     * @param claim     the number of tickets claimed from each shard
+     * @param claimed   the total number of claimed tickets
+     * @param holder    the name of the customer holding the tickets
+     * @param holdNanos how long the tickets are held
+     * @return the hold
+     */
+    private TicketHold createHold(int[] claim, int claimed, String holder, long holdNanos) {
+        long[] ticketIds = new long[claimed];
+        int offset = 0;
+        for (int i = 0; i < shards.length; i++) {
+            if (claim[i] > 0) {
+                shards[i].hold(claim[i], ticketIds, offset);
+                offset += claim[i];
+            }
+        }
+        TicketHold hold = new TicketHold(nextHoldId.incrementAndGet(), holder, ticketIds, claim, holdNanos, this);
+        holds.put(hold.getId(), hold);
+        heldTickets.addAndGet(claimed);
+        expiryWheel().schedule(hold);
+        log(LogEventKind.TICKETS_HELD, holder, claimed, hold.getId());
+        return hold;
+    }
+
+    /**
+     * Confirms a hold, completing the purchase of its tickets and freeing their capacity.
+     *
+     * @param holdId the hold id
+     * @return the confirmed hold, or empty if it is unknown or was already released or expired
+     */
+    public Optional<TicketHold> confirmHold(long holdId) {
+        TicketHold hold = holds.get(holdId);
+        if (hold == null || !hold.settle()) {
+            return Optional.empty();
+        }
+        holds.remove(holdId);
+        int[] shardCounts = hold.getShardCounts();
+        for (int i = 0; i < shards.length; i++) {
+            shards[i].cancelReservation(shardCounts[i]);
+        }
+        int count = hold.getTicketIds().length;
+        heldTickets.addAndGet(-count);
+        metrics.recordHoldSettled("confirmed");
+        log(LogEventKind.HOLD_CONFIRMED, hold.getHolder(), count, holdId);
+        notFull.signal(count);
+        listener.ticketsPurchased(hold.getHolder(), hold.getTicketIds());
+        return Optional.of(hold);
+    }
+
+    /**
+     * Releases a hold, returning its tickets to the pool.
+     *
+     * @param holdId the hold id
+     * @return {@code true} if the tickets were returned, {@code false} if the hold is unknown or was already settled
+     */
+    public boolean releaseHold(long holdId) {
+        TicketHold hold = holds.get(holdId);
+        return hold != null && returnHold(hold, false);
+    }
+
+    /**
+     * Returns an expired hold's tickets to the pool. Called on the timing wheel thread.
+     *
+     * @param hold the hold
+     */
+    void expireHold(TicketHold hold) {
+        returnHold(hold, true);
+    }
+
+    private boolean returnHold(TicketHold hold, boolean expired) {
+        if (!hold.settle()) {
+            return false;
+        }
+        holds.remove(hold.getId());
+        int[] shardCounts = hold.getShardCounts();
+        int offset = 0;
+        for (int i = 0; i < shards.length; i++) {
+            if (shardCounts[i] > 0) {
+                shards[i].restore(shardCounts[i], hold.getTicketIds(), offset);
+                offset += shardCounts[i];
+            }
+        }
+        heldTickets.addAndGet(-offset);
+        metrics.recordHoldSettled(expired ? "expired" : "released");
+        log(expired ? LogEventKind.HOLD_EXPIRED : LogEventKind.HOLD_RELEASED, hold.getHolder(), offset, hold.getId());
+        notEmpty.signal(offset);
+        return true;
+    }
+
+    /**
+     * Retrieves the timing wheel that expires holds, starting a private one if none was provided.
+     */
+    private TimingWheel expiryWheel() {
+        TimingWheel wheel = holdExpiry;
+        if (wheel == null) {
+            synchronized (holds) {
+                wheel = holdExpiry;
+                if (wheel == null) {
+                    holdExpiry = wheel = new TimingWheel(10, TimeUnit.MILLISECONDS).start("hold-expiry");
+                }
+            }
+        }
+        return wheel;
+    }
+
+    /**
+     * Uses a shared timing wheel to expire this pool's holds, replacing any previous one.
+     *
+     * @param holdExpiry the timing wheel
+     */
+    void setHoldExpiry(TimingWheel holdExpiry) {
+        this.holdExpiry = holdExpiry;
+    }
+
+    /**
+     * Retrieves the number of tickets currently held by checkouts.
+     *
+     * @return the held ticket count
+     */
+    public int getHeldTicketCount() {
+        return heldTickets.get();
+    }
+
+    /**
+     * Retrieves the number of asynchronous purchases, holds and releases parked on the pool.
+     *
+     * @return the number of parked requests
+     */
+    public int getPendingRequestCount() {
+        return notEmpty.getPendingCount() + notFull.getPendingCount();
+    }
+
+    /**
+     * Retrieves the number of requests still linked in the wait queues, timed out ones included.
+     *
+     * @return the number of queued requests
+     */
+    int getQueuedRequestCount() {
+        return notEmpty.pending.size() + notFull.pending.size();
+    }
+
+    /**
+     * Retrieves the number of customers and purchases waiting for tickets, blocked or parked.
+     *
+     * @return the number of starved requests
+     */
+    public int getWaitingCustomerCount() {
+        return notEmpty.getWaitingCount();
+    }
+
+    /**
+     * Retrieves the number of vendors and releases waiting for room, blocked or parked.
+     *
+     * @return the number of requests blocked at capacity
+     */
+    public int getWaitingVendorCount() {
+        return notFull.getWaitingCount();
+    }
+
+    /**
+     * Retrieves the number of tickets sold since the pool was created, derived from the shards' id
+     * sequences so purchases pay for no extra counter. Held tickets count once confirmed; tickets
+     * surrendered to or accepted from other partitions' pools are not sales.
+     *
+     * @return the tickets sold so far
+     */
+    public long getSoldTicketCount() {
+        long issued = transferredIn;
+        for (TicketShard shard : shards) {
+            issued += shard.getIssued();
+        }
+        return Math.max(0, issued - getTicketCount() - heldTickets.get());
+    }
+
+    /**
+     * Removes up to the given number of tickets from the pool without waiting.
+     *
+     * @param count      the maximum number of tickets to remove
+     * @param threadName the name of the thread performing the operation
+     * @return the number of tickets removed, or {@code 0} if the pool was empty
+     */
+    public int tryRemoveTickets(int count, String threadName) {
+        if (mustQueueForStock()) {
+            return 0;
+        }
+        int[] claim = new int[shards.length];
+        int claimed = claimTickets(count, false, homeShard(threadName), claim);
+        if (claimed > 0) {
+            completePurchase(claim, claimed, threadName, null);
+        }
+        return claimed;
+    }
+
+    /**
+     * Stores new tickets in slots already reserved by the caller and makes them available to customers.
+     *
+     * @param reservation the number of slots reserved in each shard
+     * @param count       the total number of reserved slots
+     * @param threadName  the name of the thread performing the operation
+     * @param ticketIds   receives the new ticket ids, or {@code null} if the caller does not need them
+     */
+    private void publishTickets(int[] reservation, int count, String threadName, long[] ticketIds) {
+        TicketPoolListener listener = this.listener;
+        if (ticketIds == null && listener != TicketPoolListener.NONE) {
+            ticketIds = new long[count];
+        }
+        int offset = 0;
+        for (int i = 0; i < shards.length; i++) {
+            if (reservation[i] > 0) {
+                shards[i].publish(reservation[i], ticketIds, offset);
+                offset += reservation[i];
+            }
+        }
+        log(LogEventKind.TICKETS_ADDED, threadName, count, 0);
+        notEmpty.signal(count); //Wake one waiting customer per new ticket
+        listener.ticketsReleased(threadName, ticketIds);
+    }
+
+    /**
+     * Takes tickets already claimed by the caller out of their shards and frees their capacity.
+     *
+     * @param claim      the number of tickets claimed from each shard
+     * @param claimed    the total number of claimed tickets
+     * @param threadName the name of the thread performing the operation
+     * @param ticketIds  receives the purchased ticket ids, or {@code null} if the caller does not need them
+     */
+    private void completePurchase(int[] claim, int claimed, String threadName, long[] ticketIds) {
+        TicketPoolListener listener = this.listener;
+        if (ticketIds == null && listener != TicketPoolListener.NONE) {
+            ticketIds = new long[claimed];
+        }
+        int offset = 0;
+        for (int i = 0; i < shards.length; i++) {
+            if (claim[i] > 0) {
+                shards[i].take(claim[i], ticketIds, offset);
+                offset += claim[i];
+            }
+        }
+        log(LogEventKind.TICKETS_PURCHASED, threadName, claimed, 0);
+        notFull.signal(claimed); //Wake one waiting vendor per freed slot
+        listener.ticketsPurchased(threadName, ticketIds);
+    }
+
+    /**
+     * Takes up to the given number of tickets out of the pool without waiting, together with the capacity
+     * they occupy, so they can be handed to another partition's pool with {@link #acceptTickets}. The
+     * tickets keep their ids and are reported to the listener as transferred, not sold. Nothing is
+     * taken while customers are waiting for tickets here.
+     *
+     * @param count     the maximum number of tickets to take
+     * @param recipient the name of the pool the tickets are for
+     * @return the ids of the tickets taken, possibly none
+     */
+    public long[] surrenderTickets(int count, String recipient) {
+        if (count <= 0 || mustQueueForStock()) {
+            return new long[0];
+        }
+        long[] ticketIds;
+        synchronized (shards) {
+            int wanted = Math.min(count, getTicketCount());
+            if (wanted <= 0) {
+                return new long[0];
+            }
+            //Shrink first, so vendors cannot refill the slots the tickets leave while their capacity moves away
+            divideCapacity(maxCapacity - wanted);
+            int[] claim = new int[shards.length];
+            int claimed = claimTickets(wanted, false, homeShard(recipient), claim);
+            ticketIds = new long[claimed];
+            int offset = 0;
+            for (int i = 0; i < shards.length; i++) {
+                if (claim[i] > 0) {
+                    shards[i].take(claim[i], ticketIds, offset);
+                    offset += claim[i];
+                }
+            }
+            maxCapacity -= claimed;
+            transferredIn -= claimed;
+            if (claimed < wanted) {
+                divideCapacity(maxCapacity);
+            }
+        }
+        if (ticketIds.length > 0) {
+            listener.ticketsTransferredOut(recipient, ticketIds);
+        }
+        return ticketIds;
+    }
+
+    /**
+     * Puts tickets surrendered by another partition's pool into this one, keeping their ids, grows the
+     * capacity by as many slots and wakes customers waiting for them. Tickets and slots are spread over
+     * the shards so every shard keeps its share of the capacity, as {@link #surrenderTickets} shrinks
+     * them. The tickets are reported to the listener as transferred, not released.
+     *
+     * @param ticketIds the ids of the tickets
+     * @param donor     the name of the pool the tickets came from
+     */
+    public void acceptTickets(long[] ticketIds, String donor) {
+        int count = ticketIds.length;
+        if (count == 0) {
+            return;
+        }
+        synchronized (shards) {
+            int offset = 0;
+            for (int i = 0; i < shards.length; i++) {
+                int grown = share(maxCapacity + count, i, shards.length) - share(maxCapacity, i, shards.length);
+                if (grown > 0) {
+                    shards[i].admit(grown, ticketIds, offset);
+                    offset += grown;
+                }
+            }
+            maxCapacity += count;
+            transferredIn += count;
+        }
+        notEmpty.signal(count);
+        listener.ticketsTransferredIn(donor, ticketIds);
+    }
+
+    /**
+     * Logs a ticket movement. The pool's ticket count is only summed across the shards if the event
+     * is kept, since reading every shard's counter pulls in cache lines other threads are writing.
+     *
+     * @param kind   what happened
+     * @param actor  the vendor, customer or holder name
+     * @param count  the number of tickets moved
+     * @param holdId the hold id, or {@code 0}
+     */
+    private void log(LogEventKind kind, String actor, int count, long holdId) {
+        if (logWebSocketHandler.isEnabled(kind)) {
+            logWebSocketHandler.log(kind, actor, count, getTicketCount(), holdId);
+        }
+    }
+
+    /**
+     * Reserves room for tickets, starting at the home shard and moving on to the others when it is full.
+     * In all-or-nothing mode a request that no single shard can hold is gathered across shards and
+     * rolled back if the pool as a whole does not have room.
+     *
+     * @param count       the number of slots wanted
+     * @param exact       {@code true} to reserve all slots or none, {@code false} to reserve as many as fit
+     * @param home        the shard to try first
+     * @param reservation receives the number of slots reserved in each shard
+     * @return the total number of slots reserved, or {@code 0} if none were
+     */
+    private int reserveCapacity(int count, boolean exact, int home, int[] reservation) {
+        if (exact && (reservation[home] = shards[home].tryReserve(count, true)) > 0) {
+            return count;
+        }
+        if (exact && shards.length == 1) {
+            return 0;
+        }
+        int reserved = 0;
+        for (int i = 0; i < shards.length && reserved < count; i++) {
+            int shard = (home + i) % shards.length;
+            int taken = shards[shard].tryReserve(count - reserved, false);
+            reservation[shard] = taken;
+            reserved += taken;
+        }
+        if (exact && reserved < count) {
+            for (int i = 0; i < shards.length; i++) {
+                shards[i].cancelReservation(reservation[i]);
+                reservation[i] = 0;
+            }
+            if (reserved > 0) {
+                notFull.signal(reserved);
+            }
+            return 0;
+        }
+        return reserved;
+    }
+
+    /**
+     * Claims tickets, starting at the home shard and stealing from the others when it runs dry.
+     * In all-or-nothing mode a request that no single shard can fill is gathered across shards and
+     * rolled back if the pool as a whole does not hold enough tickets.
+     *
+     * @param count the number of tickets wanted
+     * @param exact {@code true} to claim all tickets or none, {@code false} to claim as many as are available
+     * @param home  the shard to try first
+     * @param claim receives the number of tickets claimed from each shard
+     * @return the total number of tickets claimed, or {@code 0} if none were
+     */
+    private int claimTickets(int count, boolean exact, int home, int[] claim) {
+        if (exact && (claim[home] = shards[home].tryClaim(count, true)) > 0) {
+            return count;
+        }
+        if (exact && shards.length == 1) {
+            return 0;
+        }
+        int claimed = 0;
+        for (int i = 0; i < shards.length && claimed < count; i++) {
+            int shard = (home + i) % shards.length;
+            int taken = shards[shard].tryClaim(count - claimed, false);
+            claim[shard] = taken;
+            claimed += taken;
+        }
+        if (exact && claimed < count) {
+            for (int i = 0; i < shards.length; i++) {
+                shards[i].cancelClaim(claim[i]);
+                claim[i] = 0;
+            }
+            if (claimed > 0) {
+                notEmpty.signal(claimed);
+            }
+            return 0;
+        }
+        return claimed;
+    }
+
+    /**
+     * Checks whether a customer must join the queue instead of claiming tickets directly, which is the
+     * case in fair mode while other customers are already waiting.
+     *
+     * @return {@code true} if the customer must queue
+     */
+    private boolean mustQueueForStock() {
+        return fairCustomers && notEmpty.hasWaiters();
+    }
+
+    /**
+     * Acquires the pool lock, recording how long the caller was held up if another thread owned it.
+     */
+    private void acquireLock() {
+        if (!lock.tryLock()) {
+            long startNanos = System.nanoTime();
+            lock.lock();
+            metrics.lockContention().record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Retrieves the number of free ticket slots across all shards.
+     *
+     * @return the free capacity
+     */
+    private int getFreeCapacity() {
+        int free = 0;
+        for (TicketShard shard : shards) {
+            free += shard.getFree();
+        }
+        return free;
+    }
+
+    /**
+     * Acquires tickets or slots from the shards; implemented by {@link #claimTickets} and {@link #reserveCapacity}.
+     */
+    @FunctionalInterface
+    private interface ShardAcquirer {
+        int acquire(int count, boolean exact, int home, int[] perShard);
+    }
+
+    /**
+     * One side of the pool's blocking slow path: the threads waiting for room ("not full") or for
+     * tickets ("not empty"). Waiters park on their own {@link Condition}, so an operation only wakes
+     * threads on the side it made progress for, and only as many as it has tickets or slots for.
+     * If an all-or-nothing waiter is queued every waiter is woken instead, because whether it can
+     * proceed depends on how much was freed, not just on something being freed.
+     * Asynchronous requests wait beside the threads as {@link PendingWait}s in a lock-free FIFO queue.
+     * Whichever thread frees tickets or slots serves them from the head of the queue, and only one
+     * thread drains the queue at a time; others that arrive meanwhile only leave a note for it to go round again.
+     */
+    private final class WaitQueue {
+        private final Condition condition = lock.newCondition();
+        private final AtomicInteger waiters = new AtomicInteger();
+        private final AtomicInteger exactWaiters = new AtomicInteger();
+        private final Timer waitTimer;
+        private final boolean fifo;
+        private final IntSupplier available;
+        private final ShardAcquirer acquirer;
+        private final boolean reservations;
+        private final ConcurrentLinkedQueue<PendingWait<?>> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger pendingCount = new AtomicInteger();
+        private final AtomicInteger expiredCount = new AtomicInteger(); //Timed out but still linked in the queue
+        private final AtomicInteger drainRequests = new AtomicInteger();
+        private volatile Thread drainer;
+
+        /**
+         * Constructs a new {@link WaitQueue}.
+         *
+         * @param waitTimer    records the time each caller spends waiting
+         * @param fifo         {@code true} so a newly arriving waiter never overtakes one already queued
+         * @param available    the amount of the resource waiters need that is currently free
+         * @param acquirer     acquires the resource for a parked request
+         * @param reservations {@code true} if the resource is capacity, {@code false} if it is tickets
+         */
+        WaitQueue(Timer waitTimer, boolean fifo, IntSupplier available, ShardAcquirer acquirer, boolean reservations) {
+            this.waitTimer = waitTimer;
+            this.fifo = fifo;
+            this.available = available;
+            this.acquirer = acquirer;
+            this.reservations = reservations;
+        }
+
+        boolean hasWaiters() {
+            return waiters.get() > 0 || pendingCount.get() > 0;
+        }
+
+        int getPendingCount() {
+            return pendingCount.get();
+        }
+
+        int getWaitingCount() {
+            return waiters.get() + pendingCount.get();
+        }
+
+        /**
+         * Parks the calling thread until the given reservation attempt succeeds or the timeout elapses.
+         * The waiter count is raised before retrying so a concurrent add or remove that misses
+         * the retry is guaranteed to see the waiter and signal it. A waiter that leaves passes the
+         * signal on if more of the resource is left, so waking one thread at a time never strands others.
+         *
+         * @param attempt      the reservation to retry; returns {@code 0} on failure
+         * @param exact        {@code true} if the attempt needs more than one ticket or slot at once
+         * @param timeoutNanos how long to wait, or {@link Long#MAX_VALUE} to wait indefinitely
+         * @return the attempt's result, or {@code 0} if the timeout elapsed or the thread was interrupted
+         */
+        int await(IntSupplier attempt, boolean exact, long timeoutNanos) {
+            long startNanos = System.nanoTime();
+            acquireLock();
+            boolean queuedBehind = fifo && (waiters.get() > 0 || pendingCount.get() > 0);
+            waiters.incrementAndGet();
+            if (exact) {
+                exactWaiters.incrementAndGet();
+            }
             try {
-                logWebSocketHandler.addLog(threadName + ": No tickets available. Waiting...");
-                System.out.println(threadName + ": No tickets available. Waiting...");
-                wait();
+                int result;
+                boolean woken = false;
+                long remaining = timeoutNanos;
+                while (queuedBehind || (result = attempt.getAsInt()) == 0) {
+                    if (woken && !queuedBehind) {
+                        metrics.recordWakeup(false);
+                    }
+                    queuedBehind = false;
+                    if (timeoutNanos == Long.MAX_VALUE) {
+                        condition.await();
+                    } else if (remaining <= 0) {
+                        return 0;
+                    } else {
+                        remaining = condition.awaitNanos(remaining);
+                    }
+                    woken = true;
+                }
+                if (woken) {
+                    metrics.recordWakeup(true);
+                }
+                return result;
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
+                return 0;
+            } finally {
+                if (waiters.get() > 1 && available.getAsInt() > 0) {
+                    condition.signal(); //Pass the wakeup on, also when giving up
+                }
+                waiters.decrementAndGet();
+                if (exact) {
+                    exactWaiters.decrementAndGet();
+                }
+                lock.unlock();
+                waitTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        /**
+         * Wakes waiters after the given number of tickets or slots became available, if there are any.
+         *
+         * @param permits the number of tickets or slots that became available
+         */
+        void signal(int permits) {
+            if (pendingCount.get() > 0 && drainer != Thread.currentThread()) {
+                drain(); //The draining thread's own rollbacks freed nothing new
+            }
+            int waiting = waiters.get();
+            if (waiting == 0) {
                 return;
             }
+            acquireLock();
+            try {
+                if (exactWaiters.get() > 0) {
+                    condition.signalAll();
+                } else {
+                    for (int i = Math.min(permits, waiting); i > 0; i--) {
+                        condition.signal();
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Acquires the resource for an asynchronous request, or parks the request as a continuation.
+         * Parked requests are served in arrival order, and the queue is drained once more after
+         * parking so that a release landing between the failed attempt and the enqueue is not missed.
+         *
+         * @param count        the number of tickets or slots wanted
+         * @param exact        {@code true} to acquire all of them or none
+         * @param home         the shard to try first
+         * @param perShard     receives the number acquired from each shard
+         * @param timeoutNanos how long to wait, {@code 0} to complete immediately, or {@link Long#MAX_VALUE} to wait indefinitely
+         * @param finish       turns the number acquired into the request's result; {@code 0} means it timed out
+         * @return the future completed with the result
+         */
+        <T> CompletableFuture<T> submit(int count, boolean exact, int home, int[] perShard, long timeoutNanos,
+                                        IntFunction<T> finish) {
+            if (pendingCount.get() == 0 && !(fifo && waiters.get() > 0)) {
+                int acquired = acquirer.acquire(count, exact, home, perShard);
+                if (acquired > 0 || timeoutNanos <= 0) {
+                    return CompletableFuture.completedFuture(finish.apply(acquired));
+                }
+            } else if (timeoutNanos <= 0) {
+                return CompletableFuture.completedFuture(finish.apply(0));
+            }
+            PendingWait<T> wait = new PendingWait<>(this, count, exact, home, perShard, timeoutNanos, finish);
+            pendingCount.incrementAndGet();
+            pending.offer(wait);
+            if (timeoutNanos < Long.MAX_VALUE / 2) {
+                expiryWheel().schedule(wait);
+            }
+            drain();
+            return wait.future;
+        }
+
+        /**
+         * Serves parked requests from the head of the queue for as long as the resource lasts.
+         * A request that timed out after its tickets or slots were acquired hands them back.
+         * Only the draining thread unlinks requests, so it also compacts the queue once timed-out
+         * requests outnumber live ones, however long the head stays blocked.
+         */
+        void drain() {
+            if (drainRequests.getAndIncrement() != 0) {
+                return;
+            }
+            int requests = 1;
+            do {
+                drainer = Thread.currentThread();
+                if (mustCompact()) {
+                    compact();
+                }
+                PendingWait<?> head;
+                while ((head = pending.peek()) != null) {
+                    if (head.isSettled()) {
+                        pending.poll();
+                        expiredCount.decrementAndGet();
+                        continue;
+                    }
+                    int acquired = acquirer.acquire(head.count, head.exact, head.home, head.perShard);
+                    if (acquired == 0) {
+                        break;
+                    }
+                    pending.poll();
+                    if (head.settle()) {
+                        head.complete(acquired);
+                    } else {
+                        expiredCount.decrementAndGet();
+                        for (int i = 0; i < shards.length; i++) {
+                            if (reservations) {
+                                shards[i].cancelReservation(head.perShard[i]);
+                            } else {
+                                shards[i].cancelClaim(head.perShard[i]);
+                            }
+                        }
+                        signal(acquired);
+                    }
+                }
+                drainer = null;
+                requests = drainRequests.addAndGet(-requests);
+            } while (requests != 0);
+        }
+
+        /**
+         * Completes a parked request empty-handed once its timeout elapses. Called on the timing wheel thread.
+         *
+         * @param wait the request
+         */
+        void expire(PendingWait<?> wait) {
+            if (wait.settle()) {
+                wait.complete(0);
+                //Left in the queue, where a drain skips it at the head or unlinks it with the rest once there are too many
+                expiredCount.incrementAndGet();
+                if (mustCompact()) {
+                    drain();
+                }
+            }
+        }
+
+        private boolean mustCompact() {
+            return expiredCount.get() > Math.max(MIN_EXPIRED_BEFORE_COMPACTION, pendingCount.get());
+        }
+
+        /**
+         * Unlinks every timed-out request from the queue. Called by the draining thread only.
+         */
+        private void compact() {
+            int unlinked = 0;
+            for (Iterator<PendingWait<?>> it = pending.iterator(); it.hasNext(); ) {
+                if (it.next().isSettled()) {
+                    it.remove();
+                    unlinked++;
+                }
+            }
+            expiredCount.addAndGet(-unlinked);
+        }
+    }
+
+    /**
+     * An asynchronous request parked on a {@link WaitQueue}. It is settled exactly once, either by
+     * the thread that acquired its tickets or slots or by the timing wheel when its timeout elapses;
+     * its future is completed on a completion thread so neither of those runs the caller's continuations.
+     */
+    private final class PendingWait<T> extends TimingWheel.Timeout {
+        private final WaitQueue queue;
+        private final int count;
+        private final boolean exact;
+        private final int home;
+        private final int[] perShard;
+        private final IntFunction<T> finish;
+        private final long startNanos = System.nanoTime();
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+        private final AtomicBoolean settled = new AtomicBoolean();
+
+        PendingWait(WaitQueue queue, int count, boolean exact, int home, int[] perShard, long timeoutNanos,
+                    IntFunction<T> finish) {
+            super(System.nanoTime() + Math.min(timeoutNanos, Long.MAX_VALUE / 2));
+            this.queue = queue;
+            this.count = count;
+            this.exact = exact;
+            this.home = home;
+            this.perShard = perShard;
+            this.finish = finish;
+        }
+
+        boolean settle() {
+            if (!settled.compareAndSet(false, true)) {
+                return false;
+            }
+            queue.pendingCount.decrementAndGet();
+            return true;
         }
-        for (int i = 0; i < count && !tickets.isEmpty(); i++) {
-            tickets.remove(0);
+
+        /**
+         * Builds the result and completes the future on a completion thread, so neither building it nor
+         * the caller's dependent stages hold up the thread that settled the request.
+         */
+        void complete(int acquired) {
+            queue.waitTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+            future.completeAsync(() -> finish.apply(acquired), COMPLETIONS);
+        }
+
+        @Override
+        boolean isSettled() {
+            return settled.get();
         }
-        logWebSocketHandler.addLog(threadName + " purchased a ticket. Remaining tickets: " + tickets.size());
-        System.out.println(threadName + " purchased a ticket. Remaining tickets: " + tickets.size());
-        notifyAll();
+
+        @Override
+        void expire() {
+            queue.expire(this);
+        }
+    }
+
+    /**
+     * Registers the listener notified after every release and purchase, replacing any previous one.
+     *
+     * @param listener the listener, or {@link TicketPoolListener#NONE} to stop notifying
+     */
+    public void setListener(TicketPoolListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Puts a waiting room in front of the pool's simulated customers, replacing any previous one.
+     *
+     * @param waitingRoom the waiting room, or {@code null} to let customers straight in
+     */
+    public void setWaitingRoom(WaitingRoom waitingRoom) {
+        this.waitingRoom = waitingRoom;
+    }
+
+    /**
+     * Retrieves the waiting room in front of the pool.
+     *
+     * @return the waiting room, or {@code null} if customers go straight to the pool
+     */
+    public WaitingRoom getWaitingRoom() {
+        return waitingRoom;
+    }
+
+    /**
+     * Retrieves the maximum number of tickets the pool can hold.
+     *
+     * @return the pool capacity
+     */
+    public int getMaxCapacity() {
+        return maxCapacity;
+    }
+
+    /**
+     * Retrieves the instrumentation used by this pool.
+     *
+     * @return the pool metrics
+     */
+    TicketPoolMetrics getMetrics() {
+        return metrics;
     }
 
     /**
      * Retrieves the current number of tickets in the pool.
+     * Sums the shards' atomic counters without taking any lock, so polling dashboards never
+     * contend with vendors and customers.
      *
      * @return the current ticket count
      */
-    public synchronized int getTicketCount() {
-        return tickets.size();
+    public int getTicketCount() {
+        int total = 0;
+        for (TicketShard shard : shards) {
+            total += shard.getAvailable();
+        }
+        return total;
+    }
+
+    /**
+     * Retrieves the number of internal shards.
+     *
+     * @return the shard count
+     */
+    public int getShardCount() {
+        return shards.length;
     }
 
     /**
@@ -102,41 +1292,226 @@ public class TicketPool {
      *
      * @return {@code true} if the system is running, {@code false} otherwise
      */
-    public synchronized boolean isRunning() {
+    public boolean isRunning() {
         return running;
     }
 
 
     /**
-     * Starts the ticketing system by initializing and starting vendor and customer threads.
+     * Starts the ticketing system by initializing and starting vendor and customer platform threads.
      *
      * @param numVendors            the number of vendor threads to start
      * @param numCustomers          the number of customer threads to start
-     * @param ticketReleaseRate     the time interval for vendors to add tickets (in milliseconds)
-     * @param customerRetrievalRate the time interval for customers to retrieve tickets (in milliseconds)
+     * @param ticketReleaseRate     the time interval for vendors to add tickets (in seconds, fractions allowed)
+     * @param customerRetrievalRate the time interval for customers to retrieve tickets (in seconds, fractions allowed)
      * @throws IllegalStateException if the system is already running
      */
-    public void startTicketingSystem(int numVendors, int numCustomers, int ticketReleaseRate, int customerRetrievalRate) {
+    public void startTicketingSystem(int numVendors, int numCustomers, double ticketReleaseRate, double customerRetrievalRate) {
+        startTicketingSystem(numVendors, numCustomers, ticketReleaseRate, customerRetrievalRate, ExecutionMode.PLATFORM);
+    }
+
+    /**
+     * Starts the ticketing system by initializing vendors and customers and running them
+     * with the given execution mode.
+     *
+     * @param numVendors            the number of vendors to start
+     * @param numCustomers          the number of customers to start
+     * @param ticketReleaseRate     the time interval for vendors to add tickets (in seconds, fractions allowed)
+     * @param customerRetrievalRate the time interval for customers to retrieve tickets (in seconds, fractions allowed)
+     * @param executionMode         whether vendors and customers run on platform threads, virtual threads or the scheduler
+     * @throws IllegalStateException if the system is already running
+     */
+    public void startTicketingSystem(int numVendors, int numCustomers, double ticketReleaseRate, double customerRetrievalRate,
+                                     ExecutionMode executionMode) {
         if (running) {
             throw new IllegalStateException("Ticketing system is already running.");
         }
         running = true;
+        this.executionMode = executionMode;
+        listener.poolStarted();
+
+        if (executionMode == ExecutionMode.SCHEDULED) {
+            scheduler = schedulerFactory.get();
+            scheduler.start();
+        }
+        //Start vendors and customers, on their own threads or registered with the scheduler
+        vendors = scale(List.of(), vendorThreads, numVendors, ticketReleaseRate, (i, rate) -> new Vendor(this, rate, "Vendor " + i));
+        customers = scale(List.of(), customerThreads, numCustomers, customerRetrievalRate,
+                (i, rate) -> new Customer(this, rate, "Customer " + i));
+    }
+
+    /**
+     * Applies a new configuration to the pool without stopping it. The capacity changes at once; if
+     * the system is running, vendors and customers are added or retired to reach the new counts and
+     * every actor switches to the new rate after its current interval. Operations already under way
+     * complete: a retired actor finishes the operation it is in, and a smaller capacity removes no
+     * tickets but keeps vendors out until purchases bring the pool under it.
+     *
+     * @param maxCapacity           the new maximum number of tickets the pool can hold
+     * @param numVendors            the number of vendors to run
+     * @param numCustomers          the number of customers to run
+     * @param ticketReleaseRate     the time interval for vendors to add tickets (in seconds, fractions allowed)
+     * @param customerRetrievalRate the time interval for customers to retrieve tickets (in seconds, fractions allowed)
+     * @throws IllegalArgumentException if the capacity is not positive or an actor count is negative
+     */
+    public void reconfigure(int maxCapacity, int numVendors, int numCustomers, double ticketReleaseRate,
+                            double customerRetrievalRate) {
+        if (numVendors < 0 || numCustomers < 0) {
+            throw new IllegalArgumentException("Vendor and customer counts must not be negative.");
+        }
+        resize(maxCapacity);
+        int previousVendors = vendors.size();
+        int previousCustomers = customers.size();
+        retuneVendors(numVendors, ticketReleaseRate);
+        for (Customer customer : customers) {
+            customer.setIntervalSeconds(customerRetrievalRate, nanoTime());
+        }
+        if (running) {
+            customers = scale(customers, customerThreads, numCustomers, customerRetrievalRate,
+                    (i, rate) -> new Customer(this, rate, "Customer " + i));
+            if (previousVendors != numVendors || previousCustomers != numCustomers) {
+                logWebSocketHandler.addLog("Now running " + numVendors + " vendors and " + numCustomers + " customers.");
+            }
+        }
+    }
 
-        // Start vendor threads
-        for (int i = 0; i < numVendors; i++) {
-            Vendor vendor = new Vendor(this, ticketReleaseRate);
-            Thread vendorThread = new Thread(vendor, "Vendor " + (i + 1));
-            vendorThreads.add(vendorThread);
-            vendorThread.start();
+    /**
+     * Changes every vendor's release interval and, if the system is running, adds or retires vendors
+     * to reach the given count. Customers and the capacity are left alone.
+     *
+     * @param numVendors        the number of vendors to run
+     * @param ticketReleaseRate the time interval for vendors to add tickets (in seconds, fractions allowed)
+     * @throws IllegalArgumentException if the vendor count is negative
+     */
+    public void retuneVendors(int numVendors, double ticketReleaseRate) {
+        if (numVendors < 0) {
+            throw new IllegalArgumentException("Vendor count must not be negative.");
+        }
+        for (Vendor vendor : vendors) {
+            vendor.setIntervalSeconds(ticketReleaseRate, nanoTime());
+        }
+        if (running) {
+            vendors = scale(vendors, vendorThreads, numVendors, ticketReleaseRate, (i, rate) -> new Vendor(this, rate, "Vendor " + i));
         }
+    }
 
-        // Start customer threads
-        for (int i = 0; i < numCustomers; i++) {
-            Customer customer = new Customer(this, customerRetrievalRate);
-            Thread customerThread = new Thread(customer, "Customer " + (i + 1));
-            customerThreads.add(customerThread);
-            customerThread.start();
+    /**
+     * Changes the maximum number of tickets the pool can hold, dividing it between the shards as at construction.
+     * Vendors and releases waiting for room are woken if the pool grew.
+     *
+     * @param newCapacity the new capacity
+     * @throws IllegalArgumentException if the capacity is not positive
+     */
+    public void resize(int newCapacity) {
+        if (newCapacity <= 0) {
+            throw new IllegalArgumentException("Pool capacity must be positive.");
+        }
+        int previous = maxCapacity;
+        if (newCapacity == previous) {
+            return;
+        }
+        synchronized (shards) {
+            divideCapacity(newCapacity);
+            maxCapacity = newCapacity;
+        }
+        logWebSocketHandler.addLog("Pool capacity changed from " + previous + " to " + newCapacity + ". Total ticket count: " + getTicketCount());
+        if (newCapacity > previous) {
+            notFull.signal(newCapacity - previous);
+        }
+    }
+
+    /**
+     * Splits a capacity between the shards as at construction. Callers hold the shards' monitor.
+     */
+    private void divideCapacity(int capacity) {
+        for (int i = 0; i < shards.length; i++) {
+            shards[i].setCapacity(share(capacity, i, shards.length));
+        }
+    }
+
+    /**
+     * Grows or shrinks a group of actors to the target count. New actors are numbered after the
+     * existing ones and started on their own threads or registered with the scheduler; the newest
+     * actors are retired first, by interrupting their threads or unregistering them.
+     *
+     * @param actors  the current actors
+     * @param threads the threads running them, in the same order, unless the scheduler drives them
+     * @param target  the number of actors wanted
+     * @param rate    the interval for new actors
+     * @param create  creates the actor with the given number
+     * @return the actors now running
+     */
+    private <A extends TicketActor> List<A> scale(List<A> actors, List<Thread> threads, int target, double rate,
+                                                  BiFunction<Integer, Double, A> create) {
+        List<A> scaled = new ArrayList<>(actors.subList(0, Math.min(target, actors.size())));
+        for (int i = actors.size() - 1; i >= target; i--) {
+            if (scheduler != null) {
+                scheduler.unregister(actors.get(i));
+            } else {
+                threads.remove(i).interrupt();
+            }
+        }
+        for (int i = actors.size(); i < target; i++) {
+            A actor = create.apply(i + 1, rate);
+            actor.startMeasuring(nanoTime());
+            scaled.add(actor);
+            if (scheduler != null) {
+                scheduler.register(actor);
+            } else {
+                Thread.Builder threadBuilder = executionMode == ExecutionMode.VIRTUAL ? Thread.ofVirtual() : Thread.ofPlatform();
+                threads.add(threadBuilder.name(actor.getName()).start(actor));
+            }
         }
+        return scaled;
+    }
+
+    /**
+     * Compares the target and achieved rates of the running vendors and customers.
+     *
+     * @return one report for vendors and one for customers
+     */
+    public List<RateReport> getRateReports() {
+        long now = nanoTime();
+        return List.of(
+                RateReport.of("vendors", vendors, now),
+                RateReport.of("customers", customers, now)
+        );
+    }
+
+    /**
+     * Reads the clock actors are timed by: the scheduler's while it drives them, the system's otherwise.
+     */
+    private long nanoTime() {
+        ActorScheduler current = scheduler;
+        return current != null ? current.nanoTime() : System.nanoTime();
+    }
+
+    /**
+     * Replaces how the scheduler driving {@link ExecutionMode#SCHEDULED} actors is created, so tests
+     * can drive the actors with their own clock.
+     *
+     * @param schedulerFactory creates the scheduler on every start
+     */
+    void setSchedulerFactory(Supplier<ActorScheduler> schedulerFactory) {
+        this.schedulerFactory = schedulerFactory;
+    }
+
+    /**
+     * Retrieves the vendors started by the last call to {@code startTicketingSystem}.
+     *
+     * @return an unmodifiable list of vendors; empty once the system is stopped
+     */
+    public List<Vendor> getVendors() {
+        return Collections.unmodifiableList(vendors);
+    }
+
+    /**
+     * Retrieves the customers started by the last call to {@code startTicketingSystem}.
+     *
+     * @return an unmodifiable list of customers; empty once the system is stopped
+     */
+    public List<Customer> getCustomers() {
+        return Collections.unmodifiableList(customers);
     }
 
 
@@ -147,6 +1522,11 @@ public class TicketPool {
     public void stopTicketingSystem() {
         running = false;
 
+        if (scheduler != null) {
+            scheduler.shutdown();
+            scheduler = null;
+        }
+
         // Interrupt vendor threads
         for (Thread vendorThread : vendorThreads) {
             vendorThread.interrupt();
@@ -158,9 +1538,11 @@ public class TicketPool {
             customerThread.interrupt();
         }
         customerThreads.clear();
+        vendors = List.of();
+        customers = List.of();
 
-        logWebSocketHandler.addLog("Ticketing system stopped.");
-        System.out.println("Ticketing system stopped.");
+        listener.poolStopped();
+        logWebSocketHandler.log(LogEventKind.SYSTEM_STOPPED, null, 0, getTicketCount());
     }
 }
 
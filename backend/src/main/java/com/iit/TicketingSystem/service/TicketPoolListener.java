@@ -0,0 +1,113 @@
+package com.iit.TicketingSystem.service;
+
+/**
+ * Callback notified after tickets move in or out of a {@link TicketPool}, and when it starts or stops.
+ * Listeners run on the vendor, customer or rebalancing thread that moved the tickets, after the move has
+ * completed, so they must hand work off rather than block.
+ */
+public interface TicketPoolListener {
+    /** Listener that ignores every notification. */
+    TicketPoolListener NONE = new TicketPoolListener() {
+    };
+
+    /**
+     * Called after a vendor released tickets into the pool.
+     *
+     * @param actor     the vendor name
+     * @param ticketIds the ids of the released tickets
+     */
+    default void ticketsReleased(String actor, long[] ticketIds) {
+    }
+
+    /**
+     * Called after a customer purchased tickets from the pool.
+     *
+     * @param actor     the customer name
+     * @param ticketIds the ids of the purchased tickets
+     */
+    default void ticketsPurchased(String actor, long[] ticketIds) {
+    }
+
+    /**
+     * Called after tickets were handed to another partition's pool during a rebalance.
+     *
+     * @param recipient the name of the pool that received the tickets
+     * @param ticketIds the ids of the tickets that left the pool
+     */
+    default void ticketsTransferredOut(String recipient, long[] ticketIds) {
+    }
+
+    /**
+     * Called after tickets from another partition's pool were put into the pool during a rebalance.
+     *
+     * @param donor     the name of the pool the tickets came from
+     * @param ticketIds the ids of the tickets that entered the pool
+     */
+    default void ticketsTransferredIn(String donor, long[] ticketIds) {
+    }
+
+    /**
+     * Called after the pool's vendors and customers were started.
+     */
+    default void poolStarted() {
+    }
+
+    /**
+     * Called after the pool's vendors and customers were stopped.
+     */
+    default void poolStopped() {
+    }
+
+    /**
+     * Combines this listener with another that is notified after it.
+     *
+     * @param next the listener notified second
+     * @return a listener notifying both
+     */
+    default TicketPoolListener andThen(TicketPoolListener next) {
+        if (next == NONE) {
+            return this;
+        }
+        if (this == NONE) {
+            return next;
+        }
+        TicketPoolListener first = this;
+        return new TicketPoolListener() {
+            @Override
+            public void ticketsReleased(String actor, long[] ticketIds) {
+                first.ticketsReleased(actor, ticketIds);
+                next.ticketsReleased(actor, ticketIds);
+            }
+
+            @Override
+            public void ticketsPurchased(String actor, long[] ticketIds) {
+                first.ticketsPurchased(actor, ticketIds);
+                next.ticketsPurchased(actor, ticketIds);
+            }
+
+            @Override
+            public void ticketsTransferredOut(String recipient, long[] ticketIds) {
+                first.ticketsTransferredOut(recipient, ticketIds);
+                next.ticketsTransferredOut(recipient, ticketIds);
+            }
+
+            @Override
+            public void ticketsTransferredIn(String donor, long[] ticketIds) {
+                first.ticketsTransferredIn(donor, ticketIds);
+                next.ticketsTransferredIn(donor, ticketIds);
+            }
+
+            @Override
+            public void poolStarted() {
+                first.poolStarted();
+                next.poolStarted();
+            }
+
+            @Override
+            public void poolStopped() {
+                first.poolStopped();
+                next.poolStopped();
+            }
+        };
+    }
+}
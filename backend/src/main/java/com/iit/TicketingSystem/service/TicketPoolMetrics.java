@@ -0,0 +1,269 @@
+package com.iit.TicketingSystem.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Micrometer instrumentation for {@link TicketPool} operations.
+ * Every meter is registered up front or once per simulated actor, so recording on the hot path is a field
+ * read plus a counter or histogram update and never allocates. The bean instruments the default
+ * event; {@link #forEvent(String)} returns instances whose meters carry another event's tag.
+ */
+@Component
+public class TicketPoolMetrics {
+    private static final String API_ACTOR = "api";
+    private final MeterRegistry registry;
+    private final Tags tags;
+    private final Timer capacityWait;
+    private final Timer stockWait;
+    private final Timer lockContention;
+    private final Counter servedWakeups;
+    private final Counter spuriousWakeups;
+    private final Timer queueWait;
+    private final Counter queueAdmissions;
+    private final Counter queueRejections;
+    private final Map<String, Counter> holdCounters;
+    private final Counter apiReleases;
+    private final Counter apiPurchases;
+    private final Map<String, TicketPoolMetrics> eventMetrics;
+    private Gauge ticketGauge;
+    private Gauge pendingGauge;
+    private Gauge queueGauge;
+    private Gauge demandGauge;
+    private Gauge supplyGauge;
+
+    /**
+     * Constructs a new {@link TicketPoolMetrics} for the default event.
+     *
+     * @param registry the registry that meters are published to
+     */
+    @Autowired
+    public TicketPoolMetrics(MeterRegistry registry) {
+        this(registry, TicketPoolRegistry.DEFAULT_EVENT, new ConcurrentHashMap<>());
+        eventMetrics.put(TicketPoolRegistry.DEFAULT_EVENT, this);
+    }
+
+    private TicketPoolMetrics(MeterRegistry registry, String eventId, Map<String, TicketPoolMetrics> eventMetrics) {
+        this.registry = registry;
+        this.tags = Tags.of("event", eventId);
+        this.eventMetrics = eventMetrics;
+        this.capacityWait = waitTimer("capacity_full");
+        this.stockWait = waitTimer("pool_empty");
+        this.lockContention = Timer.builder("ticketing.pool.lock.contention")
+                .description("Time spent acquiring the pool lock when it was already held")
+                .tags(tags)
+                .publishPercentileHistogram()
+                .register(registry);
+        this.servedWakeups = wakeupCounter("served");
+        this.spuriousWakeups = wakeupCounter("spurious");
+        this.queueWait = Timer.builder("ticketing.waitingroom.wait")
+                .description("Time customers spend in the waiting room before being admitted to the pool")
+                .tags(tags)
+                .publishPercentileHistogram()
+                .register(registry);
+        this.queueAdmissions = admissionCounter("accepted");
+        this.queueRejections = admissionCounter("rejected");
+        this.holdCounters = Map.of(
+                "confirmed", holdCounter("confirmed"),
+                "released", holdCounter("released"),
+                "expired", holdCounter("expired"));
+        this.apiReleases = vendorCounter(API_ACTOR);
+        this.apiPurchases = customerCounter(API_ACTOR);
+    }
+
+    private Counter holdCounter(String outcome) {
+        return Counter.builder("ticketing.holds.settled")
+                .description("Ticket holds settled, by whether they were confirmed, released or expired")
+                .tags(tags)
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    private Counter admissionCounter(String outcome) {
+        return Counter.builder("ticketing.waitingroom.arrivals")
+                .description("Customers arriving at the waiting room, by whether they were queued or turned away")
+                .tags(tags)
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    private Counter wakeupCounter(String outcome) {
+        return Counter.builder("ticketing.pool.wakeups")
+                .description("Times a blocked vendor or customer was woken, by whether it could then proceed")
+                .tags(tags)
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    /**
+     * Creates metrics backed by a registry with no backends, for pools used outside Spring.
+     *
+     * @return metrics that record nothing
+     */
+    public static TicketPoolMetrics noop() {
+        return new TicketPoolMetrics(new CompositeMeterRegistry());
+    }
+
+    /**
+     * Retrieves the metrics for another event, sharing this instance's registry.
+     *
+     * @param eventId the event id used as the {@code event} tag
+     * @return the event's metrics
+     */
+    public TicketPoolMetrics forEvent(String eventId) {
+        return eventMetrics.computeIfAbsent(eventId, id -> new TicketPoolMetrics(registry, id, eventMetrics));
+    }
+
+    private Timer waitTimer(String reason) {
+        return Timer.builder("ticketing.pool.wait")
+                .description("Time vendors and customers spend blocked on a full or empty pool")
+                .tags(tags)
+                .tag("reason", reason)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofNanos(1_000))
+                .maximumExpectedValue(Duration.ofMinutes(5))
+                .register(registry);
+    }
+
+    /**
+     * Publishes gauges of the tickets currently available in a pool and of the requests parked on it,
+     * replacing the gauges of any pool previously bound for the same event.
+     *
+     * @param pool the pool to observe; held weakly by the gauges
+     */
+    synchronized void bindPool(TicketPool pool) {
+        if (ticketGauge != null) {
+            registry.remove(ticketGauge);
+            registry.remove(pendingGauge);
+        }
+        ticketGauge = Gauge.builder("ticketing.pool.tickets", pool, TicketPool::getTicketCount)
+                .description("Tickets currently available for purchase")
+                .tags(tags)
+                .register(registry);
+        pendingGauge = Gauge.builder("ticketing.pool.pending", pool, TicketPool::getPendingRequestCount)
+                .description("Asynchronous purchases, holds and releases parked on a full or empty pool")
+                .tags(tags)
+                .register(registry);
+    }
+
+    /**
+     * Publishes a gauge of the customers queued in a waiting room, replacing the gauge of any
+     * waiting room previously bound for the same event.
+     *
+     * @param waitingRoom the waiting room to observe; held weakly by the gauge
+     */
+    synchronized void bindWaitingRoom(WaitingRoom waitingRoom) {
+        if (queueGauge != null) {
+            registry.remove(queueGauge);
+        }
+        queueGauge = Gauge.builder("ticketing.waitingroom.queued", waitingRoom, WaitingRoom::getQueueLength)
+                .description("Customers waiting to be admitted to the pool")
+                .tags(tags)
+                .register(registry);
+    }
+
+    /**
+     * Publishes gauges of the purchase rate an autoscaler measured and the release rate it chose,
+     * replacing the gauges of any autoscaler previously bound for the same event.
+     *
+     * @param autoscaler the autoscaler to observe; held weakly by the gauges
+     */
+    synchronized void bindAutoscaler(VendorAutoscaler autoscaler) {
+        if (demandGauge != null) {
+            registry.remove(demandGauge);
+            registry.remove(supplyGauge);
+        }
+        demandGauge = Gauge.builder("ticketing.autoscale.demand", autoscaler, VendorAutoscaler::getDemandRate)
+                .description("Tickets sold per second, as last measured by the vendor autoscaler")
+                .tags(tags)
+                .register(registry);
+        supplyGauge = Gauge.builder("ticketing.autoscale.supply", autoscaler, VendorAutoscaler::getSupplyRate)
+                .description("Tickets per second the vendor autoscaler has all vendors releasing")
+                .tags(tags)
+                .register(registry);
+    }
+
+    /**
+     * Creates the per-actor counter of tickets released by a vendor.
+     *
+     * @param vendor the vendor name
+     * @return the counter
+     */
+    Counter vendorCounter(String vendor) {
+        return Counter.builder("ticketing.tickets.released").tags(tags).tag("vendor", vendor).register(registry);
+    }
+
+    /**
+     * Creates the per-actor counter of tickets purchased by a customer.
+     *
+     * @param customer the customer name
+     * @return the counter
+     */
+    Counter customerCounter(String customer) {
+        return Counter.builder("ticketing.tickets.purchased").tags(tags).tag("customer", customer).register(registry);
+    }
+
+    /**
+     * Records tickets moved through the REST API. They are counted under the single actor {@code "api"},
+     * since callers name themselves and per-name series would let any client create unbounded time series.
+     *
+     * @param released {@code true} for releases, {@code false} for purchases
+     * @param count    the number of tickets moved
+     */
+    public void recordApiTickets(boolean released, int count) {
+        (released ? apiReleases : apiPurchases).increment(count);
+    }
+
+    /**
+     * Records a blocked vendor or customer being woken.
+     *
+     * @param served {@code true} if it could proceed, {@code false} if it had to wait again
+     */
+    void recordWakeup(boolean served) {
+        (served ? servedWakeups : spuriousWakeups).increment();
+    }
+
+    /**
+     * Records a customer arriving at the waiting room.
+     *
+     * @param accepted {@code true} if it was queued, {@code false} if it was turned away
+     */
+    void recordAdmission(boolean accepted) {
+        (accepted ? queueAdmissions : queueRejections).increment();
+    }
+
+    /**
+     * Records a ticket hold being settled.
+     *
+     * @param outcome {@code "confirmed"}, {@code "released"} or {@code "expired"}
+     */
+    void recordHoldSettled(String outcome) {
+        holdCounters.get(outcome).increment();
+    }
+
+    Timer queueWait() {
+        return queueWait;
+    }
+
+    Timer capacityWait() {
+        return capacityWait;
+    }
+
+    Timer stockWait() {
+        return stockWait;
+    }
+
+    Timer lockContention() {
+        return lockContention;
+    }
+}
@@ -0,0 +1,255 @@
+package com.iit.TicketingSystem.service;
+
+import com.iit.TicketingSystem.model.Configuration;
+import com.iit.TicketingSystem.websocket.LogWebSocketHandler;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Registry of ticketing events keyed by event id.
+ * Every event gets its own {@link TicketPool}, configuration and vendor/customer workers, so a busy
+ * on-sale for one event never contends with sales for another. Running pools are snapshotted
+ * periodically and every pool mutation is journaled, so a restarted application resumes with the
+ * tickets that were left.
+ */
+@Service
+public class TicketPoolRegistry {
+    public static final String DEFAULT_EVENT = "default";
+    private static final Pattern EVENT_ID = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+
+    private final ConcurrentMap<String, TicketingEvent> events = new ConcurrentHashMap<>();
+    private final LogWebSocketHandler logWebSocketHandler;
+    private final TicketPoolMetrics ticketPoolMetrics;
+    private final TicketPersistenceService ticketPersistenceService;
+    private final TicketJournalService ticketJournalService;
+    private final ScheduledExecutorService snapshotExecutor;
+    private final boolean fairCustomers;
+    private final double admissionRate;
+    private final int admissionBurst;
+    private final int maxQueueLength;
+    private final TimingWheel holdExpiry;
+
+    /**
+     * Constructs a new {@link TicketPoolRegistry}.
+     *
+     * @param logWebSocketHandler      the WebSocket handler pools log to
+     * @param ticketPoolMetrics        the metrics of the default event, used to derive every other event's metrics
+     * @param ticketPersistenceService records ticket movements and pool snapshots
+     * @param ticketJournalService     journals pool mutations for crash recovery
+     * @param snapshotIntervalSeconds  how often running pools are snapshotted; {@code 0} to snapshot only on stop
+     * @param fairCustomers            {@code true} to serve customers waiting for tickets in arrival order
+     * @param admissionRate            customers admitted to each pool per second; {@code 0} for no waiting room
+     * @param admissionBurst           customers admitted back to back while a waiting room is idle
+     * @param maxQueueLength           waiting customers beyond which arrivals are turned away
+     * @param holdTickMillis           the resolution at which ticket holds expire
+     */
+    @Autowired
+    public TicketPoolRegistry(LogWebSocketHandler logWebSocketHandler, TicketPoolMetrics ticketPoolMetrics,
+                              TicketPersistenceService ticketPersistenceService,
+                              TicketJournalService ticketJournalService,
+                              @Value("${ticketing.persistence.snapshot-interval-seconds:30}") long snapshotIntervalSeconds,
+                              @Value("${ticketing.pool.fair-customers:false}") boolean fairCustomers,
+                              @Value("${ticketing.waiting-room.admission-rate:0}") double admissionRate,
+                              @Value("${ticketing.waiting-room.burst:50}") int admissionBurst,
+                              @Value("${ticketing.waiting-room.max-queue-length:10000}") int maxQueueLength,
+                              @Value("${ticketing.holds.tick-ms:10}") long holdTickMillis) {
+        this.logWebSocketHandler = logWebSocketHandler;
+        this.fairCustomers = fairCustomers;
+        this.admissionRate = admissionRate;
+        this.admissionBurst = admissionBurst;
+        this.maxQueueLength = maxQueueLength;
+        this.holdExpiry = new TimingWheel(holdTickMillis, TimeUnit.MILLISECONDS).start("hold-expiry");
+        this.ticketPoolMetrics = ticketPoolMetrics;
+        this.ticketPersistenceService = ticketPersistenceService;
+        this.ticketJournalService = ticketJournalService;
+        if (snapshotIntervalSeconds > 0) {
+            snapshotExecutor = Executors.newSingleThreadScheduledExecutor(
+                    Thread.ofPlatform().name("pool-snapshots").daemon(true).factory());
+            snapshotExecutor.scheduleAtFixedRate(this::snapshotRunningPools, snapshotIntervalSeconds,
+                    snapshotIntervalSeconds, TimeUnit.SECONDS);
+        } else {
+            snapshotExecutor = null;
+        }
+    }
+
+    /**
+     * Retrieves an event, registering it on first use. Only configuring or starting an event registers
+     * it, since every event keeps its own meters for good; everything else looks events up with
+     * {@link #findEvent}.
+     *
+     * @param eventId the event id, or {@code null} for the default event
+     * @return the event
+     * @throws IllegalArgumentException if the event id contains anything but letters, digits, '-' and '_'
+     */
+    public TicketingEvent getEvent(String eventId) {
+        TicketingEvent event = events.get(eventId == null ? DEFAULT_EVENT : eventId);
+        if (event != null) {
+            return event;
+        }
+        return events.computeIfAbsent(checkEventId(eventId), key -> new TicketingEvent(key, ticketPoolMetrics.forEvent(key)));
+    }
+
+    /**
+     * Checks that an event id is well formed.
+     *
+     * @param eventId the event id, or {@code null} for the default event
+     * @return the event id
+     * @throws IllegalArgumentException if the event id contains anything but letters, digits, '-' and '_'
+     */
+    public static String checkEventId(String eventId) {
+        String id = eventId == null ? DEFAULT_EVENT : eventId;
+        if (!EVENT_ID.matcher(id).matches()) {
+            throw new IllegalArgumentException("Invalid event id: " + id);
+        }
+        return id;
+    }
+
+    /**
+     * Looks up a registered event without registering it.
+     *
+     * @param eventId the event id, or {@code null} for the default event
+     * @return the event, or empty if it was never configured or started
+     */
+    public Optional<TicketingEvent> findEvent(String eventId) {
+        return Optional.ofNullable(events.get(eventId == null ? DEFAULT_EVENT : eventId));
+    }
+
+    /**
+     * Retrieves every registered event.
+     *
+     * @return the events
+     */
+    public Collection<TicketingEvent> getEvents() {
+        return events.values();
+    }
+
+    /**
+     * Creates a pool for an event from its configuration.
+     *
+     * @param event         the event
+     * @param configuration the configuration supplying ticket counts and the shard count
+     * @return the new pool
+     */
+    public TicketPool createPool(TicketingEvent event, Configuration configuration) {
+        TicketPool pool = new TicketPool(
+                configuration.getTotalTickets(),
+                configuration.getMaxTicketCapacity(),
+                configuration.getShardCount(),
+                fairCustomers,
+                logWebSocketHandler,
+                event.getMetrics()
+        );
+        TicketPoolListener listener = ticketPersistenceService.listenerFor(event.getEventId());
+        Optional<TicketJournal> journal = ticketJournalService.journalFor(event.getEventId());
+        if (journal.isPresent()) {
+            journal.get().poolCreated(configuration.getTotalTickets());
+            listener = listener.andThen(journal.get());
+        }
+        pool.setListener(listener);
+        pool.setHoldExpiry(holdExpiry);
+        if (admissionRate > 0) {
+            pool.setWaitingRoom(new WaitingRoom(admissionRate, admissionBurst, maxQueueLength, event.getMetrics()));
+        }
+        return pool;
+    }
+
+    /**
+     * Carries the ticket count left by a previous run over to a configuration loaded after a restart.
+     * The journal is replayed from its last checkpoint if it has records; otherwise the latest database
+     * snapshot is used. Called once, under the event's monitor, when an event with no configuration in
+     * this run adopts its saved one just before its pool is created; existing pools are left alone.
+     *
+     * @param event         the event
+     * @param configuration the configuration to update
+     */
+    public void restoreSnapshot(TicketingEvent event, Configuration configuration) {
+        if (event.getTicketPool() != null) {
+            return;
+        }
+        OptionalInt recovered = ticketJournalService.journalFor(event.getEventId())
+                .map(TicketJournal::getRecoveredBalance)
+                .orElse(OptionalInt.empty());
+        if (recovered.isPresent()) {
+            configuration.setTotalTickets(clamp(recovered.getAsInt(), configuration.getMaxTicketCapacity()));
+            return;
+        }
+        ticketPersistenceService.findLatestSnapshot(event.getEventId()).ifPresent(snapshot ->
+                configuration.setTotalTickets(clamp(snapshot.getTicketCount(), configuration.getMaxTicketCapacity())));
+    }
+
+    private static int clamp(int tickets, int maxCapacity) {
+        return Math.max(0, Math.min(tickets, maxCapacity));
+    }
+
+    /**
+     * Saves a snapshot of an event's pool, or of its configured tickets if no pool has been created yet.
+     *
+     * @param event the event
+     */
+    public void snapshot(TicketingEvent event) {
+        TicketPool pool = event.getTicketPool();
+        Configuration configuration = event.getLastSavedConfiguration();
+        if (pool != null) {
+            ticketJournalService.journalFor(event.getEventId()).ifPresent(TicketJournal::checkpoint);
+            //Held tickets go back to the pool if the application stops before they are confirmed
+            ticketPersistenceService.saveSnapshot(event.getEventId(), pool.getTicketCount() + pool.getHeldTicketCount(),
+                    pool.getMaxCapacity());
+        } else if (configuration != null) {
+            ticketPersistenceService.saveSnapshot(event.getEventId(), configuration.getTotalTickets(),
+                    configuration.getMaxTicketCapacity());
+        }
+    }
+
+    /**
+     * Snapshots every event whose pool is running.
+     */
+    private void snapshotRunningPools() {
+        for (TicketingEvent event : events.values()) {
+            TicketPool pool = event.getTicketPool();
+            if (pool != null && pool.isRunning()) {
+                snapshot(event);
+            }
+        }
+    }
+
+    /**
+     * Maps an event id to the value stored in {@link Configuration#getEventId()}; the default event is stored as {@code null}
+     * so configurations saved before events existed still belong to it.
+     *
+     * @param eventId the event id
+     * @return the stored event id
+     */
+    public static String toStoredEventId(String eventId) {
+        return eventId == null || DEFAULT_EVENT.equals(eventId) ? null : eventId;
+    }
+
+    /**
+     * Stops every running event and snapshots it when the application shuts down.
+     */
+    @PreDestroy
+    public void stopAll() {
+        if (snapshotExecutor != null) {
+            snapshotExecutor.shutdownNow();
+        }
+        holdExpiry.close();
+        for (TicketingEvent event : events.values()) {
+            TicketPool pool = event.getTicketPool();
+            if (pool != null && pool.isRunning()) {
+                pool.stopTicketingSystem();
+                snapshot(event);
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.iit.TicketingSystem.service;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded, lock-free multi-producer/multi-consumer ring buffer of primitive ticket ids.
+ * Each slot carries a sequence number that tells producers and consumers whether the slot
+ * is free to write or ready to read, so no thread ever blocks another while holding a lock.
+ * The producer and consumer cursors are padded apart so vendors and customers do not false-share them.
+ */
+class TicketRingBuffer {
+    /** Returned by {@link #poll()} when the buffer is empty. */
+    static final long EMPTY = -1L;
+
+    private final int mask;
+    private final long[] ids;
+    private final AtomicLongArray sequences;
+    private static final int TAIL = 0;
+    private static final int HEAD = 1;
+
+    private final PaddedCounters cursors = new PaddedCounters(2);
+
+    /**
+     * Constructs a new {@link TicketRingBuffer}.
+     *
+     * @param minCapacity the minimum number of ids the buffer must hold; rounded up to a power of two
+     */
+    TicketRingBuffer(int minCapacity) {
+        int capacity = Integer.highestOneBit(Math.max(2, minCapacity) - 1) << 1;
+        this.mask = capacity - 1;
+        this.ids = new long[capacity];
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Retrieves the number of slots in the buffer.
+     *
+     * @return the buffer capacity
+     */
+    int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Attempts to append a ticket id to the tail of the buffer.
+     *
+     * @param id the ticket id to append
+     * @return {@code true} if the id was stored, {@code false} if the buffer was full
+     */
+    boolean offer(long id) {
+        long pos = cursors.get(TAIL);
+        while (true) {
+            int index = (int) (pos & mask);
+            long diff = sequences.get(index) - pos;
+            if (diff == 0) {
+                if (cursors.compareAndSet(TAIL, pos, pos + 1)) {
+                    ids[index] = id;
+                    sequences.set(index, pos + 1); //Publish the slot to consumers
+                    return true;
+                }
+                pos = cursors.get(TAIL);
+            } else if (diff < 0) {
+                return false;
+            } else {
+                pos = cursors.get(TAIL);
+            }
+        }
+    }
+
+    /**
+     * Attempts to take the ticket id at the head of the buffer.
+     *
+     * @return the ticket id, or {@link #EMPTY} if the buffer was empty
+     */
+    long poll() {
+        long pos = cursors.get(HEAD);
+        while (true) {
+            int index = (int) (pos & mask);
+            long diff = sequences.get(index) - (pos + 1);
+            if (diff == 0) {
+                if (cursors.compareAndSet(HEAD, pos, pos + 1)) {
+                    long id = ids[index];
+                    sequences.set(index, pos + mask + 1); //Hand the slot back to producers
+                    return id;
+                }
+                pos = cursors.get(HEAD);
+            } else if (diff < 0) {
+                return EMPTY;
+            } else {
+                pos = cursors.get(HEAD);
+            }
+        }
+    }
+}
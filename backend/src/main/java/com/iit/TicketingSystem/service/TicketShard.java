@@ -0,0 +1,258 @@
+package com.iit.TicketingSystem.service;
+
+import java.util.Arrays;
+
+/**
+ * One lock-free slice of a {@link TicketPool}'s inventory.
+ * A shard owns its own ring buffer, capacity and stock counters and ticket id sequence, so actors
+ * working on different shards never touch the same cache lines. Within a shard the counters are
+ * padded apart as well, so vendors reserving capacity and customers claiming stock on the same shard
+ * do not invalidate each other's cache lines, and a customer finding the shard empty only reads.
+ * The capacity can be changed while the shard is in use. Growing past the ring buffer adds another
+ * ring instead of copying the first, so tickets in flight are never moved.
+ */
+class TicketShard {
+    private volatile TicketRingBuffer[] rings; //Oldest first
+    private volatile int capacity;
+    private final int index;
+    private final int stride;
+    private final int partition;
+    private final int partitions;
+    private static final int AVAILABLE = 0; //Tickets customers may claim
+    private static final int OCCUPIED = 1; //Slots reserved by vendors, including in-flight adds
+    private static final int SEQUENCE = 2; //Next ticket id, divided by the stride
+
+    private final PaddedCounters counters = new PaddedCounters(3);
+
+    /**
+     * Constructs a new {@link TicketShard} holding its share of the pool's initial tickets.
+     *
+     * @param index          the shard's position in the pool
+     * @param stride         the number of shards in the pool; ids issued by this shard are {@code index + 1} modulo it
+     * @param capacity       the maximum number of tickets the shard may hold
+     * @param initialTickets the number of tickets the shard starts with
+     * @param partition      the pool's partition of a clustered inventory; ids issued by this shard are it modulo {@code partitions}
+     * @param partitions     the number of partitions, {@code 1} for a standalone pool
+     */
+    TicketShard(int index, int stride, int capacity, int initialTickets, int partition, int partitions) {
+        this.rings = new TicketRingBuffer[]{new TicketRingBuffer(Math.max(capacity, initialTickets))};
+        this.capacity = capacity;
+        this.index = index;
+        this.stride = stride;
+        this.partition = partition;
+        this.partitions = partitions;
+        for (int i = 0; i < initialTickets; i++) {
+            put(nextId());
+        }
+        counters.set(OCCUPIED, initialTickets);
+        counters.set(AVAILABLE, initialTickets);
+    }
+
+    /**
+     * Issues a ticket id that is unique across every shard of the pool, and across every partition of a clustered inventory.
+     *
+     * @return the new id
+     */
+    private long nextId() {
+        return (counters.getAndIncrement(SEQUENCE) * stride + index + 1) * partitions + partition;
+    }
+
+    /**
+     * Stores a ticket in a slot the caller has reserved, in the newest ring with room.
+     */
+    private void put(long id) {
+        TicketRingBuffer[] current = rings;
+        while (true) {
+            for (int i = current.length - 1; i >= 0; i--) {
+                if (current[i].offer(id)) {
+                    return;
+                }
+            }
+            Thread.onSpinWait(); //A concurrent consumer has not yet handed its slot back
+            current = rings;
+        }
+    }
+
+    /**
+     * Takes a ticket the caller has claimed, from the oldest ring that has one.
+     */
+    private long take() {
+        TicketRingBuffer[] current = rings;
+        while (true) {
+            for (TicketRingBuffer ring : current) {
+                long id = ring.poll();
+                if (id != TicketRingBuffer.EMPTY) {
+                    return id;
+                }
+            }
+            Thread.onSpinWait(); //A concurrent producer has not yet published its ticket
+            current = rings;
+        }
+    }
+
+    /**
+     * Changes the number of tickets the shard may hold. Lowering it below the tickets already held
+     * removes nothing; vendors simply cannot add more until purchases bring the shard under the new limit.
+     * Must only be called by one thread at a time.
+     *
+     * @param newCapacity the new capacity
+     */
+    void setCapacity(int newCapacity) {
+        TicketRingBuffer[] current = rings;
+        int slots = 0;
+        for (TicketRingBuffer ring : current) {
+            slots += ring.capacity();
+        }
+        if (newCapacity > slots) {
+            TicketRingBuffer[] grown = Arrays.copyOf(current, current.length + 1);
+            grown[current.length] = new TicketRingBuffer(newCapacity - slots);
+            rings = grown; //Published before the capacity, so a vendor reserving under it finds the room
+        }
+        capacity = newCapacity;
+    }
+
+    /**
+     * Adds existing tickets together with room for them, so no vendor can take the room first.
+     * Must only be called by the thread that changes the capacity.
+     *
+     * @param count     the number of tickets
+     * @param ticketIds the ids of the tickets
+     * @param offset    the index of the first id to admit
+     */
+    void admit(int count, long[] ticketIds, int offset) {
+        counters.addAndGet(OCCUPIED, count); //Before the capacity grows, so the new room is never seen free
+        setCapacity(capacity + count);
+        restore(count, ticketIds, offset);
+    }
+
+    /**
+     * Reserves room for tickets if the shard has free capacity.
+     *
+     * @param count the number of slots wanted
+     * @param exact {@code true} to reserve all slots or none, {@code false} to reserve as many as fit
+     * @return the number of slots reserved
+     */
+    int tryReserve(int count, boolean exact) {
+        while (true) {
+            int current = (int) counters.get(OCCUPIED);
+            int reserved = Math.min(count, capacity - current);
+            if (reserved <= 0 || (exact && reserved < count)) {
+                return 0;
+            }
+            if (counters.compareAndSet(OCCUPIED, current, current + reserved)) {
+                return reserved;
+            }
+        }
+    }
+
+    /**
+     * Claims tickets if the shard has stock.
+     *
+     * @param count the number of tickets wanted
+     * @param exact {@code true} to claim all tickets or none, {@code false} to claim as many as are available
+     * @return the number of tickets claimed
+     */
+    int tryClaim(int count, boolean exact) {
+        while (true) {
+            int current = (int) counters.get(AVAILABLE);
+            int claimed = Math.min(count, current);
+            if (claimed <= 0 || (exact && claimed < count)) {
+                return 0;
+            }
+            if (counters.compareAndSet(AVAILABLE, current, current - claimed)) {
+                return claimed;
+            }
+        }
+    }
+
+    /**
+     * Fills reserved slots with new tickets and makes them available.
+     *
+     * @param count     the number of reserved slots
+     * @param ticketIds receives the new ids from {@code offset} on, or {@code null}
+     * @param offset    the first index of {@code ticketIds} to write
+     */
+    void publish(int count, long[] ticketIds, int offset) {
+        for (int i = 0; i < count; i++) {
+            long id = nextId();
+            put(id);
+            if (ticketIds != null) {
+                ticketIds[offset + i] = id;
+            }
+        }
+        counters.addAndGet(AVAILABLE, count);
+    }
+
+    /**
+     * Takes claimed tickets out of the shard and frees their capacity.
+     *
+     * @param count     the number of claimed tickets
+     * @param ticketIds receives the ids from {@code offset} on, or {@code null}
+     * @param offset    the first index of {@code ticketIds} to write
+     */
+    void take(int count, long[] ticketIds, int offset) {
+        hold(count, ticketIds, offset);
+        counters.addAndGet(OCCUPIED, -count);
+    }
+
+    /**
+     * Takes claimed tickets out of the shard but keeps their capacity reserved, so they can be restored.
+     * The capacity is freed by {@link #cancelReservation(int)} once the hold is confirmed.
+     *
+     * @param count     the number of claimed tickets
+     * @param ticketIds receives the ids from {@code offset} on, or {@code null}
+     * @param offset    the first index of {@code ticketIds} to write
+     */
+    void hold(int count, long[] ticketIds, int offset) {
+        for (int i = 0; i < count; i++) {
+            long id = take();
+            if (ticketIds != null) {
+                ticketIds[offset + i] = id;
+            }
+        }
+    }
+
+    /**
+     * Puts held tickets back into their reserved slots and makes them available again.
+     *
+     * @param count     the number of held tickets
+     * @param ticketIds the ids, read from {@code offset} on
+     * @param offset    the first index of {@code ticketIds} to read
+     */
+    void restore(int count, long[] ticketIds, int offset) {
+        for (int i = 0; i < count; i++) {
+            put(ticketIds[offset + i]);
+        }
+        counters.addAndGet(AVAILABLE, count);
+    }
+
+    /**
+     * Gives back capacity reserved by an all-or-nothing operation that could not complete.
+     *
+     * @param count the number of slots to release
+     */
+    void cancelReservation(int count) {
+        counters.addAndGet(OCCUPIED, -count);
+    }
+
+    /**
+     * Gives back tickets claimed by an all-or-nothing operation that could not complete.
+     *
+     * @param count the number of tickets to return
+     */
+    void cancelClaim(int count) {
+        counters.addAndGet(AVAILABLE, count);
+    }
+
+    int getAvailable() {
+        return (int) counters.get(AVAILABLE);
+    }
+
+    long getIssued() {
+        return counters.get(SEQUENCE);
+    }
+
+    int getFree() {
+        return Math.max(0, capacity - (int) counters.get(OCCUPIED));
+    }
+}
@@ -0,0 +1,50 @@
+package com.iit.TicketingSystem.service;
+
+import com.iit.TicketingSystem.model.Configuration;
+
+/**
+ * Per-event state held by the {@link TicketPoolRegistry}: the event's own pool, its last saved
+ * configuration and its metrics. Start and stop requests for an event synchronize on this object,
+ * so they never contend with requests for other events.
+ */
+public class TicketingEvent {
+    private final String eventId;
+    private final TicketPoolMetrics metrics;
+    private volatile TicketPool ticketPool;
+    private volatile Configuration lastSavedConfiguration;
+
+    /**
+     * Constructs a new {@link TicketingEvent}.
+     *
+     * @param eventId the event id
+     * @param metrics the instrumentation for the event's pool
+     */
+    TicketingEvent(String eventId, TicketPoolMetrics metrics) {
+        this.eventId = eventId;
+        this.metrics = metrics;
+    }
+
+    public String getEventId() {
+        return eventId;
+    }
+
+    public TicketPoolMetrics getMetrics() {
+        return metrics;
+    }
+
+    public TicketPool getTicketPool() {
+        return ticketPool;
+    }
+
+    public Configuration getLastSavedConfiguration() {
+        return lastSavedConfiguration;
+    }
+
+    public void setTicketPool(TicketPool ticketPool) {
+        this.ticketPool = ticketPool;
+    }
+
+    public void setLastSavedConfiguration(Configuration lastSavedConfiguration) {
+        this.lastSavedConfiguration = lastSavedConfiguration;
+    }
+}
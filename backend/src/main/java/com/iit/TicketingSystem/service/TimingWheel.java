@@ -0,0 +1,187 @@
+package com.iit.TicketingSystem.service;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hierarchical timing wheel that expires timeouts, such as {@link TicketHold}s, on a single thread.
+ * Four levels of 256 slots cover 2<sup>32</sup> ticks; a timeout is linked into the slot of the
+ * coarsest level it fits, and moved one level down when the wheel turns past that slot, so
+ * scheduling and expiring a timeout each cost O(1) however many are outstanding. Threads
+ * scheduling timeouts only append to a lock-free queue that the wheel thread drains each tick,
+ * and timeouts settled before they fire are dropped when their slot is reached instead of being
+ * unlinked, so no part of the wheel is ever shared.
+ */
+class TimingWheel {
+    private static final int LEVEL_BITS = 8;
+    private static final int WHEEL_SIZE = 1 << LEVEL_BITS;
+    private static final int MASK = WHEEL_SIZE - 1;
+    private static final int LEVELS = 4;
+    private static final long MAX_SPAN = (1L << (LEVEL_BITS * LEVELS)) - 1;
+
+    private final long tickNanos;
+    private final long originNanos;
+    private final Timeout[][] slots = new Timeout[LEVELS][WHEEL_SIZE]; //Confined to the wheel thread
+    private final ConcurrentLinkedQueue<Timeout> scheduled = new ConcurrentLinkedQueue<>();
+    private long currentTick; //Next tick to process
+    private volatile Thread thread;
+
+    /**
+     * A deadline tracked by the wheel.
+     */
+    abstract static class Timeout {
+        private final long deadlineNanos;
+        private long deadlineTick;
+        private Timeout next;
+
+        /**
+         * @param deadlineNanos the {@link System#nanoTime()} at which the timeout fires
+         */
+        Timeout(long deadlineNanos) {
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        long getDeadlineNanos() {
+            return deadlineNanos;
+        }
+
+        /**
+         * Checks whether the timeout was settled before it fired, so the wheel can drop it.
+         *
+         * @return {@code true} if the timeout no longer needs to fire
+         */
+        abstract boolean isSettled();
+
+        /**
+         * Called on the wheel thread once the deadline has passed.
+         */
+        abstract void expire();
+    }
+
+    /**
+     * Constructs a new {@link TimingWheel}.
+     *
+     * @param tick the resolution of the wheel; timeouts fire up to one tick late
+     * @param unit the unit of {@code tick}
+     */
+    TimingWheel(long tick, TimeUnit unit) {
+        this.tickNanos = Math.max(1, unit.toNanos(tick));
+        this.originNanos = System.nanoTime();
+    }
+
+    /**
+     * Starts the thread that turns the wheel once per tick.
+     *
+     * @param name the thread name
+     * @return this wheel
+     */
+    TimingWheel start(String name) {
+        thread = Thread.ofPlatform().name(name).daemon(true).start(() -> {
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    TimeUnit.NANOSECONDS.sleep(tickNanos);
+                    advance(System.nanoTime());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        return this;
+    }
+
+    /**
+     * Stops the wheel thread; outstanding timeouts no longer fire.
+     */
+    void close() {
+        Thread wheelThread = thread;
+        if (wheelThread != null) {
+            wheelThread.interrupt();
+        }
+    }
+
+    /**
+     * Schedules a timeout. Safe to call from any thread.
+     *
+     * @param timeout the timeout
+     */
+    void schedule(Timeout timeout) {
+        scheduled.offer(timeout);
+    }
+
+    /**
+     * Links newly scheduled timeouts into the wheel and fires every slot up to the given time.
+     * Must only be called by one thread at a time: the wheel thread, or a test driving the wheel.
+     *
+     * @param nowNanos the current {@link System#nanoTime()}
+     */
+    void advance(long nowNanos) {
+        Timeout timeout;
+        while ((timeout = scheduled.poll()) != null) {
+            long offset = timeout.getDeadlineNanos() - originNanos;
+            timeout.deadlineTick = offset <= 0 ? 0 : (offset + tickNanos - 1) / tickNanos;
+            insert(timeout);
+        }
+        long targetTick = (nowNanos - originNanos) / tickNanos;
+        while (currentTick <= targetTick) {
+            int index = (int) (currentTick & MASK);
+            if (index == 0) {
+                cascade(1);
+            }
+            Timeout head = slots[0][index];
+            slots[0][index] = null;
+            while (head != null) {
+                Timeout next = head.next;
+                head.next = null;
+                if (!head.isSettled()) {
+                    try {
+                        head.expire();
+                    } catch (RuntimeException e) {
+                        System.err.println("Error expiring timeout: " + e.getMessage());
+                    }
+                }
+                head = next;
+            }
+            currentTick++;
+        }
+    }
+
+    /**
+     * Moves the timeouts in the current slot of a level down to the finer levels, cascading the
+     * coarser level first when this level has wrapped round.
+     */
+    private void cascade(int level) {
+        if (level == LEVELS) {
+            return;
+        }
+        int index = (int) ((currentTick >>> (LEVEL_BITS * level)) & MASK);
+        if (index == 0) {
+            cascade(level + 1);
+        }
+        Timeout head = slots[level][index];
+        slots[level][index] = null;
+        while (head != null) {
+            Timeout next = head.next;
+            head.next = null;
+            if (!head.isSettled()) {
+                insert(head);
+            }
+            head = next;
+        }
+    }
+
+    /**
+     * Links a timeout into the slot of the coarsest level whose span covers its remaining ticks.
+     * Timeouts beyond the top level's span wait in its furthest slot and are re-linked as it comes round.
+     */
+    private void insert(Timeout timeout) {
+        long delta = Math.max(0, timeout.deadlineTick - currentTick);
+        long slotTick = currentTick + Math.min(delta, MAX_SPAN);
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= 1L << (LEVEL_BITS * (level + 1))) {
+            level++;
+        }
+        int index = (int) ((slotTick >>> (LEVEL_BITS * level)) & MASK);
+        timeout.next = slots[level][index];
+        slots[level][index] = timeout;
+    }
+}
@@ -2,34 +2,29 @@ package com.iit.TicketingSystem.service;
 
 /**
  * Represents a vendor that adds tickets to the {@link TicketPool}.
- * Each vendor operates in its own thread, continuously adding tickets to the pool
- * at a specified interval until interrupted.
+ * Each vendor either operates in its own thread, continuously adding tickets to the pool
+ * at a specified interval until interrupted, or is driven by an {@link ActorScheduler}.
  */
-public class Vendor implements Runnable {
-    private final TicketPool ticketPool;
-    private final int releaseRate;
+public class Vendor extends TicketActor {
 
     /**
      * Constructs a new {@link Vendor}.
      *
-     * @param ticketPool the ticket pool to which tickets are added
-     * @param releaseRate the time interval (in milliseconds) between ticket additions
+     * @param ticketPool  the ticket pool to which tickets are added
+     * @param releaseRate the time interval (in seconds, fractions allowed) between ticket additions
+     * @param name        the vendor name used in log messages
      */
-    public Vendor(TicketPool ticketPool, int releaseRate) {
-        this.ticketPool = ticketPool;
-        this.releaseRate = releaseRate;
+    public Vendor(TicketPool ticketPool, double releaseRate, String name) {
+        super(ticketPool, releaseRate, name, ticketPool.getMetrics().vendorCounter(name));
     }
 
-    //Vendor thread behaviour
     @Override
-    public void run() {
-        try {
-            while (!Thread.currentThread().isInterrupted()) {
-                ticketPool.addTickets(1, Thread.currentThread().getName());
-                Thread.sleep(releaseRate*1000);
-            }
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
+    protected int operate() {
+        return ticketPool.addTickets(1, getName()) ? 1 : 0;
+    }
+
+    @Override
+    protected int tryOperate() {
+        return ticketPool.tryAddTickets(1, getName()) ? 1 : 0;
     }
 }
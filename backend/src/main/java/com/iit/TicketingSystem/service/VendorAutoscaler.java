@@ -0,0 +1,159 @@
+package com.iit.TicketingSystem.service;
+
+import com.iit.TicketingSystem.websocket.LogWebSocketHandler;
+
+import java.util.List;
+
+/**
+ * Adapts a {@link TicketPool}'s vendors to demand with an additive-increase, multiplicative-decrease loop.
+ * On every adjustment it samples the customers waiting for tickets, the vendors waiting for room, the
+ * pool's fill level and the purchase rate since the previous sample. While customers are starved the
+ * total release rate grows by a fixed step; while vendors are blocked at capacity it is cut by a factor,
+ * but never below the measured purchase rate. The total is spread over as few vendors as the per-vendor
+ * rate bounds allow, so vendors are only added or retired when the rate alone cannot absorb the change.
+ */
+public class VendorAutoscaler {
+    private final TicketPool pool;
+    private final LogWebSocketHandler logWebSocketHandler;
+    private final int minVendors;
+    private final int maxVendors;
+    private final double minRate;
+    private final double maxRate;
+    private final double increaseStep;
+    private final double decreaseFactor;
+    private final double lowWatermark;
+    private final double highWatermark;
+    private long lastSold = -1;
+    private long lastSampleNanos;
+    private volatile double demandRate;
+    private volatile double supplyRate;
+
+    /**
+     * Constructs a new {@link VendorAutoscaler}.
+     *
+     * @param pool                the pool whose vendors are adjusted
+     * @param logWebSocketHandler the handler adjustments are logged to
+     * @param minVendors          the fewest vendors to run
+     * @param maxVendors          the most vendors to run
+     * @param minRate             the lowest rate of a single vendor (in tickets per second)
+     * @param maxRate             the highest rate of a single vendor (in tickets per second)
+     * @param increaseStep        the tickets per second added to the total release rate while customers are starved
+     * @param decreaseFactor      the factor the total release rate is multiplied by while vendors are blocked
+     * @param lowWatermark        the fill level below which customers count as starved even if none is waiting yet
+     * @param highWatermark       the fill level above which vendors count as blocked even if none is waiting yet
+     * @throws IllegalArgumentException if the bounds are inconsistent
+     */
+    public VendorAutoscaler(TicketPool pool, LogWebSocketHandler logWebSocketHandler, int minVendors, int maxVendors,
+                            double minRate, double maxRate, double increaseStep, double decreaseFactor,
+                            double lowWatermark, double highWatermark) {
+        checkBounds(minVendors, maxVendors, minRate, maxRate, increaseStep, decreaseFactor, lowWatermark, highWatermark);
+        this.pool = pool;
+        this.logWebSocketHandler = logWebSocketHandler;
+        this.minVendors = minVendors;
+        this.maxVendors = maxVendors;
+        this.minRate = minRate;
+        this.maxRate = maxRate;
+        this.increaseStep = increaseStep;
+        this.decreaseFactor = decreaseFactor;
+        this.lowWatermark = lowWatermark;
+        this.highWatermark = highWatermark;
+        pool.getMetrics().bindAutoscaler(this);
+    }
+
+    /**
+     * Validates autoscaler bounds, so a misconfiguration fails at startup rather than on the first adjustment.
+     *
+     * @throws IllegalArgumentException if the bounds are inconsistent
+     */
+    static void checkBounds(int minVendors, int maxVendors, double minRate, double maxRate, double increaseStep,
+                            double decreaseFactor, double lowWatermark, double highWatermark) {
+        if (minVendors < 0 || maxVendors < Math.max(1, minVendors) || minRate <= 0 || maxRate < minRate
+                || increaseStep <= 0 || decreaseFactor <= 0 || decreaseFactor >= 1 || lowWatermark >= highWatermark) {
+            throw new IllegalArgumentException("Invalid autoscaler bounds: vendors " + minVendors + ".." + maxVendors
+                    + ", rate " + minRate + ".." + maxRate + ", step " + increaseStep + ", factor " + decreaseFactor
+                    + ", watermarks " + lowWatermark + ".." + highWatermark);
+        }
+    }
+
+    /**
+     * Samples the pool and retunes its vendors. Does nothing while the pool is stopped, and only takes
+     * the first sample after a start, since a purchase rate needs two. Callers must not run this
+     * concurrently with other reconfigurations of the same pool.
+     *
+     * @param nowNanos the current {@link System#nanoTime()}
+     */
+    public void adjust(long nowNanos) {
+        if (!pool.isRunning()) {
+            lastSold = -1;
+            return;
+        }
+        long sold = pool.getSoldTicketCount();
+        if (lastSold < 0 || nowNanos <= lastSampleNanos) {
+            lastSold = sold;
+            lastSampleNanos = nowNanos;
+            return;
+        }
+        double demand = (sold - lastSold) * 1_000_000_000.0 / (nowNanos - lastSampleNanos);
+        lastSold = sold;
+        lastSampleNanos = nowNanos;
+        demandRate = demand;
+
+        List<Vendor> vendors = pool.getVendors();
+        int count = vendors.size();
+        double rate = count == 0 ? minRate : 1.0 / vendors.get(0).getIntervalSeconds();
+        double supply = count * rate;
+        int customersWaiting = pool.getWaitingCustomerCount();
+        double fill = (double) pool.getTicketCount() / pool.getMaxCapacity();
+        boolean starved = customersWaiting > 0 || fill < lowWatermark;
+        boolean blocked = pool.getWaitingVendorCount() > 0 || fill > highWatermark;
+
+        //Additive increase while customers wait, multiplicative decrease while vendors wait; hold steady otherwise
+        double target = supply;
+        if (starved && !blocked) {
+            target = Math.max(supply + increaseStep, demand);
+        } else if (blocked && !starved) {
+            target = Math.max(supply * decreaseFactor, demand);
+        }
+        target = Math.max(minVendors * minRate, Math.min(target, maxVendors * maxRate));
+
+        //Keep the vendor count while the per-vendor rate can absorb the change
+        int newCount = count;
+        if (count == 0 || target > count * maxRate) {
+            newCount = (int) Math.ceil(target / maxRate);
+        } else if (target < count * minRate) {
+            newCount = (int) Math.floor(target / minRate);
+        }
+        newCount = Math.max(minVendors, Math.min(newCount, maxVendors));
+        double newRate = newCount == 0 ? minRate : Math.max(minRate, Math.min(target / newCount, maxRate));
+        supplyRate = newCount * newRate;
+
+        if (newCount != count || Math.abs(newRate - rate) > rate * 1e-6) {
+            pool.retuneVendors(newCount, 1.0 / newRate);
+            logWebSocketHandler.addLog(String.format(
+                    "Autoscaler: %d vendors releasing %.2f tickets/s each (demand %.2f/s, %d%% full, %d customers waiting).",
+                    newCount, newRate, demand, Math.round(fill * 100), customersWaiting));
+        }
+    }
+
+    TicketPool getPool() {
+        return pool;
+    }
+
+    /**
+     * Retrieves the purchase rate measured by the latest adjustment.
+     *
+     * @return the tickets sold per second
+     */
+    public double getDemandRate() {
+        return demandRate;
+    }
+
+    /**
+     * Retrieves the total release rate chosen by the latest adjustment.
+     *
+     * @return the tickets released per second across all vendors
+     */
+    public double getSupplyRate() {
+        return supplyRate;
+    }
+}
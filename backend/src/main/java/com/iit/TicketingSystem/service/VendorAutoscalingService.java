@@ -0,0 +1,125 @@
+package com.iit.TicketingSystem.service;
+
+import com.iit.TicketingSystem.websocket.LogWebSocketHandler;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically runs a {@link VendorAutoscaler} for every running event, so vendors release tickets
+ * as fast as customers buy them instead of at the fixed configured rate. Each adjustment holds the
+ * event's lock, so it never interleaves with a start, stop or configuration change of the same event.
+ * The adjustments are not saved: a restarted event begins again from its saved configuration.
+ */
+@Service
+public class VendorAutoscalingService {
+    private final TicketPoolRegistry ticketPoolRegistry;
+    private final LogWebSocketHandler logWebSocketHandler;
+    private final int minVendors;
+    private final int maxVendors;
+    private final double minRate;
+    private final double maxRate;
+    private final double increaseStep;
+    private final double decreaseFactor;
+    private final double lowWatermark;
+    private final double highWatermark;
+    private final ConcurrentMap<String, VendorAutoscaler> autoscalers = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService executor;
+
+    /**
+     * Constructs a new {@link VendorAutoscalingService}.
+     *
+     * @param ticketPoolRegistry  the registry whose events are scaled
+     * @param logWebSocketHandler the handler adjustments are logged to
+     * @param intervalMillis      how often vendors are adjusted; {@code 0} to leave them at their configured rate
+     * @param minVendors          the fewest vendors an event runs
+     * @param maxVendors          the most vendors an event runs
+     * @param minRate             the lowest rate of a single vendor (in tickets per second)
+     * @param maxRate             the highest rate of a single vendor (in tickets per second)
+     * @param increaseStep        the tickets per second added to an event's release rate while customers are starved
+     * @param decreaseFactor      the factor an event's release rate is multiplied by while vendors are blocked
+     * @param lowWatermark        the fill level below which customers count as starved
+     * @param highWatermark       the fill level above which vendors count as blocked
+     * @throws IllegalArgumentException if autoscaling is enabled with inconsistent bounds
+     */
+    @Autowired
+    public VendorAutoscalingService(TicketPoolRegistry ticketPoolRegistry, LogWebSocketHandler logWebSocketHandler,
+                                    @Value("${ticketing.autoscale.interval-ms:0}") long intervalMillis,
+                                    @Value("${ticketing.autoscale.min-vendors:1}") int minVendors,
+                                    @Value("${ticketing.autoscale.max-vendors:10}") int maxVendors,
+                                    @Value("${ticketing.autoscale.min-rate:0.1}") double minRate,
+                                    @Value("${ticketing.autoscale.max-rate:100}") double maxRate,
+                                    @Value("${ticketing.autoscale.increase-step:1}") double increaseStep,
+                                    @Value("${ticketing.autoscale.decrease-factor:0.5}") double decreaseFactor,
+                                    @Value("${ticketing.autoscale.low-watermark:0.1}") double lowWatermark,
+                                    @Value("${ticketing.autoscale.high-watermark:0.9}") double highWatermark) {
+        this.ticketPoolRegistry = ticketPoolRegistry;
+        this.logWebSocketHandler = logWebSocketHandler;
+        this.minVendors = minVendors;
+        this.maxVendors = maxVendors;
+        this.minRate = minRate;
+        this.maxRate = maxRate;
+        this.increaseStep = increaseStep;
+        this.decreaseFactor = decreaseFactor;
+        this.lowWatermark = lowWatermark;
+        this.highWatermark = highWatermark;
+        if (intervalMillis > 0) {
+            VendorAutoscaler.checkBounds(minVendors, maxVendors, minRate, maxRate, increaseStep, decreaseFactor,
+                    lowWatermark, highWatermark);
+            executor = Executors.newSingleThreadScheduledExecutor(
+                    Thread.ofPlatform().name("vendor-autoscaler").daemon(true).factory());
+            executor.scheduleWithFixedDelay(this::adjustRunningPools, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        } else {
+            executor = null;
+        }
+    }
+
+    /**
+     * Adjusts the vendors of every event with a pool; stopped pools only reset their sampling.
+     */
+    private void adjustRunningPools() {
+        for (TicketingEvent event : ticketPoolRegistry.getEvents()) {
+            synchronized (event) {
+                TicketPool pool = event.getTicketPool();
+                if (pool == null) {
+                    continue;
+                }
+                try {
+                    autoscalerFor(event.getEventId(), pool).adjust(System.nanoTime());
+                } catch (RuntimeException e) {
+                    System.err.println("Error autoscaling vendors of event " + event.getEventId() + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Retrieves the autoscaler of an event's pool, replacing it if the event has been given a new pool.
+     */
+    private VendorAutoscaler autoscalerFor(String eventId, TicketPool pool) {
+        VendorAutoscaler autoscaler = autoscalers.get(eventId);
+        if (autoscaler == null || autoscaler.getPool() != pool) {
+            autoscaler = new VendorAutoscaler(pool, logWebSocketHandler, minVendors, maxVendors, minRate, maxRate,
+                    increaseStep, decreaseFactor, lowWatermark, highWatermark);
+            autoscalers.put(eventId, autoscaler);
+        }
+        return autoscaler;
+    }
+
+    /**
+     * Stops adjusting vendors when the application shuts down.
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.iit.TicketingSystem.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Virtual waiting room in front of a {@link TicketPool}'s customers.
+ * Customers are admitted to the pool at a fixed rate instead of all piling onto it when an event
+ * goes on sale. Every arrival reserves the next admission slot with a single compare-and-set on a
+ * theoretical arrival time (the generic cell rate algorithm), so customers are admitted in arrival
+ * order, each one learns its queue position and estimated wait up front, and no lock is taken.
+ * A burst of arrivals is admitted without waiting while the room is idle. Once the queue is at its
+ * maximum length, or the wait would exceed what the caller is willing to wait, arrivals are turned away.
+ */
+public class WaitingRoom {
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final int maxQueueLength;
+    private final TicketPoolMetrics metrics;
+    private final AtomicLong theoreticalArrivalNanos;
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    /**
+     * Constructs a new {@link WaitingRoom}.
+     *
+     * @param admissionRate  the number of customers admitted per second
+     * @param burst          the number of customers admitted back to back while the room is idle
+     * @param maxQueueLength the number of waiting customers beyond which arrivals are turned away
+     * @param metrics        the instrumentation the room reports to
+     */
+    public WaitingRoom(double admissionRate, int burst, int maxQueueLength, TicketPoolMetrics metrics) {
+        if (admissionRate <= 0 || burst < 1 || maxQueueLength < 0) {
+            throw new IllegalArgumentException("Admission rate and burst must be positive, queue length not negative.");
+        }
+        this.intervalNanos = Math.max(1, (long) (1_000_000_000L / admissionRate));
+        this.burstNanos = intervalNanos * burst;
+        this.maxQueueLength = maxQueueLength;
+        this.metrics = metrics;
+        this.theoreticalArrivalNanos = new AtomicLong(System.nanoTime());
+        metrics.bindWaitingRoom(this);
+    }
+
+    /**
+     * Joins the queue, reserving the next admission slot.
+     *
+     * @param maxWaitNanos the longest the caller is willing to wait, or {@link Long#MAX_VALUE} for no limit
+     * @return the caller's position; if it was not accepted the caller holds no slot and must not {@link #await}
+     */
+    public QueuePosition join(long maxWaitNanos) {
+        int position = waiting.incrementAndGet();
+        if (position > maxQueueLength) {
+            return turnAway();
+        }
+        while (true) {
+            long now = System.nanoTime();
+            long current = theoreticalArrivalNanos.get();
+            long next = Math.max(current, now) + intervalNanos;
+            long admitAt = Math.max(now, next - burstNanos);
+            if (admitAt - now > maxWaitNanos) {
+                return turnAway();
+            }
+            if (theoreticalArrivalNanos.compareAndSet(current, next)) {
+                metrics.recordAdmission(true);
+                return new QueuePosition(true, position, TimeUnit.NANOSECONDS.toMillis(admitAt - now), admitAt);
+            }
+        }
+    }
+
+    private QueuePosition turnAway() {
+        waiting.decrementAndGet();
+        metrics.recordAdmission(false);
+        long retryNanos = Math.max(intervalNanos, theoreticalArrivalNanos.get() - burstNanos - System.nanoTime());
+        return new QueuePosition(false, 0, TimeUnit.NANOSECONDS.toMillis(retryNanos), 0);
+    }
+
+    /**
+     * Waits until an accepted position's admission slot comes round. The position leaves the
+     * queue when this returns, whether or not it was admitted.
+     *
+     * @param position a position returned by {@link #join(long)} that was accepted
+     * @return {@code true} once admitted, {@code false} if the thread was interrupted while waiting
+     */
+    public boolean await(QueuePosition position) {
+        long startNanos = System.nanoTime();
+        try {
+            long remaining;
+            while ((remaining = position.getAdmitAtNanos() - System.nanoTime()) > 0) {
+                TimeUnit.NANOSECONDS.sleep(remaining);
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            waiting.decrementAndGet();
+            metrics.queueWait().record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Completes once an accepted position's admission slot comes round, without holding a thread while
+     * it waits. The position leaves the queue when the returned future completes.
+     *
+     * @param position a position returned by {@link #join(long)} that was accepted
+     * @return a future completed on admission
+     */
+    public CompletableFuture<Void> admit(QueuePosition position) {
+        long startNanos = System.nanoTime();
+        long remaining = position.getAdmitAtNanos() - startNanos;
+        CompletableFuture<Void> admitted = remaining <= 0 ? CompletableFuture.completedFuture(null)
+                : CompletableFuture.runAsync(() -> { }, CompletableFuture.delayedExecutor(remaining, TimeUnit.NANOSECONDS, Runnable::run));
+        return admitted.whenComplete((ignored, e) -> {
+            waiting.decrementAndGet();
+            metrics.queueWait().record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        });
+    }
+
+    /**
+     * Admits a customer only if a slot is free right now, without queueing. Never overtakes a
+     * customer who is already waiting, as their slots lie in the future.
+     *
+     * @return {@code true} if admitted
+     */
+    public boolean tryEnter() {
+        while (true) {
+            long now = System.nanoTime();
+            long current = theoreticalArrivalNanos.get();
+            long next = Math.max(current, now) + intervalNanos;
+            if (next - burstNanos > now) {
+                return false;
+            }
+            if (theoreticalArrivalNanos.compareAndSet(current, next)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Estimates the position and wait a customer arriving now would get, without joining.
+     *
+     * @return the estimate; not accepted if the queue is full
+     */
+    public QueuePosition estimate() {
+        int position = waiting.get() + 1;
+        if (position > maxQueueLength) {
+            return new QueuePosition(false, 0, TimeUnit.NANOSECONDS.toMillis(intervalNanos), 0);
+        }
+        long now = System.nanoTime();
+        long admitAt = Math.max(now, Math.max(theoreticalArrivalNanos.get(), now) + intervalNanos - burstNanos);
+        return new QueuePosition(true, position, TimeUnit.NANOSECONDS.toMillis(admitAt - now), admitAt);
+    }
+
+    /**
+     * Retrieves the number of customers waiting for admission.
+     *
+     * @return the queue length
+     */
+    public int getQueueLength() {
+        return waiting.get();
+    }
+}
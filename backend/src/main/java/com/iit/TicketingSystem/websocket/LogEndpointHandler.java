@@ -0,0 +1,64 @@
+package com.iit.TicketingSystem.websocket;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.net.URI;
+
+/**
+ * WebSocket handler registered at {@code /logs} that routes each connection by its {@code mode} query parameter:
+ * {@code /logs?mode=delta} subscribes to coalesced pool-state frames from {@link PoolStateWebSocketHandler},
+ * anything else to the text log stream from {@link LogWebSocketHandler}.
+ */
+@Component
+public class LogEndpointHandler implements WebSocketHandler {
+
+    private final LogWebSocketHandler logWebSocketHandler;
+    private final PoolStateWebSocketHandler poolStateWebSocketHandler;
+
+    public LogEndpointHandler(LogWebSocketHandler logWebSocketHandler, PoolStateWebSocketHandler poolStateWebSocketHandler) {
+        this.logWebSocketHandler = logWebSocketHandler;
+        this.poolStateWebSocketHandler = poolStateWebSocketHandler;
+    }
+
+    /**
+     * Picks the handler for a session from the query string it connected with.
+     *
+     * @param session the WebSocket session
+     * @return the handler serving the session
+     */
+    private WebSocketHandler handlerFor(WebSocketSession session) {
+        URI uri = session.getUri();
+        String mode = uri == null ? null : UriComponentsBuilder.fromUri(uri).build().getQueryParams().getFirst("mode");
+        return "delta".equalsIgnoreCase(mode) ? poolStateWebSocketHandler : logWebSocketHandler;
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+        handlerFor(session).afterConnectionEstablished(session);
+    }
+
+    @Override
+    public void handleMessage(WebSocketSession session, WebSocketMessage<?> message) throws Exception {
+        handlerFor(session).handleMessage(session, message);
+    }
+
+    @Override
+    public void handleTransportError(WebSocketSession session, Throwable exception) throws Exception {
+        handlerFor(session).handleTransportError(session, exception);
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+        handlerFor(session).afterConnectionClosed(session, closeStatus);
+    }
+
+    @Override
+    public boolean supportsPartialMessages() {
+        return false;
+    }
+}
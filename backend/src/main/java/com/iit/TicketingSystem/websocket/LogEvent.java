@@ -0,0 +1,139 @@
+package com.iit.TicketingSystem.websocket;
+
+/**
+ * A structured log record: what happened, who did it, how many tickets it moved and when.
+ * Events live in preallocated slots of the {@link LogEventRingBuffer} and are overwritten in place,
+ * so publishing one allocates nothing; the text shown in the log file, on the console and to
+ * WebSocket clients is only built by the log writer thread, and only for sinks that accept the event.
+ */
+public class LogEvent {
+    private LogEventKind kind;
+    private String actor;
+    private int count;
+    private int total;
+    private long holdId;
+    private long timestampMillis;
+    private String text;
+
+    /**
+     * Overwrites every field of this event.
+     *
+     * @param kind            what happened
+     * @param actor           the vendor, customer or holder name, or {@code null}
+     * @param count           the number of tickets involved
+     * @param total           the pool's ticket count afterwards
+     * @param holdId          the hold id, or {@code 0}
+     * @param timestampMillis when it happened
+     * @param text            the message of a {@link LogEventKind#MESSAGE}, otherwise {@code null}
+     */
+    void set(LogEventKind kind, String actor, int count, int total, long holdId, long timestampMillis, String text) {
+        this.kind = kind;
+        this.actor = actor;
+        this.count = count;
+        this.total = total;
+        this.holdId = holdId;
+        this.timestampMillis = timestampMillis;
+        this.text = text;
+    }
+
+    /**
+     * Copies another event into this one.
+     *
+     * @param other the event to copy
+     */
+    void copyFrom(LogEvent other) {
+        set(other.kind, other.actor, other.count, other.total, other.holdId, other.timestampMillis, other.text);
+    }
+
+    /**
+     * Drops the references held by this event so a drained slot does not keep names or messages alive.
+     */
+    void clear() {
+        actor = null;
+        text = null;
+    }
+
+    /**
+     * Appends the human-readable form of this event.
+     *
+     * @param out the builder to append to
+     * @return the builder
+     */
+    public StringBuilder appendTo(StringBuilder out) {
+        switch (kind) {
+            case TICKETS_ADDED -> {
+                out.append(actor);
+                if (count == 1) {
+                    out.append(" added a ticket.");
+                } else {
+                    out.append(" added ").append(count).append(" tickets.");
+                }
+                out.append(" Total ticket count: ").append(total);
+            }
+            case TICKETS_PURCHASED -> {
+                out.append(actor);
+                if (count == 1) {
+                    out.append(" purchased a ticket.");
+                } else {
+                    out.append(" purchased ").append(count).append(" tickets.");
+                }
+                out.append(" Remaining tickets: ").append(total);
+            }
+            case TICKETS_HELD -> {
+                out.append(actor);
+                if (count == 1) {
+                    out.append(" is holding a ticket");
+                } else {
+                    out.append(" is holding ").append(count).append(" tickets");
+                }
+                out.append(" (hold #").append(holdId).append("). Remaining tickets: ").append(total);
+            }
+            case HOLD_CONFIRMED -> {
+                out.append(actor);
+                if (count == 1) {
+                    out.append(" purchased a held ticket.");
+                } else {
+                    out.append(" purchased ").append(count).append(" held tickets.");
+                }
+                out.append(" (hold #").append(holdId).append(')');
+            }
+            case HOLD_RELEASED, HOLD_EXPIRED -> out.append("Hold #").append(holdId).append(" for ").append(actor)
+                    .append(kind == LogEventKind.HOLD_RELEASED ? " released" : " expired")
+                    .append(". Total ticket count: ").append(total);
+            case WAITING_FOR_ROOM -> out.append(actor).append(": Max capacity reached. Waiting to add tickets...");
+            case WAITING_FOR_STOCK -> out.append(actor).append(": No tickets available. Waiting...");
+            case SYSTEM_STOPPED -> out.append("Ticketing system stopped.");
+            case MESSAGE -> out.append(text);
+        }
+        return out;
+    }
+
+    public LogEventKind getKind() {
+        return kind;
+    }
+
+    public String getActor() {
+        return actor;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public long getHoldId() {
+        return holdId;
+    }
+
+    public long getTimestampMillis() {
+        return timestampMillis;
+    }
+
+    @Override
+    public String toString() {
+        return appendTo(new StringBuilder(64)).toString();
+    }
+}
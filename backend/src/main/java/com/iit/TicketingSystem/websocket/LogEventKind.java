@@ -0,0 +1,37 @@
+package com.iit.TicketingSystem.websocket;
+
+/**
+ * What a {@link LogEvent} records, and the level it is logged at.
+ */
+public enum LogEventKind {
+    /** A vendor added tickets; the total is the pool's ticket count afterwards. */
+    TICKETS_ADDED(LogLevel.DEBUG),
+    /** A customer bought tickets; the total is the pool's ticket count afterwards. */
+    TICKETS_PURCHASED(LogLevel.DEBUG),
+    /** A customer put tickets on hold. */
+    TICKETS_HELD(LogLevel.DEBUG),
+    /** A customer bought the tickets they were holding. */
+    HOLD_CONFIRMED(LogLevel.DEBUG),
+    /** A customer gave their held tickets back. */
+    HOLD_RELEASED(LogLevel.INFO),
+    /** Held tickets went back to the pool because the hold ran out. */
+    HOLD_EXPIRED(LogLevel.INFO),
+    /** A vendor found the pool full and is waiting for room. */
+    WAITING_FOR_ROOM(LogLevel.INFO),
+    /** A customer found the pool empty and is waiting for tickets. */
+    WAITING_FOR_STOCK(LogLevel.INFO),
+    /** The vendors and customers were stopped. */
+    SYSTEM_STOPPED(LogLevel.INFO),
+    /** Free text published through {@link LogWebSocketHandler#addLog(String)}; never echoed to the console. */
+    MESSAGE(LogLevel.INFO);
+
+    private final LogLevel level;
+
+    LogEventKind(LogLevel level) {
+        this.level = level;
+    }
+
+    public LogLevel getLevel() {
+        return level;
+    }
+}
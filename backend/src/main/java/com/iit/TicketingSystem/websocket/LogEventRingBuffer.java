@@ -0,0 +1,107 @@
+package com.iit.TicketingSystem.websocket;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded, lock-free ring buffer of log events, laid out like {@link LogRingBuffer}.
+ * Every slot holds a {@link LogEvent} allocated up front: publishers claim a slot and fill it in
+ * place, and the consumer copies it out before handing the slot back, so events are never allocated
+ * after construction. Any number of threads may publish; the log writer drains it, and publishers
+ * may also take from the head to evict the oldest event when the buffer is full.
+ */
+class LogEventRingBuffer {
+    private final int mask;
+    private final LogEvent[] slots;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+
+    /**
+     * Constructs a new {@link LogEventRingBuffer}.
+     *
+     * @param minCapacity the minimum number of events the buffer must hold; rounded up to a power of two
+     */
+    LogEventRingBuffer(int minCapacity) {
+        int capacity = Integer.highestOneBit(Math.max(2, minCapacity) - 1) << 1;
+        this.mask = capacity - 1;
+        this.slots = new LogEvent[capacity];
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new LogEvent();
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Attempts to append an event to the tail of the buffer.
+     *
+     * @param kind            what happened
+     * @param actor           the vendor, customer or holder name
+     * @param count           the number of tickets involved
+     * @param total           the pool's ticket count afterwards
+     * @param holdId          the hold id, or {@code 0}
+     * @param timestampMillis when it happened
+     * @param text            the message of a {@link LogEventKind#MESSAGE}
+     * @return {@code true} if the event was stored, {@code false} if the buffer was full
+     */
+    boolean offer(LogEventKind kind, String actor, int count, int total, long holdId, long timestampMillis, String text) {
+        long pos = tail.get();
+        while (true) {
+            int index = (int) (pos & mask);
+            long diff = sequences.get(index) - pos;
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    slots[index].set(kind, actor, count, total, holdId, timestampMillis, text);
+                    sequences.set(index, pos + 1);
+                    return true;
+                }
+                pos = tail.get();
+            } else if (diff < 0) {
+                return false;
+            } else {
+                pos = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Attempts to take the event at the head of the buffer.
+     *
+     * @param into receives a copy of the event, or {@code null} to discard it
+     * @return {@code true} if an event was taken, {@code false} if the buffer was empty
+     */
+    boolean poll(LogEvent into) {
+        long pos = head.get();
+        while (true) {
+            int index = (int) (pos & mask);
+            long diff = sequences.get(index) - (pos + 1);
+            if (diff == 0) {
+                if (head.compareAndSet(pos, pos + 1)) {
+                    LogEvent slot = slots[index];
+                    if (into != null) {
+                        into.copyFrom(slot);
+                    }
+                    slot.clear();
+                    sequences.set(index, pos + mask + 1);
+                    return true;
+                }
+                pos = head.get();
+            } else if (diff < 0) {
+                return false;
+            } else {
+                pos = head.get();
+            }
+        }
+    }
+
+    /**
+     * Retrieves an estimate of the number of queued events.
+     *
+     * @return the approximate queue depth
+     */
+    int size() {
+        long size = tail.get() - head.get();
+        return (int) Math.max(0, Math.min(size, mask + 1));
+    }
+}
@@ -0,0 +1,23 @@
+package com.iit.TicketingSystem.websocket;
+
+/**
+ * Severity of a {@link LogEventKind}. Each log sink has a threshold and ignores events below it.
+ */
+public enum LogLevel {
+    /** Every ticket movement: releases, purchases and holds. */
+    DEBUG,
+    /** Waits, expired or released holds, system messages. */
+    INFO,
+    /** Nothing reaches the sink. */
+    OFF;
+
+    /**
+     * Checks whether a sink with this threshold accepts events of the given level.
+     *
+     * @param level the event level
+     * @return {@code true} if the event reaches the sink
+     */
+    public boolean accepts(LogLevel level) {
+        return this != OFF && level.compareTo(this) >= 0;
+    }
+}
@@ -0,0 +1,13 @@
+package com.iit.TicketingSystem.websocket;
+
+/**
+ * Policy applied by {@link LogWebSocketHandler} when its log buffer is full.
+ */
+public enum LogOverflowPolicy {
+    /** Discard the entry being published and keep everything already queued. */
+    DROP_NEWEST,
+    /** Discard the oldest queued entry to make room for the new one. */
+    DROP_OLDEST,
+    /** Make the publishing thread wait until the writer frees a slot. */
+    BLOCK
+}
@@ -0,0 +1,12 @@
+package com.iit.TicketingSystem.websocket;
+
+import java.util.List;
+
+/**
+ * One page of a {@link LogStore} query.
+ *
+ * @param records    the matching records, oldest segment first
+ * @param nextCursor the cursor that continues the query after the last record, or {@code null} if nothing more matched
+ */
+public record LogPage(List<LogRecord> records, String nextCursor) {
+}
@@ -0,0 +1,11 @@
+package com.iit.TicketingSystem.websocket;
+
+/**
+ * One stored log entry, as returned by {@link LogStore} queries.
+ *
+ * @param timestampMillis when the entry was logged
+ * @param actor           the vendor, customer or holder it is about, or {@code null} for system and client messages
+ * @param message         the formatted log text
+ */
+public record LogRecord(long timestampMillis, String actor, String message) {
+}
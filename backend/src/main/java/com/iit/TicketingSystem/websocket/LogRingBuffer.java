@@ -0,0 +1,94 @@
+package com.iit.TicketingSystem.websocket;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded, lock-free ring buffer of log entries.
+ * Any number of threads may publish; the log writer drains it, and publishers may also take
+ * from the head to evict the oldest entry when the buffer is full.
+ */
+class LogRingBuffer {
+    private final int mask;
+    private final String[] entries;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+
+    /**
+     * Constructs a new {@link LogRingBuffer}.
+     *
+     * @param minCapacity the minimum number of entries the buffer must hold; rounded up to a power of two
+     */
+    LogRingBuffer(int minCapacity) {
+        int capacity = Integer.highestOneBit(Math.max(2, minCapacity) - 1) << 1;
+        this.mask = capacity - 1;
+        this.entries = new String[capacity];
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Attempts to append an entry to the tail of the buffer.
+     *
+     * @param entry the log entry
+     * @return {@code true} if the entry was stored, {@code false} if the buffer was full
+     */
+    boolean offer(String entry) {
+        long pos = tail.get();
+        while (true) {
+            int index = (int) (pos & mask);
+            long diff = sequences.get(index) - pos;
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    entries[index] = entry;
+                    sequences.set(index, pos + 1);
+                    return true;
+                }
+                pos = tail.get();
+            } else if (diff < 0) {
+                return false;
+            } else {
+                pos = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Attempts to take the entry at the head of the buffer.
+     *
+     * @return the entry, or {@code null} if the buffer was empty
+     */
+    String poll() {
+        long pos = head.get();
+        while (true) {
+            int index = (int) (pos & mask);
+            long diff = sequences.get(index) - (pos + 1);
+            if (diff == 0) {
+                if (head.compareAndSet(pos, pos + 1)) {
+                    String entry = entries[index];
+                    entries[index] = null;
+                    sequences.set(index, pos + mask + 1);
+                    return entry;
+                }
+                pos = head.get();
+            } else if (diff < 0) {
+                return null;
+            } else {
+                pos = head.get();
+            }
+        }
+    }
+
+    /**
+     * Retrieves an estimate of the number of queued entries.
+     *
+     * @return the approximate queue depth
+     */
+    int size() {
+        long size = tail.get() - head.get();
+        return (int) Math.max(0, Math.min(size, mask + 1));
+    }
+}
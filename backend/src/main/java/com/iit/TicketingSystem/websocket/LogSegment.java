@@ -0,0 +1,543 @@
+package com.iit.TicketingSystem.websocket;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * One segment of the {@link LogStore}: a run of log lines split into blocks of a fixed number of records.
+ * Each line is {@code timestamp TAB actor TAB message}, with tabs, newlines and backslashes escaped.
+ * <p>
+ * While the segment is active, lines are appended to a plain text file. Once sealed, every block
+ * is gzipped on its own and the blocks are concatenated into a {@code .log.gz} file, which is still
+ * a valid gzip file for command line tools. The sparse index holds, for each block, its byte range and its oldest and
+ * newest timestamps. It also holds the set of blocks each actor appears in. Queries therefore read and
+ * inflate only the blocks that can match. The index lives in memory, and for sealed segments in an
+ * {@code .idx} file next to the data.
+ */
+class LogSegment {
+    private static final int INDEX_MAGIC = 0x4C494458; //"LIDX"
+    private static final int INDEX_VERSION = 1;
+
+    private final long id;
+    private final Path plainFile;
+    private final Path compressedFile;
+    private final Path indexFile;
+    private final int indexInterval;
+
+    //Index, guarded by this; replaced wholesale when the segment is compressed
+    private List<Block> blocks = new ArrayList<>();
+    private final Map<String, BitSet> actorBlocks = new HashMap<>();
+    private long minTimestamp = Long.MAX_VALUE;
+    private long maxTimestamp = Long.MIN_VALUE;
+    private boolean compressed;
+
+    //Written by the log writer thread only
+    private FileChannel channel;
+    private final ByteArrayOutputStream pending = new ByteArrayOutputStream();
+    private long appendOffset;
+    private long firstTimestamp = -1;
+    private volatile long size; //Bytes of the plain file that are complete and safe to read
+
+    /**
+     * The byte range and time span of a block of records.
+     */
+    static final class Block {
+        private long minTimestamp;
+        private long maxTimestamp;
+        private final long offset;
+        private int length;
+        private int records;
+
+        Block(long minTimestamp, long maxTimestamp, long offset, int length, int records) {
+            this.minTimestamp = minTimestamp;
+            this.maxTimestamp = maxTimestamp;
+            this.offset = offset;
+            this.length = length;
+            this.records = records;
+        }
+
+        Block copy() {
+            return new Block(minTimestamp, maxTimestamp, offset, length, records);
+        }
+
+        boolean overlaps(long from, long to) {
+            return maxTimestamp >= from && minTimestamp <= to;
+        }
+    }
+
+    /**
+     * A consistent copy of the index taken for one query.
+     */
+    private record View(List<Block> blocks, BitSet actorBlocks, boolean compressed, long size) {
+    }
+
+    private LogSegment(Path directory, long id, int indexInterval) {
+        this.id = id;
+        String name = String.format("%020d", id);
+        this.plainFile = directory.resolve(name + ".log");
+        this.compressedFile = directory.resolve(name + ".log.gz");
+        this.indexFile = directory.resolve(name + ".idx");
+        this.indexInterval = indexInterval;
+    }
+
+    /**
+     * Creates a new, empty active segment.
+     *
+     * @param directory     the store directory
+     * @param id            the segment id
+     * @param indexInterval the number of records per block
+     * @return the segment
+     * @throws IOException if the file cannot be created
+     */
+    static LogSegment create(Path directory, long id, int indexInterval) throws IOException {
+        LogSegment segment = new LogSegment(directory, id, indexInterval);
+        segment.channel = FileChannel.open(segment.plainFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        return segment;
+    }
+
+    /**
+     * Opens a compressed segment from its index file.
+     *
+     * @param directory the store directory
+     * @param id        the segment id
+     * @return the segment
+     * @throws IOException if the index cannot be read or is not an index file
+     */
+    static LogSegment load(Path directory, long id) throws IOException {
+        LogSegment segment = new LogSegment(directory, id, 0);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(segment.indexFile)))) {
+            if (in.readInt() != INDEX_MAGIC || in.readInt() != INDEX_VERSION) {
+                throw new IOException("Not a log index: " + segment.indexFile);
+            }
+            int blockCount = in.readInt();
+            for (int i = 0; i < blockCount; i++) {
+                Block block = new Block(in.readLong(), in.readLong(), in.readLong(), in.readInt(), in.readInt());
+                segment.blocks.add(block);
+                segment.minTimestamp = Math.min(segment.minTimestamp, block.minTimestamp);
+                segment.maxTimestamp = Math.max(segment.maxTimestamp, block.maxTimestamp);
+            }
+            int actorCount = in.readInt();
+            for (int i = 0; i < actorCount; i++) {
+                String actor = in.readUTF();
+                long[] words = new long[in.readInt()];
+                for (int w = 0; w < words.length; w++) {
+                    words[w] = in.readLong();
+                }
+                segment.actorBlocks.put(actor, BitSet.valueOf(words));
+            }
+        }
+        segment.compressed = true;
+        return segment;
+    }
+
+    /**
+     * Rebuilds the index of a plain segment left behind by a previous run, ready to be compressed.
+     *
+     * @param directory     the store directory
+     * @param id            the segment id
+     * @param indexInterval the number of records per block
+     * @return the segment
+     * @throws IOException if the file cannot be read
+     */
+    static LogSegment recover(Path directory, long id, int indexInterval) throws IOException {
+        LogSegment segment = new LogSegment(directory, id, indexInterval);
+        byte[] data = Files.readAllBytes(segment.plainFile);
+        int start = 0;
+        for (int i = 0; i < data.length; i++) {
+            if (data[i] == '\n') {
+                LogRecord record = parse(data, start, i);
+                if (record != null) {
+                    segment.index(record, start, i + 1 - start);
+                }
+                start = i + 1;
+            }
+        }
+        segment.appendOffset = start; //A torn last line is ignored
+        segment.size = start;
+        return segment;
+    }
+
+    long getId() {
+        return id;
+    }
+
+    /**
+     * Retrieves the timestamp of the first record appended to this segment, which starts its rotation clock.
+     *
+     * @return the timestamp, or {@code -1} if the segment is empty
+     */
+    long getFirstTimestamp() {
+        return firstTimestamp;
+    }
+
+    /**
+     * Retrieves the number of bytes appended so far, including those not yet written out.
+     *
+     * @return the plain size in bytes
+     */
+    long getAppendOffset() {
+        return appendOffset;
+    }
+
+    synchronized long getMaxTimestamp() {
+        return maxTimestamp;
+    }
+
+    synchronized boolean isCompressed() {
+        return compressed;
+    }
+
+    /**
+     * Buffers a record for the next {@link #flush()}. Called by the log writer thread only.
+     *
+     * @param record the record
+     */
+    void append(LogRecord record) {
+        byte[] line = encode(record);
+        pending.writeBytes(line);
+        if (firstTimestamp < 0) {
+            firstTimestamp = record.timestampMillis();
+        }
+        index(record, appendOffset, line.length);
+        appendOffset += line.length;
+    }
+
+    /**
+     * Writes the buffered records to the plain file and makes them visible to queries.
+     *
+     * @throws IOException if the write fails
+     */
+    void flush() throws IOException {
+        if (pending.size() == 0) {
+            return;
+        }
+        ByteBuffer bytes = ByteBuffer.wrap(pending.toByteArray());
+        pending.reset();
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+        size = appendOffset;
+    }
+
+    /**
+     * Flushes and closes the plain file; no more records can be appended.
+     *
+     * @throws IOException if the final write fails
+     */
+    void seal() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Adds a record occupying the given bytes to the index, starting a new block every {@code indexInterval} records.
+     */
+    private synchronized void index(LogRecord record, long offset, int length) {
+        long timestamp = record.timestampMillis();
+        Block block = blocks.isEmpty() ? null : blocks.get(blocks.size() - 1);
+        if (block == null || block.records == indexInterval) {
+            block = new Block(timestamp, timestamp, offset, 0, 0);
+            blocks.add(block);
+        }
+        block.minTimestamp = Math.min(block.minTimestamp, timestamp);
+        block.maxTimestamp = Math.max(block.maxTimestamp, timestamp);
+        block.length += length;
+        block.records++;
+        minTimestamp = Math.min(minTimestamp, timestamp);
+        maxTimestamp = Math.max(maxTimestamp, timestamp);
+        if (record.actor() != null) {
+            actorBlocks.computeIfAbsent(record.actor(), a -> new BitSet()).set(blocks.size() - 1);
+        }
+    }
+
+    /**
+     * Gzips every block of a sealed segment on its own, writes the index file and deletes the plain file.
+     * Queries keep reading the plain file until the compressed one is complete.
+     *
+     * @throws IOException if the segment cannot be compressed; the plain file is then left in place
+     */
+    void compress() throws IOException {
+        View view = view(null);
+        Path temp = compressedFile.resolveSibling(compressedFile.getFileName() + ".tmp");
+        List<Block> packed = new ArrayList<>(view.blocks().size());
+        try (FileChannel in = FileChannel.open(plainFile, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                     StandardOpenOption.TRUNCATE_EXISTING)) {
+            long offset = 0;
+            ByteArrayOutputStream deflated = new ByteArrayOutputStream();
+            for (Block block : view.blocks()) {
+                deflated.reset();
+                try (GZIPOutputStream gzip = new GZIPOutputStream(deflated)) {
+                    gzip.write(read(in, block.offset, block.length));
+                }
+                ByteBuffer bytes = ByteBuffer.wrap(deflated.toByteArray());
+                while (bytes.hasRemaining()) {
+                    out.write(bytes);
+                }
+                packed.add(new Block(block.minTimestamp, block.maxTimestamp, offset, deflated.size(), block.records));
+                offset += deflated.size();
+            }
+            out.force(true);
+        }
+        Files.move(temp, compressedFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        writeIndex(packed);
+        synchronized (this) {
+            blocks = packed;
+            compressed = true;
+        }
+        Files.deleteIfExists(plainFile);
+    }
+
+    private void writeIndex(List<Block> packed) throws IOException {
+        Path temp = indexFile.resolveSibling(indexFile.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(INDEX_MAGIC);
+            out.writeInt(INDEX_VERSION);
+            out.writeInt(packed.size());
+            for (Block block : packed) {
+                out.writeLong(block.minTimestamp);
+                out.writeLong(block.maxTimestamp);
+                out.writeLong(block.offset);
+                out.writeInt(block.length);
+                out.writeInt(block.records);
+            }
+            synchronized (this) {
+                out.writeInt(actorBlocks.size());
+                for (Map.Entry<String, BitSet> entry : actorBlocks.entrySet()) {
+                    out.writeUTF(entry.getKey());
+                    long[] words = entry.getValue().toLongArray();
+                    out.writeInt(words.length);
+                    for (long word : words) {
+                        out.writeLong(word);
+                    }
+                }
+            }
+        }
+        Files.move(temp, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Deletes every file of this segment.
+     */
+    void delete() throws IOException {
+        Files.deleteIfExists(indexFile);
+        Files.deleteIfExists(compressedFile);
+        Files.deleteIfExists(plainFile);
+    }
+
+    private synchronized View view(String actor) {
+        List<Block> copy = new ArrayList<>(blocks.size());
+        for (Block block : blocks) {
+            copy.add(block.copy());
+        }
+        BitSet actorSet = actor == null ? null : (BitSet) actorBlocks.getOrDefault(actor, new BitSet()).clone();
+        return new View(copy, actorSet, compressed, size);
+    }
+
+    /**
+     * Appends the records of this segment that match a query, reading only the blocks the index allows.
+     *
+     * @param from       the oldest timestamp wanted
+     * @param to         the newest timestamp wanted
+     * @param actor      the actor wanted, or {@code null} for any
+     * @param startBlock the block to start at
+     * @param skip       the number of lines of the start block already returned
+     * @param limit      the page size
+     * @param out        receives the records
+     * @return the cursor to continue from if the page filled up, otherwise {@code null}
+     * @throws IOException if a block cannot be read
+     */
+    String query(long from, long to, String actor, int startBlock, int skip, int limit, List<LogRecord> out) throws IOException {
+        synchronized (this) {
+            if (minTimestamp > to || maxTimestamp < from) {
+                return null;
+            }
+        }
+        View view = view(actor);
+        try {
+            return query(view, from, to, actor, startBlock, skip, limit, out);
+        } catch (NoSuchFileException e) {
+            if (view.compressed()) {
+                return null; //Deleted by retention
+            }
+            return query(view(actor), from, to, actor, startBlock, skip, limit, out); //Compressed meanwhile
+        }
+    }
+
+    private String query(View view, long from, long to, String actor, int startBlock, int skip, int limit,
+                         List<LogRecord> out) throws IOException {
+        int first = actor == null ? startBlock : view.actorBlocks().nextSetBit(startBlock);
+        if (first < 0 || first >= view.blocks().size()) {
+            return null;
+        }
+        byte[] actorBytes = actor == null ? null : escape(actor, new StringBuilder()).toString().getBytes(StandardCharsets.UTF_8);
+        try (FileChannel in = FileChannel.open(view.compressed() ? compressedFile : plainFile, StandardOpenOption.READ)) {
+            for (int b = first; b >= 0 && b < view.blocks().size();
+                 b = actor == null ? b + 1 : view.actorBlocks().nextSetBit(b + 1)) {
+                Block block = view.blocks().get(b);
+                if (!block.overlaps(from, to)) {
+                    continue;
+                }
+                byte[] data;
+                if (view.compressed()) {
+                    try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(read(in, block.offset, block.length)))) {
+                        data = gzip.readAllBytes();
+                    }
+                } else {
+                    data = read(in, block.offset, (int) Math.min(block.length, view.size() - block.offset));
+                }
+                int line = 0;
+                int start = 0;
+                for (int i = 0; i < data.length; i++) {
+                    if (data[i] != '\n') {
+                        continue;
+                    }
+                    if (b != startBlock || line >= skip) {
+                        LogRecord record = matches(data, start, i, from, to, actorBytes) ? parse(data, start, i) : null;
+                        if (record != null) {
+                            out.add(record);
+                            if (out.size() >= limit) {
+                                return id + "-" + b + "-" + (line + 1);
+                            }
+                        }
+                    }
+                    line++;
+                    start = i + 1;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static byte[] read(FileChannel in, long offset, int length) throws IOException {
+        if (length <= 0) {
+            return new byte[0];
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (in.read(buffer, offset + buffer.position()) < 0) {
+                break;
+            }
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Checks the timestamp and actor of a line without decoding it.
+     */
+    private static boolean matches(byte[] data, int start, int end, long from, long to, byte[] actor) {
+        int tab = indexOf(data, start, end);
+        if (tab < 0) {
+            return false;
+        }
+        long timestamp = 0;
+        for (int i = start; i < tab; i++) {
+            timestamp = timestamp * 10 + (data[i] - '0');
+        }
+        if (timestamp < from || timestamp > to) {
+            return false;
+        }
+        if (actor == null) {
+            return true;
+        }
+        int actorEnd = indexOf(data, tab + 1, end);
+        return actorEnd >= 0 && Arrays.equals(data, tab + 1, actorEnd, actor, 0, actor.length);
+    }
+
+    /**
+     * Decodes one line, without its newline, or returns {@code null} if it is malformed.
+     */
+    private static LogRecord parse(byte[] data, int start, int end) {
+        int firstTab = indexOf(data, start, end);
+        int secondTab = firstTab < 0 ? -1 : indexOf(data, firstTab + 1, end);
+        if (secondTab < 0) {
+            return null;
+        }
+        try {
+            long timestamp = Long.parseLong(new String(data, start, firstTab - start, StandardCharsets.US_ASCII));
+            String actor = unescape(new String(data, firstTab + 1, secondTab - firstTab - 1, StandardCharsets.UTF_8));
+            String message = unescape(new String(data, secondTab + 1, end - secondTab - 1, StandardCharsets.UTF_8));
+            return new LogRecord(timestamp, actor.isEmpty() ? null : actor, message);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static int indexOf(byte[] data, int from, int end) {
+        for (int i = from; i < end; i++) {
+            if (data[i] == '\t') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static byte[] encode(LogRecord record) {
+        StringBuilder line = new StringBuilder(record.message().length() + 32);
+        line.append(record.timestampMillis()).append('\t');
+        escape(record.actor() == null ? "" : record.actor(), line).append('\t');
+        escape(record.message(), line).append('\n');
+        return line.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static StringBuilder escape(String text, StringBuilder out) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '\\' -> out.append("\\\\");
+                case '\t' -> out.append("\\t");
+                case '\n' -> out.append("\\n");
+                case '\r' -> out.append("\\r");
+                default -> out.append(c);
+            }
+        }
+        return out;
+    }
+
+    private static String unescape(String text) {
+        if (text.indexOf('\\') < 0) {
+            return text;
+        }
+        StringBuilder out = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\\' && i + 1 < text.length()) {
+                char next = text.charAt(++i);
+                out.append(switch (next) {
+                    case 't' -> '\t';
+                    case 'n' -> '\n';
+                    case 'r' -> '\r';
+                    default -> next;
+                });
+            } else {
+                out.append(c);
+            }
+        }
+        return out.toString();
+    }
+}
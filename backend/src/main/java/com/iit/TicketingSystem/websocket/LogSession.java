@@ -0,0 +1,130 @@
+package com.iit.TicketingSystem.websocket;
+
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * One connected log client: its session, a bounded queue of entries waiting to be sent, and the
+ * state of its sender. The log writer only appends to the queue; a sender task drains it on the
+ * shared sender executor, giving up its thread after a short burst so clients take turns.
+ */
+class LogSession {
+    private static final int MAX_COALESCED_ENTRIES = 1024;
+    private static final int SENDS_PER_TURN = 64;
+
+    private final WebSocketSession session;
+    private final LogRingBuffer queue;
+    private final SessionOverflowPolicy overflowPolicy;
+    private final long sendTimeLimitNanos;
+    private final Executor senders;
+    private final LongAdder droppedLogs;
+    private final AtomicBoolean sending = new AtomicBoolean();
+
+    /**
+     * Constructs a new {@link LogSession}.
+     *
+     * @param session           the client session; decorated so it is safe to send from the sender task
+     * @param queueSize         the maximum number of entries waiting to be sent
+     * @param overflowPolicy    how entries are sent to a lagging client
+     * @param sendTimeLimitMs   how long a single send may take before the client is disconnected as too slow
+     * @param senders           the executor that runs sender tasks
+     * @param droppedLogs       counts entries dropped because the queue was full
+     */
+    LogSession(WebSocketSession session, int queueSize, SessionOverflowPolicy overflowPolicy, long sendTimeLimitMs,
+               Executor senders, LongAdder droppedLogs) {
+        this.session = session;
+        this.queue = new LogRingBuffer(queueSize);
+        this.overflowPolicy = overflowPolicy;
+        this.sendTimeLimitNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeLimitMs);
+        this.senders = senders;
+        this.droppedLogs = droppedLogs;
+    }
+
+    WebSocketSession getSession() {
+        return session;
+    }
+
+    /**
+     * Queues a batch of entries, dropping the oldest queued entries if there is no room, and makes
+     * sure a sender task is running.
+     *
+     * @param entries the entries to send
+     */
+    void enqueue(List<String> entries) {
+        for (String entry : entries) {
+            while (!queue.offer(entry)) {
+                if (queue.poll() != null) {
+                    droppedLogs.increment();
+                }
+            }
+        }
+        scheduleSend();
+    }
+
+    private void scheduleSend() {
+        if (!sending.get() && sending.compareAndSet(false, true)) {
+            senders.execute(this::drain);
+        }
+    }
+
+    /**
+     * Sender task: sends up to {@value #SENDS_PER_TURN} messages, then yields its thread and reschedules
+     * itself if entries remain. A client whose send exceeds the time limit is disconnected, which removes
+     * it through {@code afterConnectionClosed}.
+     */
+    private void drain() {
+        try {
+            String entry;
+            for (int sent = 0; sent < SENDS_PER_TURN && session.isOpen() && (entry = queue.poll()) != null; sent++) {
+                String payload = entry;
+                if (overflowPolicy == SessionOverflowPolicy.COALESCE && queue.size() > 0) {
+                    StringBuilder coalesced = new StringBuilder(entry);
+                    for (int i = 1; i < MAX_COALESCED_ENTRIES && (entry = queue.poll()) != null; i++) {
+                        coalesced.append('\n').append(entry);
+                    }
+                    payload = coalesced.toString();
+                }
+                long startNanos = System.nanoTime();
+                session.sendMessage(new TextMessage(payload));
+                if (System.nanoTime() - startNanos > sendTimeLimitNanos) {
+                    System.err.println("Disconnecting slow log client: " + session.getId());
+                    session.close(CloseStatus.SESSION_NOT_RELIABLE);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Error sending log to client " + session.getId() + ": " + e.getMessage());
+            closeQuietly();
+        } finally {
+            sending.set(false);
+        }
+        //Take another turn for entries left over, or queued after the last poll but before the flag was cleared
+        if (session.isOpen() && queue.size() > 0) {
+            scheduleSend();
+        }
+    }
+
+    private void closeQuietly() {
+        try {
+            session.close(CloseStatus.SESSION_NOT_RELIABLE);
+        } catch (IOException | RuntimeException e) {
+            //Already closed
+        }
+    }
+
+    /**
+     * Retrieves the approximate number of entries waiting to be sent.
+     *
+     * @return the queue depth
+     */
+    int getQueuedCount() {
+        return queue.size();
+    }
+}
@@ -0,0 +1,275 @@
+package com.iit.TicketingSystem.websocket;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Durable, queryable history of the log, kept as a series of {@link LogSegment}s in one directory.
+ * The log writer appends each batch to the active segment, which is sealed and replaced once it
+ * reaches its size limit or spans its time limit. Sealed segments are compressed block by block on
+ * a background thread, and segments older than the retention period are deleted. Queries skip whole
+ * segments and blocks by timestamp and actor using the sparse indexes, and page through the results
+ * with an opaque cursor.
+ */
+@Component
+public class LogStore {
+    private static final String LOG_DIR = "logs";
+
+    private final Path directory;
+    private final long segmentBytes;
+    private final long segmentMillis;
+    private final int indexInterval;
+    private final long retentionMillis;
+    private final List<LogSegment> segments = new CopyOnWriteArrayList<>();
+    private final ExecutorService compressor = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("log-compressor").daemon(true).factory());
+    private volatile boolean opened = false;
+    private LogSegment active; //Written by the log writer thread only
+    private long nextSegmentId = 1;
+    private boolean closed = false;
+
+    /**
+     * Constructs a new {@link LogStore} with the default segment and retention settings.
+     *
+     * @param directory the directory holding the segments, or an empty string to keep no history
+     */
+    public LogStore(String directory) {
+        this(directory, 16L << 20, 60, 512, 7);
+    }
+
+    /**
+     * Constructs a new {@link LogStore}. Nothing is read or created on disk until the first append or query.
+     *
+     * @param directory       the directory holding the segments, or an empty string to keep no history
+     * @param segmentBytes    the size at which the active segment is sealed
+     * @param segmentMinutes  the time span after which the active segment is sealed
+     * @param indexInterval   the number of records per indexed block
+     * @param retentionDays   how long sealed segments are kept, {@code 0} to keep them forever
+     */
+    @Autowired
+    public LogStore(@Value("${ticketing.logs.dir:" + LOG_DIR + "}") String directory,
+                    @Value("${ticketing.logs.segment-bytes:16777216}") long segmentBytes,
+                    @Value("${ticketing.logs.segment-minutes:60}") long segmentMinutes,
+                    @Value("${ticketing.logs.index-interval:512}") int indexInterval,
+                    @Value("${ticketing.logs.retention-days:7}") int retentionDays) {
+        this.directory = directory == null || directory.isBlank() ? null : Path.of(directory);
+        this.segmentBytes = segmentBytes;
+        this.segmentMillis = TimeUnit.MINUTES.toMillis(segmentMinutes);
+        this.indexInterval = Math.max(1, indexInterval);
+        this.retentionMillis = TimeUnit.DAYS.toMillis(retentionDays);
+    }
+
+    /**
+     * Checks whether this store keeps any history.
+     *
+     * @return {@code false} if no directory was configured
+     */
+    public boolean isEnabled() {
+        return directory != null;
+    }
+
+    /**
+     * Loads the segments left by previous runs the first time the store is used.
+     * Plain segments that were never compressed are re-indexed and queued for compression.
+     */
+    private void open() throws IOException {
+        if (opened) {
+            return;
+        }
+        synchronized (this) {
+            if (opened) {
+                return;
+            }
+            Files.createDirectories(directory);
+            TreeMap<Long, List<String>> files = new TreeMap<>();
+            try (Stream<Path> listing = Files.list(directory)) {
+                for (Path path : listing.toList()) {
+                    String name = path.getFileName().toString();
+                    if (name.endsWith(".tmp")) {
+                        Files.deleteIfExists(path); //Interrupted compression; redone below
+                        continue;
+                    }
+                    int dot = name.indexOf('.');
+                    try {
+                        long id = Long.parseLong(name.substring(0, dot));
+                        files.computeIfAbsent(id, k -> new ArrayList<>()).add(name.substring(dot));
+                    } catch (NumberFormatException | IndexOutOfBoundsException e) {
+                        //Not a segment file
+                    }
+                }
+            }
+            for (var entry : files.entrySet()) {
+                long id = entry.getKey();
+                List<String> extensions = entry.getValue();
+                try {
+                    if (extensions.contains(".idx") && extensions.contains(".log.gz")) {
+                        segments.add(LogSegment.load(directory, id));
+                        if (extensions.contains(".log")) {
+                            Files.deleteIfExists(directory.resolve(String.format("%020d.log", id)));
+                        }
+                    } else if (extensions.contains(".log")) {
+                        LogSegment segment = LogSegment.recover(directory, id, indexInterval);
+                        segments.add(segment);
+                        compressor.execute(() -> compress(segment));
+                    }
+                } catch (IOException e) {
+                    System.err.println("Error loading log segment " + id + ": " + e.getMessage());
+                }
+                nextSegmentId = id + 1;
+            }
+            opened = true;
+        }
+    }
+
+    /**
+     * Appends a batch of records, rotating the active segment as needed.
+     * Must only be called by one thread at a time: the log writer, or a tool importing history.
+     *
+     * @param records the records, in the order they were logged
+     */
+    public void append(List<LogRecord> records) {
+        if (directory == null || records.isEmpty()) {
+            return;
+        }
+        try {
+            open();
+            for (LogRecord record : records) {
+                if (active == null || active.getAppendOffset() >= segmentBytes
+                        || (active.getFirstTimestamp() >= 0 && record.timestampMillis() - active.getFirstTimestamp() >= segmentMillis)) {
+                    roll();
+                }
+                active.append(record);
+            }
+            active.flush();
+        } catch (IOException e) {
+            System.err.println("Error writing log segment: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Seals the active segment, hands it to the compressor and starts a new one.
+     */
+    private void roll() throws IOException {
+        if (active != null) {
+            LogSegment sealed = active;
+            active = null;
+            sealed.seal();
+            compressor.execute(() -> compress(sealed));
+            deleteExpired();
+        }
+        active = LogSegment.create(directory, nextSegmentId++, indexInterval);
+        segments.add(active);
+    }
+
+    private void compress(LogSegment segment) {
+        try {
+            segment.compress();
+        } catch (IOException e) {
+            System.err.println("Error compressing log segment " + segment.getId() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Deletes compressed segments whose newest record is older than the retention period.
+     */
+    private void deleteExpired() {
+        if (retentionMillis <= 0) {
+            return;
+        }
+        long cutoff = System.currentTimeMillis() - retentionMillis;
+        for (LogSegment segment : segments) {
+            if (segment != active && segment.isCompressed() && segment.getMaxTimestamp() < cutoff) {
+                segments.remove(segment);
+                try {
+                    segment.delete();
+                } catch (IOException e) {
+                    System.err.println("Error deleting log segment " + segment.getId() + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds the records logged within a time range, optionally only those about one actor.
+     *
+     * @param fromMillis the oldest timestamp wanted, inclusive
+     * @param toMillis   the newest timestamp wanted, inclusive
+     * @param actor      the vendor, customer or holder wanted, or {@code null} for every record
+     * @param cursor     the {@link LogPage#nextCursor()} of the previous page, or {@code null} for the first page
+     * @param limit      the maximum number of records to return
+     * @return the page
+     * @throws IOException              if a segment cannot be read
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public LogPage query(long fromMillis, long toMillis, String actor, String cursor, int limit) throws IOException {
+        if (directory == null) {
+            return new LogPage(List.of(), null);
+        }
+        long startSegment = 0;
+        int startBlock = 0;
+        int skip = 0;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] parts = cursor.split("-");
+            try {
+                startSegment = Long.parseLong(parts[0]);
+                startBlock = Integer.parseInt(parts[1]);
+                skip = Integer.parseInt(parts[2]);
+            } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+        }
+        open();
+        List<LogRecord> records = new ArrayList<>(Math.min(limit, 1024));
+        for (LogSegment segment : segments) {
+            if (segment.getId() < startSegment) {
+                continue;
+            }
+            boolean resumed = segment.getId() == startSegment;
+            String next = segment.query(fromMillis, toMillis, actor, resumed ? startBlock : 0, resumed ? skip : 0,
+                    limit, records);
+            if (next != null) {
+                return new LogPage(records, next);
+            }
+        }
+        return new LogPage(records, null);
+    }
+
+    /**
+     * Seals the active segment and waits for pending compressions. The last segment is left uncompressed
+     * and is compressed on the next start.
+     */
+    @PreDestroy
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (active != null) {
+            try {
+                active.seal();
+            } catch (IOException e) {
+                System.err.println("Error closing log segment: " + e.getMessage());
+            }
+        }
+        compressor.shutdown();
+        try {
+            compressor.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
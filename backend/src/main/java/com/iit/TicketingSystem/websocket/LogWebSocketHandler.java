@@ -1,85 +1,408 @@
 package com.iit.TicketingSystem.websocket;
 
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
-import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.CloseStatus;
 import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
 import org.springframework.web.socket.handler.TextWebSocketHandler;
 
-import java.io.BufferedWriter;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * WebSocket handler for broadcasting log messages to connected clients.
- * Handles adding logs, saving them to a file, and broadcasting them over WebSocket connections.
+ * Pool operations publish structured {@link LogEvent}s into preallocated slots of a bounded ring
+ * buffer and return immediately, without building any text. A single writer thread drains the
+ * buffer in batches, formats each event once for the sinks whose level accepts it, echoes it to the
+ * console if the console level allows, appends each batch to the {@link LogStore}, which keeps
+ * the history in rotating, compressed and indexed segments, and hands the entries to every
+ * connected client's own bounded outbound queue. Clients are served by a small pool of sender threads that take turns in short
+ * bursts, so a slow or stalled browser only ever falls behind itself; its oldest entries are
+ * dropped or coalesced, and a client whose sends exceed the time limit is disconnected.
  */
 @Component
 public class LogWebSocketHandler extends TextWebSocketHandler {
 
-    private static final String LOG_FILE = "ticket_system_logs.txt";
-    private final List<String> logs = new LinkedList<>();
-    private final List<WebSocketSession> sessions = new CopyOnWriteArrayList<>();
+    private static final String LOG_DIR = "logs";
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final LogStore store;
+    private final int batchSize;
+    private final LogOverflowPolicy overflowPolicy;
+    private final LogEventRingBuffer buffer;
+    private final LogLevel level;
+    private final LogLevel consoleLevel;
+    private final LogLevel publishLevel;
+    private final int sessionQueueSize;
+    private final SessionOverflowPolicy sessionOverflowPolicy;
+    private final long sendTimeLimitMs;
+    private final ConcurrentMap<String, LogSession> sessions = new ConcurrentHashMap<>();
+    private final ExecutorService senders;
+    private final LongAdder droppedLogs = new LongAdder();
+    private final LongAdder droppedSessionLogs = new LongAdder();
+    private final AtomicBoolean writerStarted = new AtomicBoolean();
+    private volatile Thread writerThread;
+    private volatile boolean writerParked = false;
+    private volatile boolean closed = false;
+
+    /**
+     * Constructs a new {@link LogWebSocketHandler} with the default log directory and buffer settings.
+     */
+    public LogWebSocketHandler() {
+        this(LOG_DIR, 8192, 256, LogOverflowPolicy.DROP_NEWEST);
+    }
+
+    /**
+     * Constructs a new {@link LogWebSocketHandler} with the default per-client settings.
+     *
+     * @param logDir         the directory the log history is stored in, or an empty string to keep none
+     * @param bufferSize     the maximum number of entries waiting to be written
+     * @param batchSize      the maximum number of entries written and broadcast per batch
+     * @param overflowPolicy the policy applied when the buffer is full
+     */
+    public LogWebSocketHandler(String logDir, int bufferSize, int batchSize, LogOverflowPolicy overflowPolicy) {
+        this(logDir, bufferSize, batchSize, overflowPolicy, 1024, SessionOverflowPolicy.DROP_OLDEST, 5_000, 8);
+    }
+
+    /**
+     * Constructs a new {@link LogWebSocketHandler}.
+     *
+     * @param logDir                the directory the log history is stored in, or an empty string to keep none
+     * @param bufferSize            the maximum number of entries waiting to be written
+     * @param batchSize             the maximum number of entries written and broadcast per batch
+     * @param overflowPolicy        the policy applied when the buffer is full
+     * @param sessionQueueSize      the maximum number of entries waiting to be sent to one client
+     * @param sessionOverflowPolicy how entries are sent to a client that falls behind
+     * @param sendTimeLimitMs       how long a send to one client may take before it is disconnected
+     * @param senderThreads         the number of threads sending to clients
+     */
+    public LogWebSocketHandler(String logDir, int bufferSize, int batchSize, LogOverflowPolicy overflowPolicy,
+                               int sessionQueueSize, SessionOverflowPolicy sessionOverflowPolicy, long sendTimeLimitMs,
+                               int senderThreads) {
+        this(new LogStore(logDir), bufferSize, batchSize, overflowPolicy, sessionQueueSize, sessionOverflowPolicy, sendTimeLimitMs,
+                senderThreads, LogLevel.DEBUG, LogLevel.DEBUG);
+    }
+
+    /**
+     * Constructs a new {@link LogWebSocketHandler}.
+     *
+     * @param store                 the store the log history is appended to
+     * @param bufferSize            the maximum number of entries waiting to be written
+     * @param batchSize             the maximum number of entries written and broadcast per batch
+     * @param overflowPolicy        the policy applied when the buffer is full
+     * @param sessionQueueSize      the maximum number of entries waiting to be sent to one client
+     * @param sessionOverflowPolicy how entries are sent to a client that falls behind
+     * @param sendTimeLimitMs       how long a send to one client may take before it is disconnected
+     * @param senderThreads         the number of threads sending to clients
+     * @param level                 the lowest level stored and sent to clients
+     * @param consoleLevel          the lowest level echoed to standard output; {@link LogLevel#OFF} silences the console
+     */
+    @Autowired
+    public LogWebSocketHandler(LogStore store,
+                               @Value("${ticketing.logs.buffer-size:8192}") int bufferSize,
+                               @Value("${ticketing.logs.batch-size:256}") int batchSize,
+                               @Value("${ticketing.logs.overflow-policy:DROP_NEWEST}") LogOverflowPolicy overflowPolicy,
+                               @Value("${ticketing.logs.session.queue-size:1024}") int sessionQueueSize,
+                               @Value("${ticketing.logs.session.overflow-policy:DROP_OLDEST}") SessionOverflowPolicy sessionOverflowPolicy,
+                               @Value("${ticketing.logs.session.send-time-limit-ms:5000}") long sendTimeLimitMs,
+                               @Value("${ticketing.logs.session.sender-threads:8}") int senderThreads,
+                               @Value("${ticketing.logs.level:DEBUG}") LogLevel level,
+                               @Value("${ticketing.logs.console-level:DEBUG}") LogLevel consoleLevel) {
+        this.store = store;
+        this.batchSize = batchSize;
+        this.overflowPolicy = overflowPolicy;
+        this.buffer = new LogEventRingBuffer(bufferSize);
+        this.level = level;
+        this.consoleLevel = consoleLevel;
+        this.publishLevel = level.compareTo(consoleLevel) <= 0 ? level : consoleLevel;
+        this.sessionQueueSize = sessionQueueSize;
+        this.sessionOverflowPolicy = sessionOverflowPolicy;
+        this.sendTimeLimitMs = sendTimeLimitMs;
+        //Platform threads: container send paths may block inside monitors, which would pin virtual threads
+        this.senders = Executors.newFixedThreadPool(senderThreads,
+                Thread.ofPlatform().name("log-sender-", 0).daemon(true).factory());
+    }
 
     /**
-     * Adds a log message to the system and broadcasts it to connected clients.
+     * Publishes a log message to be saved and broadcast to connected clients.
+     * Returns without waiting for disk or network I/O unless the overflow policy is {@link LogOverflowPolicy#BLOCK}.
      *
      * @param log the log message
      */
-    public synchronized void addLog(String log) {
-        logs.add(log);
-        if (logs.size() > 100) {
-            logs.remove(0); // Limit logs to the last 100 entries
+    public void addLog(String log) {
+        if (level.accepts(LogEventKind.MESSAGE.getLevel())) {
+            publish(LogEventKind.MESSAGE, null, 0, 0, 0, log);
         }
-        saveLogToFile(log);
-        broadcastLog(log);
     }
 
     /**
-     * Saves a log message to a file.
+     * Publishes a structured event about the pool.
      *
-     * @param log the log message to save
+     * @param kind  what happened
+     * @param actor the vendor or customer name
+     * @param count the number of tickets involved
+     * @param total the pool's ticket count afterwards
      */
-    private void saveLogToFile(String log) {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(LOG_FILE, true))) {
-            writer.write(log);
-            writer.newLine();
-        } catch (IOException e) {
-            System.err.println("Error writing log to file: " + e.getMessage());
+    public void log(LogEventKind kind, String actor, int count, int total) {
+        log(kind, actor, count, total, 0);
+    }
+
+    /**
+     * Publishes a structured event about the pool. Nothing is formatted or allocated here;
+     * events below every sink's level are discarded before they reach the buffer.
+     *
+     * @param kind   what happened
+     * @param actor  the vendor, customer or holder name
+     * @param count  the number of tickets involved
+     * @param total  the pool's ticket count afterwards
+     * @param holdId the hold id, or {@code 0} if the event is not about a hold
+     */
+    public void log(LogEventKind kind, String actor, int count, int total, long holdId) {
+        if (publishLevel.accepts(kind.getLevel())) {
+            publish(kind, actor, count, total, holdId, null);
         }
     }
 
     /**
-     * Broadcasts a log message to all connected WebSocket clients.
+     * Checks whether events of a kind reach any sink, so callers can skip gathering their details.
      *
-     * @param log the log message to broadcast
+     * @param kind the event kind
+     * @return {@code true} if the event would be logged
      */
-    private void broadcastLog(String log) {
-        TextMessage message = new TextMessage(log);
-        for (WebSocketSession session : sessions) {
-            try {
-                if (session.isOpen()) {
-                    session.sendMessage(message);
+    public boolean isEnabled(LogEventKind kind) {
+        return publishLevel.accepts(kind.getLevel());
+    }
+
+    /**
+     * Stores an event in the buffer, applying the overflow policy if it is full.
+     */
+    private void publish(LogEventKind kind, String actor, int count, int total, long holdId, String text) {
+        startWriter();
+        long now = System.currentTimeMillis();
+        if (!buffer.offer(kind, actor, count, total, holdId, now, text)) {
+            switch (overflowPolicy) {
+                case DROP_NEWEST -> {
+                    droppedLogs.increment();
+                    return;
+                }
+                case DROP_OLDEST -> {
+                    while (!buffer.offer(kind, actor, count, total, holdId, now, text)) {
+                        if (buffer.poll(null)) {
+                            droppedLogs.increment();
+                        }
+                    }
+                }
+                case BLOCK -> {
+                    while (!buffer.offer(kind, actor, count, total, holdId, now, text)) {
+                        wakeWriter();
+                        LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+                    }
                 }
-            } catch (IOException e) {
-                System.err.println("Error sending log to client: " + e.getMessage());
             }
         }
+        wakeWriter();
+    }
+
+    /**
+     * Retrieves the number of log entries discarded because the buffer was full.
+     *
+     * @return the dropped entry count
+     */
+    public long getDroppedLogCount() {
+        return droppedLogs.sum();
+    }
+
+    /**
+     * Retrieves the number of log entries dropped for clients that could not keep up.
+     *
+     * @return the dropped entry count, summed over all clients
+     */
+    public long getDroppedSessionLogCount() {
+        return droppedSessionLogs.sum();
     }
 
     /**
-     * Called when a new WebSocket connection is established. Adds the session to the list of connected clients.
+     * Retrieves the number of connected log clients.
+     *
+     * @return the session count
+     */
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    /**
+     * Retrieves the approximate number of log entries waiting to be written.
+     *
+     * @return the queued entry count
+     */
+    public int getQueuedLogCount() {
+        return buffer.size();
+    }
+
+    /**
+     * Starts the writer thread the first time a log is published.
+     */
+    private void startWriter() {
+        if (!writerStarted.get() && writerStarted.compareAndSet(false, true)) {
+            Thread thread = new Thread(this::drainLogs, "log-writer");
+            thread.setDaemon(true);
+            writerThread = thread;
+            thread.start();
+        }
+    }
+
+    /**
+     * Unparks the writer thread if it is idle.
+     */
+    private void wakeWriter() {
+        if (writerParked) {
+            LockSupport.unpark(writerThread);
+        }
+    }
+
+    /**
+     * Writer loop: drains the buffer in batches until the handler is closed and the buffer is empty.
+     * Each event is formatted at most once, and only if the store and clients or the console take it.
+     */
+    private void drainLogs() {
+        List<String> batch = new ArrayList<>(batchSize);
+        List<LogRecord> records = new ArrayList<>(batchSize);
+        LogEvent event = new LogEvent();
+        StringBuilder text = new StringBuilder(128);
+        StringBuilder console = new StringBuilder();
+        while (!closed || buffer.size() > 0) {
+            int drained = 0;
+            while (drained < batchSize && buffer.poll(event)) {
+                drained++;
+                LogLevel eventLevel = event.getKind().getLevel();
+                boolean toSinks = level.accepts(eventLevel);
+                boolean toConsole = event.getKind() != LogEventKind.MESSAGE && consoleLevel.accepts(eventLevel);
+                if (toSinks) {
+                    text.setLength(0);
+                    String line = event.appendTo(text).toString();
+                    batch.add(line);
+                    records.add(new LogRecord(event.getTimestampMillis(), event.getActor(), line));
+                    if (toConsole) {
+                        console.append(line).append(System.lineSeparator());
+                    }
+                } else if (toConsole) {
+                    event.appendTo(console).append(System.lineSeparator()); //No String needed for the console alone
+                }
+            }
+            if (!console.isEmpty()) {
+                System.out.print(console);
+                console.setLength(0);
+            }
+            if (batch.isEmpty()) {
+                if (drained > 0) {
+                    continue;
+                }
+                // Publish the parked flag before re-checking so a concurrent publisher either sees it or is seen here
+                writerParked = true;
+                if (buffer.size() == 0 && !closed) {
+                    LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                }
+                writerParked = false;
+                continue;
+            }
+            store.append(records);
+            broadcastLogs(batch);
+            batch.clear();
+            records.clear();
+        }
+    }
+
+    /**
+     * Retrieves the store holding the log history.
+     *
+     * @return the log store
+     */
+    public LogStore getLogStore() {
+        return store;
+    }
+
+    /**
+     * Stops the writer thread after it has flushed every queued entry, then closes the log store.
+     */
+    @PreDestroy
+    public void close() {
+        closed = true;
+        Thread thread = writerThread;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        store.close();
+        senders.shutdown();
+    }
+
+    /**
+     * Hands a batch of log messages to every connected client's outbound queue without waiting for any send.
+     *
+     * @param batch the log messages to broadcast
+     */
+    private void broadcastLogs(List<String> batch) {
+        for (LogSession session : sessions.values()) {
+            session.enqueue(batch);
+        }
+    }
+
+    /**
+     * Called when a new WebSocket connection is established. Registers the session with its own outbound queue.
      *
      * @param session the WebSocket session of the newly connected client
      */
     @Override
     public void afterConnectionEstablished(WebSocketSession session) {
-        sessions.add(session);
+        //The decorator makes sends from the sender task safe alongside close() from container threads
+        WebSocketSession concurrentSession = new ConcurrentWebSocketSessionDecorator(session, (int) sendTimeLimitMs,
+                sessionQueueSize * 256, ConcurrentWebSocketSessionDecorator.OverflowStrategy.DROP);
+        sessions.put(session.getId(), new LogSession(concurrentSession, sessionQueueSize, sessionOverflowPolicy,
+                sendTimeLimitMs, senders, droppedSessionLogs));
         System.out.println("Client connected: " + session.getId());
     }
 
+    /**
+     * Called when a WebSocket connection is closed. Removes the session so nothing more is queued for it.
+     *
+     * @param session the WebSocket session of the disconnected client
+     * @param status  the close status
+     */
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        sessions.remove(session.getId());
+        System.out.println("Client disconnected: " + session.getId());
+    }
+
+    /**
+     * Called when a WebSocket connection fails. Removes the session and closes it.
+     *
+     * @param session   the WebSocket session of the failed client
+     * @param exception the transport error
+     */
+    @Override
+    public void handleTransportError(WebSocketSession session, Throwable exception) throws IOException {
+        LogSession removed = sessions.remove(session.getId());
+        if (removed != null && session.isOpen()) {
+            removed.getSession().close(CloseStatus.SERVER_ERROR);
+        }
+    }
 
 }
 
@@ -0,0 +1,350 @@
+package com.iit.TicketingSystem.websocket;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.iit.TicketingSystem.service.RateReport;
+import com.iit.TicketingSystem.service.TicketActor;
+import com.iit.TicketingSystem.service.TicketPool;
+import com.iit.TicketingSystem.service.TicketPoolRegistry;
+import com.iit.TicketingSystem.service.TicketingEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * WebSocket handler for the {@code /logs?mode=delta} subscription.
+ * Instead of one text frame per ticket operation, subscribers receive the state of every event's
+ * pool (ticket count, running flag, per-vendor and per-customer totals, target and actual rates)
+ * as compact JSON, coalesced on a fixed tick. A subscriber first gets a full frame and then only
+ * the fields that changed; every frame carries a version number, and each tick's frame is encoded
+ * once and shared by all subscribers. A subscriber still busy with the previous frame skips the
+ * delta and is resynchronised with a full frame once it catches up.
+ * The same frames are also streamed over HTTP as server-sent events to clients of {@link #openStream()}.
+ */
+@Component
+public class PoolStateWebSocketHandler extends TextWebSocketHandler {
+
+    private final TicketPoolRegistry ticketPoolRegistry;
+    private final ObjectMapper objectMapper;
+    private final long tickMillis;
+    private final long streamTimeoutMillis;
+    private final AtomicLong nextStreamId = new AtomicLong();
+    private final ConcurrentMap<String, StateSubscriber> subscribers = new ConcurrentHashMap<>();
+    private final ExecutorService senders;
+    private ScheduledExecutorService ticker;
+    private Map<String, Object> lastState = Map.of(); //Confined to the ticker thread
+    private long version;
+
+    /**
+     * Constructs a new {@link PoolStateWebSocketHandler}.
+     *
+     * @param ticketPoolRegistry the registry whose events are streamed
+     * @param objectMapper       the mapper used to encode frames
+     * @param tickMillis         how often changes are coalesced into a frame
+     * @param senderThreads      the number of threads sending frames to subscribers
+     */
+    public PoolStateWebSocketHandler(TicketPoolRegistry ticketPoolRegistry, ObjectMapper objectMapper, long tickMillis,
+                                     int senderThreads) {
+        this(ticketPoolRegistry, objectMapper, tickMillis, senderThreads, 0);
+    }
+
+    /**
+     * Constructs a new {@link PoolStateWebSocketHandler} whose HTTP streams close after a time limit.
+     *
+     * @param ticketPoolRegistry  the registry whose events are streamed
+     * @param objectMapper        the mapper used to encode frames
+     * @param tickMillis          how often changes are coalesced into a frame
+     * @param senderThreads       the number of threads sending frames to subscribers
+     * @param streamTimeoutMillis how long an HTTP stream stays open, {@code 0} or less to keep it open until the client leaves
+     */
+    @Autowired
+    public PoolStateWebSocketHandler(TicketPoolRegistry ticketPoolRegistry, ObjectMapper objectMapper,
+                                     @Value("${ticketing.logs.delta.tick-ms:50}") long tickMillis,
+                                     @Value("${ticketing.logs.delta.sender-threads:4}") int senderThreads,
+                                     @Value("${ticketing.logs.delta.stream-timeout-ms:0}") long streamTimeoutMillis) {
+        this.ticketPoolRegistry = ticketPoolRegistry;
+        this.objectMapper = objectMapper;
+        this.tickMillis = tickMillis;
+        this.streamTimeoutMillis = streamTimeoutMillis;
+        this.senders = Executors.newFixedThreadPool(senderThreads,
+                Thread.ofPlatform().name("state-sender-", 0).daemon(true).factory());
+    }
+
+    /**
+     * Starts the ticker that builds and sends frames.
+     */
+    @PostConstruct
+    public void start() {
+        ticker = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("state-ticker").daemon(true).factory());
+        ticker.scheduleAtFixedRate(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the ticker and the senders.
+     */
+    @PreDestroy
+    public void close() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+        }
+        senders.shutdown();
+    }
+
+    /**
+     * Builds the current state, works out what changed since the previous tick and sends each subscriber
+     * either that delta or, if it needs one, a full frame. Does nothing while there are no subscribers.
+     */
+    void tick() {
+        if (subscribers.isEmpty()) {
+            lastState = Map.of();
+            return;
+        }
+        try {
+            Map<String, Object> state = captureState();
+            Map<String, Object> changes = diff(lastState, state);
+            lastState = state;
+            if (!changes.isEmpty()) {
+                version++;
+            }
+            String deltaFrame = changes.isEmpty() ? null : encode(false, changes);
+            String fullFrame = null;
+            for (StateSubscriber subscriber : subscribers.values()) {
+                if (!subscriber.tryBeginSend()) {
+                    subscriber.needsFull = true; //Still sending the previous frame; this delta is skipped
+                    continue;
+                }
+                String frame;
+                if (subscriber.needsFull) {
+                    if (fullFrame == null) {
+                        fullFrame = encode(true, state);
+                    }
+                    frame = fullFrame;
+                    subscriber.needsFull = false;
+                } else {
+                    frame = deltaFrame;
+                }
+                if (frame == null) {
+                    subscriber.endSend();
+                } else {
+                    senders.execute(() -> subscriber.send(frame));
+                }
+            }
+        } catch (RuntimeException | JsonProcessingException e) {
+            System.err.println("Error publishing pool state: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Captures the state of every event's pool as nested maps.
+     */
+    private Map<String, Object> captureState() {
+        Map<String, Object> events = new LinkedHashMap<>();
+        for (TicketingEvent event : ticketPoolRegistry.getEvents()) {
+            TicketPool pool = event.getTicketPool();
+            if (pool == null) {
+                continue;
+            }
+            Map<String, Object> eventState = new LinkedHashMap<>();
+            eventState.put("count", pool.getTicketCount());
+            eventState.put("running", pool.isRunning());
+            eventState.put("pending", pool.getPendingRequestCount());
+            eventState.put("vendors", totals(pool.getVendors()));
+            eventState.put("customers", totals(pool.getCustomers()));
+            Map<String, Object> rates = new LinkedHashMap<>();
+            for (RateReport report : pool.getRateReports()) {
+                rates.put(report.getRole(), List.of(round(report.getTargetRate()), round(report.getActualRate())));
+            }
+            eventState.put("rates", rates);
+            events.put(event.getEventId(), eventState);
+        }
+        return events;
+    }
+
+    private static Map<String, Object> totals(List<? extends TicketActor> actors) {
+        Map<String, Object> totals = new LinkedHashMap<>();
+        for (TicketActor actor : actors) {
+            totals.put(actor.getName(), actor.getCompletedOperations());
+        }
+        return totals;
+    }
+
+    /**
+     * Rounds a rate to one decimal so jitter in the measured rate does not produce a delta every tick.
+     */
+    private static double round(double rate) {
+        return Math.round(rate * 10) / 10.0;
+    }
+
+    /**
+     * Computes the entries of {@code current} that differ from {@code previous}, recursing into nested maps.
+     * Keys that disappeared map to {@code null}.
+     *
+     * @param previous the state sent at the previous tick
+     * @param current  the current state
+     * @return the changed entries; empty if nothing changed
+     */
+    @SuppressWarnings("unchecked")
+    static Map<String, Object> diff(Map<String, Object> previous, Map<String, Object> current) {
+        Map<String, Object> changes = new LinkedHashMap<>();
+        for (Map.Entry<String, Object> entry : current.entrySet()) {
+            Object before = previous.get(entry.getKey());
+            Object after = entry.getValue();
+            if (before instanceof Map && after instanceof Map) {
+                Map<String, Object> nested = diff((Map<String, Object>) before, (Map<String, Object>) after);
+                if (!nested.isEmpty()) {
+                    changes.put(entry.getKey(), nested);
+                }
+            } else if (!Objects.equals(before, after)) {
+                changes.put(entry.getKey(), after);
+            }
+        }
+        for (String key : previous.keySet()) {
+            if (!current.containsKey(key)) {
+                changes.put(key, null);
+            }
+        }
+        return changes;
+    }
+
+    private String encode(boolean full, Map<String, Object> events) throws JsonProcessingException {
+        Map<String, Object> frame = new LinkedHashMap<>();
+        frame.put("v", version);
+        frame.put("full", full);
+        frame.put("t", System.currentTimeMillis());
+        frame.put("events", events);
+        return objectMapper.writeValueAsString(frame);
+    }
+
+    /**
+     * Retrieves the number of connected state subscribers.
+     *
+     * @return the subscriber count
+     */
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    /**
+     * Called when a delta subscriber connects. It is sent a full frame on the next tick.
+     *
+     * @param session the WebSocket session of the newly connected client
+     */
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) {
+        WebSocketSession concurrentSession = new ConcurrentWebSocketSessionDecorator(session,
+                (int) Math.max(1_000, tickMillis * 100), 1 << 20, ConcurrentWebSocketSessionDecorator.OverflowStrategy.DROP);
+        subscribers.put(session.getId(), new StateSubscriber(session.getId(), frame -> {
+            if (concurrentSession.isOpen()) {
+                concurrentSession.sendMessage(new TextMessage(frame));
+            }
+        }));
+        System.out.println("State subscriber connected: " + session.getId());
+    }
+
+    /**
+     * Called when a delta subscriber disconnects.
+     *
+     * @param session the WebSocket session of the disconnected client
+     * @param status  the close status
+     */
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        subscribers.remove(session.getId());
+        System.out.println("State subscriber disconnected: " + session.getId());
+    }
+
+    /**
+     * Called when a delta subscriber's connection fails.
+     *
+     * @param session   the WebSocket session of the failed client
+     * @param exception the transport error
+     */
+    @Override
+    public void handleTransportError(WebSocketSession session, Throwable exception) throws IOException {
+        StateSubscriber removed = subscribers.remove(session.getId());
+        if (removed != null && session.isOpen()) {
+            session.close(CloseStatus.SERVER_ERROR);
+        }
+    }
+
+    /**
+     * Opens an HTTP stream of the pool state as server-sent events, each carrying one frame.
+     * The stream holds no thread between frames; like a WebSocket subscriber it starts with a full frame.
+     *
+     * @return the emitter to return from the request handler
+     */
+    public SseEmitter openStream() {
+        SseEmitter emitter = new SseEmitter(streamTimeoutMillis);
+        String id = "stream-" + nextStreamId.incrementAndGet();
+        subscribers.put(id, new StateSubscriber(id, frame -> emitter.send(SseEmitter.event().data(frame, MediaType.APPLICATION_JSON))));
+        emitter.onCompletion(() -> subscribers.remove(id));
+        emitter.onTimeout(() -> subscribers.remove(id));
+        emitter.onError(e -> subscribers.remove(id));
+        return emitter;
+    }
+
+    /**
+     * Delivers an encoded frame to one subscriber.
+     */
+    @FunctionalInterface
+    private interface FrameSink {
+        void send(String frame) throws IOException;
+    }
+
+    /**
+     * One delta subscriber: where its frames go, whether it needs a full frame, and whether a send is in flight.
+     */
+    private static class StateSubscriber {
+        private final String id;
+        private final FrameSink sink;
+        private final AtomicBoolean sending = new AtomicBoolean();
+        private volatile boolean needsFull = true;
+
+        StateSubscriber(String id, FrameSink sink) {
+            this.id = id;
+            this.sink = sink;
+        }
+
+        boolean tryBeginSend() {
+            return sending.compareAndSet(false, true);
+        }
+
+        void endSend() {
+            sending.set(false);
+        }
+
+        void send(String frame) {
+            try {
+                sink.send(frame);
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Error sending pool state to client " + id + ": " + e.getMessage());
+                needsFull = true;
+            } finally {
+                endSend();
+            }
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.iit.TicketingSystem.websocket;
+
+/**
+ * Policy applied by {@link LogWebSocketHandler} to a client that cannot keep up with the log stream.
+ * Either way the client's outbound queue is bounded and the oldest entries are dropped when it fills.
+ */
+public enum SessionOverflowPolicy {
+    /** Send every queued entry as its own message, dropping the oldest entries when the queue is full. */
+    DROP_OLDEST,
+    /** Send everything queued for a lagging client as one multi-line message, dropping the oldest entries when the queue is full. */
+    COALESCE
+}
@@ -9,14 +9,14 @@ import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry
 @EnableWebSocket
 public class WebSocketConfig implements WebSocketConfigurer {
 
-    private final LogWebSocketHandler logWebSocketHandler;
+    private final LogEndpointHandler logEndpointHandler;
 
-    public WebSocketConfig(LogWebSocketHandler logWebSocketHandler) {
-        this.logWebSocketHandler = logWebSocketHandler;
+    public WebSocketConfig(LogEndpointHandler logEndpointHandler) {
+        this.logEndpointHandler = logEndpointHandler;
     }
 
     @Override
     public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
-        registry.addHandler(logWebSocketHandler, "/logs").setAllowedOrigins("*");
+        registry.addHandler(logEndpointHandler, "/logs").setAllowedOrigins("*");
     }
 }
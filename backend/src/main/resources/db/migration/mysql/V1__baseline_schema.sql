@@ -0,0 +1,11 @@
+-- Schema of the original release, as Hibernate generated it with ddl-auto=update
+create table configuration (
+    id bigint not null auto_increment,
+    total_tickets integer not null,
+    ticket_release_rate integer not null,
+    customer_retrieval_rate integer not null,
+    max_ticket_capacity integer not null,
+    num_vendors integer not null,
+    num_customers integer not null,
+    primary key (id)
+) engine=InnoDB;
@@ -0,0 +1,32 @@
+-- Configurations per event, fractional rates in seconds and the pool shard count
+alter table configuration
+    add column event_id varchar(255),
+    add column shard_count integer not null default 0,
+    modify column ticket_release_rate float(53) not null,
+    modify column customer_retrieval_rate float(53) not null;
+
+-- Ticket movements, with ids handed out in pooled blocks from an emulated sequence
+create table ticket_transaction_seq (next_val bigint) engine=InnoDB;
+insert into ticket_transaction_seq values (1);
+create table ticket_transaction (
+    id bigint not null,
+    event_id varchar(255),
+    ticket_id bigint not null,
+    type enum ('PURCHASE', 'RELEASE'),
+    actor varchar(255),
+    occurred_at datetime(6),
+    primary key (id)
+) engine=InnoDB;
+create index idx_ticket_transaction_event_ticket on ticket_transaction (event_id, ticket_id);
+
+-- Pool snapshots a restarted application resumes from
+create table pool_snapshot_seq (next_val bigint) engine=InnoDB;
+insert into pool_snapshot_seq values (1);
+create table pool_snapshot (
+    id bigint not null,
+    event_id varchar(255),
+    ticket_count integer not null,
+    max_ticket_capacity integer not null,
+    taken_at datetime(6),
+    primary key (id)
+) engine=InnoDB;
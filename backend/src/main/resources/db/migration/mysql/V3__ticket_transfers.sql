@@ -0,0 +1,3 @@
+-- Tickets moved between partitions' pools by a rebalance
+alter table ticket_transaction
+    modify column type enum ('PURCHASE', 'RELEASE', 'TRANSFER_IN', 'TRANSFER_OUT');
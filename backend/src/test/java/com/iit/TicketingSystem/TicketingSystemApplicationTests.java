@@ -2,8 +2,16 @@ package com.iit.TicketingSystem;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
 
-@SpringBootTest
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:ticketing;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+		"ticketing.journal.enabled=false",
+		//Build the schema from the versioned migrations and check it matches the entities, as the prod profile does
+		"spring.flyway.enabled=true",
+		"spring.jpa.hibernate.ddl-auto=validate"
+})
+@ActiveProfiles("embedded")
 class TicketingSystemApplicationTests {
 
 	@Test
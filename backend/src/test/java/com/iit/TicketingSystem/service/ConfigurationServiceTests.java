@@ -0,0 +1,48 @@
+package com.iit.TicketingSystem.service;
+
+import com.iit.TicketingSystem.model.Configuration;
+import com.iit.TicketingSystem.repository.ConfigurationRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ConfigurationServiceTests {
+
+	@Test
+	void lastConfigurationIsCachedUntilSaved() {
+		ConfigurationRepository repository = mock(ConfigurationRepository.class);
+		Configuration stored = new Configuration();
+		stored.setMaxTicketCapacity(10);
+		when(repository.findTopByEventIdOrderByIdDesc(null)).thenReturn(Optional.of(stored));
+		when(repository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+		ConfigurationService service = new ConfigurationService(repository);
+
+		Configuration loaded = service.loadLastConfiguration().orElseThrow();
+		assertEquals(10, loaded.getMaxTicketCapacity());
+		assertNotSame(stored, loaded);
+		String before = ConfigurationService.eTag(loaded);
+
+		//Changing a loaded copy reaches neither the cache nor its ETag
+		loaded.setMaxTicketCapacity(15);
+		Configuration reloaded = service.loadLastConfiguration(TicketPoolRegistry.DEFAULT_EVENT).orElseThrow();
+		assertEquals(10, reloaded.getMaxTicketCapacity());
+		assertEquals(before, ConfigurationService.eTag(reloaded));
+		verify(repository, times(1)).findTopByEventIdOrderByIdDesc(null);
+
+		Configuration update = new Configuration();
+		update.setMaxTicketCapacity(20);
+		service.saveConfiguration(update);
+		assertEquals(20, service.loadLastConfiguration().orElseThrow().getMaxTicketCapacity());
+		assertNotEquals(before, ConfigurationService.eTag(service.loadLastConfiguration().orElseThrow()));
+		verify(repository, times(2)).findTopByEventIdOrderByIdDesc(null);
+	}
+}
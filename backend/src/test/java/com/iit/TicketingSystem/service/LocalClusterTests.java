@@ -0,0 +1,92 @@
+package com.iit.TicketingSystem.service;
+
+import com.iit.TicketingSystem.model.BulkMode;
+import com.iit.TicketingSystem.websocket.LogWebSocketHandler;
+import com.iit.TicketingSystem.websocket.NoOpLogWebSocketHandler;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LocalClusterTests {
+
+	private final LogWebSocketHandler silentLogs = new NoOpLogWebSocketHandler();
+
+	@Test
+	void skewedDemandSellsOutEveryNodeWithoutOverselling() throws InterruptedException {
+		try (LocalCluster cluster = new LocalCluster(4, 4_000, 4_000, 2, 16, 5, silentLogs)) {
+			List<Long> sold = Collections.synchronizedList(new ArrayList<>());
+			List<Thread> buyers = new ArrayList<>();
+			//Only the first two nodes have customers; the others' stock has to move to them
+			for (int t = 0; t < 8; t++) {
+				ClusterNode node = cluster.getNodes().get(t % 2);
+				String customer = "Customer " + t;
+				int count = 1 + t % 3;
+				buyers.add(Thread.ofPlatform().start(() -> {
+					while (true) {
+						long[] ids = node.purchase(customer, count, BulkMode.PARTIAL, 0);
+						for (long id : ids) {
+							sold.add(id);
+						}
+						if (ids.length == 0 && cluster.getTicketCount() == 0) {
+							return;
+						}
+					}
+				}));
+			}
+			for (Thread buyer : buyers) {
+				buyer.join();
+			}
+
+			assertEquals(4_000, sold.size());
+			assertEquals(4_000, new HashSet<>(sold).size(), "a ticket was sold twice");
+			assertEquals(0, cluster.getTicketCount());
+			//Stock moved away from the nodes without customers is not counted as their sales
+			assertEquals(0, cluster.getNodes().get(2).getPool().getSoldTicketCount());
+			assertEquals(4_000, cluster.getNodes().stream().mapToLong(node -> node.getPool().getSoldTicketCount()).sum());
+		}
+	}
+
+	@Test
+	void lostNodeStrandsOnlyItsOwnStockUntilItReturns() {
+		try (LocalCluster cluster = new LocalCluster(3, 300, 300, 1, 10, 0, silentLogs)) {
+			ClusterNode first = cluster.getNodes().get(0);
+			ClusterNode lost = cluster.getNodes().get(2);
+			Set<Long> sold = new HashSet<>();
+			cluster.disconnect(lost.getNodeId());
+
+			//The other nodes sell everything but the lost node's share, which it keeps selling to its own customers
+			drain(first, sold);
+			assertEquals(200, sold.size());
+			assertFalse(cluster.getCoordinator().isUp(lost.getNodeId()));
+			for (long id : lost.purchase("Customer 3", 10, BulkMode.ALL_OR_NOTHING, 0)) {
+				assertTrue(sold.add(id));
+			}
+			assertEquals(0, first.purchase("Customer 1", 1, BulkMode.PARTIAL, 0).length);
+
+			//Once the node answers again its remaining stock is redistributed
+			cluster.reconnect(lost.getNodeId());
+			cluster.getCoordinator().rebalance(System.nanoTime());
+			assertTrue(cluster.getCoordinator().isUp(lost.getNodeId()));
+			drain(first, sold);
+			assertEquals(300, sold.size());
+			assertEquals(0, cluster.getTicketCount());
+		}
+	}
+
+	private static void drain(ClusterNode node, Set<Long> sold) {
+		long[] ids;
+		while ((ids = node.purchase("Customer 1", 4, BulkMode.PARTIAL, 0)).length > 0) {
+			for (long id : ids) {
+				assertTrue(sold.add(id), "ticket " + id + " was sold twice");
+			}
+		}
+	}
+}
@@ -0,0 +1,67 @@
+package com.iit.TicketingSystem.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PaddedCountersTests {
+
+	@Test
+	void everyCounterHasTwoCacheLinesToItself() {
+		PaddedCounters counters = new PaddedCounters(4);
+		assertTrue(PaddedCounters.slot(0) >= 16, "padding before the first counter");
+		for (int i = 1; i < 4; i++) {
+			assertEquals(16, PaddedCounters.slot(i) - PaddedCounters.slot(i - 1));
+		}
+		assertTrue(counters.length() - PaddedCounters.slot(3) > 16, "padding after the last counter");
+
+		for (int i = 0; i < 4; i++) {
+			counters.set(i, 10 * (i + 1));
+		}
+		for (int i = 0; i < 4; i++) {
+			assertEquals(10 * (i + 1), counters.get(i));
+		}
+	}
+
+	@Test
+	void updatesApplyToTheirOwnCounterOnly() {
+		PaddedCounters counters = new PaddedCounters(2);
+		assertEquals(5, counters.addAndGet(0, 5));
+		assertEquals(5, counters.getAndIncrement(0));
+		assertEquals(6, counters.get(0));
+		assertEquals(0, counters.get(1));
+
+		assertFalse(counters.compareAndSet(1, 6, 7));
+		assertTrue(counters.compareAndSet(1, 0, 3));
+		assertEquals(3, counters.get(1));
+		assertEquals(6, counters.get(0));
+	}
+
+	@Test
+	void concurrentUpdatesAreNotLost() throws InterruptedException {
+		PaddedCounters counters = new PaddedCounters(2);
+		List<Thread> threads = new ArrayList<>();
+		for (int t = 0; t < 4; t++) {
+			int counter = t % 2;
+			threads.add(Thread.ofPlatform().start(() -> {
+				for (int i = 0; i < 10_000; i++) {
+					long seen;
+					do {
+						seen = counters.get(counter);
+					} while (!counters.compareAndSet(counter, seen, seen + 1));
+					counters.addAndGet(counter, 1);
+				}
+			}));
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		assertEquals(40_000, counters.get(0));
+		assertEquals(40_000, counters.get(1));
+	}
+}
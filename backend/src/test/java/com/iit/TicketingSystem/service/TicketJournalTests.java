@@ -0,0 +1,125 @@
+package com.iit.TicketingSystem.service;
+
+import com.iit.TicketingSystem.model.BulkMode;
+import com.iit.TicketingSystem.websocket.NoOpLogWebSocketHandler;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.OptionalInt;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TicketJournalTests {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void reopenedJournalReplaysBalanceAcrossSegments() throws IOException {
+		TicketJournal journal = new TicketJournal(directory, 64, 16, 1);
+		assertTrue(journal.getRecoveredBalance().isEmpty());
+		journal.poolCreated(10);
+		for (int i = 0; i < 500; i++) {
+			journal.ticketsReleased("Vendor 1", new long[3]);
+			journal.ticketsPurchased("Customer 1", new long[2]);
+		}
+		journal.poolStopped();
+		journal.close();
+
+		TicketJournal reopened = new TicketJournal(directory, 64, 16, 1);
+		assertEquals(OptionalInt.of(510), reopened.getRecoveredBalance());
+		reopened.ticketsPurchased("Customer 1", new long[10]);
+		assertEquals(500, reopened.getBalance());
+		reopened.close();
+
+		try (Stream<Path> segments = Files.list(directory)) {
+			assertEquals(2, segments.count());
+		}
+	}
+
+	@Test
+	void recoveryStopsAtLastIntactRecordAfterCrash() {
+		TicketJournal journal = new TicketJournal(directory, 1024, 4096, 1);
+		journal.poolCreated(5);
+		journal.ticketsReleased("Vendor 1", new long[1]);
+		journal.ticketsPurchased("Customer 1", new long[2]);
+		journal.force(); //Simulate a crash: no close
+
+		TicketJournal recovered = new TicketJournal(directory, 1024, 4096, 1);
+		assertEquals(OptionalInt.of(4), recovered.getRecoveredBalance());
+		assertEquals(4, recovered.getNextSequence());
+		recovered.close();
+		journal.close();
+	}
+
+	@Test
+	void emptyNewestSegmentFallsBackToThePreviousOne() throws IOException {
+		TicketJournal journal = new TicketJournal(directory, 64, 16, 1);
+		journal.poolCreated(10);
+		journal.ticketsReleased("Vendor 1", new long[5]);
+		journal.ticketsPurchased("Customer 1", new long[3]);
+		long next = journal.getNextSequence();
+		journal.close();
+		//Simulate a crash after the next segment was created but before its checkpoint reached the disk
+		Files.write(directory.resolve(String.format("%020d.journal", next)), new byte[64 * TicketJournal.RECORD_SIZE]);
+
+		TicketJournal recovered = new TicketJournal(directory, 64, 16, 1);
+		assertEquals(OptionalInt.of(12), recovered.getRecoveredBalance());
+		recovered.ticketsPurchased("Customer 1", new long[2]);
+		recovered.close();
+
+		TicketJournal reopened = new TicketJournal(directory, 64, 16, 1);
+		assertEquals(OptionalInt.of(10), reopened.getRecoveredBalance());
+		reopened.close();
+	}
+
+	@Test
+	void journalWithoutAnyCheckpointRecoversNothing() throws IOException {
+		Files.write(directory.resolve(String.format("%020d.journal", 1)), new byte[64 * TicketJournal.RECORD_SIZE]);
+
+		TicketJournal recovered = new TicketJournal(directory, 64, 16, 1);
+		assertTrue(recovered.getRecoveredBalance().isEmpty());
+		recovered.close();
+	}
+
+	@Test
+	void transfersBetweenPoolsKeepBalancesAndSalesApart() {
+		NoOpLogWebSocketHandler silentLogs = new NoOpLogWebSocketHandler();
+		TicketPool donor = new TicketPool(40, 40, 4, false, 0, 2, silentLogs, TicketPoolMetrics.noop());
+		TicketPool recipient = new TicketPool(0, 10, 4, false, 1, 2, silentLogs, TicketPoolMetrics.noop());
+		TicketJournal donorJournal = new TicketJournal(directory.resolve("donor"), 64, 16, 1);
+		TicketJournal recipientJournal = new TicketJournal(directory.resolve("recipient"), 64, 16, 1);
+		donorJournal.poolCreated(40);
+		recipientJournal.poolCreated(0);
+		donor.setListener(donorJournal);
+		recipient.setListener(recipientJournal);
+
+		assertEquals(5, donor.purchaseTickets(5, BulkMode.ALL_OR_NOTHING, 0, TimeUnit.MILLISECONDS, "Customer 1")
+				.getFulfilled());
+		recipient.acceptTickets(donor.surrenderTickets(20, "recipient"), "donor");
+		assertEquals(15, donor.getTicketCount());
+		assertEquals(20, recipient.getTicketCount());
+		assertEquals(5, donor.getSoldTicketCount());
+		assertEquals(0, recipient.getSoldTicketCount());
+		assertEquals(15, donorJournal.getBalance());
+		assertEquals(20, recipientJournal.getBalance());
+
+		//Selling the accepted tickets frees their room for the recipient's vendors
+		assertEquals(20, recipient.purchaseTickets(20, BulkMode.ALL_OR_NOTHING, 0, TimeUnit.MILLISECONDS,
+				"Customer 2").getFulfilled());
+		for (int v = 0; v < 30; v++) {
+			assertEquals(1, recipient.releaseTickets(1, BulkMode.ALL_OR_NOTHING, 0, TimeUnit.MILLISECONDS,
+					"Vendor " + v).getFulfilled());
+		}
+		assertEquals(20, recipient.getSoldTicketCount());
+		assertEquals(30, recipientJournal.getBalance());
+		donorJournal.close();
+		recipientJournal.close();
+	}
+}
@@ -0,0 +1,72 @@
+package com.iit.TicketingSystem.service;
+
+import com.iit.TicketingSystem.model.TicketTransaction;
+import com.iit.TicketingSystem.model.TicketTransactionType;
+import com.iit.TicketingSystem.repository.PoolSnapshotRepository;
+import com.iit.TicketingSystem.repository.TicketTransactionRepository;
+import com.iit.TicketingSystem.websocket.NoOpLogWebSocketHandler;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TicketPersistenceServiceTests {
+
+	@Test
+	void poolOperationsAreWrittenInBatchesOnClose() {
+		TicketTransactionRepository transactions = mock(TicketTransactionRepository.class);
+		List<TicketTransaction> saved = new ArrayList<>();
+		when(transactions.saveAll(anyList())).thenAnswer(invocation -> {
+			saved.addAll(invocation.getArgument(0));
+			return List.of();
+		});
+		TicketPersistenceService persistence = new TicketPersistenceService(transactions,
+				mock(PoolSnapshotRepository.class), true, 1024, 4, 10);
+		persistence.start();
+
+		TicketPool pool = new TicketPool(0, 10, new NoOpLogWebSocketHandler());
+		pool.setListener(persistence.listenerFor("concert"));
+		for (int i = 0; i < 5; i++) {
+			pool.addTickets(1, "Vendor 1");
+		}
+		pool.removeTickets(3, "Customer 1");
+		persistence.close();
+
+		verify(transactions, atLeastOnce()).saveAll(anyList());
+		assertEquals(8, persistence.getWrittenTransactionCount());
+		assertEquals(5, saved.stream().filter(t -> t.getType() == TicketTransactionType.RELEASE).count());
+		assertEquals(3, saved.stream().filter(t -> t.getType() == TicketTransactionType.PURCHASE).count());
+		assertEquals("concert", saved.get(0).getEventId());
+	}
+
+	@Test
+	void databaseOutageDropsTransactionsInsteadOfBlockingThePool() {
+		TicketTransactionRepository transactions = mock(TicketTransactionRepository.class);
+		when(transactions.saveAll(anyList())).thenThrow(new IllegalStateException("database down"));
+		TicketPersistenceService persistence = new TicketPersistenceService(transactions,
+				mock(PoolSnapshotRepository.class), true, 4, 1, 10);
+		persistence.start();
+
+		TicketPool pool = new TicketPool(0, 10, new NoOpLogWebSocketHandler());
+		pool.setListener(persistence.listenerFor("concert"));
+		assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+			for (int i = 0; i < 1_000; i++) {
+				pool.addTickets(1, "Vendor 1");
+				pool.removeTickets(1, "Customer 1");
+			}
+		});
+		assertTrue(persistence.getDroppedTransactionCount() > 0);
+		persistence.close();
+		assertEquals(0, persistence.getWrittenTransactionCount());
+	}
+}
@@ -0,0 +1,374 @@
+package com.iit.TicketingSystem.service;
+
+import com.iit.TicketingSystem.model.BulkMode;
+import com.iit.TicketingSystem.model.BulkTicketResult;
+import com.iit.TicketingSystem.websocket.LogWebSocketHandler;
+import com.iit.TicketingSystem.websocket.NoOpLogWebSocketHandler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TicketPoolTests {
+
+	private final LogWebSocketHandler silentLogs = new NoOpLogWebSocketHandler();
+
+	@Test
+	void addAndRemoveUpdateCount() {
+		TicketPool pool = new TicketPool(5, 10, silentLogs);
+		pool.addTickets(3, "Vendor 1");
+		assertEquals(8, pool.getTicketCount());
+
+		pool.removeTickets(2, "Customer 1");
+		assertEquals(6, pool.getTicketCount());
+	}
+
+	@Test
+	void removeTakesWhatIsAvailable() {
+		TicketPool pool = new TicketPool(2, 10, silentLogs);
+		assertEquals(2, pool.removeTickets(5, "Customer 1"));
+		assertEquals(0, pool.getTicketCount());
+	}
+
+	@Test
+	void allOrNothingPurchaseTimesOutWithoutTakingAnything() {
+		TicketPool pool = new TicketPool(3, 10, silentLogs);
+		BulkTicketResult result = pool.purchaseTickets(5, BulkMode.ALL_OR_NOTHING, 50, TimeUnit.MILLISECONDS, "Group");
+		assertEquals(0, result.getFulfilled());
+		assertEquals(3, pool.getTicketCount());
+
+		result = pool.purchaseTickets(3, BulkMode.ALL_OR_NOTHING, 0, TimeUnit.MILLISECONDS, "Group");
+		assertTrue(result.isComplete());
+		assertArrayEquals(new long[]{1, 2, 3}, result.getTicketIds());
+	}
+
+	@Test
+	void partialBulkOperationsTakeWhatFits() {
+		TicketPool pool = new TicketPool(8, 10, silentLogs);
+		BulkTicketResult released = pool.releaseTickets(5, BulkMode.PARTIAL, 0, TimeUnit.MILLISECONDS, "Vendor 1");
+		assertEquals(2, released.getFulfilled());
+		assertEquals(10, pool.getTicketCount());
+
+		BulkTicketResult purchased = pool.purchaseTickets(12, BulkMode.PARTIAL, 0, TimeUnit.MILLISECONDS, "Group");
+		assertEquals(10, purchased.getFulfilled());
+		assertFalse(purchased.isComplete());
+	}
+
+	@Test
+	void allOrNothingPurchaseWaitsForFullBatch() throws InterruptedException {
+		TicketPool pool = new TicketPool(1, 10, silentLogs);
+		Thread vendor = new Thread(() -> {
+			for (int i = 0; i < 3; i++) {
+				pool.addTickets(1, "Vendor 1");
+			}
+		});
+		vendor.start();
+		BulkTicketResult result = pool.purchaseTickets(4, BulkMode.ALL_OR_NOTHING, 5, TimeUnit.SECONDS, "Group");
+		vendor.join();
+		assertTrue(result.isComplete());
+		assertEquals(0, pool.getTicketCount());
+	}
+
+	@Test
+	void shardedPoolStealsAndGathersAcrossShards() {
+		TicketPool pool = new TicketPool(0, 40, 4, silentLogs, TicketPoolMetrics.noop());
+		assertEquals(4, pool.getShardCount());
+		pool.releaseTickets(40, BulkMode.ALL_OR_NOTHING, 0, TimeUnit.MILLISECONDS, "Vendor 1");
+		assertEquals(40, pool.getTicketCount());
+		assertFalse(pool.tryAddTickets(1, "Vendor 2"));
+
+		BulkTicketResult result = pool.purchaseTickets(40, BulkMode.ALL_OR_NOTHING, 0, TimeUnit.MILLISECONDS, "Group");
+		assertTrue(result.isComplete());
+		assertEquals(40, Arrays.stream(result.getTicketIds()).distinct().count());
+		assertEquals(0, pool.getTicketCount());
+	}
+
+	@Test
+	void addBlocksAtCapacityUntilSpaceIsFreed() throws InterruptedException {
+		TicketPool pool = new TicketPool(2, 2, silentLogs);
+		CountDownLatch added = new CountDownLatch(1);
+		Thread vendor = new Thread(() -> {
+			pool.addTickets(1, "Vendor 1");
+			added.countDown();
+		});
+		vendor.start();
+
+		assertFalse(added.await(100, TimeUnit.MILLISECONDS));
+		pool.removeTickets(1, "Customer 1");
+		assertTrue(added.await(5, TimeUnit.SECONDS));
+		assertEquals(2, pool.getTicketCount());
+	}
+
+	@Test
+	void removeBlocksWhenEmptyUntilTicketsArrive() throws InterruptedException {
+		TicketPool pool = new TicketPool(0, 5, silentLogs);
+		CountDownLatch purchased = new CountDownLatch(1);
+		Thread customer = new Thread(() -> {
+			pool.removeTickets(1, "Customer 1");
+			purchased.countDown();
+		});
+		customer.start();
+
+		assertFalse(purchased.await(100, TimeUnit.MILLISECONDS));
+		pool.addTickets(1, "Vendor 1");
+		assertTrue(purchased.await(5, TimeUnit.SECONDS));
+		assertEquals(0, pool.getTicketCount());
+	}
+
+	@Test
+	void concurrentVendorsAndCustomersKeepCountConsistent() throws InterruptedException {
+		TicketPool pool = new TicketPool(0, 64, silentLogs);
+		int workers = 8;
+		int opsPerWorker = 5_000;
+		List<Thread> threads = new ArrayList<>();
+		for (int i = 0; i < workers; i++) {
+			threads.add(new Thread(() -> {
+				for (int j = 0; j < opsPerWorker; j++) {
+					pool.addTickets(1, "Vendor");
+				}
+			}));
+			threads.add(new Thread(() -> {
+				for (int j = 0; j < opsPerWorker; j++) {
+					pool.removeTickets(1, "Customer");
+				}
+			}));
+		}
+		threads.forEach(Thread::start);
+		for (Thread thread : threads) {
+			thread.join(TimeUnit.SECONDS.toMillis(30));
+			assertFalse(thread.isAlive());
+		}
+		assertEquals(0, pool.getTicketCount());
+	}
+
+	@Test
+	void virtualThreadModeServesManyCustomers() throws InterruptedException {
+		int customers = 5_000;
+		TicketPool pool = new TicketPool(customers, customers, silentLogs);
+		pool.startTicketingSystem(0, customers, 1, 60, ExecutionMode.VIRTUAL);
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+		while (pool.getTicketCount() > 0 && System.nanoTime() < deadline) {
+			Thread.sleep(10);
+		}
+		pool.stopTicketingSystem();
+		assertEquals(0, pool.getTicketCount());
+	}
+
+	@Test
+	void scheduledModeIssuesFractionalRates() {
+		AtomicLong clock = new AtomicLong();
+		ActorScheduler scheduler = new ActorScheduler(0, 1000, clock::get);
+		TicketPool pool = new TicketPool(0, 100_000, silentLogs);
+		pool.setSchedulerFactory(() -> scheduler);
+		pool.startTicketingSystem(4, 0, 0.005, 1, ExecutionMode.SCHEDULED);
+		tick(scheduler, clock, 1_000);
+		RateReport vendors = pool.getRateReports().get(0);
+		assertEquals(800.0, vendors.getTargetRate(), 0.001);
+		assertTrue(Math.abs(vendors.getDriftPercent()) < 1, "drift " + vendors.getDriftPercent());
+
+		//Retired vendors leave the report and the rate change is measured from the moment it was made
+		pool.reconfigure(100_000, 2, 0, 0.0025, 1);
+		tick(scheduler, clock, 500);
+		vendors = pool.getRateReports().get(0);
+		assertEquals(800.0, vendors.getTargetRate(), 0.001);
+		assertTrue(Math.abs(vendors.getDriftPercent()) < 1, "drift " + vendors.getDriftPercent());
+
+		//A vendor added later is measured from its own start
+		pool.reconfigure(100_000, 3, 0, 0.0025, 1);
+		tick(scheduler, clock, 500);
+		vendors = pool.getRateReports().get(0);
+		pool.stopTicketingSystem();
+		assertEquals(1200.0, vendors.getTargetRate(), 0.001);
+		assertTrue(Math.abs(vendors.getDriftPercent()) < 1, "drift " + vendors.getDriftPercent());
+	}
+
+	private static void tick(ActorScheduler scheduler, AtomicLong clock, int ticks) {
+		for (int i = 0; i < ticks; i++) {
+			clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(1));
+			scheduler.tickAll();
+		}
+	}
+
+	@Test
+	void removeWithDeadlineGivesUpOnEmptyPool() {
+		TicketPool pool = new TicketPool(0, 5, silentLogs);
+		assertEquals(0, pool.removeTickets(1, "Customer 1", 20, TimeUnit.MILLISECONDS));
+		assertFalse(pool.addTickets(6, "Vendor 1", 0, TimeUnit.MILLISECONDS));
+		assertEquals(0, pool.getTicketCount());
+	}
+
+	@Test
+	void fairPoolServesWaitingCustomersInArrivalOrder() throws InterruptedException {
+		TicketPool pool = new TicketPool(0, 5, 1, true, silentLogs, TicketPoolMetrics.noop());
+		List<String> served = Collections.synchronizedList(new ArrayList<>());
+		List<Thread> customers = new ArrayList<>();
+		for (int i = 1; i <= 3; i++) {
+			String name = "Customer " + i;
+			Thread customer = new Thread(() -> {
+				if (pool.removeTickets(1, name) == 1) {
+					served.add(name);
+				}
+			});
+			customer.start();
+			customers.add(customer);
+			Thread.sleep(50);
+		}
+
+		for (Thread customer : customers) {
+			pool.addTickets(1, "Vendor 1");
+			customer.join(5_000);
+		}
+		assertEquals(List.of("Customer 1", "Customer 2", "Customer 3"), served);
+		assertEquals(0, pool.tryRemoveTickets(1, "Customer 4"));
+	}
+
+	@Test
+	void heldTicketsReturnOnReleaseOrExpiryAndFreeCapacityOnConfirm() throws InterruptedException {
+		TicketPool pool = new TicketPool(5, 5, silentLogs);
+		TicketHold confirmed = pool.holdTickets(2, BulkMode.ALL_OR_NOTHING, 0, TimeUnit.MILLISECONDS, "Customer 1", 1, TimeUnit.HOURS).orElseThrow();
+		TicketHold released = pool.holdTickets(1, BulkMode.ALL_OR_NOTHING, 0, TimeUnit.MILLISECONDS, "Customer 2", 1, TimeUnit.HOURS).orElseThrow();
+		TicketHold expiring = pool.holdTickets(2, BulkMode.ALL_OR_NOTHING, 0, TimeUnit.MILLISECONDS, "Customer 3", 50, TimeUnit.MILLISECONDS).orElseThrow();
+		assertEquals(0, pool.getTicketCount());
+		assertEquals(5, pool.getHeldTicketCount());
+		assertFalse(pool.addTickets(1, "Vendor 1", 0, TimeUnit.MILLISECONDS)); //Held tickets keep their capacity
+
+		assertTrue(pool.releaseHold(released.getId()));
+		assertFalse(pool.releaseHold(released.getId()));
+		assertEquals(1, pool.getTicketCount());
+		long deadline = System.currentTimeMillis() + 5_000;
+		while (pool.getTicketCount() < 3 && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+		assertEquals(3, pool.getTicketCount());
+		assertTrue(pool.confirmHold(expiring.getId()).isEmpty());
+
+		assertArrayEquals(confirmed.getTicketIds(), pool.confirmHold(confirmed.getId()).orElseThrow().getTicketIds());
+		assertEquals(0, pool.getHeldTicketCount());
+		assertTrue(pool.addTickets(2, "Vendor 1", 0, TimeUnit.MILLISECONDS));
+		assertEquals(5, pool.getTicketCount());
+	}
+
+	@Test
+	void parkedPurchasesAreServedWithoutThreadsAndTimeOutEmpty() throws Exception {
+		TicketPool pool = new TicketPool(0, 100, 4, false, silentLogs, TicketPoolMetrics.noop());
+		List<CompletableFuture<BulkTicketResult>> purchases = new ArrayList<>();
+		int threadsBefore = Thread.activeCount();
+		for (int i = 0; i < 20_000; i++) {
+			purchases.add(pool.purchaseTicketsAsync(1, BulkMode.ALL_OR_NOTHING, 1, TimeUnit.MINUTES, "Customer " + i));
+		}
+		CompletableFuture<BulkTicketResult> late = pool.purchaseTicketsAsync(1, BulkMode.ALL_OR_NOTHING, 50,
+				TimeUnit.MILLISECONDS, "Late");
+		assertEquals(20_001, pool.getPendingRequestCount());
+		assertTrue(Thread.activeCount() <= threadsBefore + 1, "only the timing wheel thread may be started");
+
+		//Fill the pool, then keep releasing as parked purchases free the capacity
+		CompletableFuture<BulkTicketResult> release = pool.releaseTicketsAsync(150, BulkMode.PARTIAL, 0,
+				TimeUnit.MILLISECONDS, "Vendor 1");
+		assertEquals(100, release.get().getFulfilled());
+		for (int released = 100; released < 20_000; ) {
+			released += pool.releaseTickets(Math.min(100, 20_000 - released), BulkMode.PARTIAL, 0,
+					TimeUnit.MILLISECONDS, "Vendor 1").getFulfilled();
+		}
+		Set<Long> ticketIds = new HashSet<>();
+		for (CompletableFuture<BulkTicketResult> purchase : purchases) {
+			BulkTicketResult result = purchase.get(5, TimeUnit.SECONDS);
+			assertTrue(result.isComplete());
+			ticketIds.add(result.getTicketIds()[0]);
+		}
+		assertEquals(20_000, ticketIds.size());
+		assertEquals(0, late.get(5, TimeUnit.SECONDS).getFulfilled());
+		assertEquals(0, pool.getPendingRequestCount());
+		assertEquals(0, pool.getTicketCount());
+	}
+
+	@Test
+	void timedOutPurchasesBehindABlockedHeadAreUnlinked() throws Exception {
+		TicketPool pool = new TicketPool(0, 100, 4, false, silentLogs, TicketPoolMetrics.noop());
+		CompletableFuture<BulkTicketResult> head = pool.purchaseTicketsAsync(5, BulkMode.ALL_OR_NOTHING, 1,
+				TimeUnit.MINUTES, "Head");
+		List<CompletableFuture<BulkTicketResult>> purchases = new ArrayList<>();
+		for (int i = 0; i < 2_000; i++) {
+			purchases.add(pool.purchaseTicketsAsync(1, BulkMode.ALL_OR_NOTHING, 20, TimeUnit.MILLISECONDS,
+					"Customer " + i));
+		}
+		for (CompletableFuture<BulkTicketResult> purchase : purchases) {
+			assertEquals(0, purchase.get(5, TimeUnit.SECONDS).getFulfilled());
+		}
+		assertEquals(1, pool.getPendingRequestCount());
+		assertTrue(pool.getQueuedRequestCount() <= 66, "timed-out purchases must not pile up behind the head");
+
+		assertEquals(5, pool.releaseTickets(5, BulkMode.ALL_OR_NOTHING, 0, TimeUnit.MILLISECONDS, "Vendor 1")
+				.getFulfilled());
+		assertTrue(head.get(5, TimeUnit.SECONDS).isComplete());
+		assertEquals(0, pool.getQueuedRequestCount());
+	}
+
+	@Test
+	void capacityActorsAndRatesChangeWhileRunning() {
+		AtomicLong clock = new AtomicLong();
+		ActorScheduler scheduler = new ActorScheduler(0, 1000, clock::get);
+		TicketPool pool = new TicketPool(4, 4, 2, silentLogs, TicketPoolMetrics.noop());
+		pool.setSchedulerFactory(() -> scheduler);
+		pool.resize(2);
+		assertEquals(4, pool.getTicketCount());
+		assertFalse(pool.addTickets(1, "Vendor 1", 0, TimeUnit.MILLISECONDS));
+		assertEquals(3, pool.removeTickets(3, "Customer 1"));
+		assertTrue(pool.addTickets(1, "Vendor 1", 0, TimeUnit.MILLISECONDS));
+		assertFalse(pool.addTickets(1, "Vendor 1", 0, TimeUnit.MILLISECONDS));
+
+		//A vendor kept out of a full pool is let in by growing it past the original ring
+		pool.startTicketingSystem(1, 0, 0.001, 1, ExecutionMode.SCHEDULED);
+		tick(scheduler, clock, 100);
+		assertEquals(2, pool.getTicketCount());
+		pool.reconfigure(40, 3, 2, 0.001, 0.5);
+		tick(scheduler, clock, 300);
+		assertEquals(3, pool.getVendors().size());
+		assertEquals(2, pool.getCustomers().size());
+		assertEquals("Vendor 3", pool.getVendors().get(2).getName());
+		assertTrue(pool.getTicketCount() > 30, "count " + pool.getTicketCount());
+
+		pool.reconfigure(40, 1, 0, 0.25, 0.5);
+		assertEquals(1, pool.getVendors().size());
+		assertEquals(0, pool.getCustomers().size());
+		assertEquals(0.25, pool.getVendors().get(0).getIntervalSeconds(), 0.0);
+		pool.stopTicketingSystem();
+
+		int count = pool.getTicketCount();
+		assertTrue(count <= 40, "count " + count);
+		assertEquals(count, pool.removeTickets(count, "Customer 1"));
+		assertEquals(0, pool.getTicketCount());
+	}
+
+	@Test
+	void actorsAndWaitsAreRecordedInMetrics() throws InterruptedException {
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		TicketPool pool = new TicketPool(0, 10, silentLogs, new TicketPoolMetrics(registry));
+		pool.purchaseTickets(1, BulkMode.PARTIAL, 20, TimeUnit.MILLISECONDS, "Group");
+		pool.startTicketingSystem(1, 0, 0.001, 1, ExecutionMode.SCHEDULED);
+		Thread.sleep(200);
+		pool.stopTicketingSystem();
+
+		assertEquals(10, registry.get("ticketing.pool.tickets").gauge().value());
+		assertEquals(10, registry.get("ticketing.tickets.released").tag("vendor", "Vendor 1").counter().count());
+		assertEquals(1, registry.get("ticketing.pool.wait").tag("reason", "pool_empty").timer().count());
+
+		TicketPoolMetrics metrics = new TicketPoolMetrics(registry);
+		metrics.recordApiTickets(false, 3);
+		metrics.recordApiTickets(false, 2);
+		assertEquals(5, registry.get("ticketing.tickets.purchased").tag("customer", "api").counter().count());
+	}
+}
@@ -0,0 +1,61 @@
+package com.iit.TicketingSystem.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimingWheelTests {
+
+	private static class CountingTimeout extends TimingWheel.Timeout {
+		private final long[] now;
+		private final int[] expired;
+		private volatile boolean settled;
+
+		CountingTimeout(long deadlineNanos, long[] now, int[] expired) {
+			super(deadlineNanos);
+			this.now = now;
+			this.expired = expired;
+		}
+
+		@Override
+		boolean isSettled() {
+			return settled;
+		}
+
+		@Override
+		void expire() {
+			assertTrue(now[0] >= getDeadlineNanos(), "expired early");
+			assertTrue(now[0] - getDeadlineNanos() <= TimeUnit.MILLISECONDS.toNanos(2), "expired late");
+			expired[0]++;
+		}
+	}
+
+	@Test
+	void expiresEveryTimeoutOnTimeAcrossLevels() {
+		TimingWheel wheel = new TimingWheel(1, TimeUnit.MILLISECONDS);
+		long start = System.nanoTime();
+		long tick = TimeUnit.MILLISECONDS.toNanos(1);
+		long[] now = {start};
+		int[] expired = {0};
+		int timeouts = 100_000;
+		CountingTimeout cancelled = null;
+		for (int i = 0; i < timeouts; i++) {
+			//Spread deadlines over 70,000 ticks so they cascade down from the second and third levels
+			CountingTimeout timeout = new CountingTimeout(start + (i * 7L % 70_000) * tick, now, expired);
+			wheel.schedule(timeout);
+			if (i == 12_345) {
+				cancelled = timeout;
+			}
+		}
+		cancelled.settled = true;
+
+		for (long t = 0; t <= 70_002; t++) {
+			now[0] = start + t * tick;
+			wheel.advance(now[0]);
+		}
+		assertEquals(timeouts - 1, expired[0]);
+	}
+}
@@ -0,0 +1,57 @@
+package com.iit.TicketingSystem.service;
+
+import com.iit.TicketingSystem.websocket.LogWebSocketHandler;
+import com.iit.TicketingSystem.websocket.NoOpLogWebSocketHandler;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class VendorAutoscalerTests {
+
+	private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+	private final LogWebSocketHandler silentLogs = new NoOpLogWebSocketHandler();
+
+	@Test
+	void growsWhileStarvedBacksOffAtCapacityAndFollowsDemand() {
+		AtomicLong clock = new AtomicLong();
+		ActorScheduler scheduler = new ActorScheduler(0, 1000, clock::get);
+		TicketPool pool = new TicketPool(0, 10, silentLogs);
+		pool.setSchedulerFactory(() -> scheduler);
+		VendorAutoscaler autoscaler = new VendorAutoscaler(pool, silentLogs, 1, 4, 0.1, 2, 1, 0.5, 0.3, 0.9);
+		//Vendor 1 adds its first ticket on the only tick the scheduler is given
+		pool.startTicketingSystem(1, 0, 1_000, 1, ExecutionMode.SCHEDULED);
+		clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(1));
+		scheduler.tickAll();
+		assertEquals(1, pool.getTicketCount());
+		long now = clock.get();
+		autoscaler.adjust(now);
+
+		//Additive increase while the pool is under the low watermark, adding a vendor once the rate cap is reached
+		autoscaler.adjust(now + SECOND);
+		assertEquals(1, pool.getVendors().size());
+		assertEquals(1.001, 1 / pool.getVendors().get(0).getIntervalSeconds(), 1e-9);
+		autoscaler.adjust(now + 2 * SECOND);
+		assertEquals(2, pool.getVendors().size());
+		assertEquals(2.001, autoscaler.getSupplyRate(), 1e-9);
+
+		//Multiplicative decrease while the pool is full
+		while (pool.addTickets(1, "Box office", 0, TimeUnit.MILLISECONDS)) {
+		}
+		autoscaler.adjust(now + 3 * SECOND);
+		assertEquals(2, pool.getVendors().size());
+		assertEquals(1.0005, autoscaler.getSupplyRate(), 1e-9);
+
+		//Selling out at 10 tickets a second lifts the release rate to the demand, capped at four vendors
+		assertEquals(10, pool.removeTickets(10, "Box office"));
+		autoscaler.adjust(now + 4 * SECOND);
+		assertEquals(10, autoscaler.getDemandRate(), 1e-9);
+		assertEquals(4, pool.getVendors().size());
+		assertEquals("Vendor 4", pool.getVendors().get(3).getName());
+		assertEquals(0.5, pool.getVendors().get(0).getIntervalSeconds(), 1e-9);
+		pool.stopTicketingSystem();
+	}
+}
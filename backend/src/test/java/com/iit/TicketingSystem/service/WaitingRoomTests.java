@@ -0,0 +1,58 @@
+package com.iit.TicketingSystem.service;
+
+import com.iit.TicketingSystem.websocket.NoOpLogWebSocketHandler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WaitingRoomTests {
+
+	@Test
+	void admitsBurstThenQueuesAndShedsBeyondMaxLength() {
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		WaitingRoom room = new WaitingRoom(10, 2, 4, new TicketPoolMetrics(registry));
+
+		QueuePosition first = room.join(Long.MAX_VALUE);
+		QueuePosition second = room.join(Long.MAX_VALUE);
+		QueuePosition third = room.join(Long.MAX_VALUE);
+		assertEquals(0, first.getEstimatedWaitMillis());
+		assertEquals(0, second.getEstimatedWaitMillis());
+		assertEquals(3, third.getPosition());
+		assertTrue(third.getEstimatedWaitMillis() > 0 && third.getEstimatedWaitMillis() <= 100);
+
+		//A caller unwilling to wait is turned away without taking a slot
+		assertFalse(room.join(TimeUnit.MILLISECONDS.toNanos(10)).isAccepted());
+		assertFalse(room.tryEnter());
+		assertTrue(room.join(Long.MAX_VALUE).isAccepted());
+		QueuePosition shed = room.join(Long.MAX_VALUE);
+		assertFalse(shed.isAccepted());
+		assertTrue(shed.getEstimatedWaitMillis() > 0);
+		assertEquals(4, room.getQueueLength());
+
+		assertTrue(room.await(first));
+		assertTrue(room.await(third));
+		assertEquals(2, room.getQueueLength());
+		assertEquals(2, registry.get("ticketing.waitingroom.arrivals").tag("outcome", "rejected").counter().count());
+	}
+
+	@Test
+	void scheduledCustomersPollingAnEmptyPoolSpendNoAdmissions() {
+		TicketPool pool = new TicketPool(0, 10, new NoOpLogWebSocketHandler());
+		WaitingRoom room = new WaitingRoom(1, 1, 4, TicketPoolMetrics.noop());
+		pool.setWaitingRoom(room);
+		Customer customer = new Customer(pool, 0.001, "Customer 1");
+		for (int i = 0; i < 100; i++) {
+			assertEquals(0, customer.tryOperate());
+		}
+		assertEquals(0, room.estimate().getEstimatedWaitMillis());
+
+		pool.addTickets(1, "Vendor 1");
+		assertEquals(1, customer.tryOperate());
+		assertFalse(room.tryEnter());
+	}
+}
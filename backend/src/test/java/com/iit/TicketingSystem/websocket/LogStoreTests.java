@@ -0,0 +1,81 @@
+package com.iit.TicketingSystem.websocket;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LogStoreTests {
+
+	private static final long START = 1_700_000_000_000L;
+
+	@TempDir
+	Path tempDir;
+
+	@Test
+	void rotatesCompressesAndAnswersRangeQueriesAfterRestart() throws IOException {
+		LogStore store = new LogStore(tempDir.toString(), 4096, 1, 16, 0);
+		List<LogRecord> batch = new ArrayList<>();
+		for (int i = 0; i < 3_000; i++) {
+			String actor = "Customer " + (i % 10);
+			batch.add(new LogRecord(START + i * 100L, actor, actor + " purchased a ticket.\tRemaining tickets: " + i));
+			if (batch.size() == 100) {
+				store.append(batch);
+				batch.clear();
+			}
+		}
+		store.close();
+
+		LogStore reopened = new LogStore(tempDir.toString(), 4096, 1, 16, 0);
+		List<LogRecord> range = reopened.query(START + 100_000, START + 109_900, null, null, 1_000).records();
+		assertEquals(100, range.size());
+		assertEquals(START + 100_000, range.get(0).timestampMillis());
+		assertEquals("Customer 0 purchased a ticket.\tRemaining tickets: 1000", range.get(0).message());
+		reopened.close();
+
+		try (Stream<Path> files = Files.list(tempDir)) {
+			List<String> names = files.map(f -> f.getFileName().toString()).toList();
+			assertTrue(names.stream().filter(n -> n.endsWith(".log.gz")).count() > 1, "segments should rotate and compress");
+			assertTrue(names.stream().noneMatch(n -> n.endsWith(".log")), "every sealed segment should be compressed");
+		}
+	}
+
+	@Test
+	void pagesThroughOneActorsRecords() throws IOException {
+		LogStore store = new LogStore(tempDir.toString(), 2048, 60, 8, 0);
+		List<LogRecord> batch = new ArrayList<>();
+		for (int i = 0; i < 1_000; i++) {
+			batch.add(new LogRecord(START + i, i % 50 == 0 ? "Vendor 1" : "Customer " + (i % 7), "entry " + i));
+		}
+		store.append(batch);
+		store.append(List.of(new LogRecord(START + 1_000, null, "Ticketing system stopped.")));
+
+		List<String> messages = new ArrayList<>();
+		String cursor = null;
+		int pages = 0;
+		do {
+			LogPage page = store.query(0, Long.MAX_VALUE, "Vendor 1", cursor, 3);
+			page.records().forEach(r -> messages.add(r.message()));
+			cursor = page.nextCursor();
+			pages++;
+		} while (cursor != null);
+
+		assertEquals(20, messages.size());
+		assertEquals("entry 0", messages.get(0));
+		assertEquals("entry 950", messages.get(19));
+		assertTrue(pages >= 7);
+		LogPage last = store.query(START + 1_000, Long.MAX_VALUE, null, null, 10);
+		assertEquals(1, last.records().size());
+		assertNull(last.records().get(0).actor());
+		store.close();
+	}
+}
@@ -0,0 +1,119 @@
+package com.iit.TicketingSystem.websocket;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LogWebSocketHandlerTests {
+
+	@TempDir
+	Path tempDir;
+
+	@Test
+	void writesEveryPublishedLogInOrder() throws IOException {
+		LogWebSocketHandler handler = new LogWebSocketHandler(tempDir.resolve("logs").toString(), 1024, 16, LogOverflowPolicy.BLOCK);
+		for (int i = 0; i < 500; i++) {
+			handler.addLog("entry " + i);
+		}
+		handler.close();
+
+		List<String> lines = storedMessages(handler);
+		assertEquals(500, lines.size());
+		assertEquals("entry 0", lines.get(0));
+		assertEquals("entry 499", lines.get(499));
+		assertEquals(0, handler.getDroppedLogCount());
+	}
+
+	@Test
+	void dropPoliciesAccountForEveryEntry() throws IOException {
+		LogWebSocketHandler handler = new LogWebSocketHandler(tempDir.resolve("dropped").toString(), 4, 4, LogOverflowPolicy.DROP_OLDEST);
+		for (int i = 0; i < 10_000; i++) {
+			handler.addLog("entry " + i);
+		}
+		handler.close();
+
+		long written = storedMessages(handler).size();
+		assertEquals(10_000, written + handler.getDroppedLogCount());
+	}
+
+	@Test
+	void structuredEventsAreFormattedForSinksThatAcceptTheirLevel() throws IOException {
+		LogWebSocketHandler handler = new LogWebSocketHandler(new LogStore(tempDir.resolve("structured").toString()), 1024, 16,
+				LogOverflowPolicy.BLOCK, 8, SessionOverflowPolicy.DROP_OLDEST, 5_000, 1, LogLevel.INFO, LogLevel.OFF);
+		assertFalse(handler.isEnabled(LogEventKind.TICKETS_ADDED));
+		handler.log(LogEventKind.TICKETS_ADDED, "Vendor 1", 3, 10);
+		handler.log(LogEventKind.WAITING_FOR_STOCK, "Customer 2", 1, 0);
+		handler.log(LogEventKind.HOLD_EXPIRED, "Customer 3", 2, 12, 7);
+		handler.close();
+
+		List<String> lines = storedMessages(handler);
+		assertEquals(List.of("Customer 2: No tickets available. Waiting...",
+				"Hold #7 for Customer 3 expired. Total ticket count: 12"), lines);
+	}
+
+	@Test
+	void slowClientDoesNotHoldUpOtherClients() throws Exception {
+		LogWebSocketHandler handler = new LogWebSocketHandler(tempDir.resolve("fanout").toString(), 1024, 16,
+				LogOverflowPolicy.BLOCK, 8, SessionOverflowPolicy.DROP_OLDEST, 60_000, 2);
+		CountDownLatch release = new CountDownLatch(1);
+		WebSocketSession slow = session("slow");
+		doAnswer(invocation -> {
+			release.await();
+			return null;
+		}).when(slow).sendMessage(any());
+		WebSocketSession fast = session("fast");
+		AtomicInteger received = new AtomicInteger();
+		doAnswer(invocation -> {
+			received.incrementAndGet();
+			return null;
+		}).when(fast).sendMessage(any(TextMessage.class));
+		handler.afterConnectionEstablished(slow);
+		handler.afterConnectionEstablished(fast);
+
+		for (int i = 0; i < 200; i++) {
+			handler.addLog("entry " + i);
+		}
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		//The fast client may be served before the stalled client's queue overflows, so wait for both
+		while ((received.get() == 0 || handler.getDroppedSessionLogCount() == 0) && System.nanoTime() < deadline) {
+			Thread.sleep(10);
+		}
+		assertTrue(received.get() > 0);
+		assertTrue(handler.getDroppedSessionLogCount() > 0, "the stalled client should have dropped entries");
+
+		handler.afterConnectionClosed(slow, CloseStatus.NORMAL);
+		assertEquals(1, handler.getSessionCount());
+		release.countDown();
+		handler.close();
+	}
+
+	private static List<String> storedMessages(LogWebSocketHandler handler) throws IOException {
+		return handler.getLogStore().query(0, Long.MAX_VALUE, null, null, Integer.MAX_VALUE).records().stream()
+				.map(LogRecord::message)
+				.toList();
+	}
+
+	private static WebSocketSession session(String id) {
+		WebSocketSession session = mock(WebSocketSession.class);
+		when(session.getId()).thenReturn(id);
+		when(session.isOpen()).thenReturn(true);
+		return session;
+	}
+}
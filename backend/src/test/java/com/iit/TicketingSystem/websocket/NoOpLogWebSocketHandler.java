@@ -0,0 +1,26 @@
+package com.iit.TicketingSystem.websocket;
+
+/**
+ * Log handler stand-in that discards every entry, for tests, benchmarks and load tests that exercise the pool.
+ * It keeps no history on disk and never starts the writer or sender threads.
+ */
+public class NoOpLogWebSocketHandler extends LogWebSocketHandler {
+
+	public NoOpLogWebSocketHandler() {
+		super(new LogStore(""), 2, 1, LogOverflowPolicy.DROP_NEWEST, 1, SessionOverflowPolicy.DROP_OLDEST, 0, 1,
+				LogLevel.OFF, LogLevel.OFF);
+	}
+
+	@Override
+	public void addLog(String log) {
+	}
+
+	@Override
+	public boolean isEnabled(LogEventKind kind) {
+		return false;
+	}
+
+	@Override
+	public void log(LogEventKind kind, String actor, int count, int total, long holdId) {
+	}
+}
@@ -0,0 +1,66 @@
+package com.iit.TicketingSystem.websocket;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.iit.TicketingSystem.service.TicketPool;
+import com.iit.TicketingSystem.service.TicketPoolRegistry;
+import com.iit.TicketingSystem.service.TicketingEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PoolStateWebSocketHandlerTests {
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	@Test
+	void subscriberGetsFullFrameThenOnlyChanges() throws Exception {
+		TicketPool pool = new TicketPool(5, 10, new NoOpLogWebSocketHandler());
+		TicketingEvent event = mock(TicketingEvent.class);
+		when(event.getEventId()).thenReturn("default");
+		when(event.getTicketPool()).thenReturn(pool);
+		TicketPoolRegistry registry = mock(TicketPoolRegistry.class);
+		when(registry.getEvents()).thenReturn(List.of(event));
+
+		PoolStateWebSocketHandler handler = new PoolStateWebSocketHandler(registry, objectMapper, 50, 1);
+		BlockingQueue<String> frames = new LinkedBlockingQueue<>();
+		WebSocketSession session = mock(WebSocketSession.class);
+		when(session.getId()).thenReturn("viewer");
+		when(session.isOpen()).thenReturn(true);
+		doAnswer(invocation -> frames.add(((TextMessage) invocation.getArgument(0)).getPayload()))
+				.when(session).sendMessage(any());
+		handler.afterConnectionEstablished(session);
+
+		handler.tick();
+		JsonNode full = objectMapper.readTree(frames.poll(5, TimeUnit.SECONDS));
+		assertTrue(full.get("full").asBoolean());
+		assertEquals(5, full.at("/events/default/count").asInt());
+
+		Thread.sleep(50); //Let the sender finish the previous frame, or the delta is replaced by a resync
+		pool.addTickets(2, "Vendor 1");
+		handler.tick();
+		JsonNode delta = objectMapper.readTree(frames.poll(5, TimeUnit.SECONDS));
+		assertFalse(delta.get("full").asBoolean());
+		assertEquals(full.get("v").asLong() + 1, delta.get("v").asLong());
+		assertEquals(7, delta.at("/events/default/count").asInt());
+		assertTrue(delta.at("/events/default/running").isMissingNode());
+
+		handler.tick(); //Nothing changed, nothing sent
+		assertNull(frames.poll(200, TimeUnit.MILLISECONDS));
+		handler.close();
+	}
+}
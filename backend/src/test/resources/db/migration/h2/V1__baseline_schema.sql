@@ -0,0 +1,11 @@
+-- H2 counterpart of db/migration/mysql, so the migrations are validated against the entities in tests
+create table configuration (
+    id bigint generated by default as identity,
+    total_tickets integer not null,
+    ticket_release_rate integer not null,
+    customer_retrieval_rate integer not null,
+    max_ticket_capacity integer not null,
+    num_vendors integer not null,
+    num_customers integer not null,
+    primary key (id)
+);
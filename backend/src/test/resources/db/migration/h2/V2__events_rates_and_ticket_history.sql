@@ -0,0 +1,26 @@
+alter table configuration add column event_id varchar(255);
+alter table configuration add column shard_count integer default 0 not null;
+alter table configuration alter column ticket_release_rate set data type float(53);
+alter table configuration alter column customer_retrieval_rate set data type float(53);
+
+create sequence ticket_transaction_seq start with 1 increment by 500;
+create table ticket_transaction (
+    id bigint not null,
+    event_id varchar(255),
+    ticket_id bigint not null,
+    type enum ('PURCHASE', 'RELEASE'),
+    actor varchar(255),
+    occurred_at timestamp(6) with time zone,
+    primary key (id)
+);
+create index idx_ticket_transaction_event_ticket on ticket_transaction (event_id, ticket_id);
+
+create sequence pool_snapshot_seq start with 1 increment by 50;
+create table pool_snapshot (
+    id bigint not null,
+    event_id varchar(255),
+    ticket_count integer not null,
+    max_ticket_capacity integer not null,
+    taken_at timestamp(6) with time zone,
+    primary key (id)
+);
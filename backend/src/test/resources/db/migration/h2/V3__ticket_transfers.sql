@@ -0,0 +1,2 @@
+-- Tickets moved between partitions' pools by a rebalance
+alter table ticket_transaction alter column type set data type enum ('PURCHASE', 'RELEASE', 'TRANSFER_IN', 'TRANSFER_OUT');